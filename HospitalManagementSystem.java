@@ -3,11 +3,40 @@ import javax.swing.border.*;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Date;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
 import java.util.logging.*;
+import java.util.zip.GZIPOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 
 /**
  * Hospital Management System
@@ -108,15 +137,26 @@ public class HospitalManagementSystem {
     static class DatabaseConfig {
         private static final Logger LOGGER = Logger.getLogger(DatabaseConfig.class.getName());
         private static DatabaseConfig instance;
-        private Connection connection;
+        private final ConnectionPool pool;
         
         // Database connection parameters - modify these to match your MySQL setup
-        private static final String DB_URL = "jdbc:mysql://localhost:3306/hospital_management";
+        private static final String DB_URL = "jdbc:mysql://localhost:3306/hospital_management" +
+                "?useServerPrepStmts=true&rewriteBatchedStatements=true";
         private static final String DB_USER = "root";
         private static final String DB_PASSWORD = "PASSWORD";
         
+        // Connection pool settings - override with -Dhms.pool.* system properties
+        private static final int MIN_POOL_SIZE = Integer.getInteger("hms.pool.minSize", 2);
+        private static final int MAX_POOL_SIZE = Integer.getInteger("hms.pool.maxSize", 10);
+        private static final long IDLE_TIMEOUT_MILLIS = Long.getLong("hms.pool.idleTimeoutMillis", 5 * 60 * 1000L);
+        private static final long ACQUIRE_TIMEOUT_MILLIS = Long.getLong("hms.pool.acquireTimeoutMillis", 10 * 1000L);
+        private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("hms.pool.statementCacheSize", 64);
+        
         private DatabaseConfig() {
             // Private constructor for singleton pattern
+            this.pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD,
+                    MIN_POOL_SIZE, MAX_POOL_SIZE, IDLE_TIMEOUT_MILLIS, ACQUIRE_TIMEOUT_MILLIS,
+                    STATEMENT_CACHE_SIZE);
         }
         
         public static synchronized DatabaseConfig getInstance() {
@@ -126,30 +166,635 @@ public class HospitalManagementSystem {
             return instance;
         }
         
+        /**
+         * Borrow a connection from the pool. Closing the returned connection
+         * hands it back to the pool instead of closing the socket.
+         */
         public Connection getConnection() throws SQLException {
-            if (connection == null || connection.isClosed()) {
+            return pool.borrow();
+        }
+        
+        /**
+         * Get the maximum number of connections the pool will open
+         */
+        public int getMaxPoolSize() {
+            return MAX_POOL_SIZE;
+        }
+        
+        /**
+         * Get a snapshot of the pool usage and wait metrics
+         */
+        public PoolStats getPoolStats() {
+            return pool.getStats();
+        }
+        
+        /**
+         * Close every pooled connection
+         */
+        public void closeConnection() {
+            LOGGER.log(Level.INFO, "Shutting down connection pool: {0}", pool.getStats());
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Bounded JDBC connection pool. Connections are handed out as proxies whose
+     * close() returns the physical connection to the pool, and each physical
+     * connection keeps its own prepared statement cache.
+     */
+    static class ConnectionPool {
+        private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+        
+        // Skip the validation round trip for connections used this recently
+        private static final long VALIDATION_BYPASS_MILLIS = 500;
+        private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+        private static final long HOUSEKEEPING_INTERVAL_MILLIS = 30 * 1000L;
+        
+        private final String url;
+        private final String user;
+        private final String password;
+        private final int minSize;
+        private final int maxSize;
+        private final long idleTimeoutMillis;
+        private final long acquireTimeoutMillis;
+        private final int statementCacheSize;
+        
+        // Most recently returned connections are reused first so the tail can go idle
+        private final LinkedBlockingDeque<PooledConnection> idle =
+                new LinkedBlockingDeque<>();
+        private final Semaphore permits;
+        private final AtomicInteger totalConnections =
+                new AtomicInteger();
+        private final ScheduledExecutorService housekeeper;
+        private volatile boolean shutdown = false;
+        
+        // Metrics
+        private final LongAdder borrowCount = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder timeoutCount = new LongAdder();
+        private final LongAdder createdCount = new LongAdder();
+        private final LongAdder evictedCount = new LongAdder();
+        private final LongAdder statementHits = new LongAdder();
+        private final LongAdder statementMisses = new LongAdder();
+        private final LongAdder statementEvictions = new LongAdder();
+        
+        public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                              long idleTimeoutMillis, long acquireTimeoutMillis, int statementCacheSize) {
+            if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+            }
+            this.url = url;
+            this.user = user;
+            this.password = password;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+            this.statementCacheSize = statementCacheSize;
+            this.permits = new Semaphore(maxSize, true);
+            
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "connection-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            housekeeper.execute(this::fillToMinimum);
+            housekeeper.scheduleWithFixedDelay(this::evictIdle, HOUSEKEEPING_INTERVAL_MILLIS,
+                    HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        
+        /**
+         * Borrow a connection, waiting up to the acquire timeout for one to free up
+         */
+        public Connection borrow() throws SQLException {
+            if (shutdown) {
+                throw new SQLException("Connection pool has been shut down");
+            }
+            
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    timeoutCount.increment();
+                    throw new java.sql.SQLTransientConnectionException(
+                            "Timed out after " + acquireTimeoutMillis + " ms waiting for a database connection");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            recordWait(System.nanoTime() - start);
+            
+            try {
+                PooledConnection pooled;
+                while ((pooled = idle.pollFirst()) != null) {
+                    if (isUsable(pooled)) {
+                        return pooled.lease();
+                    }
+                    discard(pooled);
+                }
+                return createConnection().lease();
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        
+        /**
+         * Return a connection to the pool, resetting any transaction state
+         */
+        void release(PooledConnection pooled) {
+            try {
+                if (shutdown || pooled.physical.isClosed()) {
+                    discard(pooled);
+                    return;
+                }
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Discarding connection that could not be reset", e);
+                discard(pooled);
+            } finally {
+                permits.release();
+            }
+        }
+        
+        /**
+         * Get a snapshot of the pool metrics
+         */
+        public PoolStats getStats() {
+            int total = totalConnections.get();
+            int idleCount = idle.size();
+            return new PoolStats(total, Math.max(0, total - idleCount), idleCount, maxSize,
+                    permits.getQueueLength(), borrowCount.sum(), waitNanos.sum(), maxWaitNanos.get(),
+                    timeoutCount.sum(), createdCount.sum(), evictedCount.sum(),
+                    statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+        }
+        
+        /**
+         * Close all idle connections; borrowed connections are closed when returned
+         */
+        public void shutdown() {
+            shutdown = true;
+            housekeeper.shutdownNow();
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                discard(pooled);
+            }
+        }
+        
+        private boolean isUsable(PooledConnection pooled) {
+            if (System.currentTimeMillis() - pooled.lastUsed < VALIDATION_BYPASS_MILLIS) {
+                return true;
+            }
+            try {
+                return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        
+        private PooledConnection createConnection() throws SQLException {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                LOGGER.log(Level.SEVERE, "MySQL JDBC Driver not found", e);
+                throw new SQLException("MySQL JDBC Driver not found", e);
+            }
+            
+            Connection physical = DriverManager.getConnection(url, user, password);
+            totalConnections.incrementAndGet();
+            createdCount.increment();
+            return new PooledConnection(this, physical, statementCacheSize);
+        }
+        
+        private void discard(PooledConnection pooled) {
+            totalConnections.decrementAndGet();
+            try {
+                pooled.physical.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+            }
+        }
+        
+        void recordStatementHit() {
+            statementHits.increment();
+        }
+        
+        void recordStatementMiss() {
+            statementMisses.increment();
+        }
+        
+        void recordStatementEviction() {
+            statementEvictions.increment();
+        }
+        
+        private void recordWait(long nanos) {
+            borrowCount.increment();
+            waitNanos.add(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+        
+        private void fillToMinimum() {
+            try {
+                while (!shutdown && totalConnections.get() < minSize && permits.tryAcquire()) {
+                    try {
+                        PooledConnection pooled = createConnection();
+                        pooled.lastUsed = System.currentTimeMillis();
+                        idle.offerLast(pooled);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not pre-fill connection pool", e);
+            }
+        }
+        
+        private void evictIdle() {
+            long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+            // The deque is ordered most recently used first, so stale connections sit at the tail
+            PooledConnection pooled;
+            while (totalConnections.get() > minSize && (pooled = idle.pollLast()) != null) {
+                if (pooled.lastUsed > cutoff) {
+                    idle.offerLast(pooled);
+                    break;
+                }
+                evictedCount.increment();
+                discard(pooled);
+            }
+            fillToMinimum();
+        }
+    }
+    
+    /**
+     * A physical connection owned by the pool
+     */
+    static class PooledConnection {
+        final ConnectionPool pool;
+        final Connection physical;
+        final StatementCache statementCache;
+        volatile long lastUsed;
+        
+        PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize) {
+            this.pool = pool;
+            this.physical = physical;
+            this.statementCache = new StatementCache(pool, physical, statementCacheSize);
+            this.lastUsed = System.currentTimeMillis();
+        }
+        
+        /**
+         * Wrap the physical connection in a proxy for a single borrower
+         */
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new LeaseHandler());
+        }
+        
+        private class LeaseHandler implements InvocationHandler {
+            private boolean returned = false;
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            pool.release(PooledConnection.this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + physical + "]";
+                    default:
+                        break;
+                }
+                
+                if (returned) {
+                    throw new SQLException("Connection has already been returned to the pool");
+                }
+                
+                // Plain and generated-key prepares are served from the statement cache
+                if ("prepareStatement".equals(method.getName())) {
+                    if (args.length == 1) {
+                        return statementCache.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (args.length == 2 && method.getParameterTypes()[1] == int.class) {
+                        return statementCache.prepare((String) args[0], (Integer) args[1]);
+                    }
+                }
                 try {
-                    Class.forName("com.mysql.cj.jdbc.Driver");
-                    connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                } catch (ClassNotFoundException e) {
-                    LOGGER.log(Level.SEVERE, "MySQL JDBC Driver not found", e);
-                    throw new SQLException("MySQL JDBC Driver not found", e);
+                    Object result = method.invoke(physical, args);
+                    if (result instanceof Statement) {
+                        // Uncached statements still take part in query timeouts and cancellation
+                        return QueryScope.track((Statement) result, method.getReturnType());
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+    
+    /**
+     * LRU cache of prepared statements for one physical connection, keyed by SQL
+     * text. Cached statements are handed out as proxies whose close() clears
+     * parameters and keeps the statement open for the next caller.
+     */
+    static class StatementCache {
+        private final ConnectionPool pool;
+        private final Connection physical;
+        private final Map<String, CachedStatement> statements;
+        
+        StatementCache(ConnectionPool pool, Connection physical, int maxSize) {
+            this.pool = pool;
+            this.physical = physical;
+            this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= maxSize) {
+                        return false;
+                    }
+                    pool.recordStatementEviction();
+                    eldest.getValue().evict();
+                    return true;
                 }
+            };
+        }
+        
+        /**
+         * Get a prepared statement for the SQL, reusing a cached one when possible
+         */
+        PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K|" + sql : sql;
+            CachedStatement cached = statements.get(key);
+            
+            if (cached != null && !cached.inUse) {
+                pool.recordStatementHit();
+                return cached.checkout();
+            }
+            
+            pool.recordStatementMiss();
+            PreparedStatement stmt = physical.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                // Same SQL is already open on this connection (nested use); don't cache the second copy
+                return (PreparedStatement) QueryScope.track(stmt, PreparedStatement.class);
             }
-            return connection;
+            
+            cached = new CachedStatement(stmt);
+            statements.put(key, cached);
+            return cached.checkout();
+        }
+    }
+    
+    /**
+     * A prepared statement owned by a StatementCache
+     */
+    static class CachedStatement {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        boolean inUse = false;
+        private boolean evicted = false;
+        
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    this::invoke);
         }
         
-        public void closeConnection() {
-            if (connection != null) {
+        PreparedStatement checkout() {
+            inUse = true;
+            return proxy;
+        }
+        
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+        
+        private Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        inUse = false;
+                        if (evicted) {
+                            closeQuietly();
+                        } else {
+                            statement.clearParameters();
+                            statement.clearBatch();
+                            statement.setQueryTimeout(0);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return QueryScope.invoke(statement, method, args);
+        }
+        
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Statement is being discarded anyway
+            }
+        }
+    }
+    
+    /**
+     * Query timeout and cancellation for the statements executed by one
+     * background task. The scope is bound to the task's thread; every pooled
+     * statement executed on that thread gets the timeout and can be cancelled
+     * from another thread with Statement.cancel.
+     */
+    static class QueryScope {
+        private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+        
+        private final int timeoutSeconds;
+        private final Set<Statement> executing = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled = false;
+        
+        public QueryScope(int timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+        
+        /**
+         * Bind this scope to the current thread
+         */
+        public void enter() {
+            CURRENT.set(this);
+        }
+        
+        /**
+         * Unbind this scope from the current thread
+         */
+        public void exit() {
+            CURRENT.remove();
+        }
+        
+        /**
+         * Get the scope bound to the current thread, or null if there is none
+         */
+        public static QueryScope current() {
+            return CURRENT.get();
+        }
+        
+        /**
+         * Cancel any statement currently executing in this scope and refuse new ones
+         */
+        public void cancel() {
+            cancelled = true;
+            for (Statement statement : executing) {
                 try {
-                    connection.close();
+                    statement.cancel();
                 } catch (SQLException e) {
-                    LOGGER.log(Level.WARNING, "Error closing database connection", e);
+                    // The statement may have just finished; nothing left to cancel
+                }
+            }
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        /**
+         * Wrap a statement so its executions honour the current thread's scope
+         */
+        static Object track(Statement statement, Class<?> statementInterface) {
+            return Proxy.newProxyInstance(
+                    statementInterface.getClassLoader(),
+                    new Class<?>[] { statementInterface },
+                    (proxy, method, args) -> invoke(statement, method, args));
+        }
+        
+        /**
+         * Invoke a statement method, applying the scope to executions
+         */
+        static Object invoke(Statement statement, Method method, Object[] args) throws Throwable {
+            QueryScope scope = CURRENT.get();
+            boolean execution = method.getName().startsWith("execute");
+            
+            if (scope != null && execution) {
+                if (scope.cancelled) {
+                    throw new SQLException("Query cancelled", "70100");
+                }
+                if (scope.timeoutSeconds > 0) {
+                    statement.setQueryTimeout(scope.timeoutSeconds);
+                }
+                scope.executing.add(statement);
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (scope != null && execution) {
+                    scope.executing.remove(statement);
                 }
             }
         }
     }
     
+    /**
+     * Immutable snapshot of connection pool metrics
+     */
+    static class PoolStats {
+        private final int totalConnections;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int maxConnections;
+        private final int waitingThreads;
+        private final long borrowCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeoutCount;
+        private final long createdCount;
+        private final long evictedCount;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+        
+        public PoolStats(int totalConnections, int activeConnections, int idleConnections, int maxConnections,
+                         int waitingThreads, long borrowCount, long totalWaitNanos, long maxWaitNanos,
+                         long timeoutCount, long createdCount, long evictedCount,
+                         long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+            this.totalConnections = totalConnections;
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.maxConnections = maxConnections;
+            this.waitingThreads = waitingThreads;
+            this.borrowCount = borrowCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeoutCount = timeoutCount;
+            this.createdCount = createdCount;
+            this.evictedCount = evictedCount;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+        
+        // Getters
+        public int getTotalConnections() { return totalConnections; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getMaxConnections() { return maxConnections; }
+        public int getWaitingThreads() { return waitingThreads; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getEvictedCount() { return evictedCount; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+        public long getStatementCacheEvictions() { return statementCacheEvictions; }
+        
+        public double getStatementCacheHitRate() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+        }
+        
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+        
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("total=%d active=%d idle=%d max=%d waiting=%d borrows=%d " +
+                    "avgWait=%.2fms maxWait=%.2fms timeouts=%d created=%d evicted=%d " +
+                    "stmtHits=%d stmtMisses=%d stmtEvictions=%d",
+                    totalConnections, activeConnections, idleConnections, maxConnections, waitingThreads,
+                    borrowCount, getAverageWaitMillis(), getMaxWaitMillis(), timeoutCount,
+                    createdCount, evictedCount, statementCacheHits, statementCacheMisses,
+                    statementCacheEvictions);
+        }
+    }
+    
     //==========================================================================
     // MODELS
     //==========================================================================
@@ -217,6 +862,19 @@ public class HospitalManagementSystem {
             this.registrationDate = new Date();
         }
         
+        // Copy constructor
+        public Patient(Patient other) {
+            this.patientId = other.patientId;
+            this.firstName = other.firstName;
+            this.lastName = other.lastName;
+            this.dateOfBirth = other.dateOfBirth == null ? null : (Date) other.dateOfBirth.clone();
+            this.gender = other.gender;
+            this.contactNumber = other.contactNumber;
+            this.email = other.email;
+            this.address = other.address;
+            this.registrationDate = other.registrationDate == null ? null : (Date) other.registrationDate.clone();
+        }
+        
         // Getters and setters
         public int getPatientId() { return patientId; }
         public void setPatientId(int patientId) { this.patientId = patientId; }
@@ -252,49 +910,167 @@ public class HospitalManagementSystem {
         
         // Calculate age based on date of birth
         public int getAge() {
-            if (dateOfBirth == null) {
+            // java.sql.Date does not support toInstant(), so convert through it
+            return ageOn(dateOfBirth == null ? null : new java.sql.Date(dateOfBirth.getTime()).toLocalDate(),
+                    LocalDate.now());
+        }
+        
+        /**
+         * Age in whole years on the given day of someone born on dateOfBirth,
+         * or 0 if the date of birth is unknown
+         */
+        static int ageOn(LocalDate dateOfBirth, LocalDate day) {
+            if (dateOfBirth == null || dateOfBirth.isAfter(day)) {
                 return 0;
             }
-            
-            Date now = new Date();
-            long diffInMillis = now.getTime() - dateOfBirth.getTime();
-            return (int) (diffInMillis / (1000L * 60 * 60 * 24 * 365));
+            return java.time.Period.between(dateOfBirth, day).getYears();
         }
     }
     
     /**
-     * Appointment model class
+     * The columns of a patient shown in list views. Lists load these instead
+     * of full patients; the address and registration date are only read when
+     * a patient is opened.
      */
-    static class Appointment {
-        private int appointmentId;
-        private int patientId;
+    record PatientSummary(int patientId, String firstName, String lastName, LocalDate dateOfBirth,
+                          String gender, String contactNumber, String email) {
+        
+        /**
+         * Age in whole years today
+         */
+        public int age() {
+            return Patient.ageOn(dateOfBirth, LocalDate.now());
+        }
+    }
+    
+    /**
+     * Doctor model class
+     */
+    static class Doctor {
         private int doctorId;
-        private Date appointmentTime;
-        private String status;
-        private String purpose;
-        private String notes;
+        private String firstName;
+        private String lastName;
+        private String specialization;
+        private String contactNumber;
+        private String email;
+        private Integer userId;
         
         // Getters and setters
-        public int getAppointmentId() { return appointmentId; }
-        public void setAppointmentId(int appointmentId) { this.appointmentId = appointmentId; }
-        
-        public int getPatientId() { return patientId; }
-        public void setPatientId(int patientId) { this.patientId = patientId; }
-        
         public int getDoctorId() { return doctorId; }
         public void setDoctorId(int doctorId) { this.doctorId = doctorId; }
         
-        public Date getAppointmentTime() { return appointmentTime; }
-        public void setAppointmentTime(Date appointmentTime) { this.appointmentTime = appointmentTime; }
+        public String getFirstName() { return firstName; }
+        public void setFirstName(String firstName) { this.firstName = firstName; }
         
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
+        public String getLastName() { return lastName; }
+        public void setLastName(String lastName) { this.lastName = lastName; }
         
-        public String getPurpose() { return purpose; }
+        public String getSpecialization() { return specialization; }
+        public void setSpecialization(String specialization) { this.specialization = specialization; }
+        
+        public String getContactNumber() { return contactNumber; }
+        public void setContactNumber(String contactNumber) { this.contactNumber = contactNumber; }
+        
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+        
+        public Integer getUserId() { return userId; }
+        public void setUserId(Integer userId) { this.userId = userId; }
+        
+        @Override
+        public String toString() {
+            return "Dr. " + firstName + " " + lastName;
+        }
+    }
+    
+    /**
+     * A free appointment slot of a doctor
+     */
+    static class DoctorSlot {
+        private final Doctor doctor;
+        private final Date start;
+        private final int durationMinutes;
+        
+        public DoctorSlot(Doctor doctor, Date start, int durationMinutes) {
+            this.doctor = doctor;
+            this.start = start;
+            this.durationMinutes = durationMinutes;
+        }
+        
+        // Getters
+        public Doctor getDoctor() { return doctor; }
+        public Date getStart() { return start; }
+        public int getDurationMinutes() { return durationMinutes; }
+    }
+    
+    /**
+     * Appointment model class
+     */
+    static class Appointment {
+        public static final String STATUS_SCHEDULED = "Scheduled";
+        public static final String STATUS_COMPLETED = "Completed";
+        public static final String STATUS_CANCELLED = "Cancelled";
+        public static final int DEFAULT_DURATION_MINUTES = 30;
+        
+        private int appointmentId;
+        private int patientId;
+        private int doctorId;
+        private Date appointmentTime;
+        private int durationMinutes;
+        private String status;
+        private String purpose;
+        private String notes;
+        
+        // Default constructor
+        public Appointment() {
+            this.durationMinutes = DEFAULT_DURATION_MINUTES;
+            this.status = STATUS_SCHEDULED;
+        }
+        
+        // Parameterized constructor
+        public Appointment(int patientId, int doctorId, Date appointmentTime, int durationMinutes, String purpose) {
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.appointmentTime = appointmentTime;
+            this.durationMinutes = durationMinutes;
+            this.status = STATUS_SCHEDULED;
+            this.purpose = purpose;
+        }
+        
+        // Getters and setters
+        public int getAppointmentId() { return appointmentId; }
+        public void setAppointmentId(int appointmentId) { this.appointmentId = appointmentId; }
+        
+        public int getPatientId() { return patientId; }
+        public void setPatientId(int patientId) { this.patientId = patientId; }
+        
+        public int getDoctorId() { return doctorId; }
+        public void setDoctorId(int doctorId) { this.doctorId = doctorId; }
+        
+        public Date getAppointmentTime() { return appointmentTime; }
+        public void setAppointmentTime(Date appointmentTime) { this.appointmentTime = appointmentTime; }
+        
+        public int getDurationMinutes() { return durationMinutes; }
+        public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+        
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        
+        public String getPurpose() { return purpose; }
         public void setPurpose(String purpose) { this.purpose = purpose; }
         
         public String getNotes() { return notes; }
         public void setNotes(String notes) { this.notes = notes; }
+        
+        // The appointment ends this many milliseconds after the epoch
+        public long getEndMillis() {
+            return appointmentTime.getTime() + TimeUnit.MINUTES.toMillis(durationMinutes);
+        }
+        
+        // Cancelled appointments no longer hold their slot
+        public boolean holdsSlot() {
+            return !STATUS_CANCELLED.equalsIgnoreCase(status);
+        }
     }
     
     /**
@@ -319,6 +1095,15 @@ public class HospitalManagementSystem {
             this.treatment = treatment;
         }
         
+        // Copy constructor
+        public Disease(Disease other) {
+            this.diseaseId = other.diseaseId;
+            this.name = other.name;
+            this.description = other.description;
+            this.symptoms = other.symptoms;
+            this.treatment = other.treatment;
+        }
+        
         // Getters and setters
         public int getDiseaseId() { return diseaseId; }
         public void setDiseaseId(int diseaseId) { this.diseaseId = diseaseId; }
@@ -386,102 +1171,726 @@ public class HospitalManagementSystem {
         public void setStatus(String status) { this.status = status; }
     }
     
+    /**
+     * MedicalRecord model class - one visit of a patient to a doctor
+     */
+    static class MedicalRecord {
+        private int recordId;
+        private int patientId;
+        private int doctorId;
+        private Date recordDate;
+        private String diagnosis;
+        private String treatment;
+        private String notes;
+        // Read-only, filled in when records are loaded
+        private String doctorName;
+        
+        // Default constructor
+        public MedicalRecord() {
+            this.recordDate = new Date();
+        }
+        
+        // Parameterized constructor
+        public MedicalRecord(int patientId, int doctorId, Date recordDate, String diagnosis, String treatment, String notes) {
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.recordDate = recordDate;
+            this.diagnosis = diagnosis;
+            this.treatment = treatment;
+            this.notes = notes;
+        }
+        
+        // Getters and setters
+        public int getRecordId() { return recordId; }
+        public void setRecordId(int recordId) { this.recordId = recordId; }
+        
+        public int getPatientId() { return patientId; }
+        public void setPatientId(int patientId) { this.patientId = patientId; }
+        
+        public int getDoctorId() { return doctorId; }
+        public void setDoctorId(int doctorId) { this.doctorId = doctorId; }
+        
+        public Date getRecordDate() { return recordDate; }
+        public void setRecordDate(Date recordDate) { this.recordDate = recordDate; }
+        
+        public String getDiagnosis() { return diagnosis; }
+        public void setDiagnosis(String diagnosis) { this.diagnosis = diagnosis; }
+        
+        public String getTreatment() { return treatment; }
+        public void setTreatment(String treatment) { this.treatment = treatment; }
+        
+        public String getNotes() { return notes; }
+        public void setNotes(String notes) { this.notes = notes; }
+        
+        public String getDoctorName() { return doctorName; }
+        public void setDoctorName(String doctorName) { this.doctorName = doctorName; }
+    }
+    
+    /**
+     * A patient's diagnosis as listed in the patient diseases screen. Holds
+     * only the displayed columns; the disease's description, symptoms and
+     * treatment are looked up by diseaseId when needed.
+     */
+    record PatientDiagnosisRow(int patientDiseaseId, int patientId, int diseaseId, String diseaseName,
+                               LocalDateTime diagnosisDate, String status, String notes) {
+    }
+    
+    /**
+     * Kinds of event in a patient's history. Declaration order breaks ties
+     * between events of different kinds at the same moment.
+     */
+    enum HistorySource {
+        APPOINTMENT("Appointment"),
+        MEDICAL_RECORD("Medical record"),
+        DIAGNOSIS("Diagnosis");
+        
+        private final String label;
+        
+        HistorySource(String label) {
+            this.label = label;
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    /**
+     * One event in a patient's unified history: an appointment, a medical
+     * record or a diagnosis. Ordered newest first by time, then source, then
+     * the source row's ID descending.
+     */
+    record PatientHistoryEntry(HistorySource source, long timeMillis, int sourceId, String title, String detail) {
+        static final Comparator<PatientHistoryEntry> NEWEST_FIRST = Comparator
+                .comparingLong(PatientHistoryEntry::timeMillis).reversed()
+                .thenComparing(PatientHistoryEntry::source)
+                .thenComparing(Comparator.comparingInt(PatientHistoryEntry::sourceId).reversed());
+    }
+    
+    /**
+     * One page of results from a keyset-paginated query. The cursor is an
+     * opaque token that continues the listing after the last item.
+     */
+    static class Page<T> {
+        private final List<T> items;
+        private final String nextCursor;
+        
+        public Page(List<T> items, String nextCursor) {
+            this.items = Collections.unmodifiableList(items);
+            this.nextCursor = nextCursor;
+        }
+        
+        // Getters
+        public List<T> getItems() { return items; }
+        public String getNextCursor() { return nextCursor; }
+        
+        public boolean hasMore() {
+            return nextCursor != null;
+        }
+    }
+    
+    /**
+     * A patient returned by a fuzzy name search, with its match score from 0
+     * (no match) to 1 (exact)
+     */
+    static class PatientMatch {
+        private final PatientSummary patient;
+        private final double score;
+        
+        public PatientMatch(PatientSummary patient, double score) {
+            this.patient = patient;
+            this.score = score;
+        }
+        
+        // Getters
+        public PatientSummary getPatient() { return patient; }
+        public double getScore() { return score; }
+    }
+    
+    /**
+     * Growable list of primitive ints, used for id collections that would
+     * otherwise box every element
+     */
+    static class IntList {
+        private int[] values;
+        private int size;
+        
+        public IntList() {
+            this(16);
+        }
+        
+        public IntList(int initialCapacity) {
+            this.values = new int[Math.max(1, initialCapacity)];
+        }
+        
+        public void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        public int get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+            return values[index];
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        public boolean isEmpty() {
+            return size == 0;
+        }
+        
+        public void removeLast() {
+            if (size == 0) {
+                throw new NoSuchElementException("List is empty");
+            }
+            size--;
+        }
+        
+        /**
+         * Remove the first occurrence of a value, keeping the order of the rest
+         */
+        public boolean removeValue(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        public void clear() {
+            size = 0;
+        }
+        
+        public int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+    
     //==========================================================================
     // REPOSITORIES (DATA ACCESS)
     //==========================================================================
     
     /**
-     * User repository for database operations
+     * Maps result set rows to entities by column position. The mapper names
+     * the columns it reads; their positions are looked up by label from the
+     * ResultSetMetaData once per SQL string and reused for every later row
+     * and execution of that statement.
      */
-    static class UserRepository {
-        private static final Logger LOGGER = Logger.getLogger(UserRepository.class.getName());
-        private final DatabaseConfig dbConfig;
+    static class RowMapper<T> {
+        /**
+         * Builds an entity from the current row. columns[i] is the position
+         * of the i-th column the mapper was created with.
+         */
+        @FunctionalInterface
+        interface ColumnReader<T> {
+            T read(ResultSet rs, int[] columns) throws SQLException;
+        }
         
-        public UserRepository() {
-            this.dbConfig = DatabaseConfig.getInstance();
+        private final ColumnReader<T> reader;
+        private final String[] columnNames;
+        private final String columnList;
+        private final Map<String, int[]> columnsBySql = new ConcurrentHashMap<>();
+        
+        public RowMapper(ColumnReader<T> reader, String... columnNames) {
+            this.reader = reader;
+            this.columnNames = columnNames;
+            this.columnList = String.join(", ", columnNames);
         }
         
         /**
-         * Find a user by username
+         * The mapped columns as a SELECT list
          */
-        public User findByUsername(String username) throws SQLException {
-            String sql = "SELECT * FROM users WHERE username = ?";
+        public String columns() {
+            return columnList;
+        }
+        
+        /**
+         * Map the row the result set is positioned on
+         */
+        public T map(String sql, ResultSet rs) throws SQLException {
+            return reader.read(rs, resolve(sql, rs));
+        }
+        
+        /**
+         * Map every remaining row of the result set
+         */
+        public List<T> mapAll(String sql, ResultSet rs) throws SQLException {
+            int[] columns = resolve(sql, rs);
+            List<T> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(reader.read(rs, columns));
+            }
+            return rows;
+        }
+        
+        private int[] resolve(String sql, ResultSet rs) throws SQLException {
+            int[] columns = columnsBySql.get(sql);
+            if (columns != null) {
+                return columns;
+            }
             
-            try (Connection conn = dbConfig.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                
-                stmt.setString(1, username);
-                
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        User user = new User();
-                        user.setUserId(rs.getInt("user_id"));
-                        user.setUsername(rs.getString("username"));
-                        user.setPasswordHash(rs.getString("password_hash"));
-                        user.setRole(rs.getString("role"));
-                        user.setCreatedAt(rs.getTimestamp("created_at"));
-                        user.setLastLogin(rs.getTimestamp("last_login"));
-                        return user;
-                    } else {
-                        return null;
-                    }
+            ResultSetMetaData metaData = rs.getMetaData();
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                // Iterating backwards keeps the first column of a duplicated label
+                positions.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+            
+            columns = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                Integer position = positions.get(columnNames[i].toLowerCase(Locale.ROOT));
+                if (position == null) {
+                    throw new SQLException("Column " + columnNames[i] + " is missing from: " + sql);
                 }
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error finding user by username", e);
-                throw e;
+                columns[i] = position;
             }
+            columnsBySql.putIfAbsent(sql, columns);
+            return columns;
+        }
+    }
+    
+    /**
+     * Inserts many rows through JDBC batches, one transaction per chunk, and
+     * hands the generated keys back in bulk. With rewriteBatchedStatements
+     * Connector/J sends each chunk as a single multi-row INSERT.
+     */
+    static class BatchInserter {
+        private static final Logger LOGGER = Logger.getLogger(BatchInserter.class.getName());
+        
+        // Rows per batch and transaction - override with -Dhms.batch.size
+        public static final int DEFAULT_CHUNK_SIZE = Integer.getInteger("hms.batch.size", 500);
+        
+        /**
+         * Sets the statement parameters for one row
+         */
+        @FunctionalInterface
+        interface ParameterBinder<T> {
+            void bind(PreparedStatement stmt, T row) throws SQLException;
+        }
+        
+        /**
+         * Stores the generated key of an inserted row
+         */
+        @FunctionalInterface
+        interface KeyAssigner<T> {
+            void assign(T row, int key);
+        }
+        
+        private BatchInserter() {
         }
         
         /**
-         * Update the last login time for a user
+         * Insert the rows in chunks. Keys are assigned once a chunk commits, so
+         * if a chunk fails, the rows of earlier chunks are saved and have their
+         * keys while the failed chunk and the rest are not saved.
          */
-        public boolean updateLastLogin(int userId) throws SQLException {
-            String sql = "UPDATE users SET last_login = CURRENT_TIMESTAMP WHERE user_id = ?";
+        static <T> void insertAll(DatabaseConfig dbConfig, String sql, List<T> rows, int chunkSize,
+                                  ParameterBinder<T> binder, KeyAssigner<T> keyAssigner) throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("Chunk size must be positive");
+            }
             
+            long start = System.nanoTime();
+            int committed = 0;
             try (Connection conn = dbConfig.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                
-                stmt.setInt(1, userId);
+                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 
-                int affectedRows = stmt.executeUpdate();
-                return affectedRows > 0;
+                conn.setAutoCommit(false);
+                try {
+                    for (int from = 0; from < rows.size(); from += chunkSize) {
+                        List<T> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+                        for (T row : chunk) {
+                            binder.bind(stmt, row);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        
+                        int[] keys = new int[chunk.size()];
+                        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                            for (int i = 0; i < keys.length; i++) {
+                                if (!generatedKeys.next()) {
+                                    throw new SQLException("Batch insert failed, only " + i + " of " +
+                                            keys.length + " IDs obtained.");
+                                }
+                                keys[i] = generatedKeys.getInt(1);
+                            }
+                        }
+                        
+                        conn.commit();
+                        for (int i = 0; i < keys.length; i++) {
+                            keyAssigner.assign(chunk.get(i), keys[i]);
+                        }
+                        committed += chunk.size();
+                    }
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error updating last login", e);
+                LOGGER.log(Level.SEVERE, "Batch insert failed after " + committed + " of " + rows.size() +
+                        " rows were committed", e);
                 throw e;
             }
+            
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LOGGER.log(Level.INFO, "Inserted {0} rows in {1} s ({2} rows/s, {3} rows per batch)",
+                    new Object[] { rows.size(), String.format("%.2f", seconds),
+                            String.format("%.0f", rows.size() / Math.max(seconds, 1e-9)), chunkSize });
         }
     }
     
     /**
-     * Patient repository for database operations
+     * Defers non-critical writes off the caller's thread. Updates are keyed by
+     * row and coalesced, so only the latest value per row is written. Pending
+     * rows are flushed in batches when the batch size is reached or the flush
+     * interval passes, and every queue is drained on shutdown by drainAll.
      */
-    static class PatientRepository {
-        private static final Logger LOGGER = Logger.getLogger(PatientRepository.class.getName());
-        private final DatabaseConfig dbConfig;
+    static class WriteBehindQueue<K, V> {
+        private static final Logger LOGGER = Logger.getLogger(WriteBehindQueue.class.getName());
         
-        public PatientRepository() {
-            this.dbConfig = DatabaseConfig.getInstance();
+        // Every open queue, so shutdown can drain them without knowing who created them
+        private static final List<WriteBehindQueue<?, ?>> QUEUES = new CopyOnWriteArrayList<>();
+        
+        /**
+         * Writes one batch of coalesced rows
+         */
+        @FunctionalInterface
+        interface BatchWriter<K, V> {
+            void write(Map<K, V> rows) throws SQLException;
         }
         
+        private final String name;
+        private final int capacity;
+        private final int batchSize;
+        private final BinaryOperator<V> merger;
+        private final BatchWriter<K, V> writer;
+        private final ScheduledExecutorService flusher;
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private LinkedHashMap<K, V> pending = new LinkedHashMap<>();
+        private boolean flushRequested = false;
+        private boolean closed = false;
+        
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder written = new LongAdder();
+        private final LongAdder failedBatches = new LongAdder();
+        
         /**
-         * Save a new patient to the database
+         * @param capacity most distinct rows held; offers beyond it are rejected
+         * @param merger combines a pending value with a newer one for the same row
          */
-        public Patient save(Patient patient) throws SQLException {
-            String sql = "INSERT INTO patients (first_name, last_name, date_of_birth, gender, " +
-                        "contact_number, email, address, registration_date) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-            
-            try (Connection conn = dbConfig.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                
-                stmt.setString(1, patient.getFirstName());
-                stmt.setString(2, patient.getLastName());
-                stmt.setDate(3, new java.sql.Date(patient.getDateOfBirth().getTime()));
-                stmt.setString(4, patient.getGender());
-                stmt.setString(5, patient.getContactNumber());
-                stmt.setString(6, patient.getEmail());
-                stmt.setString(7, patient.getAddress());
-                stmt.setTimestamp(8, new Timestamp(patient.getRegistrationDate().getTime()));
+        public WriteBehindQueue(String name, int capacity, int batchSize, long flushIntervalMillis,
+                                BinaryOperator<V> merger, BatchWriter<K, V> writer) {
+            if (capacity < 1 || batchSize < 1 || flushIntervalMillis < 1) {
+                throw new IllegalArgumentException("Capacity, batch size and flush interval must be positive");
+            }
+            this.name = name;
+            this.capacity = capacity;
+            this.batchSize = batchSize;
+            this.merger = merger;
+            this.writer = writer;
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "write-behind-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+            QUEUES.add(this);
+        }
+        
+        /**
+         * Queue a write. Returns false if the queue is full or drained, in
+         * which case the caller should write synchronously or give up.
+         */
+        public boolean offer(K key, V value) {
+            lock.lock();
+            try {
+                if (closed) {
+                    rejected.increment();
+                    return false;
+                }
+                V previous = pending.get(key);
+                if (previous != null) {
+                    pending.put(key, merger.apply(previous, value));
+                    coalesced.increment();
+                    return true;
+                }
+                if (pending.size() >= capacity) {
+                    rejected.increment();
+                    return false;
+                }
+                pending.put(key, value);
+                queued.increment();
+                
+                if (pending.size() >= batchSize && !flushRequested) {
+                    flushRequested = true;
+                    flusher.execute(this::flush);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Write everything pending, in batches. Runs on the flusher thread only.
+         */
+        private void flush() {
+            LinkedHashMap<K, V> taken;
+            lock.lock();
+            try {
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                taken = pending;
+                pending = new LinkedHashMap<>();
+            } finally {
+                lock.unlock();
+            }
+            
+            Iterator<Map.Entry<K, V>> rows = taken.entrySet().iterator();
+            while (rows.hasNext()) {
+                Map<K, V> batch = new LinkedHashMap<>();
+                while (rows.hasNext() && batch.size() < batchSize) {
+                    Map.Entry<K, V> row = rows.next();
+                    batch.put(row.getKey(), row.getValue());
+                }
+                try {
+                    writer.write(batch);
+                    written.add(batch.size());
+                } catch (SQLException | RuntimeException e) {
+                    failedBatches.increment();
+                    LOGGER.log(Level.WARNING, "Write-behind batch of " + batch.size() + " " + name +
+                            " rows failed; will retry", e);
+                    requeue(batch);
+                    rows.forEachRemaining(rest -> requeue(Map.of(rest.getKey(), rest.getValue())));
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Put rows from a failed batch back, behind any newer values queued since
+         */
+        private void requeue(Map<K, V> rows) {
+            lock.lock();
+            try {
+                for (Map.Entry<K, V> row : rows.entrySet()) {
+                    V newer = pending.get(row.getKey());
+                    if (newer != null) {
+                        pending.put(row.getKey(), merger.apply(row.getValue(), newer));
+                    } else if (pending.size() < capacity) {
+                        pending.put(row.getKey(), row.getValue());
+                    } else {
+                        rejected.increment();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Stop accepting writes, flush what is pending and stop the flusher.
+         * Returns false if the flush did not finish within the timeout.
+         */
+        public boolean drain(long timeoutMillis) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return true;
+                }
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+            
+            // Runs after any flush in progress; periodic flushes are dropped by shutdown
+            flusher.execute(this::flush);
+            flusher.shutdown();
+            QUEUES.remove(this);
+            try {
+                if (flusher.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    int left = pendingCount();
+                    if (left > 0) {
+                        LOGGER.log(Level.WARNING, "{0} {1} rows could not be written before shutdown",
+                                new Object[] { left, name });
+                    }
+                    return left == 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.log(Level.WARNING, "Timed out draining {0} write-behind queue", name);
+            return false;
+        }
+        
+        /**
+         * Drain every open queue, sharing the timeout between them
+         */
+        public static void drainAll(long timeoutMillis) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (WriteBehindQueue<?, ?> queue : QUEUES) {
+                long remaining = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                queue.drain(remaining);
+                LOGGER.log(Level.INFO, "Write-behind statistics: {0}", queue.getStats());
+            }
+        }
+        
+        /**
+         * Number of rows waiting to be written
+         */
+        public int pendingCount() {
+            lock.lock();
+            try {
+                return pending.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Describe queue counts for logging
+         */
+        public String getStats() {
+            return String.format("%s: queued=%d coalesced=%d rejected=%d written=%d failedBatches=%d pending=%d",
+                    name, queued.sum(), coalesced.sum(), rejected.sum(), written.sum(), failedBatches.sum(),
+                    pendingCount());
+        }
+    }
+    
+    /**
+     * User repository for database operations
+     */
+    static class UserRepository {
+        private static final Logger LOGGER = Logger.getLogger(UserRepository.class.getName());
+        private static final RowMapper<User> USER_MAPPER = new RowMapper<>((rs, c) -> {
+            User user = new User();
+            user.setUserId(rs.getInt(c[0]));
+            user.setUsername(rs.getString(c[1]));
+            user.setPasswordHash(rs.getString(c[2]));
+            user.setRole(rs.getString(c[3]));
+            user.setCreatedAt(rs.getTimestamp(c[4]));
+            user.setLastLogin(rs.getTimestamp(c[5]));
+            return user;
+        }, "user_id", "username", "password_hash", "role", "created_at", "last_login");
+        private final DatabaseConfig dbConfig;
+        
+        public UserRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
+        }
+        
+        /**
+         * Find a user by username
+         */
+        public User findByUsername(String username) throws SQLException {
+            String sql = "SELECT " + USER_MAPPER.columns() + " FROM users WHERE username = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setString(1, username);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return USER_MAPPER.map(sql, rs);
+                    } else {
+                        return null;
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding user by username", e);
+                throw e;
+            }
+        }
+        
+        /**
+         * Set the last login time of many users in one batch and transaction
+         */
+        public void updateLastLogins(Map<Integer, Timestamp> lastLogins) throws SQLException {
+            String sql = "UPDATE users SET last_login = ? WHERE user_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                conn.setAutoCommit(false);
+                try {
+                    for (Map.Entry<Integer, Timestamp> lastLogin : lastLogins.entrySet()) {
+                        stmt.setTimestamp(1, lastLogin.getValue());
+                        stmt.setInt(2, lastLogin.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error updating last login", e);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Patient repository for database operations
+     */
+    static class PatientRepository {
+        private static final Logger LOGGER = Logger.getLogger(PatientRepository.class.getName());
+        private static final String INSERT_SQL = "INSERT INTO patients (first_name, last_name, date_of_birth, gender, " +
+                "contact_number, email, address, registration_date) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        private static final RowMapper<Patient> PATIENT_MAPPER = new RowMapper<>((rs, c) -> {
+            Patient patient = new Patient();
+            patient.setPatientId(rs.getInt(c[0]));
+            patient.setFirstName(rs.getString(c[1]));
+            patient.setLastName(rs.getString(c[2]));
+            patient.setDateOfBirth(rs.getDate(c[3]));
+            patient.setGender(rs.getString(c[4]));
+            patient.setContactNumber(rs.getString(c[5]));
+            patient.setEmail(rs.getString(c[6]));
+            patient.setAddress(rs.getString(c[7]));
+            patient.setRegistrationDate(rs.getTimestamp(c[8]));
+            return patient;
+        }, "patient_id", "first_name", "last_name", "date_of_birth", "gender",
+           "contact_number", "email", "address", "registration_date");
+        private static final RowMapper<PatientSummary> SUMMARY_MAPPER = new RowMapper<>((rs, c) ->
+                new PatientSummary(rs.getInt(c[0]), rs.getString(c[1]), rs.getString(c[2]), rs.getObject(c[3], LocalDate.class),
+                        rs.getString(c[4]), rs.getString(c[5]), rs.getString(c[6])),
+                "patient_id", "first_name", "last_name", "date_of_birth", "gender", "contact_number", "email");
+        private static final String SELECT_PATIENTS = "SELECT " + PATIENT_MAPPER.columns() + " FROM patients ";
+        private static final String SELECT_SUMMARIES = "SELECT " + SUMMARY_MAPPER.columns() + " FROM patients ";
+        private final DatabaseConfig dbConfig;
+        
+        public PatientRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
+        }
+        
+        /**
+         * Save a new patient to the database
+         */
+        public Patient save(Patient patient) throws SQLException {
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                
+                bindInsert(stmt, patient);
                 
                 int affectedRows = stmt.executeUpdate();
                 
@@ -504,6 +1913,26 @@ public class HospitalManagementSystem {
             }
         }
         
+        /**
+         * Save many new patients using batched inserts, committing every
+         * `chunkSize` rows. Saved patients get their generated IDs.
+         */
+        public void saveAll(List<Patient> patients, int chunkSize) throws SQLException {
+            BatchInserter.insertAll(dbConfig, INSERT_SQL, patients, chunkSize,
+                    this::bindInsert, Patient::setPatientId);
+        }
+        
+        private void bindInsert(PreparedStatement stmt, Patient patient) throws SQLException {
+            stmt.setString(1, patient.getFirstName());
+            stmt.setString(2, patient.getLastName());
+            stmt.setDate(3, new java.sql.Date(patient.getDateOfBirth().getTime()));
+            stmt.setString(4, patient.getGender());
+            stmt.setString(5, patient.getContactNumber());
+            stmt.setString(6, patient.getEmail());
+            stmt.setString(7, patient.getAddress());
+            stmt.setTimestamp(8, new Timestamp(patient.getRegistrationDate().getTime()));
+        }
+        
         /**
          * Update an existing patient in the database
          */
@@ -555,7 +1984,7 @@ public class HospitalManagementSystem {
          * Find a patient by ID
          */
         public Patient findById(int patientId) throws SQLException {
-            String sql = "SELECT * FROM patients WHERE patient_id = ?";
+            String sql = SELECT_PATIENTS + "WHERE patient_id = ?";
             
             try (Connection conn = dbConfig.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -564,7 +1993,7 @@ public class HospitalManagementSystem {
                 
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
-                        return mapResultSetToPatient(rs);
+                        return PATIENT_MAPPER.map(sql, rs);
                     } else {
                         return null;
                     }
@@ -576,34 +2005,183 @@ public class HospitalManagementSystem {
         }
         
         /**
-         * Find all patients
+         * Find one page of patients ordered by (last_name, first_name, patient_id).
+         * Uses keyset pagination so later pages cost the same as the first.
          */
-        public List<Patient> findAll() throws SQLException {
-            String sql = "SELECT * FROM patients ORDER BY last_name, first_name";
-            List<Patient> patients = new ArrayList<>();
+        public Page<PatientSummary> findSummaryPage(String cursor, int pageSize) throws SQLException {
+            String sql = cursor == null
+                    ? SELECT_SUMMARIES +
+                      "ORDER BY last_name, first_name, patient_id LIMIT ?"
+                    : SELECT_SUMMARIES +
+                      "WHERE last_name > ? OR (last_name = ? AND (first_name > ? " +
+                      "OR (first_name = ? AND patient_id > ?))) " +
+                      "ORDER BY last_name, first_name, patient_id LIMIT ?";
+            List<PatientSummary> patients = new ArrayList<>();
             
             try (Connection conn = dbConfig.getConnection();
-                 Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 
-                while (rs.next()) {
-                    patients.add(mapResultSetToPatient(rs));
+                int index = 1;
+                if (cursor != null) {
+                    String[] key = decodeCursor(cursor);
+                    stmt.setString(index++, key[0]);
+                    stmt.setString(index++, key[0]);
+                    stmt.setString(index++, key[1]);
+                    stmt.setString(index++, key[1]);
+                    stmt.setInt(index++, Integer.parseInt(key[2]));
+                }
+                // Fetch one extra row to know whether another page exists
+                stmt.setInt(index, pageSize + 1);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    patients.addAll(SUMMARY_MAPPER.mapAll(sql, rs));
+                }
+                
+                String nextCursor = null;
+                if (patients.size() > pageSize) {
+                    patients.remove(pageSize);
+                    nextCursor = encodeCursor(patients.get(pageSize - 1));
+                }
+                return new Page<>(patients, nextCursor);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding patient page", e);
+                throw e;
+            }
+        }
+        
+        /**
+         * Find the page of patients starting at a row offset in name order. Used
+         * when jumping into the middle of the listing without a cursor; the
+         * returned cursor lets the following page seek instead.
+         */
+        public Page<PatientSummary> findSummaryPageAtOffset(int offset, int pageSize) throws SQLException {
+            String sql = SELECT_SUMMARIES +
+                        "ORDER BY last_name, first_name, patient_id LIMIT ? OFFSET ?";
+            List<PatientSummary> patients = new ArrayList<>();
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, pageSize + 1);
+                stmt.setInt(2, offset);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    patients.addAll(SUMMARY_MAPPER.mapAll(sql, rs));
+                }
+                
+                String nextCursor = null;
+                if (patients.size() > pageSize) {
+                    patients.remove(pageSize);
+                    nextCursor = encodeCursor(patients.get(pageSize - 1));
+                }
+                return new Page<>(patients, nextCursor);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding patient page at offset", e);
+                throw e;
+            }
+        }
+        
+        /**
+         * Count all patients
+         */
+        public int countAll() throws SQLException {
+            String sql = "SELECT COUNT(*) FROM patients";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                
+                return rs.next() ? rs.getInt(1) : 0;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error counting patients", e);
+                throw e;
+            }
+        }
+        
+        /**
+         * Find the list-view columns of patients by ID. The result is in no
+         * particular order and skips IDs that no longer exist.
+         */
+        public List<PatientSummary> findSummariesByIds(List<Integer> patientIds) throws SQLException {
+            List<PatientSummary> patients = new ArrayList<>(patientIds.size());
+            if (patientIds.isEmpty()) {
+                return patients;
+            }
+            
+            // Pad the IN list to a power of two so only a few statement shapes get cached
+            int placeholders = Integer.highestOneBit(patientIds.size());
+            if (placeholders < patientIds.size()) {
+                placeholders <<= 1;
+            }
+            String sql = SELECT_SUMMARIES + "WHERE patient_id IN (" +
+                        String.join(", ", Collections.nCopies(placeholders, "?")) + ")";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                for (int i = 0; i < placeholders; i++) {
+                    stmt.setInt(i + 1, patientIds.get(Math.min(i, patientIds.size() - 1)));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    patients.addAll(SUMMARY_MAPPER.mapAll(sql, rs));
                 }
                 
                 return patients;
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error finding all patients", e);
+                LOGGER.log(Level.SEVERE, "Error finding patients by ID", e);
+                throw e;
+            }
+        }
+        
+        /**
+         * Stream the ID and name of every patient to a visitor without
+         * buffering the table in memory
+         */
+        public void forEachPatientName(PatientNameVisitor visitor) throws SQLException {
+            forEachPatientNameAfter(0, visitor);
+        }
+        
+        /**
+         * Stream the ID and name of every patient with an ID above the given one
+         */
+        public void forEachPatientNameAfter(int afterPatientId, PatientNameVisitor visitor) throws SQLException {
+            String sql = "SELECT patient_id, first_name, last_name FROM patients WHERE patient_id > ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                
+                stmt.setInt(1, afterPatientId);
+                // Connector/J streams rows one at a time with this fetch size
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.visit(rs.getInt(1), rs.getString(2), rs.getString(3));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error reading patient names", e);
                 throw e;
             }
         }
         
         /**
-         * Search patients by name
+         * Callback for forEachPatientName
+         */
+        @FunctionalInterface
+        interface PatientNameVisitor {
+            void visit(int patientId, String firstName, String lastName);
+        }
+        
+        /**
+         * Search patients by name, returning their list-view columns
          */
-        public List<Patient> searchByName(String searchTerm) throws SQLException {
-            String sql = "SELECT * FROM patients WHERE first_name LIKE ? OR last_name LIKE ? " +
+        public List<PatientSummary> searchSummariesByName(String searchTerm) throws SQLException {
+            String sql = SELECT_SUMMARIES + "WHERE first_name LIKE ? OR last_name LIKE ? " +
                         "ORDER BY last_name, first_name";
-            List<Patient> patients = new ArrayList<>();
+            List<PatientSummary> patients = new ArrayList<>();
             
             try (Connection conn = dbConfig.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -613,9 +2191,7 @@ public class HospitalManagementSystem {
                 stmt.setString(2, searchPattern);
                 
                 try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        patients.add(mapResultSetToPatient(rs));
-                    }
+                    patients.addAll(SUMMARY_MAPPER.mapAll(sql, rs));
                 }
                 
                 return patients;
@@ -626,20 +2202,29 @@ public class HospitalManagementSystem {
         }
         
         /**
-         * Map a database result set to a Patient object
+         * Encode the sort key of a patient as an opaque page cursor
          */
-        private Patient mapResultSetToPatient(ResultSet rs) throws SQLException {
-            Patient patient = new Patient();
-            patient.setPatientId(rs.getInt("patient_id"));
-            patient.setFirstName(rs.getString("first_name"));
-            patient.setLastName(rs.getString("last_name"));
-            patient.setDateOfBirth(rs.getDate("date_of_birth"));
-            patient.setGender(rs.getString("gender"));
-            patient.setContactNumber(rs.getString("contact_number"));
-            patient.setEmail(rs.getString("email"));
-            patient.setAddress(rs.getString("address"));
-            patient.setRegistrationDate(rs.getTimestamp("registration_date"));
-            return patient;
+        private String encodeCursor(PatientSummary patient) {
+            String key = patient.lastName() + '\u0000' + patient.firstName() + '\u0000' + patient.patientId();
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(key.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+        
+        /**
+         * Decode a page cursor into {last_name, first_name, patient_id}
+         */
+        private String[] decodeCursor(String cursor) throws SQLException {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), java.nio.charset.StandardCharsets.UTF_8);
+                String[] parts = key.split("\u0000", -1);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("wrong number of key parts");
+                }
+                Integer.parseInt(parts[2]);
+                return parts;
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("Invalid patient page cursor: " + cursor, e);
+            }
         }
     }
     
@@ -648,6 +2233,15 @@ public class HospitalManagementSystem {
      */
     static class DiseaseRepository {
         private static final Logger LOGGER = Logger.getLogger(DiseaseRepository.class.getName());
+        private static final RowMapper<Disease> DISEASE_MAPPER = new RowMapper<>((rs, c) -> {
+            Disease disease = new Disease();
+            disease.setDiseaseId(rs.getInt(c[0]));
+            disease.setName(rs.getString(c[1]));
+            disease.setDescription(rs.getString(c[2]));
+            disease.setSymptoms(rs.getString(c[3]));
+            disease.setTreatment(rs.getString(c[4]));
+            return disease;
+        }, "disease_id", "name", "description", "symptoms", "treatment");
         private final DatabaseConfig dbConfig;
         
         public DiseaseRepository() {
@@ -694,24 +2288,13 @@ public class HospitalManagementSystem {
          * Find all diseases
          */
         public List<Disease> findAll() throws SQLException {
-            String sql = "SELECT * FROM diseases ORDER BY name";
-            List<Disease> diseases = new ArrayList<>();
+            String sql = "SELECT " + DISEASE_MAPPER.columns() + " FROM diseases ORDER BY name";
         
             try (Connection conn = dbConfig.getConnection();
                  Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(sql)) {
             
-                while (rs.next()) {
-                    Disease disease = new Disease();
-                    disease.setDiseaseId(rs.getInt("disease_id"));
-                    disease.setName(rs.getString("name"));
-                    disease.setDescription(rs.getString("description"));
-                    disease.setSymptoms(rs.getString("symptoms"));
-                    disease.setTreatment(rs.getString("treatment"));
-                    diseases.add(disease);
-                }
-            
-                return diseases;
+                return DISEASE_MAPPER.mapAll(sql, rs);
             } catch (SQLException e) {
                 LOGGER.log(Level.SEVERE, "Error finding all diseases", e);
                 throw e;
@@ -722,7 +2305,7 @@ public class HospitalManagementSystem {
          * Find a disease by ID
          */
         public Disease findById(int diseaseId) throws SQLException {
-            String sql = "SELECT * FROM diseases WHERE disease_id = ?";
+            String sql = "SELECT " + DISEASE_MAPPER.columns() + " FROM diseases WHERE disease_id = ?";
         
             try (Connection conn = dbConfig.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -731,13 +2314,7 @@ public class HospitalManagementSystem {
             
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
-                        Disease disease = new Disease();
-                        disease.setDiseaseId(rs.getInt("disease_id"));
-                        disease.setName(rs.getString("name"));
-                        disease.setDescription(rs.getString("description"));
-                        disease.setSymptoms(rs.getString("symptoms"));
-                        disease.setTreatment(rs.getString("treatment"));
-                        return disease;
+                        return DISEASE_MAPPER.map(sql, rs);
                     } else {
                         return null;
                     }
@@ -754,6 +2331,20 @@ public class HospitalManagementSystem {
      */
     static class PatientDiseaseRepository {
         private static final Logger LOGGER = Logger.getLogger(PatientDiseaseRepository.class.getName());
+        private static final String INSERT_SQL = "INSERT INTO patient_diseases (patient_id, disease_id, diagnosis_date, notes, status) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        private static final RowMapper<PatientDiagnosisRow> DIAGNOSIS_MAPPER = new RowMapper<>((rs, c) -> {
+            Timestamp diagnosisDate = rs.getTimestamp(c[4]);
+            return new PatientDiagnosisRow(rs.getInt(c[0]), rs.getInt(c[1]), rs.getInt(c[2]), rs.getString(c[3]),
+                    diagnosisDate == null ? null : diagnosisDate.toLocalDateTime(),
+                    rs.getString(c[5]), rs.getString(c[6]));
+        }, "patient_disease_id", "patient_id", "disease_id", "disease_name", "diagnosis_date", "status", "notes");
+        private static final String SELECT_DIAGNOSES = "SELECT pd.patient_disease_id, pd.patient_id, pd.disease_id, " +
+                "d.name AS disease_name, pd.diagnosis_date, pd.status, pd.notes " +
+                "FROM patient_diseases pd " +
+                "JOIN diseases d ON pd.disease_id = d.disease_id ";
+        // Largest IN list per query when fetching for many patients; a power of two
+        private static final int MAX_IN_LIST_SIZE = 512;
         private final DatabaseConfig dbConfig;
     
         public PatientDiseaseRepository() {
@@ -764,17 +2355,10 @@ public class HospitalManagementSystem {
          * Save a new patient disease to the database
          */
         public PatientDisease save(PatientDisease patientDisease) throws SQLException {
-            String sql = "INSERT INTO patient_diseases (patient_id, disease_id, diagnosis_date, notes, status) " +
-                    "VALUES (?, ?, ?, ?, ?)";
-        
             try (Connection conn = dbConfig.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                 PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-                stmt.setInt(1, patientDisease.getPatientId());
-                stmt.setInt(2, patientDisease.getDiseaseId());
-                stmt.setTimestamp(3, new Timestamp(patientDisease.getDiagnosisDate().getTime()));
-                stmt.setString(4, patientDisease.getNotes());
-                stmt.setString(5, patientDisease.getStatus());
+                bindInsert(stmt, patientDisease);
             
                 int affectedRows = stmt.executeUpdate();
             
@@ -797,46 +2381,100 @@ public class HospitalManagementSystem {
             }
         }
     
+        /**
+         * Save many new patient diseases using batched inserts, committing
+         * every `chunkSize` rows. Saved rows get their generated IDs.
+         */
+        public void saveAll(List<PatientDisease> patientDiseases, int chunkSize) throws SQLException {
+            BatchInserter.insertAll(dbConfig, INSERT_SQL, patientDiseases, chunkSize,
+                    this::bindInsert, PatientDisease::setPatientDiseaseId);
+        }
+    
+        private void bindInsert(PreparedStatement stmt, PatientDisease patientDisease) throws SQLException {
+            stmt.setInt(1, patientDisease.getPatientId());
+            stmt.setInt(2, patientDisease.getDiseaseId());
+            stmt.setTimestamp(3, new Timestamp(patientDisease.getDiagnosisDate().getTime()));
+            stmt.setString(4, patientDisease.getNotes());
+            stmt.setString(5, patientDisease.getStatus());
+        }
+    
         /**
          * Find all diseases for a patient
          */
-        public List<Map<String, Object>> findByPatientId(int patientId) throws SQLException {
-            String sql = "SELECT pd.*, d.name as disease_name, d.description, d.symptoms, d.treatment " +
-                    "FROM patient_diseases pd " +
-                    "JOIN diseases d ON pd.disease_id = d.disease_id " +
+        public List<PatientDiagnosisRow> findByPatientId(int patientId) throws SQLException {
+            String sql = SELECT_DIAGNOSES +
                     "WHERE pd.patient_id = ? " +
                     "ORDER BY pd.diagnosis_date DESC";
         
-            List<Map<String, Object>> patientDiseases = new ArrayList<>();
-        
             try (Connection conn = dbConfig.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
             
                 stmt.setInt(1, patientId);
             
                 try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        Map<String, Object> record = new HashMap<>();
-                        record.put("patientDiseaseId", rs.getInt("patient_disease_id"));
-                        record.put("patientId", rs.getInt("patient_id"));
-                        record.put("diseaseId", rs.getInt("disease_id"));
-                        record.put("diagnosisDate", rs.getTimestamp("diagnosis_date"));
-                        record.put("notes", rs.getString("notes"));
-                        record.put("status", rs.getString("status"));
-                        record.put("diseaseName", rs.getString("disease_name"));
-                        record.put("description", rs.getString("description"));
-                        record.put("symptoms", rs.getString("symptoms"));
-                        record.put("treatment", rs.getString("treatment"));
+                    return DIAGNOSIS_MAPPER.mapAll(sql, rs);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding diseases for patient", e);
+                throw e;
+            }
+        }
+    
+        /**
+         * Find the diseases of many patients, grouped by patient ID. Every
+         * requested patient has an entry, newest diagnosis first; duplicate IDs
+         * are ignored. IDs are sent in IN lists of up to MAX_IN_LIST_SIZE, so
+         * 1,000 patients take two queries on one connection.
+         */
+        public Map<Integer, List<PatientDiagnosisRow>> findByPatientIds(IntList patientIds) throws SQLException {
+            int[] ids = patientIds.toArray();
+            Arrays.sort(ids);
+            int distinct = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            
+            Map<Integer, List<PatientDiagnosisRow>> byPatient = new HashMap<>(distinct * 4 / 3 + 1);
+            if (distinct == 0) {
+                return byPatient;
+            }
+            
+            try (Connection conn = dbConfig.getConnection()) {
+                for (int from = 0; from < distinct; from += MAX_IN_LIST_SIZE) {
+                    int count = Math.min(MAX_IN_LIST_SIZE, distinct - from);
                     
-                        patientDiseases.add(record);
+                    // Pad the IN list to a power of two so only a few statement shapes get cached
+                    int placeholders = Integer.highestOneBit(count);
+                    if (placeholders < count) {
+                        placeholders <<= 1;
+                    }
+                    String sql = SELECT_DIAGNOSES +
+                            "WHERE pd.patient_id IN (" + String.join(", ", Collections.nCopies(placeholders, "?")) + ") " +
+                            "ORDER BY pd.patient_id, pd.diagnosis_date DESC";
+                    
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (int i = 0; i < placeholders; i++) {
+                            stmt.setInt(i + 1, ids[from + Math.min(i, count - 1)]);
+                        }
+                        
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            for (PatientDiagnosisRow row : DIAGNOSIS_MAPPER.mapAll(sql, rs)) {
+                                byPatient.computeIfAbsent(row.patientId(), id -> new ArrayList<>()).add(row);
+                            }
+                        }
                     }
                 }
-            
-                return patientDiseases;
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error finding diseases for patient", e);
+                LOGGER.log(Level.SEVERE, "Error finding diseases for patients", e);
                 throw e;
             }
+            
+            for (int i = 0; i < distinct; i++) {
+                byPatient.putIfAbsent(ids[i], Collections.emptyList());
+            }
+            return byPatient;
         }
     
         /**
@@ -859,1592 +2497,7210 @@ public class HospitalManagementSystem {
         }
     }
     
-    //==========================================================================
-    // SERVICES (BUSINESS LOGIC)
-    //==========================================================================
-    
     /**
-     * Authentication service for user login and access control
+     * Repository for doctor data access
      */
-    static class AuthenticationService {
-        private static final Logger LOGGER = Logger.getLogger(AuthenticationService.class.getName());
-        private final UserRepository userRepository;
-        private User currentUser;
-        
-        private static AuthenticationService instance;
-        
-        private AuthenticationService() {
-            this.userRepository = new UserRepository();
-        }
+    static class DoctorRepository {
+        private static final Logger LOGGER = Logger.getLogger(DoctorRepository.class.getName());
+        private static final RowMapper<Doctor> DOCTOR_MAPPER = new RowMapper<>((rs, c) -> {
+            Doctor doctor = new Doctor();
+            doctor.setDoctorId(rs.getInt(c[0]));
+            doctor.setFirstName(rs.getString(c[1]));
+            doctor.setLastName(rs.getString(c[2]));
+            doctor.setSpecialization(rs.getString(c[3]));
+            doctor.setContactNumber(rs.getString(c[4]));
+            doctor.setEmail(rs.getString(c[5]));
+            int userId = rs.getInt(c[6]);
+            doctor.setUserId(rs.wasNull() ? null : userId);
+            return doctor;
+        }, "doctor_id", "first_name", "last_name", "specialization", "contact_number", "email", "user_id");
+        private static final String SELECT_DOCTORS = "SELECT " + DOCTOR_MAPPER.columns() + " FROM doctors ";
+        private final DatabaseConfig dbConfig;
         
-        public static synchronized AuthenticationService getInstance() {
-            if (instance == null) {
-                instance = new AuthenticationService();
-            }
-            return instance;
+        public DoctorRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
         }
         
         /**
-         * Authenticate a user with username and password
+         * Find a doctor by ID
          */
-        public boolean login(String username, String password) {
-            try {
-                User user = userRepository.findByUsername(username);
+        public Doctor findById(int doctorId) throws SQLException {
+            String sql = SELECT_DOCTORS + "WHERE doctor_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 
-                if (user != null && verifyPassword(password, user.getPasswordHash())) {
-                    currentUser = user;
-                    userRepository.updateLastLogin(user.getUserId());
-                    return true;
-                }
+                stmt.setInt(1, doctorId);
                 
-                return false;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? DOCTOR_MAPPER.map(sql, rs) : null;
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error during login", e);
-                return false;
+                LOGGER.log(Level.SEVERE, "Error finding doctor by ID", e);
+                throw e;
             }
         }
         
         /**
-         * Verify a password against a hash
-         * Note: This is a simplified implementation. In a real application,
-         * you would use a proper password hashing library like BCrypt.
+         * Find all doctors
          */
-        private boolean verifyPassword(String password, String passwordHash) {
-            // For simplicity, we're using a basic comparison
-            // In a real application, use a proper password hashing library
-            return passwordHash.equals(password);
+        public List<Doctor> findAll() throws SQLException {
+            String sql = SELECT_DOCTORS + "ORDER BY last_name, first_name";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                return DOCTOR_MAPPER.mapAll(sql, rs);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding all doctors", e);
+                throw e;
+            }
         }
         
         /**
-         * Log out the current user
+         * Find the doctors of a specialization
          */
-        public void logout() {
-            currentUser = null;
+        public List<Doctor> findBySpecialization(String specialization) throws SQLException {
+            String sql = SELECT_DOCTORS + "WHERE specialization = ? ORDER BY last_name, first_name";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setString(1, specialization);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return DOCTOR_MAPPER.mapAll(sql, rs);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding doctors by specialization", e);
+                throw e;
+            }
         }
         
         /**
-         * Get the currently authenticated user
+         * Find the distinct specializations of all doctors, sorted
          */
-        public User getCurrentUser() {
-            return currentUser;
+        public List<String> findSpecializations() throws SQLException {
+            String sql = "SELECT DISTINCT specialization FROM doctors ORDER BY specialization";
+            List<String> specializations = new ArrayList<>();
+            
+            try (Connection conn = dbConfig.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                while (rs.next()) {
+                    specializations.add(rs.getString(1));
+                }
+                return specializations;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding specializations", e);
+                throw e;
+            }
         }
+    }
+    
+    /**
+     * Repository for appointment data access
+     */
+    static class AppointmentRepository {
+        private static final Logger LOGGER = Logger.getLogger(AppointmentRepository.class.getName());
+        private static final RowMapper<Appointment> APPOINTMENT_MAPPER = new RowMapper<>((rs, c) -> {
+            Appointment appointment = new Appointment();
+            appointment.setAppointmentId(rs.getInt(c[0]));
+            appointment.setPatientId(rs.getInt(c[1]));
+            appointment.setDoctorId(rs.getInt(c[2]));
+            appointment.setAppointmentTime(rs.getTimestamp(c[3]));
+            appointment.setDurationMinutes(rs.getInt(c[4]));
+            appointment.setStatus(rs.getString(c[5]));
+            appointment.setPurpose(rs.getString(c[6]));
+            appointment.setNotes(rs.getString(c[7]));
+            return appointment;
+        }, "appointment_id", "patient_id", "doctor_id", "appointment_time", "duration_minutes",
+           "status", "purpose", "notes");
+        private static final String SELECT_APPOINTMENTS = "SELECT " + APPOINTMENT_MAPPER.columns() + " FROM appointments ";
+        private static final String INSERT_SQL = "INSERT INTO appointments (patient_id, doctor_id, appointment_time, " +
+                "duration_minutes, status, purpose, notes) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        private static final String UPDATE_SQL = "UPDATE appointments SET patient_id = ?, doctor_id = ?, " +
+                "appointment_time = ?, duration_minutes = ?, status = ?, purpose = ?, notes = ? WHERE appointment_id = ?";
+        private final DatabaseConfig dbConfig;
         
-        /**
-         * Check if a user is currently authenticated
-         */
-        public boolean isAuthenticated() {
-            return currentUser != null;
+        public AppointmentRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
         }
         
         /**
-         * Check if the current user has admin role
+         * Save a new appointment to the database
          */
-        public boolean isAdmin() {
-            return isAuthenticated() && "ADMIN".equals(currentUser.getRole());
+        public Appointment save(Appointment appointment) throws SQLException {
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                
+                bindAppointment(stmt, appointment);
+                
+                int affectedRows = stmt.executeUpdate();
+                
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating appointment failed, no rows affected.");
+                }
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        appointment.setAppointmentId(generatedKeys.getInt(1));
+                    } else {
+                        throw new SQLException("Creating appointment failed, no ID obtained.");
+                    }
+                }
+                
+                return appointment;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error saving appointment", e);
+                throw e;
+            }
         }
         
         /**
-         * Check if the current user has doctor role
+         * Update an existing appointment
          */
-        public boolean isDoctor() {
-            return isAuthenticated() && "DOCTOR".equals(currentUser.getRole());
+        public boolean update(Appointment appointment) throws SQLException {
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                
+                bindAppointment(stmt, appointment);
+                stmt.setInt(8, appointment.getAppointmentId());
+                
+                int affectedRows = stmt.executeUpdate();
+                return affectedRows > 0;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error updating appointment", e);
+                throw e;
+            }
         }
         
         /**
-         * Check if the current user has receptionist role
+         * Set the status of an appointment, provided it is still with the given
+         * doctor at the given time. Returns false if it was moved or deleted.
          */
-        public boolean isReceptionist() {
-            return isAuthenticated() && "RECEPTIONIST".equals(currentUser.getRole());
+        public boolean updateStatus(int appointmentId, int doctorId, Date appointmentTime, String status)
+                throws SQLException {
+            String sql = "UPDATE appointments SET status = ? " +
+                        "WHERE appointment_id = ? AND doctor_id = ? AND appointment_time = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setString(1, status);
+                stmt.setInt(2, appointmentId);
+                stmt.setInt(3, doctorId);
+                stmt.setTimestamp(4, new Timestamp(appointmentTime.getTime()));
+                
+                int affectedRows = stmt.executeUpdate();
+                return affectedRows > 0;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error updating appointment status", e);
+                throw e;
+            }
         }
         
         /**
-         * Check if the current user has a specific role
+         * Save a new appointment unless a booked appointment of the same doctor
+         * overlaps it. Returns the ID of the overlapping appointment, or 0 once
+         * saved. Appointments are at most maxDurationMinutes long.
          */
-        public boolean hasRole(String role) {
-            return isAuthenticated() && role.equals(currentUser.getRole());
+        public int saveIfFree(Appointment appointment, int maxDurationMinutes) throws SQLException {
+            return writeIfFree(appointment, true, maxDurationMinutes);
         }
-    }
-    
-    /**
-     * Patient service for patient-related business logic
-     */
-    static class PatientService {
-        private static final Logger LOGGER = Logger.getLogger(PatientService.class.getName());
-        private final PatientRepository patientRepository;
         
-        public PatientService() {
-            this.patientRepository = new PatientRepository();
+        /**
+         * Update an appointment unless a booked appointment of the same doctor
+         * overlaps its new slot. Returns the ID of the overlapping appointment,
+         * 0 once updated, or -1 if the appointment does not exist.
+         */
+        public int updateIfFree(Appointment appointment, int maxDurationMinutes) throws SQLException {
+            return writeIfFree(appointment, false, maxDurationMinutes);
         }
         
         /**
-         * Create a new patient
+         * Check for overlaps and write in one transaction. The check is a locking
+         * read of the doctor's appointments near the slot: InnoDB next-key locks
+         * on the (doctor_id, appointment_time) index make a concurrent booking
+         * into the same range wait until this transaction ends. Deadlocks between
+         * such bookings surface as SQLExceptions for the caller to retry, and the
+         * unique key rejects a second booking with the same start outright.
          */
-        public Patient createPatient(Patient patient) throws Exception {
-            // Validate patient data
-            validatePatient(patient);
+        private int writeIfFree(Appointment appointment, boolean insert, int maxDurationMinutes) throws SQLException {
+            String lockSql = "SELECT appointment_id, appointment_time, duration_minutes, status FROM appointments " +
+                        "WHERE doctor_id = ? AND appointment_time < ? AND appointment_time > ? FOR UPDATE";
+            long start = appointment.getAppointmentTime().getTime();
             
-            try {
-                return patientRepository.save(patient);
+            try (Connection conn = dbConfig.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    int conflictId = 0;
+                    try (PreparedStatement stmt = conn.prepareStatement(lockSql)) {
+                        stmt.setInt(1, appointment.getDoctorId());
+                        stmt.setTimestamp(2, new Timestamp(appointment.getEndMillis()));
+                        stmt.setTimestamp(3, new Timestamp(start - TimeUnit.MINUTES.toMillis(maxDurationMinutes)));
+                        
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (conflictId == 0 && rs.next()) {
+                                int appointmentId = rs.getInt(1);
+                                long end = rs.getTimestamp(2).getTime() + TimeUnit.MINUTES.toMillis(rs.getInt(3));
+                                if (appointmentId != appointment.getAppointmentId() && end > start
+                                        && !Appointment.STATUS_CANCELLED.equalsIgnoreCase(rs.getString(4))) {
+                                    conflictId = appointmentId;
+                                }
+                            }
+                        }
+                    }
+                    if (conflictId != 0) {
+                        conn.rollback();
+                        return conflictId;
+                    }
+                    
+                    int generatedId = 0;
+                    if (insert) {
+                        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                            bindAppointment(stmt, appointment);
+                            stmt.executeUpdate();
+                            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                                if (!generatedKeys.next()) {
+                                    throw new SQLException("Creating appointment failed, no ID obtained.");
+                                }
+                                generatedId = generatedKeys.getInt(1);
+                            }
+                        }
+                    } else {
+                        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                            bindAppointment(stmt, appointment);
+                            stmt.setInt(8, appointment.getAppointmentId());
+                            if (stmt.executeUpdate() == 0) {
+                                conn.rollback();
+                                return -1;
+                            }
+                        }
+                    }
+                    
+                    conn.commit();
+                    if (insert) {
+                        appointment.setAppointmentId(generatedId);
+                    }
+                    return 0;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error creating patient", e);
-                throw new Exception("Failed to create patient: " + e.getMessage(), e);
+                // Lock conflicts are expected under load and retried by the service
+                LOGGER.log(Level.WARNING, "Error booking appointment", e);
+                throw e;
             }
         }
         
         /**
-         * Update an existing patient
+         * Delete an appointment
          */
-        public boolean updatePatient(Patient patient) throws Exception {
-            // Validate patient data
-            validatePatient(patient);
+        public boolean delete(int appointmentId) throws SQLException {
+            String sql = "DELETE FROM appointments WHERE appointment_id = ?";
             
-            try {
-                return patientRepository.update(patient);
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, appointmentId);
+                
+                int affectedRows = stmt.executeUpdate();
+                return affectedRows > 0;
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error updating patient", e);
-                throw new Exception("Failed to update patient: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error deleting appointment", e);
+                throw e;
             }
         }
         
         /**
-         * Delete a patient
+         * Find an appointment by ID
          */
-        public boolean deletePatient(int patientId) throws Exception {
-            try {
-                return patientRepository.delete(patientId);
+        public Appointment findById(int appointmentId) throws SQLException {
+            String sql = SELECT_APPOINTMENTS + "WHERE appointment_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, appointmentId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? APPOINTMENT_MAPPER.map(sql, rs) : null;
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error deleting patient", e);
-                throw new Exception("Failed to delete patient: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error finding appointment by ID", e);
+                throw e;
             }
         }
         
         /**
-         * Get a patient by ID
+         * Find the appointments of every doctor starting in [from, to), in time order
          */
-        public Patient getPatientById(int patientId) throws Exception {
-            try {
-                return patientRepository.findById(patientId);
+        public List<Appointment> findBetween(Date from, Date to) throws SQLException {
+            String sql = SELECT_APPOINTMENTS +
+                        "WHERE appointment_time >= ? AND appointment_time < ? " +
+                        "ORDER BY appointment_time, doctor_id";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setTimestamp(1, new Timestamp(from.getTime()));
+                stmt.setTimestamp(2, new Timestamp(to.getTime()));
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return APPOINTMENT_MAPPER.mapAll(sql, rs);
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error getting patient by ID", e);
-                throw new Exception("Failed to get patient: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error finding appointments in range", e);
+                throw e;
             }
         }
         
         /**
-         * Get all patients
+         * Find a doctor's appointments starting in [from, to), in time order
          */
-        public List<Patient> getAllPatients() throws Exception {
-            try {
-                return patientRepository.findAll();
+        public List<Appointment> findByDoctorBetween(int doctorId, Date from, Date to) throws SQLException {
+            String sql = SELECT_APPOINTMENTS +
+                        "WHERE doctor_id = ? AND appointment_time >= ? AND appointment_time < ? " +
+                        "ORDER BY appointment_time";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, doctorId);
+                stmt.setTimestamp(2, new Timestamp(from.getTime()));
+                stmt.setTimestamp(3, new Timestamp(to.getTime()));
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return APPOINTMENT_MAPPER.mapAll(sql, rs);
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error getting all patients", e);
-                throw new Exception("Failed to get patients: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error finding doctor appointments in range", e);
+                throw e;
             }
         }
         
         /**
-         * Search patients by name
+         * Find all appointments of a patient, newest first
          */
-        public List<Patient> searchPatientsByName(String searchTerm) throws Exception {
-            if (searchTerm == null || searchTerm.trim().isEmpty()) {
-                return getAllPatients();
-            }
+        public List<Appointment> findByPatientId(int patientId) throws SQLException {
+            String sql = SELECT_APPOINTMENTS + "WHERE patient_id = ? ORDER BY appointment_time DESC";
             
-            try {
-                return patientRepository.searchByName(searchTerm);
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error searching patients by name", e);
-                throw new Exception("Failed to search patients: " + e.getMessage(), e);
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, patientId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return APPOINTMENT_MAPPER.mapAll(sql, rs);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding appointments for patient", e);
+                throw e;
             }
         }
         
         /**
-         * Validate patient data
+         * Find the ID of a non-cancelled appointment of the doctor that overlaps
+         * [start, end), ignoring excludeId, or 0 if the doctor is free. Appointments
+         * are at most maxDurationMinutes long, which bounds the index range scanned.
          */
-        private void validatePatient(Patient patient) throws Exception {
-            if (patient == null) {
-                throw new IllegalArgumentException("Patient cannot be null");
-            }
-            
-            if (patient.getFirstName() == null || patient.getFirstName().trim().isEmpty()) {
-                throw new Exception("First name is required");
-            }
+        public int findOverlapping(int doctorId, Date start, Date end, int excludeId, int maxDurationMinutes)
+                throws SQLException {
+            String sql = "SELECT appointment_id FROM appointments " +
+                        "WHERE doctor_id = ? AND appointment_time < ? AND appointment_time > ? " +
+                        "AND appointment_time + INTERVAL duration_minutes MINUTE > ? " +
+                        "AND status <> ? AND appointment_id <> ? LIMIT 1";
             
-            if (patient.getLastName() == null || patient.getLastName().trim().isEmpty()) {
-                throw new Exception("Last name is required");
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                Timestamp startTime = new Timestamp(start.getTime());
+                stmt.setInt(1, doctorId);
+                stmt.setTimestamp(2, new Timestamp(end.getTime()));
+                stmt.setTimestamp(3, new Timestamp(start.getTime() - TimeUnit.MINUTES.toMillis(maxDurationMinutes)));
+                stmt.setTimestamp(4, startTime);
+                stmt.setString(5, Appointment.STATUS_CANCELLED);
+                stmt.setInt(6, excludeId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error checking for overlapping appointments", e);
+                throw e;
             }
-            
-            if (patient.getDateOfBirth() == null) {
-                throw new Exception("Date of birth is required");
+        }
+        
+        /**
+         * Find the slots of the non-cancelled appointments of the given doctors
+         * that overlap [start, end), as {doctorId, startMillis, endMillis}
+         */
+        public List<long[]> findBookedSlots(List<Integer> doctorIds, Date start, Date end, int maxDurationMinutes)
+                throws SQLException {
+            List<long[]> slots = new ArrayList<>();
+            if (doctorIds.isEmpty()) {
+                return slots;
             }
             
-            if (patient.getGender() == null || patient.getGender().trim().isEmpty()) {
-                throw new Exception("Gender is required");
+            // Pad the IN list to a power of two so only a few statement shapes get cached
+            int placeholders = Integer.highestOneBit(doctorIds.size());
+            if (placeholders < doctorIds.size()) {
+                placeholders <<= 1;
             }
+            String sql = "SELECT doctor_id, appointment_time, duration_minutes FROM appointments " +
+                        "WHERE doctor_id IN (" + String.join(", ", Collections.nCopies(placeholders, "?")) + ") " +
+                        "AND appointment_time < ? AND appointment_time > ? " +
+                        "AND appointment_time + INTERVAL duration_minutes MINUTE > ? AND status <> ?";
             
-            if (patient.getContactNumber() != null && !patient.getContactNumber().trim().isEmpty()) {
-                if (!isValidPhoneNumber(patient.getContactNumber())) {
-                    throw new Exception("Invalid contact number format");
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                int index = 1;
+                for (int i = 0; i < placeholders; i++) {
+                    stmt.setInt(index++, doctorIds.get(Math.min(i, doctorIds.size() - 1)));
                 }
-            }
-            
-            if (patient.getEmail() != null && !patient.getEmail().trim().isEmpty()) {
-                if (!isValidEmail(patient.getEmail())) {
-                    throw new Exception("Invalid email format");
+                stmt.setTimestamp(index++, new Timestamp(end.getTime()));
+                stmt.setTimestamp(index++, new Timestamp(start.getTime() - TimeUnit.MINUTES.toMillis(maxDurationMinutes)));
+                stmt.setTimestamp(index++, new Timestamp(start.getTime()));
+                stmt.setString(index, Appointment.STATUS_CANCELLED);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long slotStart = rs.getTimestamp(2).getTime();
+                        slots.add(new long[] { rs.getInt(1), slotStart,
+                                slotStart + TimeUnit.MINUTES.toMillis(rs.getInt(3)) });
+                    }
                 }
+                return slots;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding booked slots", e);
+                throw e;
             }
         }
         
         /**
-         * Validate phone number format
+         * Stream the slot of every non-cancelled appointment to a visitor
+         * without buffering the table in memory
          */
-        private boolean isValidPhoneNumber(String phoneNumber) {
-            // Simple validation - can be enhanced as needed
-            return phoneNumber.matches("\\d{3}-\\d{3}-\\d{4}") || 
-                   phoneNumber.matches("\\$\\d{3}\\$ \\d{3}-\\d{4}") ||
-                   phoneNumber.matches("\\d{10}");
+        public void forEachBookedSlot(BookedSlotVisitor visitor) throws SQLException {
+            String sql = "SELECT appointment_id, doctor_id, appointment_time, duration_minutes " +
+                        "FROM appointments WHERE status <> ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                
+                // Connector/J streams rows one at a time with this fetch size
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                stmt.setString(1, Appointment.STATUS_CANCELLED);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long start = rs.getTimestamp(3).getTime();
+                        visitor.visit(rs.getInt(1), rs.getInt(2), start,
+                                start + TimeUnit.MINUTES.toMillis(rs.getInt(4)));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error reading booked slots", e);
+                throw e;
+            }
         }
         
         /**
-         * Validate email format
+         * Callback for forEachBookedSlot. Times are epoch milliseconds.
          */
-        private boolean isValidEmail(String email) {
-            // Simple validation - can be enhanced as needed
-            return email.matches("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
+        @FunctionalInterface
+        interface BookedSlotVisitor {
+            void visit(int appointmentId, int doctorId, long startMillis, long endMillis);
+        }
+        
+        private void bindAppointment(PreparedStatement stmt, Appointment appointment) throws SQLException {
+            stmt.setInt(1, appointment.getPatientId());
+            stmt.setInt(2, appointment.getDoctorId());
+            stmt.setTimestamp(3, new Timestamp(appointment.getAppointmentTime().getTime()));
+            stmt.setInt(4, appointment.getDurationMinutes());
+            stmt.setString(5, appointment.getStatus());
+            stmt.setString(6, appointment.getPurpose());
+            stmt.setString(7, appointment.getNotes());
         }
     }
-
+    
     /**
-     * Disease service for disease-related business logic
+     * Repository for medical record data access
      */
-    static class DiseaseService {
-        private static final Logger LOGGER = Logger.getLogger(DiseaseService.class.getName());
-        private final DiseaseRepository diseaseRepository;
-        private final PatientDiseaseRepository patientDiseaseRepository;
-    
-        public DiseaseService() {
-            this.diseaseRepository = new DiseaseRepository();
-            this.patientDiseaseRepository = new PatientDiseaseRepository();
+    static class MedicalRecordRepository {
+        private static final Logger LOGGER = Logger.getLogger(MedicalRecordRepository.class.getName());
+        private static final RowMapper<MedicalRecord> RECORD_MAPPER = new RowMapper<>((rs, c) -> {
+            MedicalRecord record = new MedicalRecord();
+            record.setRecordId(rs.getInt(c[0]));
+            record.setPatientId(rs.getInt(c[1]));
+            record.setDoctorId(rs.getInt(c[2]));
+            record.setRecordDate(rs.getDate(c[3]));
+            record.setDiagnosis(rs.getString(c[4]));
+            record.setTreatment(rs.getString(c[5]));
+            record.setNotes(rs.getString(c[6]));
+            record.setDoctorName(rs.getString(c[7]));
+            return record;
+        }, "record_id", "patient_id", "doctor_id", "record_date", "diagnosis", "treatment", "notes", "doctor_name");
+        private static final String SELECT_RECORDS = "SELECT mr.record_id, mr.patient_id, mr.doctor_id, mr.record_date, " +
+                "mr.diagnosis, mr.treatment, mr.notes, CONCAT(d.first_name, ' ', d.last_name) AS doctor_name " +
+                "FROM medical_records mr LEFT JOIN doctors d ON mr.doctor_id = d.doctor_id ";
+        private final DatabaseConfig dbConfig;
+        
+        public MedicalRecordRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
         }
-    
+        
         /**
-         * Get all diseases
+         * Save a new medical record to the database
          */
-        public List<Disease> getAllDiseases() throws Exception {
-            try {
-                return diseaseRepository.findAll();
+        public MedicalRecord save(MedicalRecord record) throws SQLException {
+            String sql = "INSERT INTO medical_records (patient_id, doctor_id, record_date, diagnosis, treatment, notes) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                bindRecord(stmt, record);
+                
+                int affectedRows = stmt.executeUpdate();
+                
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating medical record failed, no rows affected.");
+                }
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        record.setRecordId(generatedKeys.getInt(1));
+                    } else {
+                        throw new SQLException("Creating medical record failed, no ID obtained.");
+                    }
+                }
+                
+                return record;
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error getting all diseases", e);
-                throw new Exception("Failed to get diseases: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error saving medical record", e);
+                throw e;
             }
         }
-    
+        
         /**
-         * Get a disease by ID
+         * Update an existing medical record
          */
-        public Disease getDiseaseById(int diseaseId) throws Exception {
-            try {
-                return diseaseRepository.findById(diseaseId);
+        public boolean update(MedicalRecord record) throws SQLException {
+            String sql = "UPDATE medical_records SET patient_id = ?, doctor_id = ?, record_date = ?, " +
+                        "diagnosis = ?, treatment = ?, notes = ? WHERE record_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                bindRecord(stmt, record);
+                stmt.setInt(7, record.getRecordId());
+                
+                int affectedRows = stmt.executeUpdate();
+                return affectedRows > 0;
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error getting disease by ID", e);
-                throw new Exception("Failed to get disease: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error updating medical record", e);
+                throw e;
             }
         }
-    
+        
         /**
-         * Add a disease to a patient
+         * Delete a medical record
          */
-        public PatientDisease addDiseaseToPatient(PatientDisease patientDisease) throws Exception {
-            try {
-                return patientDiseaseRepository.save(patientDisease);
+        public boolean delete(int recordId) throws SQLException {
+            String sql = "DELETE FROM medical_records WHERE record_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, recordId);
+                
+                int affectedRows = stmt.executeUpdate();
+                return affectedRows > 0;
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error adding disease to patient", e);
-                throw new Exception("Failed to add disease to patient: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error deleting medical record", e);
+                throw e;
             }
         }
-    
+        
         /**
-         * Get all diseases for a patient
+         * Find a medical record by ID
          */
-        public List<Map<String, Object>> getDiseasesForPatient(int patientId) throws Exception {
-            try {
-                return patientDiseaseRepository.findByPatientId(patientId);
+        public MedicalRecord findById(int recordId) throws SQLException {
+            String sql = SELECT_RECORDS + "WHERE mr.record_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, recordId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? RECORD_MAPPER.map(sql, rs) : null;
+                }
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error getting diseases for patient", e);
-                throw new Exception("Failed to get diseases for patient: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error finding medical record by ID", e);
+                throw e;
             }
         }
-    
+        
         /**
-         * Remove a disease from a patient
+         * Find one page of a patient's records, newest first, ordered by
+         * (record_date, record_id) descending. Uses keyset pagination so
+         * reaching the oldest visits costs the same as the first page.
          */
-        public boolean removeDiseaseFromPatient(int patientDiseaseId) throws Exception {
-            try {
-                return patientDiseaseRepository.delete(patientDiseaseId);
+        public Page<MedicalRecord> findTimelinePage(int patientId, String cursor, int pageSize) throws SQLException {
+            String sql = cursor == null
+                    ? SELECT_RECORDS +
+                      "WHERE mr.patient_id = ? " +
+                      "ORDER BY mr.record_date DESC, mr.record_id DESC LIMIT ?"
+                    : SELECT_RECORDS +
+                      "WHERE mr.patient_id = ? AND (mr.record_date < ? OR (mr.record_date = ? AND mr.record_id < ?)) " +
+                      "ORDER BY mr.record_date DESC, mr.record_id DESC LIMIT ?";
+            List<MedicalRecord> records = new ArrayList<>();
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                int index = 1;
+                stmt.setInt(index++, patientId);
+                if (cursor != null) {
+                    long[] key = decodeCursor(cursor);
+                    java.sql.Date recordDate = java.sql.Date.valueOf(LocalDate.ofEpochDay(key[0]));
+                    stmt.setDate(index++, recordDate);
+                    stmt.setDate(index++, recordDate);
+                    stmt.setInt(index++, (int) key[1]);
+                }
+                // Fetch one extra row to know whether another page exists
+                stmt.setInt(index, pageSize + 1);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    records.addAll(RECORD_MAPPER.mapAll(sql, rs));
+                }
+                
+                String nextCursor = null;
+                if (records.size() > pageSize) {
+                    records.remove(pageSize);
+                    nextCursor = encodeCursor(records.get(pageSize - 1));
+                }
+                return new Page<>(records, nextCursor);
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error removing disease from patient", e);
-                throw new Exception("Failed to remove disease from patient: " + e.getMessage(), e);
+                LOGGER.log(Level.SEVERE, "Error finding medical record page", e);
+                throw e;
             }
         }
-    }
-    
-    //==========================================================================
-    // UI COMPONENTS
-    //==========================================================================
-    
-    /**
-     * Color scheme for the dark theme
-     */
-    static class ColorScheme {
-        // Main colors
-        public static final Color BACKGROUND = new Color(18, 18, 18);
-        public static final Color TEXT = new Color(230, 230, 230);
         
-        // Input fields
-        public static final Color INPUT_BACKGROUND = new Color(30, 30, 30);
-        public static final Color SELECTION_BACKGROUND = new Color(0, 120, 215);
-        public static final Color SELECTION_FOREGROUND = Color.WHITE;
+        /**
+         * Count the records of a patient
+         */
+        public int countByPatientId(int patientId) throws SQLException {
+            String sql = "SELECT COUNT(*) FROM medical_records WHERE patient_id = ?";
+            
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, patientId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error counting medical records", e);
+                throw e;
+            }
+        }
         
-        // Buttons
-        public static final Color BUTTON_BACKGROUND = new Color(60, 60, 60);
-        public static final Color BUTTON_TEXT = new Color(230, 230, 230);
-        public static final Color BUTTON_SELECTED = new Color(80, 80, 80);
-        public static final Color BUTTON_FOCUS = new Color(0, 120, 215, 100);
+        private void bindRecord(PreparedStatement stmt, MedicalRecord record) throws SQLException {
+            stmt.setInt(1, record.getPatientId());
+            stmt.setInt(2, record.getDoctorId());
+            stmt.setDate(3, new java.sql.Date(record.getRecordDate().getTime()));
+            stmt.setString(4, record.getDiagnosis());
+            stmt.setString(5, record.getTreatment());
+            stmt.setString(6, record.getNotes());
+        }
         
-        // Tables
-        public static final Color TABLE_BACKGROUND = new Color(25, 25, 25);
-        public static final Color TABLE_HEADER_BACKGROUND = new Color(40, 40, 40);
-        public static final Color TABLE_HEADER_TEXT = new Color(200, 200, 200);
-        public static final Color TABLE_GRID = new Color(50, 50, 50);
+        /**
+         * Encode the sort key of a record as an opaque page cursor
+         */
+        private String encodeCursor(MedicalRecord record) {
+            long epochDay = new java.sql.Date(record.getRecordDate().getTime()).toLocalDate().toEpochDay();
+            String key = String.valueOf(epochDay) + '\u0000' + record.getRecordId();
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(key.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
         
-        // Accent colors
-        public static final Color PRIMARY = new Color(0, 120, 215);
-        public static final Color SUCCESS = new Color(0, 180, 100);
-        public static final Color WARNING = new Color(255, 180, 0);
-        public static final Color ERROR = new Color(215, 0, 0);
+        /**
+         * Decode a page cursor into {record_date as epoch day, record_id}
+         */
+        private long[] decodeCursor(String cursor) throws SQLException {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), java.nio.charset.StandardCharsets.UTF_8);
+                String[] parts = key.split("\u0000", -1);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("wrong number of key parts");
+                }
+                return new long[] { Long.parseLong(parts[0]), Integer.parseInt(parts[1]) };
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("Invalid medical record page cursor: " + cursor, e);
+            }
+        }
     }
     
     /**
-     * Animated button with smooth transitions
+     * Reads the three sources of a patient's history, each as a newest-first
+     * keyset page over (time, id) that can resume after any position of the
+     * merged history.
      */
-    static class AnimatedButton extends JButton {
-        private float alpha = 0.7f;
-        private Color hoverColor;
-        private Color normalColor;
-        private Color pressedColor;
-        private Color currentColor;
-        private boolean isHovered = false;
-        private boolean isPressed = false;
-        
-        private javax.swing.Timer fadeTimer;
-        private int targetAlpha;
+    static class PatientHistoryRepository {
+        private static final Logger LOGGER = Logger.getLogger(PatientHistoryRepository.class.getName());
+        private static final RowMapper<PatientHistoryEntry> APPOINTMENT_MAPPER = new RowMapper<>((rs, c) ->
+                new PatientHistoryEntry(HistorySource.APPOINTMENT, rs.getTimestamp(c[1]).getTime(), rs.getInt(c[0]),
+                        "Appointment (" + rs.getString(c[2]) + ")",
+                        joinDetail(rs.getString(c[3]), doctorLabel(rs.getString(c[4])))),
+                "appointment_id", "appointment_time", "status", "purpose", "doctor_name");
+        private static final RowMapper<PatientHistoryEntry> RECORD_MAPPER = new RowMapper<>((rs, c) ->
+                new PatientHistoryEntry(HistorySource.MEDICAL_RECORD, rs.getTimestamp(c[1]).getTime(), rs.getInt(c[0]),
+                        "Visit with " + doctorLabel(rs.getString(c[4])),
+                        joinDetail(rs.getString(c[2]), rs.getString(c[3]))),
+                "record_id", "record_date", "diagnosis", "treatment", "doctor_name");
+        private static final RowMapper<PatientHistoryEntry> DIAGNOSIS_MAPPER = new RowMapper<>((rs, c) ->
+                new PatientHistoryEntry(HistorySource.DIAGNOSIS, rs.getTimestamp(c[1]).getTime(), rs.getInt(c[0]),
+                        "Diagnosed: " + rs.getString(c[2]),
+                        joinDetail(rs.getString(c[3]), rs.getString(c[4]))),
+                "patient_disease_id", "diagnosis_date", "disease_name", "status", "notes");
+        private final DatabaseConfig dbConfig;
         
-        public AnimatedButton(String text) {
-            super(text);
+        public PatientHistoryRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
+        }
         
-            // Set button properties
-            setFocusPainted(false);
-            setBorderPainted(false);
-            setContentAreaFilled(false);
-            setOpaque(false);
-            setForeground(ColorScheme.BUTTON_TEXT);
-            setCursor(new Cursor(Cursor.HAND_CURSOR));
-        
-            // Set colors
-            normalColor = ColorScheme.BUTTON_BACKGROUND;
-            hoverColor = ColorScheme.BUTTON_BACKGROUND.brighter();
-            pressedColor = ColorScheme.BUTTON_SELECTED;
-            currentColor = normalColor;
-        
-            // Create fade timer
-            fadeTimer = new javax.swing.Timer(20, e -> {
-                if (targetAlpha > alpha) {
-                    alpha += 0.05f;
-                    if (alpha >= targetAlpha) {
-                        alpha = targetAlpha;
-                        fadeTimer.stop();
-                    }
-                } else {
-                    alpha -= 0.05f;
-                    if (alpha <= targetAlpha) {
-                        alpha = targetAlpha;
-                        fadeTimer.stop();
-                    }
-                }
-                repaint();
-            });
-        
-            // Add mouse listeners for hover and press effects
-            addMouseListener(new MouseAdapter() {
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                    isHovered = true;
-                    currentColor = hoverColor;
-                    targetAlpha = 1;
-                    fadeTimer.start();
-                }
-            
-                @Override
-                public void mouseExited(MouseEvent e) {
-                    isHovered = false;
-                    currentColor = normalColor;
-                    targetAlpha = (int) 0.7f;
-                    fadeTimer.start();
-                }
+        /**
+         * Find up to limit entries of one source that come after the given
+         * position of the merged history, newest first. A null position
+         * starts from the newest entry.
+         *
+         * @param afterTime time of the last entry already seen
+         * @param afterSource source of the last entry already seen
+         * @param afterId source row ID of the last entry already seen
+         */
+        public List<PatientHistoryEntry> findEntries(HistorySource source, int patientId, long afterTime,
+                                                     HistorySource afterSource, int afterId, int limit) throws SQLException {
+            String select;
+            String timeColumn;
+            String idColumn;
+            RowMapper<PatientHistoryEntry> mapper;
+            switch (source) {
+                case APPOINTMENT:
+                    select = "SELECT a.appointment_id, a.appointment_time, a.status, a.purpose, " +
+                             "CONCAT(d.first_name, ' ', d.last_name) AS doctor_name " +
+                             "FROM appointments a LEFT JOIN doctors d ON a.doctor_id = d.doctor_id ";
+                    timeColumn = "a.appointment_time";
+                    idColumn = "a.appointment_id";
+                    mapper = APPOINTMENT_MAPPER;
+                    break;
+                case MEDICAL_RECORD:
+                    select = "SELECT mr.record_id, mr.record_date, mr.diagnosis, mr.treatment, " +
+                             "CONCAT(d.first_name, ' ', d.last_name) AS doctor_name " +
+                             "FROM medical_records mr LEFT JOIN doctors d ON mr.doctor_id = d.doctor_id ";
+                    timeColumn = "mr.record_date";
+                    idColumn = "mr.record_id";
+                    mapper = RECORD_MAPPER;
+                    break;
+                default:
+                    select = "SELECT pd.patient_disease_id, pd.diagnosis_date, dis.name AS disease_name, " +
+                             "pd.status, pd.notes " +
+                             "FROM patient_diseases pd JOIN diseases dis ON pd.disease_id = dis.disease_id ";
+                    timeColumn = "pd.diagnosis_date";
+                    idColumn = "pd.patient_disease_id";
+                    mapper = DIAGNOSIS_MAPPER;
+                    break;
+            }
+            String alias = timeColumn.substring(0, timeColumn.indexOf('.') + 1);
+            
+            // Rows at exactly afterTime come after the position only if this source
+            // sorts after afterSource, or is afterSource with a lower ID
+            String after;
+            if (afterSource == null) {
+                after = timeColumn + " IS NOT NULL ";
+            } else if (source.compareTo(afterSource) > 0) {
+                after = timeColumn + " <= ? ";
+            } else if (source == afterSource) {
+                after = "(" + timeColumn + " < ? OR (" + timeColumn + " = ? AND " + idColumn + " < ?)) ";
+            } else {
+                after = timeColumn + " < ? ";
+            }
+            String sql = select + "WHERE " + alias + "patient_id = ? AND " + after +
+                         "ORDER BY " + timeColumn + " DESC, " + idColumn + " DESC LIMIT ?";
             
-                @Override
-                public void mousePressed(MouseEvent e) {
-                    isPressed = true;
-                    currentColor = pressedColor;
-                    repaint();
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                int index = 1;
+                stmt.setInt(index++, patientId);
+                if (afterSource != null) {
+                    Timestamp time = new Timestamp(afterTime);
+                    stmt.setTimestamp(index++, time);
+                    if (source == afterSource) {
+                        stmt.setTimestamp(index++, time);
+                        stmt.setInt(index++, afterId);
+                    }
                 }
-            
-                @Override
-                public void mouseReleased(MouseEvent e) {
-                    isPressed = false;
-                    currentColor = isHovered ? hoverColor : normalColor;
-                    repaint();
+                stmt.setInt(index, limit);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return mapper.mapAll(sql, rs);
                 }
-            });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding " + source + " history of patient", e);
+                throw e;
+            }
         }
         
-        @Override
-        protected void paintComponent(Graphics g) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        private static String doctorLabel(String doctorName) {
+            return doctorName == null ? "unknown doctor" : "Dr. " + doctorName;
+        }
         
-            // Set button color based on state
-            if (isPressed) {
-                g2d.setColor(pressedColor);
-            } else {
-                g2d.setColor(currentColor);
+        private static String joinDetail(String first, String second) {
+            if (first == null || first.isEmpty()) {
+                return Objects.toString(second, "");
             }
-        
-            // Apply alpha transparency
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-        
-            // Draw rounded rectangle background
-            g2d.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
-        
-            // Draw focus border if button has focus
-            if (hasFocus()) {
-                g2d.setColor(ColorScheme.BUTTON_FOCUS);
-                g2d.setStroke(new BasicStroke(2));
-                g2d.drawRoundRect(1, 1, getWidth() - 3, getHeight() - 3, 10, 10);
+            if (second == null || second.isEmpty()) {
+                return first;
             }
+            return first + " - " + second;
+        }
+    }
+    
+    /**
+     * Streams whole tables for export. Rows are read through forward-only
+     * result sets that Connector/J streams one row at a time, so memory use
+     * does not depend on table size.
+     */
+    static class ExportRepository {
+        private static final Logger LOGGER = Logger.getLogger(ExportRepository.class.getName());
         
-            // Draw text
-            FontMetrics fm = g2d.getFontMetrics();
-            Rectangle textRect = new Rectangle(0, 0, getWidth(), getHeight());
-            String text = getText();
-        
-            int x = (textRect.width - fm.stringWidth(text)) / 2;
-            int y = (textRect.height - fm.getHeight()) / 2 + fm.getAscent();
+        // Slow consumers hold a streaming result open; give the server time to wait for them
+        private static final int NET_WRITE_TIMEOUT_SECONDS = 3600;
         
-            g2d.setColor(ColorScheme.BUTTON_TEXT);
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-            g2d.drawString(text, x, y);
+        private final DatabaseConfig dbConfig;
         
-            g2d.dispose();
+        public ExportRepository() {
+            this.dbConfig = DatabaseConfig.getInstance();
         }
         
-        @Override
-        public Dimension getPreferredSize() {
-            Dimension size = super.getPreferredSize();
-            return new Dimension(size.width + 20, size.height + 10);
+        /**
+         * Callback for each row of a streamed table. The result set is
+         * positioned on the row and must not be advanced.
+         */
+        @FunctionalInterface
+        interface RowHandler {
+            void handle(ResultSet rs) throws SQLException, IOException;
         }
-    }
-
-    /**
-     * Navigation panel with animated buttons
-     */
-    static class NavigationPanel extends JPanel {
-        private final MainFrame mainFrame;
-        private final Map<String, AnimatedButton> buttons = new HashMap<>();
-    
-        public NavigationPanel(MainFrame mainFrame) {
-            this.mainFrame = mainFrame;
-        
-            // Set layout
-            setLayout(new FlowLayout(FlowLayout.LEFT, 10, 5));
-            setBackground(ColorScheme.BACKGROUND);
-            setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
         
-            // Create navigation buttons
-            createButton("Dashboard", e -> mainFrame.showDashboard());
-            createButton("Patients", e -> mainFrame.showPatientPanel());
-            createButton("Admin", e -> mainFrame.showAdminPanel());
-            createButton("Logout", e -> mainFrame.logout());
+        /**
+         * Stream every patient
+         */
+        public void streamPatients(RowHandler handler) throws SQLException, IOException {
+            stream("SELECT patient_id, first_name, last_name, date_of_birth, gender, contact_number, " +
+                    "email, address, registration_date FROM patients", handler);
         }
-    
+        
         /**
-         * Create a navigation button
+         * Stream every diagnosis joined with its disease name
          */
-        private void createButton(String text, ActionListener action) {
-            AnimatedButton button = new AnimatedButton(text);
-            button.addActionListener(action);
-            buttons.put(text, button);
-            add(button);
+        public void streamPatientDiagnoses(RowHandler handler) throws SQLException, IOException {
+            stream("SELECT pd.patient_disease_id, pd.patient_id, pd.disease_id, d.name AS disease_name, " +
+                    "pd.diagnosis_date, pd.status, pd.notes " +
+                    "FROM patient_diseases pd JOIN diseases d ON pd.disease_id = d.disease_id", handler);
         }
-    
+        
         /**
-         * Highlight the active button
+         * Stream every medical record
          */
-        public void setActiveButton(String buttonText) {
-            for (Map.Entry<String, AnimatedButton> entry : buttons.entrySet()) {
-                AnimatedButton button = entry.getValue();
-                if (entry.getKey().equals(buttonText)) {
-                    button.setForeground(ColorScheme.PRIMARY);
-                    button.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createMatteBorder(0, 0, 2, 0, ColorScheme.PRIMARY),
-                        BorderFactory.createEmptyBorder(0, 0, 2, 0)
-                    ));
-                } else {
-                    button.setForeground(ColorScheme.BUTTON_TEXT);
-                    button.setBorder(BorderFactory.createEmptyBorder(0, 0, 4, 0));
-                }
-            }
+        public void streamMedicalRecords(RowHandler handler) throws SQLException, IOException {
+            stream("SELECT record_id, patient_id, doctor_id, record_date, diagnosis, treatment, notes " +
+                    "FROM medical_records", handler);
         }
-    }
-    
-    /**
-     * Custom table with dark theme styling
-     */
-    static class CustomTable extends JTable {
-        public CustomTable(DefaultTableModel model) {
-            super(model);
-            
-            // Set table properties
-            setShowGrid(true);
-            setGridColor(ColorScheme.TABLE_GRID);
-            setRowHeight(30);
-            setIntercellSpacing(new Dimension(5, 5));
-            setFillsViewportHeight(true);
-            setSelectionBackground(ColorScheme.SELECTION_BACKGROUND);
-            setSelectionForeground(ColorScheme.SELECTION_FOREGROUND);
-            setBackground(ColorScheme.TABLE_BACKGROUND);
-            setForeground(ColorScheme.TEXT);
-            
-            // Set header properties
-            JTableHeader header = getTableHeader();
-            header.setBackground(ColorScheme.TABLE_HEADER_BACKGROUND);
-            header.setForeground(ColorScheme.TABLE_HEADER_TEXT);
-            header.setFont(header.getFont().deriveFont(Font.BOLD));
-            header.setReorderingAllowed(false);
-            header.setResizingAllowed(true);
-            
-            // Set default cell renderer
-            setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-                @Override
-                public Component getTableCellRendererComponent(JTable table, Object value, 
-                        boolean isSelected, boolean hasFocus, int row, int column) {
-                    Component c = super.getTableCellRendererComponent(
-                            table, value, isSelected, hasFocus, row, column);
-                    
-                    if (!isSelected) {
-                        c.setBackground(row % 2 == 0 ? 
-                                ColorScheme.TABLE_BACKGROUND : 
-                                new Color(ColorScheme.TABLE_BACKGROUND.getRed() + 10, 
-                                        ColorScheme.TABLE_BACKGROUND.getGreen() + 10, 
-                                        ColorScheme.TABLE_BACKGROUND.getBlue() + 10));
-                        c.setForeground(ColorScheme.TEXT);
-                    }
+        
+        private void stream(String sql, RowHandler handler) throws SQLException, IOException {
+            try (Connection conn = dbConfig.getConnection()) {
+                // The connection goes back to the pool, so the session timeout is restored afterwards
+                int previousTimeout;
+                try (Statement session = conn.createStatement();
+                     ResultSet rs = session.executeQuery("SELECT @@SESSION.net_write_timeout")) {
+                    rs.next();
+                    previousTimeout = rs.getInt(1);
+                }
+                setNetWriteTimeout(conn, NET_WRITE_TIMEOUT_SECONDS);
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
                     
-                    ((JLabel) c).setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+                    // Connector/J streams rows one at a time with this fetch size
+                    stmt.setFetchSize(Integer.MIN_VALUE);
                     
-                    return c;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            handler.handle(rs);
+                        }
+                    }
+                } finally {
+                    try {
+                        setNetWriteTimeout(conn, previousTimeout);
+                    } catch (SQLException e) {
+                        // Keep the long timeout out of the pool: a closed connection is discarded on return
+                        LOGGER.log(Level.WARNING, "Could not restore net_write_timeout; discarding connection", e);
+                        conn.abort(Runnable::run);
+                    }
                 }
-            });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error streaming export query", e);
+                throw e;
+            }
+        }
+        
+        private static void setNetWriteTimeout(Connection conn, int seconds) throws SQLException {
+            try (Statement session = conn.createStatement()) {
+                session.execute("SET SESSION net_write_timeout = " + seconds);
+            }
         }
     }
     
+    //==========================================================================
+    // SERVICES (BUSINESS LOGIC)
+    //==========================================================================
+    
     /**
-     * Panel with fade-in animation
+     * Authentication service for user login and access control
      */
-    static class AnimatedPanel extends JPanel {
-        private float alpha = 0.0f;
-        private javax.swing.Timer fadeInTimer;
-        private boolean isAnimating = false;
+    static class AuthenticationService {
+        private static final Logger LOGGER = Logger.getLogger(AuthenticationService.class.getName());
         
-        public AnimatedPanel() {
-            setOpaque(true);
-            
-            // Create fade-in animation timer
-            fadeInTimer = new javax.swing.Timer(20, e -> {
-                alpha += 0.05f;
-                if (alpha >= 1.0f) {
-                    alpha = 1.0f;
-                    fadeInTimer.stop();
-                    isAnimating = false;
-                }
-                repaint();
-            });
-            
-            // Start animation when panel becomes visible
-            addComponentListener(new ComponentAdapter() {
-                @Override
-                public void componentShown(ComponentEvent e) {
-                    startFadeInAnimation();
-                }
-            });
-        }
+        // Last-login write-behind settings - override with -Dhms.writeBehind.* system properties
+        private static final int WRITE_BEHIND_CAPACITY = Integer.getInteger("hms.writeBehind.capacity", 10_000);
+        private static final int WRITE_BEHIND_BATCH_SIZE = Integer.getInteger("hms.writeBehind.batchSize", 100);
+        private static final long WRITE_BEHIND_FLUSH_MILLIS = Long.getLong("hms.writeBehind.flushMillis", 1_000L);
         
-        /**
-         * Start the fade-in animation
-         */
-        public void startFadeInAnimation() {
-            alpha = 0.0f;
-            isAnimating = true;
-            fadeInTimer.start();
+        private final UserRepository userRepository;
+        // Last-login stamps are bookkeeping, so they are written after the login returns
+        private final WriteBehindQueue<Integer, Timestamp> lastLoginWrites;
+        private User currentUser;
+        
+        private static AuthenticationService instance;
+        
+        private AuthenticationService() {
+            this.userRepository = new UserRepository();
+            this.lastLoginWrites = new WriteBehindQueue<>("last_login", WRITE_BEHIND_CAPACITY,
+                    WRITE_BEHIND_BATCH_SIZE, WRITE_BEHIND_FLUSH_MILLIS,
+                    (older, newer) -> newer.after(older) ? newer : older,
+                    userRepository::updateLastLogins);
         }
         
-        @Override
-        protected void paintComponent(Graphics g) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            
-            // If animating, set alpha composite
-            if (isAnimating) {
-                g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        public static synchronized AuthenticationService getInstance() {
+            if (instance == null) {
+                instance = new AuthenticationService();
             }
-            
-            super.paintComponent(g2d);
-            g2d.dispose();
+            return instance;
         }
-    }
-    
-    //==========================================================================
-    // UI SCREENS
-    //==========================================================================
-    
-    /**
-     * Main application frame
-     */
-    static class MainFrame extends JFrame {
-        private final CardLayout cardLayout;
-        private final JPanel contentPanel;
-        private final LoginPanel loginPanel;
-        private final DashboardPanel dashboardPanel;
-        private final PatientPanel patientPanel;
-        private final AdminPanel adminPanel;
-        private final PatientDiseasePanel patientDiseasePanel;
-        private final NavigationPanel navigationPanel;
-        
-        private final AuthenticationService authService;
         
-        public MainFrame() {
-            // Set application title
-            super("Hospital Management System");
-            
-            // Apply dark theme
-            applyDarkTheme();
-            
-            // Get authentication service
-            authService = AuthenticationService.getInstance();
-
-            // Initialize navigation panel
-            navigationPanel = new NavigationPanel(this);
-            
-            // Set up the main frame
-            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-            setSize(1200, 800);
-            setMinimumSize(new Dimension(800, 600));
-            setLocationRelativeTo(null);
-            
-            // Create card layout for switching between panels
-            cardLayout = new CardLayout();
-            contentPanel = new JPanel(cardLayout);
-            
-            // Create panels
-            loginPanel = new LoginPanel(this);
-            dashboardPanel = new DashboardPanel(this);
-            patientPanel = new PatientPanel(this);
-            adminPanel = new AdminPanel(this);
-            patientDiseasePanel = new PatientDiseasePanel(this);
-            
-            // Add panels to content panel
-            contentPanel.add(loginPanel, "LOGIN");
-            contentPanel.add(dashboardPanel, "DASHBOARD");
-            contentPanel.add(patientPanel, "PATIENTS");
-            contentPanel.add(adminPanel, "ADMIN");
-            contentPanel.add(patientDiseasePanel, "PATIENT_DISEASES");
-            
-            // Add content panel to frame
-            add(contentPanel);
-            
-            // Show login panel initially
-            cardLayout.show(contentPanel, "LOGIN");
-            
-            // Add window listener to handle application close
-            addWindowListener(new WindowAdapter() {
-                @Override
-                public void windowClosing(WindowEvent e) {
-                    // Perform cleanup operations
-                    cleanup();
+        /**
+         * Authenticate a user with username and password
+         */
+        public boolean login(String username, String password) {
+            try {
+                User user = userRepository.findByUsername(username);
+                
+                if (user != null && verifyPassword(password, user.getPasswordHash())) {
+                    currentUser = user;
+                    recordLogin(user.getUserId());
+                    return true;
                 }
-            });
+                
+                return false;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error during login", e);
+                return false;
+            }
         }
         
         /**
-         * Apply dark theme to the application
+         * Stamp the user's last login time, normally through the write-behind
+         * queue. A failure here never fails the login.
          */
-        private void applyDarkTheme() {
+        private void recordLogin(int userId) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            if (lastLoginWrites.offer(userId, now)) {
+                return;
+            }
+            
+            // Queue full or already drained: write it now
             try {
-                // Set look and feel to system look and feel
-                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-                
-                // Override colors with dark theme
-                UIManager.put("Panel.background", new ColorUIResource(ColorScheme.BACKGROUND));
-                UIManager.put("OptionPane.background", new ColorUIResource(ColorScheme.BACKGROUND));
-                UIManager.put("OptionPane.messageForeground", new ColorUIResource(ColorScheme.TEXT));
-                
-                UIManager.put("TextField.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
-                UIManager.put("TextField.foreground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("TextField.caretForeground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("TextField.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
-                UIManager.put("TextField.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
-                
-                UIManager.put("PasswordField.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
-                UIManager.put("PasswordField.foreground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("PasswordField.caretForeground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("PasswordField.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
-                UIManager.put("PasswordField.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
-                
-                UIManager.put("TextArea.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
-                UIManager.put("TextArea.foreground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("TextArea.caretForeground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("TextArea.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
-                UIManager.put("TextArea.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
-                
-                UIManager.put("ComboBox.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
-                UIManager.put("ComboBox.foreground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("ComboBox.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
-                UIManager.put("ComboBox.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
-                
-                UIManager.put("Button.background", new ColorUIResource(ColorScheme.BUTTON_BACKGROUND));
-                UIManager.put("Button.foreground", new ColorUIResource(ColorScheme.BUTTON_TEXT));
-                UIManager.put("Button.select", new ColorUIResource(ColorScheme.BUTTON_SELECTED));
-                UIManager.put("Button.focus", new ColorUIResource(ColorScheme.BUTTON_FOCUS));
-                
-                UIManager.put("Table.background", new ColorUIResource(ColorScheme.TABLE_BACKGROUND));
-                UIManager.put("Table.foreground", new ColorUIResource(ColorScheme.TEXT));
-                UIManager.put("Table.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
-                UIManager.put("Table.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
-                UIManager.put("Table.gridColor", new ColorUIResource(ColorScheme.TABLE_GRID));
-                
-                UIManager.put("TableHeader.background", new ColorUIResource(ColorScheme.TABLE_HEADER_BACKGROUND));
-                UIManager.put("TableHeader.foreground", new ColorUIResource(ColorScheme.TABLE_HEADER_TEXT));
-                
-                UIManager.put("ScrollPane.background", new ColorUIResource(ColorScheme.BACKGROUND));
-                UIManager.put("ScrollPane.border", BorderFactory.createEmptyBorder());
-                
-                UIManager.put("Label.foreground", new ColorUIResource(ColorScheme.TEXT));
-                
-                // Apply system-specific tweaks
-                String osName = System.getProperty("os.name").toLowerCase();
-                
-                if (osName.contains("mac")) {
-                    // Mac-specific tweaks
-                    System.setProperty("apple.laf.useScreenMenuBar", "true");
-                    System.setProperty("com.apple.mrj.application.apple.menu.about.name", "Hospital Management System");
-                } else if (osName.contains("windows")) {
-                    // Windows-specific tweaks
-                    JFrame.setDefaultLookAndFeelDecorated(true);
-                    JDialog.setDefaultLookAndFeelDecorated(true);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
+                userRepository.updateLastLogins(Map.of(userId, now));
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not record last login of user " + userId, e);
             }
         }
         
         /**
-         * Show the dashboard panel after successful login
+         * Verify a password against a hash
+         * Note: This is a simplified implementation. In a real application,
+         * you would use a proper password hashing library like BCrypt.
          */
-        public void showDashboard() {
-            navigationPanel.setActiveButton("Dashboard");
-            cardLayout.show(contentPanel, "DASHBOARD");
+        private boolean verifyPassword(String password, String passwordHash) {
+            // For simplicity, we're using a basic comparison
+            // In a real application, use a proper password hashing library
+            return passwordHash.equals(password);
         }
         
         /**
-         * Show the patient management panel
+         * Log out the current user
          */
-        public void showPatientPanel() {
-            navigationPanel.setActiveButton("Patients");
-            patientPanel.refreshData();
-            cardLayout.show(contentPanel, "PATIENTS");
+        public void logout() {
+            currentUser = null;
         }
         
         /**
-         * Show the admin panel if the user has admin privileges
+         * Get the currently authenticated user
          */
-        public void showAdminPanel() {
-            if (authService.isAdmin()) {
-                navigationPanel.setActiveButton("Admin");
-                adminPanel.refreshData();
-                cardLayout.show(contentPanel, "ADMIN");
-            } else {
-                JOptionPane.showMessageDialog(this, 
-                    "You do not have permission to access the admin panel.",
-                    "Access Denied", JOptionPane.WARNING_MESSAGE);
-            }
+        public User getCurrentUser() {
+            return currentUser;
         }
-
+        
         /**
-         * Show patient disease panel
+         * Check if a user is currently authenticated
          */
-        public void showPatientDiseasePanel(Patient patient) {
-            navigationPanel.setActiveButton("Patients");
-            patientDiseasePanel.setPatient(patient);
-            patientDiseasePanel.startFadeInAnimation();
-            cardLayout.show(contentPanel, "PATIENT_DISEASES");
+        public boolean isAuthenticated() {
+            return currentUser != null;
         }
         
         /**
-         * Log out the current user and return to the login screen
+         * Check if the current user has admin role
          */
-        public void logout() {
-            authService.logout();
-            cardLayout.show(contentPanel, "LOGIN");
-            loginPanel.reset();
+        public boolean isAdmin() {
+            return isAuthenticated() && "ADMIN".equals(currentUser.getRole());
         }
         
         /**
-         * Perform cleanup operations before application close
+         * Check if the current user has doctor role
          */
-        private void cleanup() {
-            // Close database connections and perform other cleanup
-            try {
-                // Log out user if logged in
-                if (authService.isAuthenticated()) {
-                    authService.logout();
-                }
-                
-                // Close database connection
-                DatabaseConfig.getInstance().closeConnection();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        public boolean isDoctor() {
+            return isAuthenticated() && "DOCTOR".equals(currentUser.getRole());
         }
-    }
-    
-    /**
-     * Login panel for user authentication
-     */
-    static class LoginPanel extends JPanel {
-        private final MainFrame mainFrame;
-        private final JTextField usernameField;
-        private final JPasswordField passwordField;
-        final JButton loginButton; // made final so it can be accessed if needed externally
-        private final JLabel statusLabel;
-
-        public LoginPanel(MainFrame mainFrame) {
-            this.mainFrame = mainFrame;
-
-            // Set layout
-            setLayout(new GridBagLayout());
-            setBackground(ColorScheme.BACKGROUND);
-
-            // Create components
-            JLabel titleLabel = new JLabel("Hospital Management System");
-            titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
-            titleLabel.setForeground(ColorScheme.TEXT);
-
-            JLabel usernameLabel = new JLabel("Username:");
-            usernameLabel.setForeground(ColorScheme.TEXT);
-
-            JLabel passwordLabel = new JLabel("Password:");
-            passwordLabel.setForeground(ColorScheme.TEXT);
-
-            usernameField = new JTextField(20);
-            passwordField = new JPasswordField(20);
-
-            loginButton = new AnimatedButton("Login");
-            loginButton.addActionListener(e -> attemptLogin());
-
-            statusLabel = new JLabel(" ");
-            statusLabel.setForeground(Color.RED);
-
-            // Add components to panel
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(10, 10, 10, 10);
-            gbc.gridx = 0;
-            gbc.gridy = 0;
-            gbc.gridwidth = 2;
-            gbc.anchor = GridBagConstraints.CENTER;
-            add(titleLabel, gbc);
-
-            gbc.gridy = 1;
-            gbc.gridwidth = 2;
-            gbc.insets = new Insets(30, 10, 10, 10);
-            add(new JSeparator(), gbc);
-
-            gbc.gridy = 2;
-            gbc.gridwidth = 1;
-            gbc.anchor = GridBagConstraints.EAST;
-            add(usernameLabel, gbc);
-
-            gbc.gridx = 1;
-            gbc.anchor = GridBagConstraints.WEST;
-            add(usernameField, gbc);
-
-            gbc.gridx = 0;
-            gbc.gridy = 3;
-            gbc.anchor = GridBagConstraints.EAST;
-            add(passwordLabel, gbc);
-
-            gbc.gridx = 1;
-            gbc.anchor = GridBagConstraints.WEST;
-            add(passwordField, gbc);
-
-            gbc.gridx = 0;
-            gbc.gridy = 4;
-            gbc.gridwidth = 2;
-            gbc.anchor = GridBagConstraints.CENTER;
-            add(loginButton, gbc);
-
-            gbc.gridy = 5;
-            add(statusLabel, gbc);
-
-            // Set default button when component is shown
-            addComponentListener(new ComponentAdapter() {
-                @Override
-                public void componentShown(ComponentEvent e) {
-                    if (getRootPane() != null) {
-                        getRootPane().setDefaultButton(loginButton);
-                    }
-                }
-            });
-        }
-
+        
         /**
-         * Attempt to log in with the provided credentials
+         * Check if the current user has receptionist role
          */
-        private void attemptLogin() {
-            String username = usernameField.getText();
-            String password = new String(passwordField.getPassword());
-
-            if (username.isEmpty() || password.isEmpty()) {
-                statusLabel.setText("Username and password are required");
-                return;
-            }
-
-            // Show loading cursor
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-
-            // Disable login button during authentication
-            loginButton.setEnabled(false);
-
-            // Use SwingWorker to perform login in background
-            SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
-                @Override
-                protected Boolean doInBackground() {
-                    AuthenticationService authService = AuthenticationService.getInstance();
-                    return authService.login(username, password);
-                }
-
-                @Override
-                protected void done() {
-                    try {
-                        boolean success = get();
-                        if (success) {
-                            statusLabel.setText("");
-                            mainFrame.showDashboard();
-                        } else {
-                            statusLabel.setText("Invalid username or password");
-                        }
-                    } catch (Exception e) {
-                        statusLabel.setText("Login error: " + e.getMessage());
-                    } finally {
-                        setCursor(Cursor.getDefaultCursor());
-                        loginButton.setEnabled(true);
-                    }
-                }
-            };
-
-            worker.execute();
+        public boolean isReceptionist() {
+            return isAuthenticated() && "RECEPTIONIST".equals(currentUser.getRole());
         }
-
+        
         /**
-         * Reset the login form
+         * Check if the current user has a specific role
          */
-        public void reset() {
-            usernameField.setText("");
-            passwordField.setText("");
-            statusLabel.setText("");
+        public boolean hasRole(String role) {
+            return isAuthenticated() && role.equals(currentUser.getRole());
         }
     }
     
     /**
-     * Dashboard panel shown after login
+     * Patient service for patient-related business logic
      */
-    static class DashboardPanel extends AnimatedPanel {
-        private final MainFrame mainFrame;
+    static class PatientService {
+        private static final Logger LOGGER = Logger.getLogger(PatientService.class.getName());
+        private static final int MAX_PAGE_SIZE = 1000;
+        public static final int MAX_SEARCH_RESULTS = 500;
+        private static final int MAX_FUZZY_RESULTS = 100;
         
-        public DashboardPanel(MainFrame mainFrame) {
-            this.mainFrame = mainFrame;
-            
-            // Set layout
-            setLayout(new BorderLayout());
-            setBackground(ColorScheme.BACKGROUND);
-            
-            // Create top panel with navigation
-            JPanel topPanel = new JPanel(new BorderLayout());
-            topPanel.setBackground(ColorScheme.BACKGROUND);
-            topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-            
-            // Navigation buttons
-            JPanel navPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            navPanel.setBackground(ColorScheme.BACKGROUND);
-            
-            AnimatedButton patientsButton = new AnimatedButton("Patients");
-            patientsButton.addActionListener(e -> mainFrame.showPatientPanel());
-            
-            AnimatedButton adminButton = new AnimatedButton("Admin");
-            adminButton.addActionListener(e -> mainFrame.showAdminPanel());
-            
-            AnimatedButton logoutButton = new AnimatedButton("Logout");
-            logoutButton.addActionListener(e -> mainFrame.logout());
-            
-            navPanel.add(patientsButton);
-            navPanel.add(adminButton);
-            navPanel.add(logoutButton);
-            
-            topPanel.add(navPanel, BorderLayout.WEST);
-            
-            // Create content panel
-            JPanel contentPanel = new JPanel(new BorderLayout());
-            contentPanel.setBackground(ColorScheme.BACKGROUND);
-            contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-            
-            // Welcome message
-            JLabel welcomeLabel = new JLabel("Welcome to Hospital Management System");
-            welcomeLabel.setFont(new Font("Arial", Font.BOLD, 24));
-            welcomeLabel.setForeground(ColorScheme.TEXT);
-            welcomeLabel.setHorizontalAlignment(SwingConstants.CENTER);
-            
-            // Dashboard content
-            JPanel dashboardPanel = new JPanel(new GridLayout(2, 2, 20, 20));
-            dashboardPanel.setBackground(ColorScheme.BACKGROUND);
-            
-            // Patient management card
-            JPanel patientCard = createDashboardCard("Patient Management", 
-                "Manage patient records, add new patients, update information", 
-                e -> mainFrame.showPatientPanel());
-            
-            // Admin panel card
-            JPanel adminCard = createDashboardCard("Administration", 
-                "System settings, user management, and configuration", 
-                e -> mainFrame.showAdminPanel());
-            
-            // Add cards to dashboard
-            dashboardPanel.add(patientCard);
-            dashboardPanel.add(adminCard);
-            
-            // Add components to content panel
-            contentPanel.add(welcomeLabel, BorderLayout.NORTH);
-            contentPanel.add(dashboardPanel, BorderLayout.CENTER);
-            
-            // Add panels to main panel
-            add(topPanel, BorderLayout.NORTH);
-            add(contentPanel, BorderLayout.CENTER);
+        // Patient cache settings - override with -Dhms.cache.patient.* system properties
+        private static final int CACHE_MAX_ENTRIES = Integer.getInteger("hms.cache.patient.maxEntries", 10_000);
+        private static final long CACHE_MAX_BYTES = Long.getLong("hms.cache.patient.maxBytes", 16L * 1024 * 1024);
+        private static final long CACHE_TTL_SECONDS = Long.getLong("hms.cache.patient.ttlSeconds", 300L);
+        
+        // Shared by every PatientService so a patient loaded by one screen is a hit on the next
+        private static final EntityCache<Integer, Patient> PATIENT_CACHE = new EntityCache<>("patients",
+                CACHE_MAX_ENTRIES, CACHE_MAX_BYTES, TimeUnit.SECONDS.toMillis(CACHE_TTL_SECONDS),
+                Patient::new, PatientService::estimateSize);
+        
+        private final PatientRepository patientRepository;
+        private final PatientNameIndex nameIndex;
+        
+        public PatientService() {
+            this.patientRepository = new PatientRepository();
+            this.nameIndex = PatientNameIndex.getInstance();
         }
         
         /**
-         * Create a dashboard card with title, description, and action
+         * Create a new patient
          */
-        private JPanel createDashboardCard(String title, String description, ActionListener action) {
-            JPanel card = new JPanel(new BorderLayout());
-            card.setBackground(new Color(30, 30, 30));
-            card.setBorder(BorderFactory.createLineBorder(new Color(50, 50, 50), 1));
-            
-            JLabel titleLabel = new JLabel(title);
-            titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
-            titleLabel.setForeground(ColorScheme.TEXT);
-            titleLabel.setBorder(BorderFactory.createEmptyBorder(15, 15, 5, 15));
-            
-            JLabel descLabel = new JLabel("<html><p>" + description + "</p></html>");
-            descLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-            descLabel.setForeground(new Color(200, 200, 200));
-            descLabel.setBorder(BorderFactory.createEmptyBorder(5, 15, 15, 15));
-            
-            AnimatedButton openButton = new AnimatedButton("Open");
-            openButton.addActionListener(action);
-            
-            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            buttonPanel.setBackground(new Color(30, 30, 30));
-            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 15, 15, 15));
-            buttonPanel.add(openButton);
-            
-            card.add(titleLabel, BorderLayout.NORTH);
-            card.add(descLabel, BorderLayout.CENTER);
-            card.add(buttonPanel, BorderLayout.SOUTH);
+        public Patient createPatient(Patient patient) throws Exception {
+            // Validate patient data
+            validatePatient(patient);
             
-            return card;
+            try {
+                long generation = PATIENT_CACHE.generation();
+                Patient saved = patientRepository.save(patient);
+                nameIndex.put(saved.getPatientId(), saved.getFirstName(), saved.getLastName());
+                PATIENT_CACHE.put(saved.getPatientId(), saved, generation);
+                return saved;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error creating patient", e);
+                throw new Exception("Failed to create patient: " + e.getMessage(), e);
+            }
         }
-    }
-    
-    /**
-     * Patient management panel
-     */
-    static class PatientPanel extends AnimatedPanel {
-        private final MainFrame mainFrame;
-        private final PatientService patientService;
         
-        private JTextField searchField;
-        private CustomTable patientTable;
-        private DefaultTableModel tableModel;
-        
-        public PatientPanel(MainFrame mainFrame) {
-            this.mainFrame = mainFrame;
-            this.patientService = new PatientService();
-            
-            initializeUI();
+        /**
+         * Create many patients with batched inserts. Every patient is validated
+         * before anything is written; on a database error the chunks committed
+         * so far stay saved.
+         */
+        public void createPatients(List<Patient> patients) throws Exception {
+            for (Patient patient : patients) {
+                validatePatient(patient);
+            }
+            createValidatedPatients(patients);
         }
         
         /**
-         * Initialize the UI components
+         * Create many patients that already passed validatePatient, for callers
+         * that validate in parallel before inserting
          */
-        private void initializeUI() {
-            setLayout(new BorderLayout());
-            setBackground(ColorScheme.BACKGROUND);
-            
-            // Create top panel with navigation and search
-            JPanel topPanel = new JPanel(new BorderLayout());
-            topPanel.setBackground(ColorScheme.BACKGROUND);
-            topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-            
-            // Navigation buttons
-            JPanel navPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            navPanel.setBackground(ColorScheme.BACKGROUND);
-            
-            AnimatedButton dashboardButton = new AnimatedButton("Dashboard");
-            dashboardButton.addActionListener(e -> mainFrame.showDashboard());
-            
-            AnimatedButton adminButton = new AnimatedButton("Admin");
-            adminButton.addActionListener(e -> mainFrame.showAdminPanel());
-            
-            AnimatedButton logoutButton = new AnimatedButton("Logout");
-            logoutButton.addActionListener(e -> mainFrame.logout());
-            
-            navPanel.add(dashboardButton);
-            navPanel.add(adminButton);
-            navPanel.add(logoutButton);
-            
-            // Search panel
-            JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            searchPanel.setBackground(ColorScheme.BACKGROUND);
-            
-            JLabel searchLabel = new JLabel("Search:");
-            searchLabel.setForeground(ColorScheme.TEXT);
-            
-            searchField = new JTextField(20);
-            
-            AnimatedButton searchButton = new AnimatedButton("Search");
-            searchButton.addActionListener(e -> searchPatients());
-            
-            searchPanel.add(searchLabel);
-            searchPanel.add(searchField);
-            searchPanel.add(searchButton);
-            
-            topPanel.add(navPanel, BorderLayout.WEST);
-            topPanel.add(searchPanel, BorderLayout.EAST);
-            
-            // Create title panel
-            JPanel titlePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            titlePanel.setBackground(ColorScheme.BACKGROUND);
-            titlePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
-            
-            JLabel titleLabel = new JLabel("Patient Management");
-            titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
-            titleLabel.setForeground(ColorScheme.TEXT);
-            
-            titlePanel.add(titleLabel);
-            
-            // Create button panel
-            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            buttonPanel.setBackground(ColorScheme.BACKGROUND);
-            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
-            
-            AnimatedButton addButton = new AnimatedButton("Add Patient");
-            addButton.addActionListener(e -> showAddPatientDialog());
-            
-            AnimatedButton editButton = new AnimatedButton("Edit Patient");
-            editButton.addActionListener(e -> {
-                int selectedRow = patientTable.getSelectedRow();
-                if (selectedRow >= 0) {
-                    int patientId = (int) tableModel.getValueAt(selectedRow, 0);
-                    showEditPatientDialog(patientId);
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "Please select a patient to edit", 
-                        "No Selection", JOptionPane.WARNING_MESSAGE);
-                }
-            });
-            
-            AnimatedButton deleteButton = new AnimatedButton("Delete Patient");
-            deleteButton.addActionListener(e -> {
-                int selectedRow = patientTable.getSelectedRow();
-                if (selectedRow >= 0) {
-                    int patientId = (int) tableModel.getValueAt(selectedRow, 0);
-                    deletePatient(patientId);
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "Please select a patient to delete", 
-                        "No Selection", JOptionPane.WARNING_MESSAGE);
-                }
-            });
-
-            AnimatedButton viewDiseasesButton = new AnimatedButton("View Diseases");
-            viewDiseasesButton.addActionListener(e -> {
-                int selectedRow = patientTable.getSelectedRow();
-                if (selectedRow >= 0) {
-                    int patientId = (int) tableModel.getValueAt(selectedRow, 0);
-                    try {
-                        Patient patient = patientService.getPatientById(patientId);
-                        mainFrame.showPatientDiseasePanel(patient);
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(this, 
-                            "Error loading patient: " + ex.getMessage(), 
-                            "Error", JOptionPane.ERROR_MESSAGE);
+        public void createValidatedPatients(List<Patient> patients) throws Exception {
+            try {
+                patientRepository.saveAll(patients, BatchInserter.DEFAULT_CHUNK_SIZE);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error creating patients", e);
+                throw new Exception("Failed to create patients: " + e.getMessage(), e);
+            } finally {
+                // Index whatever was committed
+                for (Patient patient : patients) {
+                    if (patient.getPatientId() > 0) {
+                        nameIndex.put(patient.getPatientId(), patient.getFirstName(), patient.getLastName());
                     }
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "Please select a patient to view diseases", 
-                        "No Selection", JOptionPane.WARNING_MESSAGE);
                 }
-            });
-
-            buttonPanel.add(viewDiseasesButton);
-            
-            buttonPanel.add(addButton);
-            buttonPanel.add(editButton);
-            buttonPanel.add(deleteButton);
-            
-            // Create table panel
-            JPanel tablePanel = new JPanel(new BorderLayout());
-            tablePanel.setBackground(ColorScheme.BACKGROUND);
-            tablePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            }
+        }
+        
+        /**
+         * Update an existing patient
+         */
+        public boolean updatePatient(Patient patient) throws Exception {
+            // Validate patient data
+            validatePatient(patient);
             
-            // Create table model with columns
-            String[] columns = {"ID", "First Name", "Last Name", "Date of Birth", "Age", "Gender", "Contact", "Email"};
-            tableModel = new DefaultTableModel(columns, 0) {
-                @Override
-                public boolean isCellEditable(int row, int column) {
-                    return false; // Make table non-editable
+            try {
+                boolean updated = patientRepository.update(patient);
+                if (updated) {
+                    nameIndex.put(patient.getPatientId(), patient.getFirstName(), patient.getLastName());
                 }
-                
-                @Override
-                public Class<?> getColumnClass(int columnIndex) {
-                    if (columnIndex == 0 || columnIndex == 4) {
-                        return Integer.class; // ID and Age columns are integers
-                    }
-                    return String.class;
+                return updated;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error updating patient", e);
+                throw new Exception("Failed to update patient: " + e.getMessage(), e);
+            } finally {
+                // Only once the write is over, so a concurrent load cannot cache the old row.
+                // Also on failure, since the row may have changed anyway.
+                PATIENT_CACHE.invalidate(patient.getPatientId());
+            }
+        }
+        
+        /**
+         * Delete a patient
+         */
+        public boolean deletePatient(int patientId) throws Exception {
+            try {
+                boolean deleted = patientRepository.delete(patientId);
+                if (deleted) {
+                    nameIndex.remove(patientId);
                 }
-            };
-            
-            // Create table
-            patientTable = new CustomTable(tableModel);
-            patientTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-            
-            // Add table to scroll pane
-            JScrollPane scrollPane = new JScrollPane(patientTable);
-            scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
+                return deleted;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error deleting patient", e);
+                throw new Exception("Failed to delete patient: " + e.getMessage(), e);
+            } finally {
+                // After the write, so a concurrent load cannot cache the deleted row
+                PATIENT_CACHE.invalidate(patientId);
+            }
+        }
+        
+        /**
+         * Get a patient by ID
+         */
+        public Patient getPatientById(int patientId) throws Exception {
+            Patient cached = PATIENT_CACHE.get(patientId);
+            if (cached != null) {
+                return cached;
+            }
             
-            tablePanel.add(scrollPane, BorderLayout.CENTER);
+            try {
+                long generation = PATIENT_CACHE.generation();
+                Patient patient = patientRepository.findById(patientId);
+                if (patient != null) {
+                    PATIENT_CACHE.put(patientId, patient, generation);
+                }
+                return patient;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting patient by ID", e);
+                throw new Exception("Failed to get patient: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get a patient if it is cached, without touching the database
+         */
+        public Patient getCachedPatient(int patientId) {
+            return PATIENT_CACHE.peek(patientId);
+        }
+        
+        /**
+         * Get one page of patients in name order. Pass a null cursor for the
+         * first page and the previous page's next cursor afterwards.
+         */
+        public Page<PatientSummary> getPatientPage(String cursor, int pageSize) throws Exception {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
             
-            // Add components to main panel
-            add(topPanel, BorderLayout.NORTH);
-            add(titlePanel, BorderLayout.NORTH);
-            add(buttonPanel, BorderLayout.NORTH);
-            add(tablePanel, BorderLayout.CENTER);
+            try {
+                return patientRepository.findSummaryPage(cursor, pageSize);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting patient page", e);
+                throw new Exception("Failed to get patients: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get the page of patients starting at a row offset in name order
+         */
+        public Page<PatientSummary> getPatientPageAt(int offset, int pageSize) throws Exception {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
             
-            // Load initial data
-            refreshData();
+            try {
+                return patientRepository.findSummaryPageAtOffset(offset, pageSize);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting patient page at offset", e);
+                throw new Exception("Failed to get patients: " + e.getMessage(), e);
+            }
         }
         
         /**
-         * Refresh the patient data in the table
+         * Get the total number of patients
          */
-        public void refreshData() {
+        public int countPatients() throws Exception {
             try {
-                // Clear existing data
-                tableModel.setRowCount(0);
-                
-                // Get all patients
-                List<Patient> patients = patientService.getAllPatients();
-                
-                // Add patients to table
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                for (Patient patient : patients) {
-                    Object[] row = {
-                        patient.getPatientId(),
-                        patient.getFirstName(),
-                        patient.getLastName(),
-                        dateFormat.format(patient.getDateOfBirth()),
-                        patient.getAge(),
-                        patient.getGender(),
-                        patient.getContactNumber(),
-                        patient.getEmail()
-                    };
-                    tableModel.addRow(row);
-                }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading patients: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+                return patientRepository.countAll();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error counting patients", e);
+                throw new Exception("Failed to count patients: " + e.getMessage(), e);
             }
         }
         
         /**
-         * Search for patients by name
+         * Search patients by name. A blank term matches everyone, so only the
+         * first MAX_SEARCH_RESULTS patients in name order are returned.
          */
-        private void searchPatients() {
+        public List<PatientSummary> searchPatientsByName(String searchTerm) throws Exception {
+            if (searchTerm == null || searchTerm.trim().isEmpty()) {
+                return getPatientPage(null, MAX_SEARCH_RESULTS).getItems();
+            }
+            
             try {
-                String searchTerm = searchField.getText().trim();
-                
-                // Clear existing data
-                tableModel.setRowCount(0);
-                
-                // Search patients
-                List<Patient> patients = patientService.searchPatientsByName(searchTerm);
+                if (!nameIndex.isReady()) {
+                    return patientRepository.searchSummariesByName(searchTerm);
+                }
                 
-                // Add patients to table
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                for (Patient patient : patients) {
-                    Object[] row = {
-                        patient.getPatientId(),
-                        patient.getFirstName(),
-                        patient.getLastName(),
-                        dateFormat.format(patient.getDateOfBirth()),
-                        patient.getAge(),
-                        patient.getGender(),
-                        patient.getContactNumber(),
-                        patient.getEmail()
-                    };
-                    tableModel.addRow(row);
+                // Rank in memory, then hydrate only the matching rows. Rows renamed
+                // or deleted on another workstation are corrected in the index and
+                // the search repeated, so they do not take places under the cap.
+                for (int attempt = 0; ; attempt++) {
+                    List<Integer> rankedIds = nameIndex.search(searchTerm, MAX_SEARCH_RESULTS);
+                    Map<Integer, PatientSummary> byId = new HashMap<>();
+                    for (PatientSummary patient : patientRepository.findSummariesByIds(rankedIds)) {
+                        byId.put(patient.patientId(), patient);
+                    }
+                    
+                    List<PatientSummary> patients = new ArrayList<>(rankedIds.size());
+                    boolean stale = false;
+                    for (Integer patientId : rankedIds) {
+                        PatientSummary patient = byId.get(patientId);
+                        if (patient == null) {
+                            nameIndex.remove(patientId);
+                            stale = true;
+                        } else if (PatientNameIndex.matchRank(patient.firstName(), patient.lastName(), searchTerm) < 0) {
+                            nameIndex.put(patientId, patient.firstName(), patient.lastName());
+                            stale = true;
+                        } else {
+                            patients.add(patient);
+                        }
+                    }
+                    if (!stale || attempt > 0) {
+                        return patients;
+                    }
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error searching patients: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error searching patients by name", e);
+                throw new Exception("Failed to search patients: " + e.getMessage(), e);
             }
         }
         
         /**
-         * Show dialog to add a new patient
+         * Search patients by name, tolerating typos and sound-alike spellings.
+         * Every word of the term must match a first or last name word.
          */
-        private void showAddPatientDialog() {
-            // Create patient form dialog
-            JDialog dialog = new JDialog(mainFrame, "Add New Patient", true);
-            dialog.setSize(500, 400);
-            dialog.setLocationRelativeTo(mainFrame);
-            dialog.setLayout(new BorderLayout());
+        public List<PatientMatch> fuzzySearchPatients(String searchTerm) throws Exception {
+            List<PatientMatch> matches = new ArrayList<>();
+            if (searchTerm == null || searchTerm.trim().isEmpty()) {
+                return matches;
+            }
             
-            // Create form panel
-            JPanel formPanel = new JPanel(new GridBagLayout());
-            formPanel.setBackground(ColorScheme.BACKGROUND);
-            formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-            
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(5, 5, 5, 5);
-            gbc.anchor = GridBagConstraints.WEST;
-            
-            // First Name
-            gbc.gridx = 0;
-            gbc.gridy = 0;
-            JLabel firstNameLabel = new JLabel("First Name:");
-            firstNameLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(firstNameLabel, gbc);
-            
-            gbc.gridx = 1;
-            JTextField firstNameField = new JTextField(20);
-            formPanel.add(firstNameField, gbc);
-            
-            // Last Name
-            gbc.gridx = 0;
-            gbc.gridy = 1;
-            JLabel lastNameLabel = new JLabel("Last Name:");
-            lastNameLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(lastNameLabel, gbc);
-            
-            gbc.gridx = 1;
-            JTextField lastNameField = new JTextField(20);
-            formPanel.add(lastNameField, gbc);
-            
-            // Date of Birth
-            gbc.gridx = 0;
-            gbc.gridy = 2;
-            JLabel dobLabel = new JLabel("Date of Birth (yyyy-MM-dd):");
-            dobLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(dobLabel, gbc);
-            
-            gbc.gridx = 1;
-            JTextField dobField = new JTextField(20);
-            formPanel.add(dobField, gbc);
-            
-            // Gender
-            gbc.gridx = 0;
-            gbc.gridy = 3;
-            JLabel genderLabel = new JLabel("Gender:");
-            genderLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(genderLabel, gbc);
-            
-            gbc.gridx = 1;
-            String[] genders = {"Male", "Female", "Other"};
-            JComboBox<String> genderComboBox = new JComboBox<>(genders);
-            formPanel.add(genderComboBox, gbc);
-            
-            // Contact Number
-            gbc.gridx = 0;
-            gbc.gridy = 4;
-            JLabel contactLabel = new JLabel("Contact Number:");
-            contactLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(contactLabel, gbc);
-            
-            gbc.gridx = 1;
-            JTextField contactField = new JTextField(20);
-            formPanel.add(contactField, gbc);
+            try {
+                if (!nameIndex.isReady()) {
+                    // Exact matches only until the index is built
+                    for (PatientSummary patient : patientRepository.searchSummariesByName(searchTerm.trim())) {
+                        matches.add(new PatientMatch(patient, 1.0));
+                    }
+                    return matches;
+                }
+                
+                List<PatientNameIndex.FuzzyMatch> hits = nameIndex.fuzzySearch(searchTerm, MAX_FUZZY_RESULTS);
+                List<Integer> patientIds = new ArrayList<>(hits.size());
+                for (PatientNameIndex.FuzzyMatch hit : hits) {
+                    patientIds.add(hit.getPatientId());
+                }
+                Map<Integer, PatientSummary> byId = new HashMap<>();
+                for (PatientSummary patient : patientRepository.findSummariesByIds(patientIds)) {
+                    byId.put(patient.patientId(), patient);
+                }
+                
+                for (PatientNameIndex.FuzzyMatch hit : hits) {
+                    PatientSummary patient = byId.get(hit.getPatientId());
+                    if (patient != null) {
+                        matches.add(new PatientMatch(patient, hit.getScore()));
+                    }
+                }
+                return matches;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error fuzzy searching patients", e);
+                throw new Exception("Failed to search patients: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Narrow an earlier search result to the patients that also match a longer
+         * term, ranked as the index would rank them. Only valid when the term
+         * contains the earlier one and the earlier result was not truncated.
+         */
+        public List<PatientSummary> refineSearchResults(List<PatientSummary> previousResults, String searchTerm) {
+            List<PatientSummary> refined = new ArrayList<>();
+            Map<PatientSummary, Integer> ranks = new IdentityHashMap<>();
+            for (PatientSummary patient : previousResults) {
+                int rank = PatientNameIndex.matchRank(patient.firstName(), patient.lastName(), searchTerm);
+                if (rank >= 0) {
+                    refined.add(patient);
+                    ranks.put(patient, rank);
+                }
+            }
             
-            // Email
-            gbc.gridx = 0;
-            gbc.gridy = 5;
-            JLabel emailLabel = new JLabel("Email:");
-            emailLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(emailLabel, gbc);
+            refined.sort(Comparator.<PatientSummary>comparingInt(ranks::get)
+                    .thenComparing(p -> p.lastName().toLowerCase(Locale.ROOT))
+                    .thenComparing(p -> p.firstName().toLowerCase(Locale.ROOT))
+                    .thenComparingInt(PatientSummary::patientId));
+            return refined;
+        }
+        
+        // Async variants: same behaviour and exceptions, run through AsyncQueries
+        // so a caller can overlap independent lookups
+        
+        public CompletableFuture<Patient> createPatientAsync(Patient patient) {
+            return AsyncQueries.supply(() -> createPatient(patient));
+        }
+        
+        public CompletableFuture<Boolean> updatePatientAsync(Patient patient) {
+            return AsyncQueries.supply(() -> updatePatient(patient));
+        }
+        
+        public CompletableFuture<Boolean> deletePatientAsync(int patientId) {
+            return AsyncQueries.supply(() -> deletePatient(patientId));
+        }
+        
+        public CompletableFuture<Patient> getPatientByIdAsync(int patientId) {
+            return AsyncQueries.supply(() -> getPatientById(patientId));
+        }
+        
+        public CompletableFuture<Page<PatientSummary>> getPatientPageAsync(String cursor, int pageSize) {
+            return AsyncQueries.supply(() -> getPatientPage(cursor, pageSize));
+        }
+        
+        public CompletableFuture<Integer> countPatientsAsync() {
+            return AsyncQueries.supply(this::countPatients);
+        }
+        
+        public CompletableFuture<List<PatientSummary>> searchPatientsByNameAsync(String searchTerm) {
+            return AsyncQueries.supply(() -> searchPatientsByName(searchTerm));
+        }
+        
+        public CompletableFuture<List<PatientMatch>> fuzzySearchPatientsAsync(String searchTerm) {
+            return AsyncQueries.supply(() -> fuzzySearchPatients(searchTerm));
+        }
+        
+        /**
+         * Get hit-rate and eviction statistics of the shared patient cache
+         */
+        public static CacheStats getCacheStats() {
+            return PATIENT_CACHE.getStats();
+        }
+        
+        /**
+         * Rough heap footprint of a patient: the object and its two dates, plus
+         * each string's header and Latin-1 characters
+         */
+        private static long estimateSize(Patient patient) {
+            long bytes = 48 + 2 * 24;
+            for (String value : new String[] { patient.getFirstName(), patient.getLastName(), patient.getGender(),
+                    patient.getContactNumber(), patient.getEmail(), patient.getAddress() }) {
+                if (value != null) {
+                    bytes += 40 + value.length();
+                }
+            }
+            return bytes;
+        }
+        
+        /**
+         * Validate patient data
+         */
+        public void validatePatient(Patient patient) throws Exception {
+            if (patient == null) {
+                throw new IllegalArgumentException("Patient cannot be null");
+            }
             
-            gbc.gridx = 1;
-            JTextField emailField = new JTextField(20);
-            formPanel.add(emailField, gbc);
+            if (patient.getFirstName() == null || patient.getFirstName().trim().isEmpty()) {
+                throw new Exception("First name is required");
+            }
             
-            // Address
-            gbc.gridx = 0;
-            gbc.gridy = 6;
-            JLabel addressLabel = new JLabel("Address:");
-            addressLabel.setForeground(ColorScheme.TEXT);
-            formPanel.add(addressLabel, gbc);
+            if (patient.getLastName() == null || patient.getLastName().trim().isEmpty()) {
+                throw new Exception("Last name is required");
+            }
             
-            gbc.gridx = 1;
-            JTextArea addressArea = new JTextArea(3, 20);
-            JScrollPane addressScrollPane = new JScrollPane(addressArea);
-            formPanel.add(addressScrollPane, gbc);
+            if (patient.getDateOfBirth() == null) {
+                throw new Exception("Date of birth is required");
+            }
             
-            // Button panel
-            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            if (patient.getGender() == null || patient.getGender().trim().isEmpty()) {
+                throw new Exception("Gender is required");
+            }
             
-            AnimatedButton saveButton = new AnimatedButton("Save");
-            saveButton.addActionListener(new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    try {
-                        // Validate and parse input
-                        String firstName = firstNameField.getText().trim();
-                        String lastName = lastNameField.getText().trim();
-                        String dobString = dobField.getText().trim();
-                        String gender = (String) genderComboBox.getSelectedItem();
-                        String contact = contactField.getText().trim();
-                        String email = emailField.getText().trim();
-                        String address = addressArea.getText().trim();
-                        
-                        // Validate required fields
-                        if (firstName.isEmpty() || lastName.isEmpty() || dobString.isEmpty()) {
-                            JOptionPane.showMessageDialog(dialog, 
-                                "First name, last name, and date of birth are required", 
-                                "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            return;
-                        }
-                        
-                        // Parse date of birth
-                        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                        Date dob;
-                        try {
-                            dob = dateFormat.parse(dobString);
-                        } catch (Exception ex) {
-                            JOptionPane.showMessageDialog(dialog, 
-                                "Invalid date format. Please use yyyy-MM-dd", 
-                                "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            return;
-                        }
-                        
-                        // Create patient object
-                        Patient patient = new Patient(firstName, lastName, dob, gender, contact, email, address);
-                        
-                        // Save patient
-                        patientService.createPatient(patient);
-                        
-                        // Close dialog
-                        dialog.dispose();
-                        
-                        // Refresh data
-                        refreshData();
-                        
-                        // Show success message
-                        JOptionPane.showMessageDialog(mainFrame, 
-                            "Patient added successfully", 
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(dialog, 
-                            "Error adding patient: " + ex.getMessage(), 
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+            if (patient.getContactNumber() != null && !patient.getContactNumber().trim().isEmpty()) {
+                if (!isValidPhoneNumber(patient.getContactNumber())) {
+                    throw new Exception("Invalid contact number format");
                 }
-            });
-            
-            AnimatedButton cancelButton = new AnimatedButton("Cancel");
-            cancelButton.addActionListener(e -> dialog.dispose());
-            
-            buttonPanel.add(saveButton);
-            buttonPanel.add(cancelButton);
-            
-            // Add panels to dialog
-            dialog.add(formPanel, BorderLayout.CENTER);
-            dialog.add(buttonPanel, BorderLayout.SOUTH);
+            }
             
-            // Show dialog
-            dialog.setVisible(true);
+            if (patient.getEmail() != null && !patient.getEmail().trim().isEmpty()) {
+                if (!isValidEmail(patient.getEmail())) {
+                    throw new Exception("Invalid email format");
+                }
+            }
         }
         
         /**
-         * Show dialog to edit an existing patient
+         * Validate phone number format
          */
-        private void showEditPatientDialog(int patientId) {
-            try {
-                // Get patient by ID
-                Patient patient = patientService.getPatientById(patientId);
-                
-                if (patient == null) {
-                    JOptionPane.showMessageDialog(this, 
-                        "Patient not found", 
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                
-                // Create patient form dialog
-                JDialog dialog = new JDialog(mainFrame, "Edit Patient", true);
-                dialog.setSize(500, 400);
-                dialog.setLocationRelativeTo(mainFrame);
-                dialog.setLayout(new BorderLayout());
-                
-                // Create form panel
-                JPanel formPanel = new JPanel(new GridBagLayout());
-                formPanel.setBackground(ColorScheme.BACKGROUND);
-                formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-                
-                GridBagConstraints gbc = new GridBagConstraints();
-                gbc.insets = new Insets(5, 5, 5, 5);
-                gbc.anchor = GridBagConstraints.WEST;
-                
-                // First Name
-                gbc.gridx = 0;
-                gbc.gridy = 0;
-                JLabel firstNameLabel = new JLabel("First Name:");
-                firstNameLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(firstNameLabel, gbc);
-                
-                gbc.gridx = 1;
-                JTextField firstNameField = new JTextField(20);
-                firstNameField.setText(patient.getFirstName());
-                formPanel.add(firstNameField, gbc);
-                
+        private boolean isValidPhoneNumber(String phoneNumber) {
+            // Simple validation - can be enhanced as needed
+            return phoneNumber.matches("\\d{3}-\\d{3}-\\d{4}") || 
+                   phoneNumber.matches("\\$\\d{3}\\$ \\d{3}-\\d{4}") ||
+                   phoneNumber.matches("\\d{10}");
+        }
+        
+        /**
+         * Validate email format
+         */
+        private boolean isValidEmail(String email) {
+            // Simple validation - can be enhanced as needed
+            return email.matches("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
+        }
+    }
+
+    /**
+     * Disease service for disease-related business logic
+     */
+    static class DiseaseService {
+        private static final Logger LOGGER = Logger.getLogger(DiseaseService.class.getName());
+        
+        // Diagnosis cache settings - override with -Dhms.cache.diagnoses.* system properties.
+        // Short-lived: it serves the screen opened right after a prefetch, not long-term reads.
+        private static final int DIAGNOSIS_CACHE_MAX_ENTRIES = Integer.getInteger("hms.cache.diagnoses.maxEntries", 1_000);
+        private static final long DIAGNOSIS_CACHE_MAX_BYTES = Long.getLong("hms.cache.diagnoses.maxBytes", 4L * 1024 * 1024);
+        static final long DIAGNOSIS_CACHE_TTL_SECONDS = Long.getLong("hms.cache.diagnoses.ttlSeconds", 30L);
+        
+        // Shared by every DiseaseService; rows are immutable records, so copying the list is enough
+        private static final EntityCache<Integer, List<PatientDiagnosisRow>> DIAGNOSIS_CACHE = new EntityCache<>(
+                "patient diagnoses", DIAGNOSIS_CACHE_MAX_ENTRIES, DIAGNOSIS_CACHE_MAX_BYTES,
+                TimeUnit.SECONDS.toMillis(DIAGNOSIS_CACHE_TTL_SECONDS), List::copyOf, DiseaseService::estimateSize);
+        
+        private final DiseaseRepository diseaseRepository;
+        private final PatientDiseaseRepository patientDiseaseRepository;
+        private final DiseaseCatalog diseaseCatalog;
+    
+        public DiseaseService() {
+            this.diseaseRepository = new DiseaseRepository();
+            this.patientDiseaseRepository = new PatientDiseaseRepository();
+            this.diseaseCatalog = DiseaseCatalog.getInstance();
+        }
+        
+        /**
+         * Rough heap footprint of a diagnosis list: the list, and per row the
+         * record, its date and its strings
+         */
+        private static long estimateSize(List<PatientDiagnosisRow> diagnoses) {
+            long bytes = 32 + 8L * diagnoses.size();
+            for (PatientDiagnosisRow diagnosis : diagnoses) {
+                bytes += 48 + 40;
+                for (String value : new String[] { diagnosis.diseaseName(), diagnosis.status(), diagnosis.notes() }) {
+                    if (value != null) {
+                        bytes += 40 + value.length();
+                    }
+                }
+            }
+            return bytes;
+        }
+    
+        /**
+         * Add a disease to the catalog
+         */
+        public Disease addDisease(Disease disease) throws Exception {
+            if (disease == null || disease.getName() == null || disease.getName().trim().isEmpty()) {
+                throw new Exception("Disease name is required");
+            }
+            
+            try {
+                Disease saved = diseaseRepository.save(disease);
+                diseaseCatalog.refresh();
+                return saved;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error adding disease", e);
+                throw new Exception("Failed to add disease: " + e.getMessage(), e);
+            }
+        }
+    
+        // Async variants: same behaviour and exceptions, run through AsyncQueries
+        // so a caller can overlap independent lookups
+        
+        public CompletableFuture<List<Disease>> getAllDiseasesAsync() {
+            return AsyncQueries.supply(this::getAllDiseases);
+        }
+        
+        public CompletableFuture<Disease> getDiseaseByIdAsync(int diseaseId) {
+            return AsyncQueries.supply(() -> getDiseaseById(diseaseId));
+        }
+        
+        public CompletableFuture<PatientDisease> addDiseaseToPatientAsync(PatientDisease patientDisease) {
+            return AsyncQueries.supply(() -> addDiseaseToPatient(patientDisease));
+        }
+        
+        public CompletableFuture<List<PatientDiagnosisRow>> getDiseasesForPatientAsync(int patientId) {
+            return AsyncQueries.supply(() -> getDiseasesForPatient(patientId));
+        }
+        
+        public CompletableFuture<Map<Integer, List<PatientDiagnosisRow>>> getDiseasesForPatientsAsync(IntList patientIds) {
+            return AsyncQueries.supply(() -> getDiseasesForPatients(patientIds));
+        }
+        
+        public CompletableFuture<Boolean> removeDiseaseFromPatientAsync(int patientDiseaseId) {
+            return AsyncQueries.supply(() -> removeDiseaseFromPatient(patientDiseaseId));
+        }
+        
+        /**
+         * Get hit-rate and eviction statistics of the per-patient diagnosis cache
+         */
+        public static CacheStats getCacheStats() {
+            return DIAGNOSIS_CACHE.getStats();
+        }
+    
+        /**
+         * Get all diseases sorted by name, from the cached catalog
+         */
+        public List<Disease> getAllDiseases() throws Exception {
+            try {
+                return diseaseCatalog.getSnapshot().getDiseases();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting all diseases", e);
+                throw new Exception("Failed to get diseases: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get all diseases if the catalog is already cached, or null if getting
+         * them would need a database query
+         */
+        public List<Disease> getCachedDiseases() {
+            DiseaseCatalog.Snapshot snapshot = diseaseCatalog.getLoadedSnapshot();
+            return snapshot == null ? null : snapshot.getDiseases();
+        }
+    
+        /**
+         * Get a disease by ID
+         */
+        public Disease getDiseaseById(int diseaseId) throws Exception {
+            try {
+                Disease disease = diseaseCatalog.getSnapshot().getDisease(diseaseId);
+                if (disease != null) {
+                    return disease;
+                }
+                
+                // Possibly added by another client since the last refresh
+                disease = diseaseRepository.findById(diseaseId);
+                if (disease != null) {
+                    diseaseCatalog.refreshAsync();
+                }
+                return disease;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting disease by ID", e);
+                throw new Exception("Failed to get disease: " + e.getMessage(), e);
+            }
+        }
+    
+        /**
+         * Add a disease to a patient
+         */
+        public PatientDisease addDiseaseToPatient(PatientDisease patientDisease) throws Exception {
+            try {
+                PatientDisease saved = patientDiseaseRepository.save(patientDisease);
+                DIAGNOSIS_CACHE.invalidate(patientDisease.getPatientId());
+                return saved;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error adding disease to patient", e);
+                throw new Exception("Failed to add disease to patient: " + e.getMessage(), e);
+            }
+        }
+    
+        /**
+         * Record many diagnoses with batched inserts; on a database error the
+         * chunks committed so far stay saved
+         */
+        public void addDiseasesToPatients(List<PatientDisease> patientDiseases) throws Exception {
+            try {
+                patientDiseaseRepository.saveAll(patientDiseases, BatchInserter.DEFAULT_CHUNK_SIZE);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error adding diseases to patients", e);
+                throw new Exception("Failed to add diseases to patients: " + e.getMessage(), e);
+            } finally {
+                // Chunks committed before a failure are saved too
+                DIAGNOSIS_CACHE.clear();
+            }
+        }
+    
+        /**
+         * Get all diseases for a patient
+         */
+        public List<PatientDiagnosisRow> getDiseasesForPatient(int patientId) throws Exception {
+            List<PatientDiagnosisRow> cached = DIAGNOSIS_CACHE.get(patientId);
+            if (cached != null) {
+                return cached;
+            }
+            
+            try {
+                long generation = DIAGNOSIS_CACHE.generation();
+                List<PatientDiagnosisRow> diagnoses = patientDiseaseRepository.findByPatientId(patientId);
+                DIAGNOSIS_CACHE.put(patientId, diagnoses, generation);
+                return diagnoses;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting diseases for patient", e);
+                throw new Exception("Failed to get diseases for patient: " + e.getMessage(), e);
+            }
+        }
+    
+        /**
+         * Get the diseases of a patient if they are cached, without touching the database
+         */
+        public List<PatientDiagnosisRow> getCachedDiseasesForPatient(int patientId) {
+            return DIAGNOSIS_CACHE.peek(patientId);
+        }
+    
+        /**
+         * Get the diseases of many patients in a few queries, grouped by
+         * patient ID. Use instead of calling getDiseasesForPatient in a loop.
+         */
+        public Map<Integer, List<PatientDiagnosisRow>> getDiseasesForPatients(IntList patientIds) throws Exception {
+            try {
+                return patientDiseaseRepository.findByPatientIds(patientIds);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting diseases for patients", e);
+                throw new Exception("Failed to get diseases for patients: " + e.getMessage(), e);
+            }
+        }
+    
+        /**
+         * Remove a disease from a patient
+         */
+        public boolean removeDiseaseFromPatient(int patientDiseaseId) throws Exception {
+            try {
+                // The row does not say whose it was, so drop every cached list
+                boolean deleted = patientDiseaseRepository.delete(patientDiseaseId);
+                DIAGNOSIS_CACHE.clear();
+                return deleted;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error removing disease from patient", e);
+                throw new Exception("Failed to remove disease from patient: " + e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Service class for medical record business logic
+     */
+    static class MedicalRecordService {
+        private static final Logger LOGGER = Logger.getLogger(MedicalRecordService.class.getName());
+        public static final int MAX_PAGE_SIZE = 500;
+        
+        private final MedicalRecordRepository medicalRecordRepository;
+        
+        public MedicalRecordService() {
+            this.medicalRecordRepository = new MedicalRecordRepository();
+        }
+        
+        /**
+         * Add a medical record
+         */
+        public MedicalRecord addRecord(MedicalRecord record) throws Exception {
+            validateRecord(record);
+            
+            try {
+                return medicalRecordRepository.save(record);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error adding medical record", e);
+                throw new Exception("Failed to add medical record: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Update a medical record
+         */
+        public boolean updateRecord(MedicalRecord record) throws Exception {
+            validateRecord(record);
+            
+            try {
+                return medicalRecordRepository.update(record);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error updating medical record", e);
+                throw new Exception("Failed to update medical record: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Delete a medical record
+         */
+        public boolean deleteRecord(int recordId) throws Exception {
+            try {
+                return medicalRecordRepository.delete(recordId);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error deleting medical record", e);
+                throw new Exception("Failed to delete medical record: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get a medical record by ID
+         */
+        public MedicalRecord getRecordById(int recordId) throws Exception {
+            try {
+                return medicalRecordRepository.findById(recordId);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting medical record by ID", e);
+                throw new Exception("Failed to get medical record: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get one page of a patient's timeline, newest first. Pass a null cursor
+         * for the first page and the previous page's next cursor afterwards.
+         */
+        public Page<MedicalRecord> getTimelinePage(int patientId, String cursor, int pageSize) throws Exception {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            
+            try {
+                return medicalRecordRepository.findTimelinePage(patientId, cursor, pageSize);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting medical record page", e);
+                throw new Exception("Failed to get medical records: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get the number of records of a patient
+         */
+        public int countRecords(int patientId) throws Exception {
+            try {
+                return medicalRecordRepository.countByPatientId(patientId);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error counting medical records", e);
+                throw new Exception("Failed to count medical records: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Validate medical record data
+         */
+        public void validateRecord(MedicalRecord record) throws Exception {
+            if (record == null) {
+                throw new IllegalArgumentException("Medical record cannot be null");
+            }
+            
+            if (record.getPatientId() <= 0) {
+                throw new Exception("Patient is required");
+            }
+            
+            if (record.getDoctorId() <= 0) {
+                throw new Exception("Doctor is required");
+            }
+            
+            if (record.getRecordDate() == null) {
+                throw new Exception("Record date is required");
+            }
+        }
+    }
+    
+    /**
+     * Builds a patient's unified history, newest first, from appointments,
+     * medical records and diagnoses. Each page queries the three sources
+     * concurrently through AsyncQueries for at most one page each and merges the sorted results
+     * through a heap, so no source is ever read in full.
+     */
+    static class PatientHistoryService {
+        private static final Logger LOGGER = Logger.getLogger(PatientHistoryService.class.getName());
+        public static final int MAX_PAGE_SIZE = 500;
+        
+        private final PatientHistoryRepository historyRepository;
+        
+        public PatientHistoryService() {
+            this.historyRepository = new PatientHistoryRepository();
+        }
+        
+        /**
+         * Get one page of a patient's history. Pass a null cursor for the
+         * newest page and the previous page's next cursor afterwards.
+         */
+        public Page<PatientHistoryEntry> getHistoryPage(int patientId, String cursor, int pageSize) throws Exception {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            PatientHistoryEntry after = cursor == null ? null : decodeCursor(cursor);
+            
+            // A page can take all its entries from one source; one more row tells whether anything is left
+            HistorySource[] sources = HistorySource.values();
+            // All but the first source run asynchronously; the first runs on the calling thread
+            List<CompletableFuture<List<PatientHistoryEntry>>> pending = new ArrayList<>(sources.length - 1);
+            for (int i = 1; i < sources.length; i++) {
+                HistorySource source = sources[i];
+                pending.add(AsyncQueries.supply(() -> findEntries(source, patientId, after, pageSize + 1)));
+            }
+            try {
+                List<List<PatientHistoryEntry>> results = new ArrayList<>(sources.length);
+                results.add(findEntries(sources[0], patientId, after, pageSize + 1));
+                for (CompletableFuture<List<PatientHistoryEntry>> future : pending) {
+                    results.add(AsyncQueries.await(future));
+                }
+                
+                List<PatientHistoryEntry> entries = new ArrayList<>(pageSize);
+                boolean more = merge(results, pageSize, entries);
+                String nextCursor = more ? encodeCursor(entries.get(entries.size() - 1)) : null;
+                return new Page<>(entries, nextCursor);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting patient history", e);
+                throw new Exception("Failed to get patient history: " + e.getMessage(), e);
+            } finally {
+                // Skip queries not yet started if this page failed; running ones share the
+                // caller's query scope and are cancelled with it
+                for (CompletableFuture<List<PatientHistoryEntry>> future : pending) {
+                    future.cancel(false);
+                }
+            }
+        }
+        
+        private List<PatientHistoryEntry> findEntries(HistorySource source, int patientId,
+                                                      PatientHistoryEntry after, int limit) throws SQLException {
+            return after == null
+                    ? historyRepository.findEntries(source, patientId, 0L, null, 0, limit)
+                    : historyRepository.findEntries(source, patientId, after.timeMillis(), after.source(),
+                                                    after.sourceId(), limit);
+        }
+        
+        /**
+         * K-way merge of newest-first lists into out, stopping after limit
+         * entries. Returns true if entries remain in any list.
+         */
+        static boolean merge(List<List<PatientHistoryEntry>> sorted, int limit, List<PatientHistoryEntry> out) {
+            // Each heap element is {list index, position in that list}, ordered by the entry it points at
+            PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, sorted.size()),
+                    (a, b) -> PatientHistoryEntry.NEWEST_FIRST.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+            for (int i = 0; i < sorted.size(); i++) {
+                if (!sorted.get(i).isEmpty()) {
+                    heap.add(new int[] { i, 0 });
+                }
+            }
+            
+            while (out.size() < limit && !heap.isEmpty()) {
+                int[] head = heap.poll();
+                List<PatientHistoryEntry> list = sorted.get(head[0]);
+                out.add(list.get(head[1]));
+                if (++head[1] < list.size()) {
+                    heap.add(head);
+                }
+            }
+            return !heap.isEmpty();
+        }
+        
+        /**
+         * Encode the position of an entry in the merged history as an opaque page cursor
+         */
+        private static String encodeCursor(PatientHistoryEntry entry) {
+            String key = String.valueOf(entry.timeMillis()) + '\u0000' + entry.source().name() + '\u0000' + entry.sourceId();
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        /**
+         * Decode a page cursor into the position it continues after
+         */
+        private static PatientHistoryEntry decodeCursor(String cursor) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = key.split("\u0000", -1);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("wrong number of key parts");
+                }
+                return new PatientHistoryEntry(HistorySource.valueOf(parts[1]), Long.parseLong(parts[0]),
+                        Integer.parseInt(parts[2]), null, null);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid patient history cursor: " + cursor, e);
+            }
+        }
+    }
+    
+    /**
+     * Service class for doctor lookups
+     */
+    static class DoctorService {
+        private static final Logger LOGGER = Logger.getLogger(DoctorService.class.getName());
+        private final DoctorRepository doctorRepository;
+        
+        public DoctorService() {
+            this.doctorRepository = new DoctorRepository();
+        }
+        
+        /**
+         * Get a doctor by ID
+         */
+        public Doctor getDoctorById(int doctorId) throws Exception {
+            try {
+                return doctorRepository.findById(doctorId);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting doctor by ID", e);
+                throw new Exception("Failed to get doctor: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get all doctors
+         */
+        public List<Doctor> getAllDoctors() throws Exception {
+            try {
+                return doctorRepository.findAll();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting all doctors", e);
+                throw new Exception("Failed to get doctors: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get the doctors of a specialization
+         */
+        public List<Doctor> getDoctorsBySpecialization(String specialization) throws Exception {
+            try {
+                return doctorRepository.findBySpecialization(specialization);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting doctors by specialization", e);
+                throw new Exception("Failed to get doctors: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get the distinct specializations of all doctors
+         */
+        public List<String> getSpecializations() throws Exception {
+            try {
+                return doctorRepository.findSpecializations();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting specializations", e);
+                throw new Exception("Failed to get specializations: " + e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Service class for appointment scheduling. Bookings of the same doctor
+     * and day are serialized in-process by striped locks, then checked and
+     * written in one locking transaction, which also protects against other
+     * workstations. The unique (doctor_id, appointment_time) key additionally
+     * rejects two bookings with the same start time; it does not catch other
+     * overlaps. Lock conflicts between workstations are retried.
+     * Availability queries are answered by the DoctorScheduleIndex, and the
+     * slots it reports free are confirmed against the database, since it can
+     * lag behind bookings made on other workstations.
+     */
+    static class AppointmentService {
+        private static final Logger LOGGER = Logger.getLogger(AppointmentService.class.getName());
+        public static final int MIN_DURATION_MINUTES = 5;
+        public static final int MAX_DURATION_MINUTES = 8 * 60;
+        public static final int MAX_SLOT_RESULTS = 100;
+        
+        // Working hours for slot searches - override with -Dhms.schedule.* system properties
+        private static final int DAY_START_HOUR = Integer.getInteger("hms.schedule.dayStartHour", 9);
+        private static final int DAY_END_HOUR = Integer.getInteger("hms.schedule.dayEndHour", 17);
+        private static final int SLOT_STEP_MINUTES = Integer.getInteger("hms.schedule.slotStepMinutes", 15);
+        private static final boolean OPEN_ON_WEEKENDS = Boolean.getBoolean("hms.schedule.weekends");
+        private static final int INDEX_WAIT_SECONDS = 30;
+        
+        // Booking locks, one per stripe of (doctor, day); shared by every AppointmentService
+        private static final int BOOKING_LOCK_STRIPES = 256;
+        private static final ReentrantLock[] BOOKING_LOCKS = new ReentrantLock[BOOKING_LOCK_STRIPES];
+        static {
+            for (int i = 0; i < BOOKING_LOCK_STRIPES; i++) {
+                BOOKING_LOCKS[i] = new ReentrantLock();
+            }
+        }
+        private static final int MAX_BOOKING_ATTEMPTS = 5;
+        private static final long BOOKING_BACKOFF_MILLIS = 20;
+        
+        // MySQL error codes
+        private static final int ER_DUP_ENTRY = 1062;
+        private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+        private static final int ER_LOCK_DEADLOCK = 1213;
+        
+        private final AppointmentRepository appointmentRepository;
+        private final DoctorRepository doctorRepository;
+        private final DoctorScheduleIndex scheduleIndex;
+        private final SlotFinder slotFinder;
+        
+        public AppointmentService() {
+            this.appointmentRepository = new AppointmentRepository();
+            this.doctorRepository = new DoctorRepository();
+            this.scheduleIndex = DoctorScheduleIndex.getInstance();
+            this.slotFinder = new SlotFinder(scheduleIndex, ForkJoinPool.commonPool());
+        }
+        
+        /**
+         * Book a new appointment if the doctor is free for its whole duration
+         */
+        public Appointment scheduleAppointment(Appointment appointment) throws Exception {
+            validateAppointment(appointment);
+            
+            try {
+                if (!appointment.holdsSlot()) {
+                    return appointmentRepository.save(appointment);
+                }
+                
+                int[] stripes = lockStripes(appointment, null);
+                try {
+                    int conflictId = writeWithRetry(() -> appointmentRepository.saveIfFree(appointment, MAX_DURATION_MINUTES));
+                    if (conflictId != 0) {
+                        throw slotTaken(conflictId);
+                    }
+                    updateIndex(appointment);
+                    return appointment;
+                } finally {
+                    unlockStripes(stripes);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error scheduling appointment", e);
+                throw new Exception("Failed to schedule appointment: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Update an appointment, e.g. to reschedule it or change its status.
+         * Setting the status to cancelled goes through cancelAppointment and
+         * only changes the status.
+         */
+        public boolean updateAppointment(Appointment appointment) throws Exception {
+            validateAppointment(appointment);
+            
+            if (!appointment.holdsSlot()) {
+                return cancelAppointment(appointment.getAppointmentId());
+            }
+            
+            try {
+                // Hold the stripes of the old slot too, so index updates for it stay ordered
+                int[] stripes = lockCurrentSlot(appointment.getAppointmentId(), appointment);
+                if (stripes == null) {
+                    return false;
+                }
+                try {
+                    int conflictId = writeWithRetry(() -> appointmentRepository.updateIfFree(appointment, MAX_DURATION_MINUTES));
+                    if (conflictId > 0) {
+                        throw slotTaken(conflictId);
+                    }
+                    if (conflictId < 0) {
+                        return false;
+                    }
+                    updateIndex(appointment);
+                    return true;
+                } finally {
+                    unlockStripes(stripes);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error updating appointment", e);
+                throw new Exception("Failed to update appointment: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Cancel an appointment, freeing its slot. The row is kept for history.
+         * Only the status is written, under the stripes of the slot, so a
+         * concurrent edit of the other columns is not overwritten.
+         */
+        public boolean cancelAppointment(int appointmentId) throws Exception {
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    Appointment appointment = appointmentRepository.findById(appointmentId);
+                    if (appointment == null) {
+                        return false;
+                    }
+                    int[] stripes = lockStripes(appointment, null);
+                    try {
+                        if (appointmentRepository.updateStatus(appointmentId, appointment.getDoctorId(),
+                                appointment.getAppointmentTime(), Appointment.STATUS_CANCELLED)) {
+                            scheduleIndex.remove(appointmentId);
+                            return true;
+                        }
+                    } finally {
+                        unlockStripes(stripes);
+                    }
+                    // Moved to another slot since it was read; lock the new one
+                    if (attempt == MAX_BOOKING_ATTEMPTS) {
+                        throw new Exception("The appointment keeps being changed, please try again");
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error cancelling appointment", e);
+                throw new Exception("Failed to cancel appointment: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Delete an appointment
+         */
+        public boolean deleteAppointment(int appointmentId) throws Exception {
+            try {
+                int[] stripes = lockCurrentSlot(appointmentId, null);
+                if (stripes == null) {
+                    return false;
+                }
+                try {
+                    boolean deleted = appointmentRepository.delete(appointmentId);
+                    if (deleted) {
+                        scheduleIndex.remove(appointmentId);
+                    }
+                    return deleted;
+                } finally {
+                    unlockStripes(stripes);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error deleting appointment", e);
+                throw new Exception("Failed to delete appointment: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get an appointment by ID
+         */
+        public Appointment getAppointmentById(int appointmentId) throws Exception {
+            try {
+                return appointmentRepository.findById(appointmentId);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting appointment by ID", e);
+                throw new Exception("Failed to get appointment: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get every appointment starting on a day, in time order
+         */
+        public List<Appointment> getAppointmentsForDay(LocalDate day) throws Exception {
+            return getAppointmentsBetween(toDate(day), toDate(day.plusDays(1)));
+        }
+        
+        /**
+         * Get every appointment starting in [from, to), in time order
+         */
+        public List<Appointment> getAppointmentsBetween(Date from, Date to) throws Exception {
+            try {
+                return appointmentRepository.findBetween(from, to);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting appointments in range", e);
+                throw new Exception("Failed to get appointments: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get a doctor's appointments starting in [from, to), in time order
+         */
+        public List<Appointment> getDoctorAppointments(int doctorId, Date from, Date to) throws Exception {
+            try {
+                return appointmentRepository.findByDoctorBetween(doctorId, from, to);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting doctor appointments", e);
+                throw new Exception("Failed to get appointments: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Get all appointments of a patient, newest first
+         */
+        public List<Appointment> getPatientAppointments(int patientId) throws Exception {
+            try {
+                return appointmentRepository.findByPatientId(patientId);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting patient appointments", e);
+                throw new Exception("Failed to get appointments: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Whether a doctor has no appointment overlapping the given slot
+         */
+        public boolean isDoctorAvailable(int doctorId, Date start, int durationMinutes) throws Exception {
+            try {
+                long startMillis = start.getTime();
+                long endMillis = startMillis + TimeUnit.MINUTES.toMillis(durationMinutes);
+                if (findConflict(doctorId, startMillis, endMillis, 0) != 0) {
+                    return false;
+                }
+                if (!scheduleIndex.isReady()) {
+                    return true; // findConflict already asked the database
+                }
+                // The index can miss bookings made elsewhere; confirm the slot
+                if (appointmentRepository.findOverlapping(doctorId, start, new Date(endMillis), 0,
+                        MAX_DURATION_MINUTES) != 0) {
+                    LOGGER.info("Doctor schedule index missed a booking; rebuilding it");
+                    scheduleIndex.rebuildAsync();
+                    return false;
+                }
+                return true;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error checking doctor availability", e);
+                throw new Exception("Failed to check availability: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Find the earliest free slots in [from, to) across every doctor of a
+         * specialization, within working hours. Each doctor offers
+         * non-overlapping slots; results are ordered by time, then doctor.
+         * Every slot returned is confirmed free against the database.
+         */
+        public List<DoctorSlot> findEarliestSlots(String specialization, Date from, Date to,
+                int durationMinutes, int limit) throws Exception {
+            if (durationMinutes < MIN_DURATION_MINUTES || durationMinutes > MAX_DURATION_MINUTES) {
+                throw new IllegalArgumentException("Duration must be between " + MIN_DURATION_MINUTES + " and "
+                        + MAX_DURATION_MINUTES + " minutes");
+            }
+            if (limit < 1 || limit > MAX_SLOT_RESULTS) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SLOT_RESULTS);
+            }
+            
+            try {
+                if (!scheduleIndex.isReady()) {
+                    scheduleIndex.rebuildAsync();
+                    if (!scheduleIndex.awaitReady(INDEX_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                        throw new Exception("Doctor schedules are still loading, please try again shortly");
+                    }
+                }
+                
+                List<Doctor> doctors = doctorRepository.findBySpecialization(specialization);
+                List<long[]> windows = workingWindows(from, to);
+                // Slots the index wrongly reports free are dropped by confirmFree; ask
+                // for more candidates until `limit` survive or the windows run out
+                int candidates = limit;
+                boolean rebuilt = false;
+                while (true) {
+                    List<DoctorSlot> slots = slotFinder.findEarliest(doctors, windows, durationMinutes,
+                            SLOT_STEP_MINUTES, candidates);
+                    List<DoctorSlot> confirmed = confirmFree(slots);
+                    if (confirmed.size() >= limit || slots.size() < candidates) {
+                        return confirmed.size() > limit ? new ArrayList<>(confirmed.subList(0, limit)) : confirmed;
+                    }
+                    if (!rebuilt) {
+                        // The index missed bookings made elsewhere; catch up before searching again
+                        LOGGER.info("Doctor schedule index missed bookings; rebuilding it");
+                        scheduleIndex.rebuild();
+                        rebuilt = true;
+                    } else {
+                        candidates *= 2;
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding free slots", e);
+                throw new Exception("Failed to find free slots: " + e.getMessage(), e);
+            }
+        }
+        
+        /**
+         * Working-hour windows in [from, to) as {startMillis, endMillis}. A
+         * window clipped by `from` starts on the next slot step boundary.
+         */
+        static List<long[]> workingWindows(Date from, Date to) {
+            ZoneId zone = ZoneId.systemDefault();
+            long stepMillis = TimeUnit.MINUTES.toMillis(SLOT_STEP_MINUTES);
+            List<long[]> windows = new ArrayList<>();
+            
+            LocalDate lastDay = to.toInstant().atZone(zone).toLocalDate();
+            for (LocalDate day = from.toInstant().atZone(zone).toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+                java.time.DayOfWeek dayOfWeek = day.getDayOfWeek();
+                if (!OPEN_ON_WEEKENDS && (dayOfWeek == java.time.DayOfWeek.SATURDAY
+                        || dayOfWeek == java.time.DayOfWeek.SUNDAY)) {
+                    continue;
+                }
+                long dayStart = day.atTime(DAY_START_HOUR, 0).atZone(zone).toInstant().toEpochMilli();
+                long dayEnd = day.atTime(DAY_END_HOUR, 0).atZone(zone).toInstant().toEpochMilli();
+                
+                long start = dayStart;
+                if (start < from.getTime()) {
+                    start += (from.getTime() - start + stepMillis - 1) / stepMillis * stepMillis;
+                }
+                long end = Math.min(dayEnd, to.getTime());
+                if (start < end) {
+                    windows.add(new long[] { start, end });
+                }
+            }
+            return windows;
+        }
+        
+        /**
+         * Validate appointment data
+         */
+        public void validateAppointment(Appointment appointment) throws Exception {
+            if (appointment == null) {
+                throw new IllegalArgumentException("Appointment cannot be null");
+            }
+            
+            if (appointment.getPatientId() <= 0) {
+                throw new Exception("Patient is required");
+            }
+            
+            if (appointment.getDoctorId() <= 0) {
+                throw new Exception("Doctor is required");
+            }
+            
+            if (appointment.getAppointmentTime() == null) {
+                throw new Exception("Appointment time is required");
+            }
+            
+            if (appointment.getDurationMinutes() < MIN_DURATION_MINUTES
+                    || appointment.getDurationMinutes() > MAX_DURATION_MINUTES) {
+                throw new Exception("Duration must be between " + MIN_DURATION_MINUTES + " and "
+                        + MAX_DURATION_MINUTES + " minutes");
+            }
+            
+            if (appointment.getStatus() == null || appointment.getStatus().trim().isEmpty()) {
+                throw new Exception("Status is required");
+            }
+        }
+        
+        /**
+         * Run a booking write, retrying with jittered backoff when it loses a
+         * lock conflict with another workstation. A duplicate start time means
+         * another booking won the slot and is reported as a conflict (-1 is
+         * kept for "not found").
+         */
+        private int writeWithRetry(Callable<Integer> write) throws Exception {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return write.call();
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ER_DUP_ENTRY) {
+                        throw slotTaken(0);
+                    }
+                    boolean retryable = e.getErrorCode() == ER_LOCK_DEADLOCK
+                            || e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT || "40001".equals(e.getSQLState());
+                    if (!retryable || attempt == MAX_BOOKING_ATTEMPTS) {
+                        throw e;
+                    }
+                    LOGGER.log(Level.INFO, "Retrying booking after lock conflict (attempt {0})", attempt);
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(BOOKING_BACKOFF_MILLIS << attempt));
+                }
+            }
+        }
+        
+        private Exception slotTaken(int conflictId) {
+            return new Exception(conflictId > 0
+                    ? "The doctor is already booked at that time (appointment " + conflictId + ")"
+                    : "The doctor is already booked at that time");
+        }
+        
+        /**
+         * Lock the stripes of every (doctor, day) the appointments touch, in
+         * stripe order so concurrent bookings cannot deadlock. `other` may be null.
+         */
+        private static int[] lockStripes(Appointment appointment, Appointment other) {
+            IntList stripes = new IntList();
+            for (Appointment a : new Appointment[] { appointment, other }) {
+                if (a == null) {
+                    continue;
+                }
+                long firstDay = Math.floorDiv(a.getAppointmentTime().getTime(), TimeUnit.DAYS.toMillis(1));
+                long lastDay = Math.floorDiv(a.getEndMillis() - 1, TimeUnit.DAYS.toMillis(1));
+                for (long day = firstDay; day <= lastDay; day++) {
+                    int hash = 31 * a.getDoctorId() + Long.hashCode(day);
+                    stripes.add((hash ^ (hash >>> 16)) & (BOOKING_LOCK_STRIPES - 1));
+                }
+            }
+            
+            int[] sorted = stripes.toArray();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            int[] locked = Arrays.copyOf(sorted, distinct);
+            for (int stripe : locked) {
+                BOOKING_LOCKS[stripe].lock();
+            }
+            return locked;
+        }
+        
+        /**
+         * Read an appointment and lock the stripes of its current slot, plus
+         * those of `other` if not null. The row is read again under the locks
+         * and the locking retried if it moved in between, so no writer in this
+         * process can move it until the stripes are unlocked. Returns the
+         * locked stripes, or null if the appointment does not exist.
+         */
+        private int[] lockCurrentSlot(int appointmentId, Appointment other) throws Exception {
+            Appointment current = appointmentRepository.findById(appointmentId);
+            for (int attempt = 1; current != null; attempt++) {
+                int[] stripes = lockStripes(current, other);
+                Appointment reread;
+                try {
+                    reread = appointmentRepository.findById(appointmentId);
+                } catch (SQLException | RuntimeException e) {
+                    unlockStripes(stripes);
+                    throw e;
+                }
+                if (reread != null && reread.getDoctorId() == current.getDoctorId()
+                        && reread.getAppointmentTime().getTime() == current.getAppointmentTime().getTime()
+                        && reread.getEndMillis() == current.getEndMillis()) {
+                    return stripes;
+                }
+                unlockStripes(stripes);
+                if (attempt == MAX_BOOKING_ATTEMPTS) {
+                    throw new Exception("The appointment keeps being changed, please try again");
+                }
+                current = reread;
+            }
+            return null;
+        }
+        
+        private static void unlockStripes(int[] stripes) {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                BOOKING_LOCKS[stripes[i]].unlock();
+            }
+        }
+        
+        private int findConflict(int doctorId, long startMillis, long endMillis, int excludeId) throws SQLException {
+            if (scheduleIndex.isReady()) {
+                return scheduleIndex.findOverlapping(doctorId, startMillis, endMillis, excludeId);
+            }
+            return appointmentRepository.findOverlapping(doctorId, new Date(startMillis), new Date(endMillis),
+                    excludeId, MAX_DURATION_MINUTES);
+        }
+        
+        /**
+         * The slots that no appointment in the database overlaps, checked with
+         * one query for all of them
+         */
+        private List<DoctorSlot> confirmFree(List<DoctorSlot> slots) throws SQLException {
+            if (slots.isEmpty()) {
+                return slots;
+            }
+            Set<Integer> doctorIds = new LinkedHashSet<>();
+            long from = Long.MAX_VALUE;
+            long to = Long.MIN_VALUE;
+            for (DoctorSlot slot : slots) {
+                doctorIds.add(slot.getDoctor().getDoctorId());
+                from = Math.min(from, slot.getStart().getTime());
+                to = Math.max(to, slot.getStart().getTime() + TimeUnit.MINUTES.toMillis(slot.getDurationMinutes()));
+            }
+            List<long[]> booked = appointmentRepository.findBookedSlots(new ArrayList<>(doctorIds),
+                    new Date(from), new Date(to), MAX_DURATION_MINUTES);
+            
+            List<DoctorSlot> free = new ArrayList<>(slots.size());
+            for (DoctorSlot slot : slots) {
+                long start = slot.getStart().getTime();
+                long end = start + TimeUnit.MINUTES.toMillis(slot.getDurationMinutes());
+                boolean taken = false;
+                for (long[] booking : booked) {
+                    if (booking[0] == slot.getDoctor().getDoctorId() && booking[1] < end && booking[2] > start) {
+                        taken = true;
+                        break;
+                    }
+                }
+                if (!taken) {
+                    free.add(slot);
+                }
+            }
+            return free;
+        }
+        
+        private void updateIndex(Appointment appointment) {
+            if (appointment.holdsSlot()) {
+                scheduleIndex.put(appointment.getAppointmentId(), appointment.getDoctorId(),
+                        appointment.getAppointmentTime().getTime(), appointment.getEndMillis());
+            } else {
+                scheduleIndex.remove(appointment.getAppointmentId());
+            }
+        }
+        
+        private static Date toDate(LocalDate day) {
+            return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+    }
+    
+    //==========================================================================
+    // CACHES
+    //==========================================================================
+    
+    /**
+     * Bounded in-memory cache with LRU eviction and a time-to-live. The cache
+     * is limited both by entry count and by the estimated size of its values,
+     * and hands out copies so callers cannot modify cached entities.
+     */
+    static class EntityCache<K, V> {
+        private final String name;
+        private final int maxEntries;
+        private final long maxBytes;
+        private final long ttlNanos;
+        private final UnaryOperator<V> copier;
+        private final ToLongFunction<V> sizeEstimator;
+        
+        // Access-ordered, so iteration starts at the least recently used entry
+        private final LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final ReentrantLock lock = new ReentrantLock();
+        private long totalBytes = 0;
+        private long generation = 0;
+        
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        
+        public EntityCache(String name, int maxEntries, long maxBytes, long ttlMillis,
+                           UnaryOperator<V> copier, ToLongFunction<V> sizeEstimator) {
+            this.name = name;
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            this.copier = copier;
+            this.sizeEstimator = sizeEstimator;
+        }
+        
+        /**
+         * Get a copy of the cached value, or null if it is absent or expired
+         */
+        public V get(K key) {
+            lock.lock();
+            try {
+                CacheEntry<V> entry = entries.get(key);
+                if (entry != null && System.nanoTime() - entry.loadedAtNanos > ttlNanos) {
+                    removeEntry(key);
+                    expirations.increment();
+                    entry = null;
+                }
+                if (entry == null) {
+                    misses.increment();
+                    return null;
+                }
+                hits.increment();
+                return copier.apply(entry.value);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Like get(), but an absent value is not counted as a miss. For callers
+         * that fall back to a loader which looks the key up again.
+         */
+        public V peek(K key) {
+            lock.lock();
+            try {
+                CacheEntry<V> entry = entries.get(key);
+                if (entry == null || System.nanoTime() - entry.loadedAtNanos > ttlNanos) {
+                    return null;
+                }
+                hits.increment();
+                return copier.apply(entry.value);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Read the invalidation generation before loading a value from the
+         * database, and pass it to put() afterwards
+         */
+        public long generation() {
+            lock.lock();
+            try {
+                return generation;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Cache a copy of a value loaded at the given generation. The value is
+         * dropped if anything was invalidated since, because the load may have
+         * read a row that a concurrent write then changed.
+         */
+        public void put(K key, V value, long loadedAtGeneration) {
+            V copy = copier.apply(value);
+            long size = sizeEstimator.applyAsLong(copy);
+            
+            lock.lock();
+            try {
+                if (loadedAtGeneration != generation || size > maxBytes) {
+                    return;
+                }
+                removeEntry(key);
+                entries.put(key, new CacheEntry<>(copy, size, System.nanoTime()));
+                totalBytes += size;
+                
+                Iterator<Map.Entry<K, CacheEntry<V>>> eldest = entries.entrySet().iterator();
+                while (entries.size() > maxEntries || totalBytes > maxBytes) {
+                    totalBytes -= eldest.next().getValue().size;
+                    eldest.remove();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Drop a cached value after its row was written
+         */
+        public void invalidate(K key) {
+            lock.lock();
+            try {
+                generation++;
+                if (removeEntry(key)) {
+                    invalidations.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Drop every cached value
+         */
+        public void clear() {
+            lock.lock();
+            try {
+                generation++;
+                invalidations.add(entries.size());
+                entries.clear();
+                totalBytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Get a snapshot of the cache size and hit statistics
+         */
+        public CacheStats getStats() {
+            lock.lock();
+            try {
+                return new CacheStats(name, entries.size(), totalBytes, hits.sum(), misses.sum(),
+                        evictions.sum(), expirations.sum(), invalidations.sum());
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private boolean removeEntry(K key) {
+            CacheEntry<V> removed = entries.remove(key);
+            if (removed == null) {
+                return false;
+            }
+            totalBytes -= removed.size;
+            return true;
+        }
+        
+        private static class CacheEntry<V> {
+            final V value;
+            final long size;
+            final long loadedAtNanos;
+            
+            CacheEntry(V value, long size, long loadedAtNanos) {
+                this.value = value;
+                this.size = size;
+                this.loadedAtNanos = loadedAtNanos;
+            }
+        }
+    }
+    
+    /**
+     * Cached copy of the read-mostly disease catalog. Readers get an immutable,
+     * versioned snapshot with lookup by ID and a name-sorted list; a refresh
+     * builds a new snapshot and swaps it in atomically. The catalog refreshes
+     * after a disease is added and on a fixed interval, to pick up changes
+     * made by other clients.
+     */
+    static class DiseaseCatalog {
+        private static final Logger LOGGER = Logger.getLogger(DiseaseCatalog.class.getName());
+        private static DiseaseCatalog instance;
+        
+        // Refresh interval - override with -Dhms.cache.diseases.refreshSeconds
+        private static final long REFRESH_INTERVAL_SECONDS = Long.getLong("hms.cache.diseases.refreshSeconds", 600L);
+        
+        private final DiseaseRepository diseaseRepository;
+        private final AtomicReference<Snapshot> current = new AtomicReference<>();
+        private final Object refreshLock = new Object();
+        private ScheduledExecutorService refresher;
+        
+        private DiseaseCatalog() {
+            this.diseaseRepository = new DiseaseRepository();
+        }
+        
+        public static synchronized DiseaseCatalog getInstance() {
+            if (instance == null) {
+                instance = new DiseaseCatalog();
+            }
+            return instance;
+        }
+        
+        /**
+         * Load the catalog in the background and keep it refreshed on the
+         * configured interval
+         */
+        public synchronized void start() {
+            if (refresher != null) {
+                return;
+            }
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "disease-catalog-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    refresh();
+                } catch (SQLException e) {
+                    LOGGER.log(Level.WARNING, "Disease catalog refresh failed", e);
+                }
+            }, 0, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Get the current snapshot, loading it first if it was never loaded
+         */
+        public Snapshot getSnapshot() throws SQLException {
+            Snapshot snapshot = current.get();
+            return snapshot != null ? snapshot : refresh();
+        }
+        
+        /**
+         * Get the current snapshot, or null if the catalog was never loaded
+         */
+        public Snapshot getLoadedSnapshot() {
+            return current.get();
+        }
+        
+        /**
+         * Reload the catalog from the database and publish it as a new snapshot
+         */
+        public Snapshot refresh() throws SQLException {
+            synchronized (refreshLock) {
+                Snapshot previous = current.get();
+                Snapshot snapshot = new Snapshot(previous == null ? 1 : previous.version + 1,
+                        diseaseRepository.findAll());
+                current.set(snapshot);
+                LOGGER.log(Level.FINE, "Loaded disease catalog version {0} with {1} diseases",
+                        new Object[] { snapshot.version, snapshot.diseases.size() });
+                return snapshot;
+            }
+        }
+        
+        /**
+         * Reload the catalog on a background thread
+         */
+        public void refreshAsync() {
+            BackgroundTask.submit(this::refresh, ignored -> { },
+                    e -> LOGGER.log(Level.WARNING, "Disease catalog refresh failed", e));
+        }
+        
+        /**
+         * One immutable version of the catalog. The diseases are private copies
+         * that are never handed out; callers get copies of their own.
+         */
+        static class Snapshot {
+            private final long version;
+            private final long loadedAtMillis;
+            private final Map<Integer, Disease> byId;
+            private final List<Disease> diseases;
+            
+            Snapshot(long version, List<Disease> loaded) {
+                this.version = version;
+                this.loadedAtMillis = System.currentTimeMillis();
+                
+                Map<Integer, Disease> byId = new HashMap<>(loaded.size() * 2);
+                List<Disease> diseases = new ArrayList<>(loaded.size());
+                for (Disease disease : loaded) {
+                    Disease copy = new Disease(disease);
+                    byId.put(copy.getDiseaseId(), copy);
+                    diseases.add(copy);
+                }
+                diseases.sort(Comparator.comparing(Disease::getName, String.CASE_INSENSITIVE_ORDER));
+                
+                this.byId = Collections.unmodifiableMap(byId);
+                this.diseases = Collections.unmodifiableList(diseases);
+            }
+            
+            public long getVersion() { return version; }
+            public long getLoadedAtMillis() { return loadedAtMillis; }
+            
+            /**
+             * Get a copy of a disease by ID, or null if it is not in this snapshot
+             */
+            public Disease getDisease(int diseaseId) {
+                Disease disease = byId.get(diseaseId);
+                return disease == null ? null : new Disease(disease);
+            }
+            
+            /**
+             * Get copies of every disease, sorted by name
+             */
+            public List<Disease> getDiseases() {
+                List<Disease> copies = new ArrayList<>(diseases.size());
+                for (Disease disease : diseases) {
+                    copies.add(new Disease(disease));
+                }
+                return copies;
+            }
+        }
+    }
+    
+    /**
+     * Immutable snapshot of an EntityCache's size and hit statistics
+     */
+    static class CacheStats {
+        private final String name;
+        private final int entries;
+        private final long estimatedBytes;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+        
+        public CacheStats(String name, int entries, long estimatedBytes, long hits, long misses,
+                          long evictions, long expirations, long invalidations) {
+            this.name = name;
+            this.entries = entries;
+            this.estimatedBytes = estimatedBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+        
+        // Getters
+        public String getName() { return name; }
+        public int getEntries() { return entries; }
+        public long getEstimatedBytes() { return estimatedBytes; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+        
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: entries=%d bytes=%d hits=%d misses=%d hitRate=%.1f%% " +
+                    "evictions=%d expirations=%d invalidations=%d",
+                    name, entries, estimatedBytes, hits, misses, getHitRate() * 100,
+                    evictions, expirations, invalidations);
+        }
+    }
+    
+    //==========================================================================
+    // SEARCH INDEXES
+    //==========================================================================
+    
+    /**
+     * In-memory trigram index over patient first and last names. Substring
+     * searches look up the rarest trigram of the term and verify the few
+     * candidates, instead of a LIKE '%term%' scan of the patients table.
+     * Fuzzy lookups tolerate typos through SymSpell-style delete variants of
+     * each distinct name token, and sound-alike spellings through Soundex.
+     * The index is built in the background after login and kept current by
+     * PatientService. Patients added on other workstations are picked up by
+     * a periodic load of IDs above the highest one indexed; their renames and
+     * deletions by a less frequent full rebuild.
+     */
+    static class PatientNameIndex {
+        private static final Logger LOGGER = Logger.getLogger(PatientNameIndex.class.getName());
+        private static PatientNameIndex instance;
+        
+        // Delete variants are generated from this many leading characters of a token
+        private static final int FUZZY_PREFIX_LENGTH = 6;
+        private static final int MAX_EDIT_DISTANCE = 2;
+        private static final double PHONETIC_ONLY_SCORE = 0.5;
+        
+        private static final long REFRESH_INTERVAL_SECONDS = Long.getLong("hms.search.index.refreshSeconds", 60L);
+        private static final long REBUILD_INTERVAL_MINUTES = Long.getLong("hms.search.index.rebuildMinutes", 30L);
+        
+        private final PatientRepository patientRepository;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private ScheduledExecutorService refresher;
+        // Only touched by the refresher thread
+        private long lastRebuildNanos;
+        
+        // Guarded by lock
+        private NameStore store = new NameStore();
+        private boolean ready = false;
+        private List<Object[]> pendingChanges;
+        
+        private PatientNameIndex() {
+            this.patientRepository = new PatientRepository();
+        }
+        
+        public static synchronized PatientNameIndex getInstance() {
+            if (instance == null) {
+                instance = new PatientNameIndex();
+            }
+            return instance;
+        }
+        
+        /**
+         * Whether the index has been built and can answer searches
+         */
+        public boolean isReady() {
+            lock.readLock().lock();
+            try {
+                return ready;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        /**
+         * Build the index in the background and keep it refreshed on the
+         * configured intervals
+         */
+        public synchronized void start() {
+            if (refresher != null) {
+                return;
+            }
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "patient-name-index-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    if (!isReady() || System.nanoTime() - lastRebuildNanos
+                            >= TimeUnit.MINUTES.toNanos(REBUILD_INTERVAL_MINUTES)) {
+                        rebuild();
+                        lastRebuildNanos = System.nanoTime();
+                    } else {
+                        loadNewPatients();
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Patient name index refresh failed", e);
+                }
+            }, 0, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Index the patients registered since the highest ID in the index,
+         * including those added on other workstations
+         */
+        public void loadNewPatients() throws SQLException {
+            int watermark;
+            lock.readLock().lock();
+            try {
+                if (!ready) {
+                    return;
+                }
+                watermark = store.maxPatientId;
+            } finally {
+                lock.readLock().unlock();
+            }
+            
+            int[] loaded = new int[1];
+            patientRepository.forEachPatientNameAfter(watermark, (patientId, firstName, lastName) -> {
+                put(patientId, firstName, lastName);
+                loaded[0]++;
+            });
+            if (loaded[0] > 0) {
+                LOGGER.log(Level.FINE, "Indexed {0} new patient names", loaded[0]);
+            }
+        }
+        
+        /**
+         * Rebuild the index from the database. Changes made while the build runs
+         * are replayed onto the new index before it is published.
+         */
+        public void rebuild() throws SQLException {
+            lock.writeLock().lock();
+            try {
+                if (pendingChanges != null) {
+                    return; // A build is already running
+                }
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            
+            long start = System.nanoTime();
+            NameStore newStore = new NameStore();
+            try {
+                patientRepository.forEachPatientName((patientId, firstName, lastName) ->
+                        newStore.put(patientId, normalize(firstName), normalize(lastName)));
+            } catch (SQLException | RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            
+            lock.writeLock().lock();
+            try {
+                for (Object[] change : pendingChanges) {
+                    if (change[1] == null) {
+                        newStore.remove((Integer) change[0]);
+                    } else {
+                        newStore.put((Integer) change[0], (String) change[1], (String) change[2]);
+                    }
+                }
+                store = newStore;
+                pendingChanges = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            
+            LOGGER.log(Level.INFO, "Indexed {0} patient names in {1} ms",
+                    new Object[] { newStore.slotById.size(), (System.nanoTime() - start) / 1_000_000 });
+        }
+        
+        /**
+         * Add or replace the names of a patient
+         */
+        public void put(int patientId, String firstName, String lastName) {
+            String first = normalize(firstName);
+            String last = normalize(lastName);
+            lock.writeLock().lock();
+            try {
+                store.put(patientId, first, last);
+                if (pendingChanges != null) {
+                    pendingChanges.add(new Object[] { patientId, first, last });
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Remove a patient from the index
+         */
+        public void remove(int patientId) {
+            lock.writeLock().lock();
+            try {
+                store.remove(patientId);
+                if (pendingChanges != null) {
+                    pendingChanges.add(new Object[] { patientId, null, null });
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Find patients whose first or last name contains the term, best
+         * matches first: exact last name, last name prefix, first name prefix,
+         * then any substring. Terms under 3 characters have no trigram to look
+         * up and scan every name under the read lock, so callers should not
+         * send them on every keystroke.
+         */
+        public List<Integer> search(String term, int limit) {
+            String needle = normalize(term);
+            if (needle.isEmpty() || limit < 1) {
+                return new ArrayList<>();
+            }
+            
+            // Keep only the best `limit` matches; the worst one sits at the head
+            PriorityQueue<NameMatch> best = new PriorityQueue<>(limit, Collections.reverseOrder());
+            
+            lock.readLock().lock();
+            try {
+                NameStore names = store;
+                if (needle.length() < 3) {
+                    // Too short for trigrams; scan the names held in memory
+                    for (int slot = 0; slot < names.slotCount; slot++) {
+                        offer(best, limit, names, slot, needle);
+                    }
+                } else {
+                    IntList candidates = names.rarestPosting(needle);
+                    if (candidates != null) {
+                        for (int i = 0; i < candidates.size(); i++) {
+                            offer(best, limit, names, candidates.get(i), needle);
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            
+            List<NameMatch> ordered = new ArrayList<>(best);
+            Collections.sort(ordered);
+            
+            List<Integer> patientIds = new ArrayList<>(ordered.size());
+            for (NameMatch match : ordered) {
+                patientIds.add(match.patientId);
+            }
+            return patientIds;
+        }
+        
+        /**
+         * Find patients whose names are within a few typos of, or sound like,
+         * every word of the query. Matches are scored from 0 to 1, best first.
+         */
+        public List<FuzzyMatch> fuzzySearch(String query, int limit) {
+            List<String> queryTokens = tokenize(normalize(query));
+            if (queryTokens.isEmpty() || limit < 1) {
+                return new ArrayList<>();
+            }
+            
+            // Keep only the best `limit` matches; the worst one sits at the head
+            PriorityQueue<FuzzyMatch> best = new PriorityQueue<>(limit, Collections.reverseOrder());
+            
+            lock.readLock().lock();
+            try {
+                NameStore names = store;
+                
+                // Score the dictionary tokens each query word could stand for
+                List<Map<NameToken, Double>> similar = new ArrayList<>(queryTokens.size());
+                int driver = 0;
+                long driverSlots = Long.MAX_VALUE;
+                for (String queryToken : queryTokens) {
+                    Map<NameToken, Double> tokens = names.similarTokens(queryToken);
+                    if (tokens.isEmpty()) {
+                        return new ArrayList<>(); // Some word matches no name at all
+                    }
+                    long slots = 0;
+                    for (NameToken token : tokens.keySet()) {
+                        slots += token.slots.size();
+                    }
+                    if (slots < driverSlots) {
+                        driver = similar.size();
+                        driverSlots = slots;
+                    }
+                    similar.add(tokens);
+                }
+                
+                // Walk the patients of the most selective word and score the rest against them
+                BitSet seen = new BitSet(names.slotCount);
+                for (NameToken token : similar.get(driver).keySet()) {
+                    for (int i = 0; i < token.slots.size(); i++) {
+                        int slot = token.slots.get(i);
+                        if (seen.get(slot) || names.lastNames[slot] == null) {
+                            continue;
+                        }
+                        seen.set(slot);
+                        
+                        double score = names.fuzzyScore(slot, similar);
+                        if (score <= 0) {
+                            continue;
+                        }
+                        FuzzyMatch match = new FuzzyMatch(names.patientIds[slot], score);
+                        if (best.size() >= limit) {
+                            if (match.compareTo(best.peek()) >= 0) {
+                                continue;
+                            }
+                            best.poll();
+                        }
+                        best.add(match);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            
+            List<FuzzyMatch> ordered = new ArrayList<>(best);
+            Collections.sort(ordered);
+            return ordered;
+        }
+        
+        private static void offer(PriorityQueue<NameMatch> best, int limit, NameStore names,
+                                  int slot, String needle) {
+            String first = names.firstNames[slot];
+            String last = names.lastNames[slot];
+            if (last == null) {
+                return; // Free slot
+            }
+            
+            int rank = rank(first, last, needle);
+            if (rank < 0) {
+                return;
+            }
+            if (best.size() >= limit) {
+                NameMatch worst = best.peek();
+                if (rank > worst.rank || (rank == worst.rank && compareNames(last, first, worst) >= 0)) {
+                    return;
+                }
+                best.poll();
+            }
+            best.add(new NameMatch(rank, names.patientIds[slot], first, last));
+        }
+        
+        private static int compareNames(String last, String first, NameMatch match) {
+            int byLast = last.compareTo(match.lastName);
+            return byLast != 0 ? byLast : first.compareTo(match.firstName);
+        }
+        
+        /**
+         * Rank of a patient's names against a search term, or -1 if they do not match
+         */
+        public static int matchRank(String firstName, String lastName, String term) {
+            String needle = normalize(term);
+            return needle.isEmpty() ? -1 : rank(normalize(firstName), normalize(lastName), needle);
+        }
+        
+        private static int rank(String first, String last, String needle) {
+            if (last.equals(needle)) {
+                return 0;
+            }
+            if (last.startsWith(needle)) {
+                return 1;
+            }
+            if (first.startsWith(needle)) {
+                return 2;
+            }
+            if (last.contains(needle) || first.contains(needle)) {
+                return 3;
+            }
+            return -1;
+        }
+        
+        private static String normalize(String name) {
+            return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        }
+        
+        /**
+         * Split a normalized name into words, dropping apostrophes so that
+         * "o'brien" and "obrien" are the same token
+         */
+        private static List<String> tokenize(String name) {
+            List<String> tokens = new ArrayList<>(2);
+            StringBuilder token = new StringBuilder();
+            for (int i = 0; i <= name.length(); i++) {
+                char c = i < name.length() ? name.charAt(i) : ' ';
+                if (Character.isLetter(c)) {
+                    token.append(c);
+                } else if (c != '\'' && token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            }
+            return tokens;
+        }
+        
+        /**
+         * Typos tolerated in a word of the given length
+         */
+        private static int allowedEdits(int length) {
+            return length <= 2 ? 0 : length <= 5 ? 1 : MAX_EDIT_DISTANCE;
+        }
+        
+        /**
+         * Score of a dictionary token as a reading of a query word, from 0 to 1
+         */
+        private static double tokenScore(String queryToken, NameToken token, int distance, String querySoundex) {
+            boolean soundsAlike = querySoundex.equals(token.soundex);
+            if (distance < 0) {
+                return soundsAlike ? PHONETIC_ONLY_SCORE : 0;
+            }
+            double score = 1.0 - distance / (Math.max(queryToken.length(), token.text.length()) + 1.0);
+            // Typos that keep the sound of the name are the likelier reading
+            return soundsAlike ? score + (1.0 - score) / 2 : score;
+        }
+        
+        /**
+         * American Soundex code of a lowercase word, e.g. "robert" -> "R163"
+         */
+        private static String soundex(String word) {
+            if (word.isEmpty()) {
+                return "";
+            }
+            StringBuilder code = new StringBuilder(4).append(Character.toUpperCase(word.charAt(0)));
+            char previous = soundexDigit(word.charAt(0));
+            for (int i = 1; i < word.length() && code.length() < 4; i++) {
+                char c = word.charAt(i);
+                char digit = soundexDigit(c);
+                if (digit != '0' && digit != previous) {
+                    code.append(digit);
+                }
+                // H and W do not separate letters with the same code
+                if (c != 'h' && c != 'w') {
+                    previous = digit;
+                }
+            }
+            while (code.length() < 4) {
+                code.append('0');
+            }
+            return code.toString();
+        }
+        
+        private static char soundexDigit(char c) {
+            switch (c) {
+                case 'b': case 'f': case 'p': case 'v':
+                    return '1';
+                case 'c': case 'g': case 'j': case 'k': case 'q': case 's': case 'x': case 'z':
+                    return '2';
+                case 'd': case 't':
+                    return '3';
+                case 'l':
+                    return '4';
+                case 'm': case 'n':
+                    return '5';
+                case 'r':
+                    return '6';
+                default:
+                    return '0';
+            }
+        }
+        
+        /**
+         * Optimal string alignment distance (Levenshtein plus adjacent
+         * transpositions), or -1 once it is known to exceed the limit
+         */
+        private static int editDistance(String a, String b, int limit) {
+            if (Math.abs(a.length() - b.length()) > limit) {
+                return -1;
+            }
+            int[] twoRowsUp = new int[b.length() + 1];
+            int[] previous = new int[b.length() + 1];
+            int[] current = new int[b.length() + 1];
+            for (int j = 0; j <= b.length(); j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= a.length(); i++) {
+                current[0] = i;
+                int rowMin = i;
+                for (int j = 1; j <= b.length(); j++) {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                    if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                        distance = Math.min(distance, twoRowsUp[j - 2] + 1);
+                    }
+                    current[j] = distance;
+                    rowMin = Math.min(rowMin, distance);
+                }
+                if (rowMin > limit) {
+                    return -1;
+                }
+                int[] recycled = twoRowsUp;
+                twoRowsUp = previous;
+                previous = current;
+                current = recycled;
+            }
+            return previous[b.length()] <= limit ? previous[b.length()] : -1;
+        }
+        
+        /**
+         * The word itself plus every string left after deleting up to
+         * `maxDeletes` characters, excluding the empty string
+         */
+        private static Set<String> deleteVariants(String word, int maxDeletes) {
+            Set<String> variants = new HashSet<>();
+            variants.add(word);
+            List<String> frontier = Collections.singletonList(word);
+            for (int d = 0; d < maxDeletes; d++) {
+                List<String> next = new ArrayList<>();
+                for (String variant : frontier) {
+                    if (variant.length() <= 1) {
+                        continue;
+                    }
+                    for (int i = 0; i < variant.length(); i++) {
+                        String shorter = variant.substring(0, i) + variant.substring(i + 1);
+                        if (variants.add(shorter)) {
+                            next.add(shorter);
+                        }
+                    }
+                }
+                frontier = next;
+            }
+            return variants;
+        }
+        
+        private static String fuzzyPrefix(String token) {
+            return token.length() > FUZZY_PREFIX_LENGTH ? token.substring(0, FUZZY_PREFIX_LENGTH) : token;
+        }
+        
+        /**
+         * A fuzzy search hit, ordered by descending score, then ID
+         */
+        public static class FuzzyMatch implements Comparable<FuzzyMatch> {
+            private final int patientId;
+            private final double score;
+            
+            FuzzyMatch(int patientId, double score) {
+                this.patientId = patientId;
+                this.score = score;
+            }
+            
+            public int getPatientId() { return patientId; }
+            public double getScore() { return score; }
+            
+            @Override
+            public int compareTo(FuzzyMatch other) {
+                int byScore = Double.compare(other.score, score);
+                return byScore != 0 ? byScore : Integer.compare(patientId, other.patientId);
+            }
+        }
+        
+        /**
+         * A distinct word occurring in patient names, with the slots of the
+         * patients whose names contain it
+         */
+        private static class NameToken {
+            final String text;
+            final String soundex;
+            final IntList slots = new IntList(2);
+            
+            NameToken(String text) {
+                this.text = text;
+                this.soundex = soundex(text);
+            }
+        }
+        
+        /**
+         * A search hit, ordered by rank, then last name, first name and ID
+         */
+        private static class NameMatch implements Comparable<NameMatch> {
+            final int rank;
+            final int patientId;
+            final String firstName;
+            final String lastName;
+            
+            NameMatch(int rank, int patientId, String firstName, String lastName) {
+                this.rank = rank;
+                this.patientId = patientId;
+                this.firstName = firstName;
+                this.lastName = lastName;
+            }
+            
+            @Override
+            public int compareTo(NameMatch other) {
+                if (rank != other.rank) {
+                    return Integer.compare(rank, other.rank);
+                }
+                int byNames = compareNames(lastName, firstName, other);
+                return byNames != 0 ? byNames : Integer.compare(patientId, other.patientId);
+            }
+        }
+        
+        /**
+         * Names held in dense slot arrays with trigram and word posting lists of
+         * slots. Postings of replaced or removed names are dropped with them,
+         * so every posting points at a live name that contains its key.
+         * Words no longer used by any patient stay in the fuzzy dictionaries
+         * with empty postings until the next rebuild.
+         */
+        private static class NameStore {
+            int[] patientIds = new int[1024];
+            String[] firstNames = new String[1024];
+            String[] lastNames = new String[1024];
+            int slotCount = 0;
+            final IntList freeSlots = new IntList();
+            final Map<Integer, Integer> slotById = new HashMap<>();
+            final Map<Long, IntList> postings = new HashMap<>();
+            int maxPatientId = 0;
+            
+            // Fuzzy dictionaries over distinct name words
+            final Map<String, NameToken> tokens = new HashMap<>();
+            // Value is a NameToken, or a NameToken[] once several words share the variant
+            final Map<String, Object> tokensByDeleteVariant = new HashMap<>();
+            final Map<String, List<NameToken>> tokensBySoundex = new HashMap<>();
+            
+            void put(int patientId, String first, String last) {
+                Integer slot = slotById.get(patientId);
+                Set<Long> previous = Collections.emptySet();
+                Set<String> previousWords = Collections.emptySet();
+                if (slot != null) {
+                    previous = trigrams(firstNames[slot], lastNames[slot]);
+                    previousWords = words(firstNames[slot], lastNames[slot]);
+                } else {
+                    slot = allocateSlot();
+                    slotById.put(patientId, slot);
+                }
+                
+                patientIds[slot] = patientId;
+                firstNames[slot] = first;
+                lastNames[slot] = last;
+                maxPatientId = Math.max(maxPatientId, patientId);
+                
+                Set<Long> current = trigrams(first, last);
+                for (Long key : current) {
+                    if (!previous.contains(key)) {
+                        postings.computeIfAbsent(key, k -> new IntList(4)).add(slot);
+                    }
+                }
+                for (Long key : previous) {
+                    if (!current.contains(key)) {
+                        unpost(key, slot);
+                    }
+                }
+                
+                Set<String> currentWords = words(first, last);
+                for (String word : currentWords) {
+                    if (!previousWords.contains(word)) {
+                        token(word).slots.add(slot);
+                    }
+                }
+                for (String word : previousWords) {
+                    if (!currentWords.contains(word)) {
+                        tokens.get(word).slots.removeValue(slot);
+                    }
+                }
+            }
+            
+            void remove(int patientId) {
+                Integer slot = slotById.remove(patientId);
+                if (slot == null) {
+                    return;
+                }
+                for (Long key : trigrams(firstNames[slot], lastNames[slot])) {
+                    unpost(key, slot);
+                }
+                for (String word : words(firstNames[slot], lastNames[slot])) {
+                    tokens.get(word).slots.removeValue(slot);
+                }
+                firstNames[slot] = null;
+                lastNames[slot] = null;
+                freeSlots.add(slot);
+            }
+            
+            private void unpost(Long key, int slot) {
+                IntList list = postings.get(key);
+                if (list != null && list.removeValue(slot) && list.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+            
+            IntList rarestPosting(String needle) {
+                IntList rarest = null;
+                for (int i = 0; i + 3 <= needle.length(); i++) {
+                    IntList list = postings.get(trigramKey(needle, i));
+                    if (list == null) {
+                        return null; // Some trigram of the term occurs in no name
+                    }
+                    if (rarest == null || list.size() < rarest.size()) {
+                        rarest = list;
+                    }
+                }
+                return rarest;
+            }
+            
+            /**
+             * Dictionary words within the typo allowance of a query word or
+             * sounding like it, with their scores
+             */
+            Map<NameToken, Double> similarTokens(String queryToken) {
+                Map<NameToken, Double> similar = new HashMap<>();
+                String querySoundex = soundex(queryToken);
+                int allowed = allowedEdits(queryToken.length());
+                
+                // Words sharing a delete variant of the prefix are the only ones
+                // that can be within `allowed` edits
+                for (String variant : deleteVariants(fuzzyPrefix(queryToken), allowed)) {
+                    Object entry = tokensByDeleteVariant.get(variant);
+                    if (entry == null) {
+                        continue;
+                    }
+                    NameToken[] candidates = entry instanceof NameToken
+                            ? new NameToken[] { (NameToken) entry } : (NameToken[]) entry;
+                    for (NameToken token : candidates) {
+                        if (!similar.containsKey(token)) {
+                            int distance = editDistance(queryToken, token.text, allowed);
+                            if (distance >= 0) {
+                                similar.put(token, tokenScore(queryToken, token, distance, querySoundex));
+                            }
+                        }
+                    }
+                }
+                
+                // Sound-alike spellings beyond the typo allowance
+                if (queryToken.length() > 2) {
+                    for (NameToken token : tokensBySoundex.getOrDefault(querySoundex, Collections.emptyList())) {
+                        similar.putIfAbsent(token, tokenScore(queryToken, token, -1, querySoundex));
+                    }
+                }
+                return similar;
+            }
+            
+            /**
+             * Average over the query words of the best score any word of the
+             * patient's names gets for it, or 0 if some query word is unmatched
+             */
+            double fuzzyScore(int slot, List<Map<NameToken, Double>> similar) {
+                List<NameToken> slotTokens = new ArrayList<>(2);
+                for (String word : words(firstNames[slot], lastNames[slot])) {
+                    slotTokens.add(tokens.get(word));
+                }
+                
+                double total = 0;
+                for (Map<NameToken, Double> candidates : similar) {
+                    double bestScore = 0;
+                    for (NameToken token : slotTokens) {
+                        bestScore = Math.max(bestScore, candidates.getOrDefault(token, 0.0));
+                    }
+                    if (bestScore == 0) {
+                        return 0;
+                    }
+                    total += bestScore;
+                }
+                return total / similar.size();
+            }
+            
+            private NameToken token(String word) {
+                NameToken token = tokens.get(word);
+                if (token == null) {
+                    token = new NameToken(word);
+                    tokens.put(word, token);
+                    for (String variant : deleteVariants(fuzzyPrefix(word), MAX_EDIT_DISTANCE)) {
+                        tokensByDeleteVariant.merge(variant, token, (existing, added) -> {
+                            NameToken[] shared = existing instanceof NameToken
+                                    ? new NameToken[] { (NameToken) existing } : (NameToken[]) existing;
+                            shared = Arrays.copyOf(shared, shared.length + 1);
+                            shared[shared.length - 1] = (NameToken) added;
+                            return shared;
+                        });
+                    }
+                    tokensBySoundex.computeIfAbsent(token.soundex, k -> new ArrayList<>(2)).add(token);
+                }
+                return token;
+            }
+            
+            private int allocateSlot() {
+                if (!freeSlots.isEmpty()) {
+                    int slot = freeSlots.get(freeSlots.size() - 1);
+                    freeSlots.removeLast();
+                    return slot;
+                }
+                if (slotCount == patientIds.length) {
+                    int capacity = slotCount * 2;
+                    patientIds = Arrays.copyOf(patientIds, capacity);
+                    firstNames = Arrays.copyOf(firstNames, capacity);
+                    lastNames = Arrays.copyOf(lastNames, capacity);
+                }
+                return slotCount++;
+            }
+            
+            private static Set<Long> trigrams(String first, String last) {
+                // A trigram shared by first and last name is posted once
+                Set<Long> keys = new HashSet<>();
+                for (String name : new String[] { first, last }) {
+                    for (int i = 0; i + 3 <= name.length(); i++) {
+                        keys.add(trigramKey(name, i));
+                    }
+                }
+                return keys;
+            }
+            
+            private static Set<String> words(String first, String last) {
+                Set<String> words = new HashSet<>(tokenize(first));
+                words.addAll(tokenize(last));
+                return words;
+            }
+            
+            private static long trigramKey(String text, int offset) {
+                return ((long) text.charAt(offset) << 32)
+                        | ((long) text.charAt(offset + 1) << 16)
+                        | text.charAt(offset + 2);
+            }
+        }
+    }
+    
+    /**
+     * In-memory index of the booked slots of every doctor. Each doctor's
+     * appointments are kept as parallel arrays sorted by start time, with a
+     * running maximum of end times, so an overlap check is a binary search
+     * plus a short backward scan instead of a query. The index is built in the
+     * background after login and kept current by AppointmentService; it is
+     * rebuilt periodically to pick up bookings made on other workstations.
+     */
+    static class DoctorScheduleIndex {
+        private static final Logger LOGGER = Logger.getLogger(DoctorScheduleIndex.class.getName());
+        private static DoctorScheduleIndex instance;
+        
+        private static final long REBUILD_INTERVAL_SECONDS = Long.getLong("hms.schedule.index.rebuildSeconds", 120L);
+        
+        private final AppointmentRepository appointmentRepository;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private ScheduledExecutorService rebuilder;
+        
+        // Guarded by lock
+        private Map<Integer, DoctorSchedule> schedules = new HashMap<>();
+        private Map<Integer, Integer> doctorByAppointment = new HashMap<>();
+        private boolean ready = false;
+        private List<long[]> pendingChanges;
+        private final CountDownLatch firstBuild = new CountDownLatch(1);
+        
+        private DoctorScheduleIndex() {
+            this.appointmentRepository = new AppointmentRepository();
+        }
+        
+        public static synchronized DoctorScheduleIndex getInstance() {
+            if (instance == null) {
+                instance = new DoctorScheduleIndex();
+            }
+            return instance;
+        }
+        
+        /**
+         * Whether the index has been built and can answer availability checks
+         */
+        public boolean isReady() {
+            lock.readLock().lock();
+            try {
+                return ready;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        /**
+         * Wait until the index has been built once
+         */
+        public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+            return firstBuild.await(timeout, unit);
+        }
+        
+        /**
+         * Build the index in the background and rebuild it on the configured
+         * interval
+         */
+        public synchronized void start() {
+            if (rebuilder != null) {
+                return;
+            }
+            rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "doctor-schedule-index-rebuilder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rebuilder.scheduleWithFixedDelay(() -> {
+                try {
+                    rebuild();
+                } catch (SQLException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Doctor schedule index rebuild failed", e);
+                }
+            }, 0, REBUILD_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Rebuild the index from the database on a background thread
+         */
+        public void rebuildAsync() {
+            BackgroundTask.submit(() -> {
+                rebuild();
+                return null;
+            }, ignored -> { }, e -> LOGGER.log(Level.WARNING, "Doctor schedule index build failed", e));
+        }
+        
+        /**
+         * Rebuild the index from the database. Changes made while the build runs
+         * are replayed onto the new index before it is published.
+         */
+        public void rebuild() throws SQLException {
+            lock.writeLock().lock();
+            try {
+                if (pendingChanges != null) {
+                    return; // A build is already running
+                }
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            
+            long start = System.nanoTime();
+            Map<Integer, DoctorSchedule> newSchedules = new HashMap<>();
+            Map<Integer, Integer> newDoctorByAppointment = new HashMap<>();
+            try {
+                appointmentRepository.forEachBookedSlot((appointmentId, doctorId, startMillis, endMillis) -> {
+                    newSchedules.computeIfAbsent(doctorId, id -> new DoctorSchedule())
+                            .append(appointmentId, startMillis, endMillis);
+                    newDoctorByAppointment.put(appointmentId, doctorId);
+                });
+                // Rows arrive in no particular order; sort each schedule once
+                for (DoctorSchedule schedule : newSchedules.values()) {
+                    schedule.sort();
+                }
+            } catch (SQLException | RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            
+            lock.writeLock().lock();
+            try {
+                schedules = newSchedules;
+                doctorByAppointment = newDoctorByAppointment;
+                for (long[] change : pendingChanges) {
+                    if (change[1] < 0) {
+                        removeLocked((int) change[0]);
+                    } else {
+                        putLocked((int) change[0], (int) change[1], change[2], change[3]);
+                    }
+                }
+                pendingChanges = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            firstBuild.countDown();
+            
+            LOGGER.log(Level.INFO, "Indexed {0} booked slots in {1} ms",
+                    new Object[] { newDoctorByAppointment.size(), (System.nanoTime() - start) / 1_000_000 });
+        }
+        
+        /**
+         * Add or move the slot of an appointment. Times are epoch milliseconds.
+         */
+        public void put(int appointmentId, int doctorId, long startMillis, long endMillis) {
+            lock.writeLock().lock();
+            try {
+                putLocked(appointmentId, doctorId, startMillis, endMillis);
+                if (pendingChanges != null) {
+                    pendingChanges.add(new long[] { appointmentId, doctorId, startMillis, endMillis });
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Free the slot of an appointment
+         */
+        public void remove(int appointmentId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(appointmentId);
+                if (pendingChanges != null) {
+                    pendingChanges.add(new long[] { appointmentId, -1, 0, 0 });
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        /**
+         * Find an appointment of the doctor that overlaps [startMillis, endMillis),
+         * ignoring excludeId. Returns its ID, or 0 if the doctor is free.
+         */
+        public int findOverlapping(int doctorId, long startMillis, long endMillis, int excludeId) {
+            lock.readLock().lock();
+            try {
+                DoctorSchedule schedule = schedules.get(doctorId);
+                return schedule == null ? 0 : schedule.findOverlapping(startMillis, endMillis, excludeId);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        /**
+         * Find when the appointments of the doctor that overlap [startMillis,
+         * endMillis) are over: the latest end among them, or 0 if the doctor
+         * is free. No slot of the same length starting before that time is free.
+         */
+        public long findBusyUntil(int doctorId, long startMillis, long endMillis) {
+            lock.readLock().lock();
+            try {
+                DoctorSchedule schedule = schedules.get(doctorId);
+                return schedule == null ? 0 : schedule.findBusyUntil(startMillis, endMillis);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        /**
+         * Whether the doctor has no appointment overlapping [startMillis, endMillis)
+         */
+        public boolean isFree(int doctorId, long startMillis, long endMillis) {
+            return findOverlapping(doctorId, startMillis, endMillis, 0) == 0;
+        }
+        
+        private void putLocked(int appointmentId, int doctorId, long startMillis, long endMillis) {
+            removeLocked(appointmentId);
+            schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule())
+                    .insert(appointmentId, startMillis, endMillis);
+            doctorByAppointment.put(appointmentId, doctorId);
+        }
+        
+        private void removeLocked(int appointmentId) {
+            Integer doctorId = doctorByAppointment.remove(appointmentId);
+            if (doctorId != null) {
+                DoctorSchedule schedule = schedules.get(doctorId);
+                schedule.remove(appointmentId);
+                if (schedule.size == 0) {
+                    schedules.remove(doctorId);
+                }
+            }
+        }
+        
+        /**
+         * One doctor's slots as parallel arrays sorted by start time.
+         * maxEnds[i] is the latest end among slots 0..i, which lets overlap
+         * checks stop scanning as soon as no earlier slot can reach the start.
+         */
+        private static class DoctorSchedule {
+            private long[] starts = new long[8];
+            private long[] ends = new long[8];
+            private long[] maxEnds = new long[8];
+            private int[] ids = new int[8];
+            private int size;
+            
+            int findOverlapping(long startMillis, long endMillis, int excludeId) {
+                // Slots before this position start before the requested end
+                int i = lowerBound(endMillis) - 1;
+                while (i >= 0 && maxEnds[i] > startMillis) {
+                    if (ends[i] > startMillis && ids[i] != excludeId) {
+                        return ids[i];
+                    }
+                    i--;
+                }
+                return 0;
+            }
+            
+            long findBusyUntil(long startMillis, long endMillis) {
+                long busyUntil = 0;
+                int i = lowerBound(endMillis) - 1;
+                while (i >= 0 && maxEnds[i] > startMillis) {
+                    if (ends[i] > startMillis) {
+                        busyUntil = Math.max(busyUntil, ends[i]);
+                    }
+                    i--;
+                }
+                return busyUntil;
+            }
+            
+            void insert(int appointmentId, long startMillis, long endMillis) {
+                int position = lowerBound(startMillis);
+                grow();
+                System.arraycopy(starts, position, starts, position + 1, size - position);
+                System.arraycopy(ends, position, ends, position + 1, size - position);
+                System.arraycopy(ids, position, ids, position + 1, size - position);
+                starts[position] = startMillis;
+                ends[position] = endMillis;
+                ids[position] = appointmentId;
+                size++;
+                updateMaxEnds(position);
+            }
+            
+            void remove(int appointmentId) {
+                for (int i = 0; i < size; i++) {
+                    if (ids[i] == appointmentId) {
+                        System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                        System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+                        System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                        size--;
+                        updateMaxEnds(i);
+                        return;
+                    }
+                }
+            }
+            
+            /**
+             * Add a slot without keeping order; call sort() when done appending
+             */
+            void append(int appointmentId, long startMillis, long endMillis) {
+                grow();
+                starts[size] = startMillis;
+                ends[size] = endMillis;
+                ids[size] = appointmentId;
+                size++;
+            }
+            
+            void sort() {
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+                
+                long[] sortedStarts = new long[starts.length];
+                long[] sortedEnds = new long[ends.length];
+                int[] sortedIds = new int[ids.length];
+                for (int i = 0; i < size; i++) {
+                    sortedStarts[i] = starts[order[i]];
+                    sortedEnds[i] = ends[order[i]];
+                    sortedIds[i] = ids[order[i]];
+                }
+                starts = sortedStarts;
+                ends = sortedEnds;
+                ids = sortedIds;
+                updateMaxEnds(0);
+            }
+            
+            /**
+             * First position whose start is at or after the given time
+             */
+            private int lowerBound(long millis) {
+                int low = 0;
+                int high = size;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (starts[mid] < millis) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            }
+            
+            private void updateMaxEnds(int from) {
+                long max = from == 0 ? Long.MIN_VALUE : maxEnds[from - 1];
+                for (int i = from; i < size; i++) {
+                    max = Math.max(max, ends[i]);
+                    maxEnds[i] = max;
+                }
+            }
+            
+            private void grow() {
+                if (size == starts.length) {
+                    int capacity = size * 2;
+                    starts = Arrays.copyOf(starts, capacity);
+                    ends = Arrays.copyOf(ends, capacity);
+                    maxEnds = Arrays.copyOf(maxEnds, capacity);
+                    ids = Arrays.copyOf(ids, capacity);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Finds the earliest free slots across a set of doctors. Each doctor's
+     * calendar is walked against the DoctorScheduleIndex, jumping straight past
+     * busy stretches; doctors are split across a fork-join pool and the
+     * per-doctor results merged, keeping only the earliest ones. As soon as
+     * any task holds `limit` slots, the latest of them becomes a shared cutoff
+     * that the remaining doctors do not search beyond.
+     */
+    static class SlotFinder {
+        // Doctors searched by one task before it stops splitting
+        private static final int DOCTORS_PER_TASK = 16;
+        
+        private final DoctorScheduleIndex scheduleIndex;
+        private final ForkJoinPool pool;
+        
+        public SlotFinder(DoctorScheduleIndex scheduleIndex, ForkJoinPool pool) {
+            this.scheduleIndex = scheduleIndex;
+            this.pool = pool;
+        }
+        
+        /**
+         * Find up to `limit` free slots of the given length, earliest first,
+         * ties broken by doctor ID. Slots start on multiples of stepMinutes
+         * from the start of a window and lie entirely inside one of the
+         * working-hour windows, given as {startMillis, endMillis} pairs in time
+         * order. A doctor contributes non-overlapping slots only.
+         */
+        public List<DoctorSlot> findEarliest(List<Doctor> doctors, List<long[]> windows, int durationMinutes,
+                int stepMinutes, int limit) {
+            if (doctors.isEmpty() || windows.isEmpty() || limit < 1) {
+                return new ArrayList<>();
+            }
+            SearchTask task = new SearchTask(doctors, 0, doctors.size(), windows,
+                    TimeUnit.MINUTES.toMillis(durationMinutes), TimeUnit.MINUTES.toMillis(stepMinutes), limit,
+                    new AtomicLong(Long.MAX_VALUE));
+            List<long[]> found = pool.invoke(task);
+            
+            List<DoctorSlot> slots = new ArrayList<>(found.size());
+            for (long[] slot : found) {
+                slots.add(new DoctorSlot(doctors.get((int) slot[1]), new Date(slot[0]), durationMinutes));
+            }
+            return slots;
+        }
+        
+        /**
+         * Searches doctors [from, to) and returns their earliest slots as
+         * {startMillis, doctorIndex}, sorted
+         */
+        private class SearchTask extends RecursiveTask<List<long[]>> {
+            private final List<Doctor> doctors;
+            private final int from;
+            private final int to;
+            private final List<long[]> windows;
+            private final long durationMillis;
+            private final long stepMillis;
+            private final int limit;
+            // No slot starting after this can be among the earliest `limit`
+            private final AtomicLong cutoff;
+            
+            SearchTask(List<Doctor> doctors, int from, int to, List<long[]> windows,
+                       long durationMillis, long stepMillis, int limit, AtomicLong cutoff) {
+                this.doctors = doctors;
+                this.from = from;
+                this.to = to;
+                this.windows = windows;
+                this.durationMillis = durationMillis;
+                this.stepMillis = stepMillis;
+                this.limit = limit;
+                this.cutoff = cutoff;
+            }
+            
+            @Override
+            protected List<long[]> compute() {
+                if (to - from <= DOCTORS_PER_TASK) {
+                    List<long[]> slots = new ArrayList<>();
+                    for (int i = from; i < to; i++) {
+                        slots = merge(slots, searchDoctor(i));
+                        if (slots.size() == limit) {
+                            cutoff.accumulateAndGet(slots.get(limit - 1)[0], Math::min);
+                        }
+                    }
+                    return slots;
+                }
+                
+                int middle = (from + to) >>> 1;
+                SearchTask left = new SearchTask(doctors, from, middle, windows, durationMillis, stepMillis, limit, cutoff);
+                SearchTask right = new SearchTask(doctors, middle, to, windows, durationMillis, stepMillis, limit, cutoff);
+                left.fork();
+                List<long[]> rightSlots = right.compute();
+                return merge(left.join(), rightSlots);
+            }
+            
+            private List<long[]> searchDoctor(int doctorIndex) {
+                int doctorId = doctors.get(doctorIndex).getDoctorId();
+                List<long[]> slots = new ArrayList<>();
+                for (long[] window : windows) {
+                    long start = window[0];
+                    if (start > cutoff.get()) {
+                        break;
+                    }
+                    while (start + durationMillis <= window[1] && start <= cutoff.get()) {
+                        long busyUntil = scheduleIndex.findBusyUntil(doctorId, start, start + durationMillis);
+                        if (busyUntil == 0) {
+                            slots.add(new long[] { start, doctorIndex });
+                            if (slots.size() == limit) {
+                                return slots;
+                            }
+                            busyUntil = start + durationMillis;
+                        }
+                        // Next step boundary at or after the busy stretch
+                        start += (busyUntil - start + stepMillis - 1) / stepMillis * stepMillis;
+                    }
+                }
+                return slots;
+            }
+            
+            /**
+             * Merge two sorted slot lists, keeping the earliest `limit`
+             */
+            private List<long[]> merge(List<long[]> a, List<long[]> b) {
+                List<long[]> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+                int i = 0;
+                int j = 0;
+                while (merged.size() < limit && (i < a.size() || j < b.size())) {
+                    if (j == b.size() || (i < a.size() && compare(a.get(i), b.get(j)) <= 0)) {
+                        merged.add(a.get(i++));
+                    } else {
+                        merged.add(b.get(j++));
+                    }
+                }
+                return merged;
+            }
+            
+            private int compare(long[] x, long[] y) {
+                int byStart = Long.compare(x[0], y[0]);
+                if (byStart != 0) {
+                    return byStart;
+                }
+                return Integer.compare(doctors.get((int) x[1]).getDoctorId(), doctors.get((int) y[1]).getDoctorId());
+            }
+        }
+    }
+    
+    //==========================================================================
+    // IMPORT AND EXPORT
+    //==========================================================================
+    
+    /**
+     * CSV field splitting and quoting (RFC 4180)
+     */
+    static class Csv {
+        private Csv() {
+        }
+        
+        /**
+         * Split a CSV record into fields
+         */
+        public static List<String> parseFields(String record) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+        
+        /**
+         * Quote a value if it contains a separator, quote or line break
+         */
+        public static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+    
+    /**
+     * Streams patients from a CSV file into the database. The calling thread
+     * reads records, a pool of workers parses and validates them in parallel,
+     * and a writer thread inserts the valid rows in batches. Bounded queues
+     * between the stages keep memory constant however large the file is.
+     * Rejected rows go to an error file with their line numbers.
+     */
+    static class PatientImporter {
+        private static final Logger LOGGER = Logger.getLogger(PatientImporter.class.getName());
+        private static final int RECORDS_PER_CHUNK = 1000;
+        private static final int MAX_CONSECUTIVE_DB_FAILURES = 3;
+        private static final long PROGRESS_LOG_INTERVAL = 100_000;
+        // Longest record accepted - override with -Dhms.import.maxRecordChars
+        private static final int MAX_RECORD_CHARS = Integer.getInteger("hms.import.maxRecordChars", 64 * 1024);
+        private static final List<String> REQUIRED_COLUMNS = Arrays.asList(
+                "first_name", "last_name", "date_of_birth", "gender");
+        private static final List<String> OPTIONAL_COLUMNS = Arrays.asList(
+                "contact_number", "email", "address");
+        
+        private final PatientService patientService;
+        private final int workerCount;
+        private volatile boolean cancelled = false;
+        
+        public PatientImporter(PatientService patientService) {
+            this(patientService, Runtime.getRuntime().availableProcessors());
+        }
+        
+        public PatientImporter(PatientService patientService, int workerCount) {
+            this.patientService = patientService;
+            this.workerCount = Math.max(1, workerCount);
+        }
+        
+        /**
+         * Stop reading the file; rows already queued are still written
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        /**
+         * Import a CSV file with a header row naming the columns first_name,
+         * last_name, date_of_birth (yyyy-MM-dd) and gender, and optionally
+         * contact_number, email and address, in any order
+         */
+        public ImportResult importFile(Path csvFile, Path errorFile) throws Exception {
+            long start = System.nanoTime();
+            ImportRun run = new ImportRun();
+            ExecutorService threads = Executors.newFixedThreadPool(workerCount + 1, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+                
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "patient-import-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            
+            try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+                 BufferedWriter errors = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+                
+                int[] lineNumber = { 0 };
+                String headerRecord = readRecord(reader, lineNumber);
+                if (headerRecord == null) {
+                    throw new Exception("The file is empty");
+                }
+                Map<String, Integer> columns = parseHeader(headerRecord);
+                errors.write("line,error,record");
+                errors.newLine();
+                
+                List<Future<?>> workers = new ArrayList<>();
+                for (int i = 0; i < workerCount; i++) {
+                    workers.add(threads.submit(() -> {
+                        try {
+                            parseLoop(run, columns);
+                        } catch (Throwable t) {
+                            run.failure.compareAndSet(null, t);
+                        }
+                    }));
+                }
+                Future<?> writer = threads.submit(() -> {
+                    try {
+                        writeLoop(run, errors);
+                    } catch (Throwable t) {
+                        run.failure.compareAndSet(null, t);
+                    }
+                });
+                
+                // Read on this thread; put() blocks while the workers are behind
+                RecordChunk chunk = new RecordChunk();
+                while (!cancelled && !run.failed()) {
+                    int startLine = lineNumber[0] + 1;
+                    String record = readRecord(reader, lineNumber);
+                    if (record == null) {
+                        break;
+                    }
+                    if (record.trim().isEmpty()) {
+                        continue;
+                    }
+                    chunk.add(startLine, record);
+                    if (chunk.size() == RECORDS_PER_CHUNK) {
+                        run.put(run.parseQueue, chunk);
+                        chunk = new RecordChunk();
+                    }
+                }
+                if (chunk.size() > 0) {
+                    run.put(run.parseQueue, chunk);
+                }
+                
+                for (int i = 0; i < workerCount; i++) {
+                    run.put(run.parseQueue, RecordChunk.END);
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                run.put(run.writeQueue, ParsedChunk.END);
+                writer.get();
+            } finally {
+                threads.shutdownNow();
+            }
+            
+            if (run.failure.get() != null) {
+                Throwable failure = run.failure.get();
+                throw failure instanceof Exception ? (Exception) failure : new Exception(failure);
+            }
+            
+            ImportResult result = new ImportResult(run.records.sum(), run.imported.sum(), run.rejected.sum(),
+                    cancelled, (System.nanoTime() - start) / 1_000_000);
+            LOGGER.log(Level.INFO, "Patient import of {0}: {1}", new Object[] { csvFile, result });
+            return result;
+        }
+        
+        /**
+         * Worker: parse and validate chunks of records
+         */
+        private void parseLoop(ImportRun run, Map<String, Integer> columns) throws InterruptedException {
+            // SimpleDateFormat is not thread-safe, so each worker has its own
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            dateFormat.setLenient(false);
+            
+            RecordChunk chunk;
+            while ((chunk = run.take(run.parseQueue)) != null && chunk != RecordChunk.END) {
+                ParsedChunk parsed = new ParsedChunk();
+                for (int i = 0; i < chunk.size(); i++) {
+                    int line = chunk.lines.get(i);
+                    String record = chunk.records.get(i);
+                    try {
+                        Patient patient = toPatient(Csv.parseFields(record), columns, dateFormat);
+                        patientService.validatePatient(patient);
+                        parsed.addValid(line, record, patient);
+                    } catch (Exception e) {
+                        parsed.addRejected(line, record, e.getMessage());
+                    }
+                }
+                run.put(run.writeQueue, parsed);
+            }
+        }
+        
+        /**
+         * Writer: insert valid rows in batches and record rejected ones
+         */
+        private void writeLoop(ImportRun run, BufferedWriter errors) throws Exception {
+            int consecutiveFailures = 0;
+            long nextProgressLog = PROGRESS_LOG_INTERVAL;
+            
+            ParsedChunk chunk;
+            while ((chunk = run.take(run.writeQueue)) != null && chunk != ParsedChunk.END) {
+                for (int i = 0; i < chunk.rejectedLines.size(); i++) {
+                    writeError(errors, chunk.rejectedLines.get(i), chunk.rejectedReasons.get(i),
+                            chunk.rejectedRecords.get(i));
+                }
+                run.rejected.add(chunk.rejectedLines.size());
+                
+                if (!chunk.patients.isEmpty()) {
+                    try {
+                        patientService.createValidatedPatients(chunk.patients);
+                        run.imported.add(chunk.patients.size());
+                        consecutiveFailures = 0;
+                    } catch (Exception e) {
+                        // Rows in batches committed before the failure have IDs
+                        for (int i = 0; i < chunk.patients.size(); i++) {
+                            if (chunk.patients.get(i).getPatientId() > 0) {
+                                run.imported.increment();
+                            } else {
+                                writeError(errors, chunk.validLines.get(i), "Database error: " + e.getMessage(),
+                                        chunk.validRecords.get(i));
+                                run.rejected.increment();
+                            }
+                        }
+                        if (++consecutiveFailures >= MAX_CONSECUTIVE_DB_FAILURES) {
+                            throw new Exception("Import stopped after repeated database errors: " + e.getMessage(), e);
+                        }
+                    }
+                }
+                
+                run.records.add(chunk.patients.size() + chunk.rejectedLines.size());
+                if (run.records.sum() >= nextProgressLog) {
+                    LOGGER.log(Level.INFO, "Imported {0} of {1} records so far",
+                            new Object[] { run.imported.sum(), run.records.sum() });
+                    nextProgressLog += PROGRESS_LOG_INTERVAL;
+                }
+            }
+            errors.flush();
+        }
+        
+        private Map<String, Integer> parseHeader(String headerRecord) throws Exception {
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = Csv.parseFields(headerRecord);
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+                if (REQUIRED_COLUMNS.contains(name) || OPTIONAL_COLUMNS.contains(name)) {
+                    columns.put(name, i);
+                }
+            }
+            for (String required : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new Exception("Missing required column: " + required);
+                }
+            }
+            return columns;
+        }
+        
+        private Patient toPatient(List<String> fields, Map<String, Integer> columns,
+                                  SimpleDateFormat dateFormat) throws Exception {
+            Patient patient = new Patient();
+            patient.setFirstName(field(fields, columns, "first_name"));
+            patient.setLastName(field(fields, columns, "last_name"));
+            patient.setGender(field(fields, columns, "gender"));
+            patient.setContactNumber(field(fields, columns, "contact_number"));
+            patient.setEmail(field(fields, columns, "email"));
+            patient.setAddress(field(fields, columns, "address"));
+            
+            String dateOfBirth = field(fields, columns, "date_of_birth");
+            if (dateOfBirth != null) {
+                try {
+                    patient.setDateOfBirth(dateFormat.parse(dateOfBirth));
+                } catch (java.text.ParseException e) {
+                    throw new Exception("Invalid date of birth, expected yyyy-MM-dd: " + dateOfBirth);
+                }
+            }
+            return patient;
+        }
+        
+        private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+        
+        /**
+         * Read one CSV record, which spans several lines when a quoted field
+         * contains line breaks. Returns null at the end of the file.
+         */
+        private static String readRecord(BufferedReader reader, int[] lineNumber) throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber[0]++;
+            
+            int startLine = lineNumber[0];
+            StringBuilder record = new StringBuilder(line);
+            int quotes = countQuotes(line);
+            while (quotes % 2 != 0 && (line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                // An unbalanced quote would otherwise pull the rest of the file into one record
+                if (record.length() + 1 + line.length() > MAX_RECORD_CHARS) {
+                    throw new IOException("Record starting at line " + startLine + " is longer than " +
+                            MAX_RECORD_CHARS + " characters; check for an unclosed quote");
+                }
+                record.append('\n').append(line);
+                quotes += countQuotes(line);
+            }
+            return record.toString();
+        }
+        
+        private static int countQuotes(String text) {
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        private static void writeError(BufferedWriter errors, int line, String reason, String record) throws IOException {
+            errors.write(Integer.toString(line));
+            errors.write(',');
+            errors.write(Csv.escape(reason));
+            errors.write(',');
+            errors.write(Csv.escape(record));
+            errors.newLine();
+        }
+        
+        /**
+         * Queues and counters shared by the stages of one import
+         */
+        private class ImportRun {
+            final BlockingQueue<RecordChunk> parseQueue = new ArrayBlockingQueue<>(workerCount * 2);
+            final BlockingQueue<ParsedChunk> writeQueue = new ArrayBlockingQueue<>(workerCount * 2);
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            final LongAdder records = new LongAdder();
+            final LongAdder imported = new LongAdder();
+            final LongAdder rejected = new LongAdder();
+            
+            boolean failed() {
+                return failure.get() != null;
+            }
+            
+            /**
+             * Queue an item, giving up if another stage has failed
+             */
+            <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+                while (!failed()) {
+                    if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            }
+            
+            /**
+             * Take the next item, or null if another stage has failed
+             */
+            <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+                while (!failed()) {
+                    T item = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (item != null) {
+                        return item;
+                    }
+                }
+                return null;
+            }
+        }
+        
+        /**
+         * Raw records with the line each one starts on
+         */
+        private static class RecordChunk {
+            static final RecordChunk END = new RecordChunk();
+            
+            final IntList lines = new IntList(RECORDS_PER_CHUNK);
+            final List<String> records = new ArrayList<>(RECORDS_PER_CHUNK);
+            
+            void add(int line, String record) {
+                lines.add(line);
+                records.add(record);
+            }
+            
+            int size() {
+                return records.size();
+            }
+        }
+        
+        /**
+         * Validated patients and rejected records of one chunk
+         */
+        private static class ParsedChunk {
+            static final ParsedChunk END = new ParsedChunk();
+            
+            final List<Patient> patients = new ArrayList<>();
+            final IntList validLines = new IntList();
+            final List<String> validRecords = new ArrayList<>();
+            final IntList rejectedLines = new IntList();
+            final List<String> rejectedRecords = new ArrayList<>();
+            final List<String> rejectedReasons = new ArrayList<>();
+            
+            void addValid(int line, String record, Patient patient) {
+                patients.add(patient);
+                validLines.add(line);
+                validRecords.add(record);
+            }
+            
+            void addRejected(int line, String record, String reason) {
+                rejectedLines.add(line);
+                rejectedRecords.add(record);
+                rejectedReasons.add(reason);
+            }
+        }
+        
+        /**
+         * Outcome of an import
+         */
+        static class ImportResult {
+            private final long records;
+            private final long imported;
+            private final long rejected;
+            private final boolean cancelled;
+            private final long elapsedMillis;
+            
+            ImportResult(long records, long imported, long rejected, boolean cancelled, long elapsedMillis) {
+                this.records = records;
+                this.imported = imported;
+                this.rejected = rejected;
+                this.cancelled = cancelled;
+                this.elapsedMillis = elapsedMillis;
+            }
+            
+            public long getRecords() { return records; }
+            public long getImported() { return imported; }
+            public long getRejected() { return rejected; }
+            public boolean isCancelled() { return cancelled; }
+            public long getElapsedMillis() { return elapsedMillis; }
+            
+            @Override
+            public String toString() {
+                return String.format("%,d records, %,d imported, %,d rejected%s in %.1f s",
+                        records, imported, rejected, cancelled ? " (cancelled)" : "", elapsedMillis / 1000.0);
+            }
+        }
+    }
+    
+    /**
+     * Streams a table to a CSV or JSON Lines file, optionally gzipped. Rows go
+     * straight from the streaming result set through a buffered writer over a
+     * file channel, so memory stays flat whatever the table size.
+     */
+    static class DataExporter {
+        private static final Logger LOGGER = Logger.getLogger(DataExporter.class.getName());
+        private static final int BUFFER_SIZE = 64 * 1024;
+        
+        /**
+         * Tables that can be exported
+         */
+        enum Dataset {
+            PATIENTS("Patients"),
+            DIAGNOSES("Patient diagnoses"),
+            MEDICAL_RECORDS("Medical records");
+            
+            private final String label;
+            
+            Dataset(String label) {
+                this.label = label;
+            }
+            
+            @Override
+            public String toString() {
+                return label;
+            }
+        }
+        
+        /**
+         * Output file formats
+         */
+        enum Format {
+            CSV("csv"),
+            JSON_LINES("jsonl");
+            
+            private final String extension;
+            
+            Format(String extension) {
+                this.extension = extension;
+            }
+            
+            public String getExtension() {
+                return extension;
+            }
+        }
+        
+        private final ExportRepository exportRepository;
+        
+        public DataExporter() {
+            this.exportRepository = new ExportRepository();
+        }
+        
+        /**
+         * Export a table to a file and return the number of rows written
+         */
+        public long export(Dataset dataset, Format format, boolean gzip, Path file) throws Exception {
+            long start = System.nanoTime();
+            long[] rows = { 0 };
+            
+            try (Writer writer = openWriter(file, gzip)) {
+                String[][] columns = new String[1][];
+                ExportRepository.RowHandler handler = rs -> {
+                    if (columns[0] == null) {
+                        columns[0] = columnLabels(rs.getMetaData());
+                        if (format == Format.CSV) {
+                            writeCsvHeader(writer, columns[0]);
+                        }
+                    }
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, rs, columns[0].length);
+                    } else {
+                        writeJsonRow(writer, rs, columns[0]);
+                    }
+                    rows[0]++;
+                };
+                
+                switch (dataset) {
+                    case PATIENTS:
+                        exportRepository.streamPatients(handler);
+                        break;
+                    case DIAGNOSES:
+                        exportRepository.streamPatientDiagnoses(handler);
+                        break;
+                    case MEDICAL_RECORDS:
+                        exportRepository.streamMedicalRecords(handler);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown dataset: " + dataset);
+                }
+            } catch (SQLException | IOException e) {
+                LOGGER.log(Level.SEVERE, "Error exporting " + dataset, e);
+                // Do not leave a truncated file that looks like a complete export
+                Files.deleteIfExists(file);
+                throw new Exception("Failed to export " + dataset + ": " + e.getMessage(), e);
+            }
+            
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LOGGER.log(Level.INFO, "Exported {0} rows of {1} to {2} in {3} s",
+                    new Object[] { rows[0], dataset, file, String.format("%.2f", seconds) });
+            return rows[0];
+        }
+        
+        private static Writer openWriter(Path file, boolean gzip) throws IOException {
+            OutputStream out = Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+            if (gzip) {
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+        
+        private static String[] columnLabels(ResultSetMetaData metaData) throws SQLException {
+            String[] labels = new String[metaData.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+            }
+            return labels;
+        }
+        
+        private static void writeCsvHeader(Writer writer, String[] columns) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(Csv.escape(columns[i]));
+            }
+            writer.write('\n');
+        }
+        
+        private static void writeCsvRow(Writer writer, ResultSet rs, int columnCount) throws SQLException, IOException {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writer.write(Csv.escape(rs.getString(i)));
+            }
+            writer.write('\n');
+        }
+        
+        private static void writeJsonRow(Writer writer, ResultSet rs, String[] columns) throws SQLException, IOException {
+            ResultSetMetaData metaData = rs.getMetaData();
+            writer.write('{');
+            for (int i = 1; i <= columns.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writeJsonString(writer, columns[i - 1]);
+                writer.write(':');
+                
+                String value = rs.getString(i);
+                if (value == null) {
+                    writer.write("null");
+                } else if (isNumeric(metaData.getColumnType(i))) {
+                    writer.write(value);
+                } else {
+                    writeJsonString(writer, value);
+                }
+            }
+            writer.write("}\n");
+        }
+        
+        private static boolean isNumeric(int sqlType) {
+            switch (sqlType) {
+                case Types.TINYINT: case Types.SMALLINT: case Types.INTEGER: case Types.BIGINT:
+                case Types.DECIMAL: case Types.NUMERIC: case Types.REAL: case Types.FLOAT: case Types.DOUBLE:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        
+        private static void writeJsonString(Writer writer, String value) throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': writer.write("\\\""); break;
+                    case '\\': writer.write("\\\\"); break;
+                    case '\n': writer.write("\\n"); break;
+                    case '\r': writer.write("\\r"); break;
+                    case '\t': writer.write("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            writer.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            writer.write(c);
+                        }
+                }
+            }
+            writer.write('"');
+        }
+    }
+    
+    //==========================================================================
+    // BACKGROUND TASKS
+    //==========================================================================
+    
+    /**
+     * Runs blocking service calls concurrently and returns CompletableFutures,
+     * so independent queries can overlap. Each call gets a virtual thread where
+     * the JDK has them (21+), looked up reflectively so older JDKs still run
+     * and fall back to a pool of daemon threads. Either way no more calls run
+     * at once than the connections the BackgroundTask threads leave free, so
+     * the two together stay within the connection pool. A call joins the
+     * QueryScope of the thread that made it, so cancelling a background task
+     * also cancels the queries it fanned out. Calls must not wait for other
+     * AsyncQueries calls, or they can starve each other of permits.
+     */
+    static class AsyncQueries {
+        private static final Logger LOGGER = Logger.getLogger(AsyncQueries.class.getName());
+        // Background tasks, which make most AsyncQueries calls, may each hold a connection meanwhile
+        private static final int MAX_CONCURRENT_CALLS =
+                Math.max(1, DatabaseConfig.getInstance().getMaxPoolSize() - BackgroundTask.THREADS);
+        
+        // Virtual threads are unbounded, so the cap is enforced by permits rather than by the executor
+        private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENT_CALLS);
+        private static final ExecutorService EXECUTOR = createExecutor();
+        
+        private AsyncQueries() {
+        }
+        
+        /**
+         * Run a blocking call asynchronously. The future completes with the
+         * call's result, or exceptionally with the exception it threw.
+         */
+        static <T> CompletableFuture<T> supply(Callable<T> work) {
+            QueryScope scope = QueryScope.current();
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                EXECUTOR.execute(() -> run(work, scope, future));
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        
+        /**
+         * Wait for a future and return its result, rethrowing the exception
+         * the call threw rather than a CompletionException wrapping it
+         */
+        static <T> T await(CompletableFuture<T> future) throws Exception {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+        
+        private static <T> void run(Callable<T> work, QueryScope scope, CompletableFuture<T> future) {
+            // Skip calls whose caller already gave up
+            if (future.isDone() || (scope != null && scope.isCancelled())) {
+                future.cancel(false);
+                return;
+            }
+            
+            try {
+                PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            if (scope != null) {
+                scope.enter();
+            }
+            try {
+                future.complete(work.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                if (scope != null) {
+                    scope.exit();
+                }
+                PERMITS.release();
+            }
+        }
+        
+        private static ExecutorService createExecutor() {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                ExecutorService executor = (ExecutorService) factory.invoke(null);
+                LOGGER.log(Level.INFO, "Async queries run on virtual threads, at most {0} at once", MAX_CONCURRENT_CALLS);
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                LOGGER.log(Level.INFO, "Virtual threads unavailable; async queries run on {0} platform threads",
+                        MAX_CONCURRENT_CALLS);
+            }
+            
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_CONCURRENT_CALLS, MAX_CONCURRENT_CALLS,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "async-query-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+    
+    /**
+     * A unit of blocking work run off the Event Dispatch Thread. The result or
+     * error is delivered on the EDT in one call; a cancelled task delivers
+     * nothing and its in-flight queries are cancelled with Statement.cancel.
+     */
+    static class BackgroundTask<T> {
+        private static final Logger LOGGER = Logger.getLogger(BackgroundTask.class.getName());
+        private static final int QUERY_TIMEOUT_SECONDS = Integer.getInteger("hms.query.timeoutSeconds", 30);
+        private static final int MAX_QUEUED_TASKS = 200;
+        
+        // Half the connection pool, rounded up; AsyncQueries gets the rest. Queued
+        // tasks wait here rather than for a connection.
+        static final int THREADS = Math.max(1, Math.min(DatabaseConfig.getInstance().getMaxPoolSize(),
+                Integer.getInteger("hms.background.threads", (DatabaseConfig.getInstance().getMaxPoolSize() + 1) / 2)));
+        private static final ExecutorService EXECUTOR = createExecutor();
+        
+        private final QueryScope scope = new QueryScope(QUERY_TIMEOUT_SECONDS);
+        private final Callable<T> work;
+        private final Consumer<T> onSuccess;
+        private final Consumer<Exception> onError;
+        private volatile boolean cancelled = false;
+        
+        private BackgroundTask(Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            this.work = work;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+        
+        /**
+         * Run work on the shared background executor
+         */
+        public static <T> BackgroundTask<T> submit(Callable<T> work, Consumer<T> onSuccess,
+                                                   Consumer<Exception> onError) {
+            return submit(EXECUTOR, work, onSuccess, onError);
+        }
+        
+        /**
+         * Run work on the given executor
+         */
+        public static <T> BackgroundTask<T> submit(Executor executor, Callable<T> work,
+                                                   Consumer<T> onSuccess, Consumer<Exception> onError) {
+            BackgroundTask<T> task = new BackgroundTask<>(work, onSuccess, onError);
+            try {
+                executor.execute(task::run);
+            } catch (RejectedExecutionException e) {
+                SwingUtilities.invokeLater(() -> onError.accept(new Exception("Too many background tasks are queued", e)));
+            }
+            return task;
+        }
+        
+        /**
+         * Cancel the task. Safe to call from any thread and more than once.
+         */
+        public void cancel() {
+            cancelled = true;
+            scope.cancel();
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            
+            scope.enter();
+            try {
+                T result = work.call();
+                SwingUtilities.invokeLater(() -> {
+                    if (!cancelled) {
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                if (cancelled) {
+                    LOGGER.log(Level.FINE, "Cancelled task failed", e);
+                    return;
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (!cancelled) {
+                        onError.accept(e);
+                    }
+                });
+            } finally {
+                scope.exit();
+            }
+        }
+        
+        private static ExecutorService createExecutor() {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(MAX_QUEUED_TASKS), r -> {
+                        Thread thread = new Thread(r, "background-task-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+    
+    /**
+     * Holds at most one running task. Submitting a new task cancels the
+     * previous one, so stale results never reach the UI.
+     */
+    static class TaskSlot {
+        private final BusyIndicator busyIndicator;
+        private BackgroundTask<?> current;
+        
+        public TaskSlot(BusyIndicator busyIndicator) {
+            this.busyIndicator = busyIndicator;
+        }
+        
+        /**
+         * Cancel the running task, if any, and start a new one. Must be called on the EDT.
+         */
+        public <T> void submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            cancel();
+            
+            busyIndicator.taskStarted();
+            BackgroundTask<?>[] self = new BackgroundTask<?>[1];
+            self[0] = BackgroundTask.submit(work, result -> {
+                finish(self[0]);
+                onSuccess.accept(result);
+            }, error -> {
+                finish(self[0]);
+                onError.accept(error);
+            });
+            current = self[0];
+        }
+        
+        /**
+         * Cancel the running task, if any. Must be called on the EDT.
+         */
+        public void cancel() {
+            if (current != null) {
+                current.cancel();
+                finish(current);
+            }
+        }
+        
+        private void finish(BackgroundTask<?> task) {
+            if (task == current) {
+                current = null;
+                busyIndicator.taskFinished();
+            }
+        }
+    }
+    
+    /**
+     * Runs writes as independent background tasks. Unlike a TaskSlot it never
+     * cancels a running task, so every write started by the user completes
+     * and reports its outcome.
+     */
+    static class WriteTasks {
+        private final BusyIndicator busyIndicator;
+        
+        public WriteTasks(BusyIndicator busyIndicator) {
+            this.busyIndicator = busyIndicator;
+        }
+        
+        /**
+         * Start a write alongside any that are still running. Must be called on the EDT.
+         */
+        public <T> void submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            busyIndicator.taskStarted();
+            BackgroundTask.submit(work, result -> {
+                busyIndicator.taskFinished();
+                onSuccess.accept(result);
+            }, error -> {
+                busyIndicator.taskFinished();
+                onError.accept(error);
+            });
+        }
+    }
+    
+    /**
+     * Speculatively loads the patient and diagnoses behind a table selection
+     * once it has stayed selected for a short dwell time, so the screens
+     * opened next find both in the service caches. An open counts as a hit
+     * when a finished prefetch of that patient is still fresh. Must be used
+     * on the EDT.
+     */
+    static class PatientPrefetcher {
+        private static final Logger LOGGER = Logger.getLogger(PatientPrefetcher.class.getName());
+        private static final int DWELL_MILLIS = Integer.getInteger("hms.prefetch.dwellMillis", 300);
+        // A prefetch only helps while the short-lived diagnosis cache still holds its result
+        private static final long FRESH_NANOS = TimeUnit.SECONDS.toNanos(DiseaseService.DIAGNOSIS_CACHE_TTL_SECONDS);
+        private static final int MAX_REMEMBERED = 64;
+        
+        // Shared by every prefetcher and reported on shutdown
+        private static final LongAdder ISSUED = new LongAdder();
+        private static final LongAdder COMPLETED = new LongAdder();
+        private static final LongAdder HITS = new LongAdder();
+        private static final LongAdder MISSES = new LongAdder();
+        
+        private final PatientService patientService;
+        private final DiseaseService diseaseService;
+        private final javax.swing.Timer dwellTimer;
+        private int selectedPatientId = -1;
+        private BackgroundTask<?> inFlight;
+        private int inFlightPatientId = -1;
+        
+        // Completion time of recent prefetches by patient ID, oldest first
+        private final LinkedHashMap<Integer, Long> prefetchedAt = new LinkedHashMap<Integer, Long>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                return size() > MAX_REMEMBERED;
+            }
+        };
+        
+        public PatientPrefetcher(PatientService patientService, DiseaseService diseaseService) {
+            this.patientService = patientService;
+            this.diseaseService = diseaseService;
+            this.dwellTimer = new javax.swing.Timer(DWELL_MILLIS, e -> prefetch());
+            this.dwellTimer.setRepeats(false);
+        }
+        
+        /**
+         * Restart the dwell timer for a newly selected patient, or stop it
+         * when nothing is selected
+         */
+        public void selectionChanged(Integer patientId) {
+            selectedPatientId = patientId == null ? -1 : patientId;
+            if (selectedPatientId > 0) {
+                dwellTimer.restart();
+            } else {
+                dwellTimer.stop();
+            }
+        }
+        
+        /**
+         * Record that a screen of the patient is being opened
+         */
+        public void opened(int patientId) {
+            if (isFresh(patientId)) {
+                HITS.increment();
+            } else {
+                MISSES.increment();
+            }
+        }
+        
+        /**
+         * Stop the dwell timer and any running prefetch
+         */
+        public void cancel() {
+            dwellTimer.stop();
+            if (inFlight != null) {
+                inFlight.cancel();
+                inFlight = null;
+                inFlightPatientId = -1;
+            }
+        }
+        
+        private void prefetch() {
+            int patientId = selectedPatientId;
+            if (patientId <= 0 || patientId == inFlightPatientId || isFresh(patientId)) {
+                return;
+            }
+            
+            // The selection has moved on from whatever is still loading
+            cancel();
+            
+            ISSUED.increment();
+            inFlightPatientId = patientId;
+            BackgroundTask<?>[] self = new BackgroundTask<?>[1];
+            self[0] = BackgroundTask.submit(() -> {
+                // Both land in the service caches; fetch them side by side
+                CompletableFuture<List<PatientDiagnosisRow>> diagnoses = diseaseService.getDiseasesForPatientAsync(patientId);
+                patientService.getPatientById(patientId);
+                return AsyncQueries.await(diagnoses);
+            }, ignored -> {
+                finish(self[0]);
+                COMPLETED.increment();
+                prefetchedAt.put(patientId, System.nanoTime());
+            }, e -> {
+                finish(self[0]);
+                LOGGER.log(Level.FINE, "Prefetch of patient " + patientId + " failed", e);
+            });
+            inFlight = self[0];
+        }
+        
+        private void finish(BackgroundTask<?> task) {
+            if (task == inFlight) {
+                inFlight = null;
+                inFlightPatientId = -1;
+            }
+        }
+        
+        private boolean isFresh(int patientId) {
+            Long loadedAt = prefetchedAt.get(patientId);
+            return loadedAt != null && System.nanoTime() - loadedAt < FRESH_NANOS;
+        }
+        
+        /**
+         * Share of patient opens that found a fresh prefetch
+         */
+        public static double getHitRate() {
+            long hits = HITS.sum();
+            long opens = hits + MISSES.sum();
+            return opens == 0 ? 0 : (double) hits / opens;
+        }
+        
+        /**
+         * Describe prefetch counts and hit rate for logging
+         */
+        public static String getStats() {
+            return String.format("prefetch: issued=%d completed=%d hits=%d misses=%d hitRate=%.1f%%",
+                    ISSUED.sum(), COMPLETED.sum(), HITS.sum(), MISSES.sum(), getHitRate() * 100);
+        }
+    }
+    
+    //==========================================================================
+    // UI COMPONENTS
+    //==========================================================================
+    
+    /**
+     * Color scheme for the dark theme
+     */
+    static class ColorScheme {
+        // Main colors
+        public static final Color BACKGROUND = new Color(18, 18, 18);
+        public static final Color TEXT = new Color(230, 230, 230);
+        
+        // Input fields
+        public static final Color INPUT_BACKGROUND = new Color(30, 30, 30);
+        public static final Color SELECTION_BACKGROUND = new Color(0, 120, 215);
+        public static final Color SELECTION_FOREGROUND = Color.WHITE;
+        
+        // Buttons
+        public static final Color BUTTON_BACKGROUND = new Color(60, 60, 60);
+        public static final Color BUTTON_TEXT = new Color(230, 230, 230);
+        public static final Color BUTTON_SELECTED = new Color(80, 80, 80);
+        public static final Color BUTTON_FOCUS = new Color(0, 120, 215, 100);
+        
+        // Tables
+        public static final Color TABLE_BACKGROUND = new Color(25, 25, 25);
+        public static final Color TABLE_HEADER_BACKGROUND = new Color(40, 40, 40);
+        public static final Color TABLE_HEADER_TEXT = new Color(200, 200, 200);
+        public static final Color TABLE_GRID = new Color(50, 50, 50);
+        
+        // Accent colors
+        public static final Color PRIMARY = new Color(0, 120, 215);
+        public static final Color SUCCESS = new Color(0, 180, 100);
+        public static final Color WARNING = new Color(255, 180, 0);
+        public static final Color ERROR = new Color(215, 0, 0);
+    }
+    
+    /**
+     * Animated button with smooth transitions
+     */
+    static class AnimatedButton extends JButton {
+        private float alpha = 0.7f;
+        private Color hoverColor;
+        private Color normalColor;
+        private Color pressedColor;
+        private Color currentColor;
+        private boolean isHovered = false;
+        private boolean isPressed = false;
+        
+        private javax.swing.Timer fadeTimer;
+        private int targetAlpha;
+        
+        public AnimatedButton(String text) {
+            super(text);
+        
+            // Set button properties
+            setFocusPainted(false);
+            setBorderPainted(false);
+            setContentAreaFilled(false);
+            setOpaque(false);
+            setForeground(ColorScheme.BUTTON_TEXT);
+            setCursor(new Cursor(Cursor.HAND_CURSOR));
+        
+            // Set colors
+            normalColor = ColorScheme.BUTTON_BACKGROUND;
+            hoverColor = ColorScheme.BUTTON_BACKGROUND.brighter();
+            pressedColor = ColorScheme.BUTTON_SELECTED;
+            currentColor = normalColor;
+        
+            // Create fade timer
+            fadeTimer = new javax.swing.Timer(20, e -> {
+                if (targetAlpha > alpha) {
+                    alpha += 0.05f;
+                    if (alpha >= targetAlpha) {
+                        alpha = targetAlpha;
+                        fadeTimer.stop();
+                    }
+                } else {
+                    alpha -= 0.05f;
+                    if (alpha <= targetAlpha) {
+                        alpha = targetAlpha;
+                        fadeTimer.stop();
+                    }
+                }
+                repaint();
+            });
+        
+            // Add mouse listeners for hover and press effects
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseEntered(MouseEvent e) {
+                    isHovered = true;
+                    currentColor = hoverColor;
+                    targetAlpha = 1;
+                    fadeTimer.start();
+                }
+            
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    isHovered = false;
+                    currentColor = normalColor;
+                    targetAlpha = (int) 0.7f;
+                    fadeTimer.start();
+                }
+            
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    isPressed = true;
+                    currentColor = pressedColor;
+                    repaint();
+                }
+            
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    isPressed = false;
+                    currentColor = isHovered ? hoverColor : normalColor;
+                    repaint();
+                }
+            });
+        }
+        
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+            // Set button color based on state
+            if (isPressed) {
+                g2d.setColor(pressedColor);
+            } else {
+                g2d.setColor(currentColor);
+            }
+        
+            // Apply alpha transparency
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        
+            // Draw rounded rectangle background
+            g2d.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
+        
+            // Draw focus border if button has focus
+            if (hasFocus()) {
+                g2d.setColor(ColorScheme.BUTTON_FOCUS);
+                g2d.setStroke(new BasicStroke(2));
+                g2d.drawRoundRect(1, 1, getWidth() - 3, getHeight() - 3, 10, 10);
+            }
+        
+            // Draw text
+            FontMetrics fm = g2d.getFontMetrics();
+            Rectangle textRect = new Rectangle(0, 0, getWidth(), getHeight());
+            String text = getText();
+        
+            int x = (textRect.width - fm.stringWidth(text)) / 2;
+            int y = (textRect.height - fm.getHeight()) / 2 + fm.getAscent();
+        
+            g2d.setColor(ColorScheme.BUTTON_TEXT);
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
+            g2d.drawString(text, x, y);
+        
+            g2d.dispose();
+        }
+        
+        @Override
+        public Dimension getPreferredSize() {
+            Dimension size = super.getPreferredSize();
+            return new Dimension(size.width + 20, size.height + 10);
+        }
+    }
+
+    /**
+     * Navigation panel with animated buttons
+     */
+    static class NavigationPanel extends JPanel {
+        private final MainFrame mainFrame;
+        private final Map<String, AnimatedButton> buttons = new HashMap<>();
+    
+        public NavigationPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+        
+            // Set layout
+            setLayout(new FlowLayout(FlowLayout.LEFT, 10, 5));
+            setBackground(ColorScheme.BACKGROUND);
+            setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        
+            // Create navigation buttons
+            createButton("Dashboard", e -> mainFrame.showDashboard());
+            createButton("Patients", e -> mainFrame.showPatientPanel());
+            createButton("Appointments", e -> mainFrame.showAppointmentPanel());
+            createButton("Admin", e -> mainFrame.showAdminPanel());
+            createButton("Logout", e -> mainFrame.logout());
+        }
+    
+        /**
+         * Create a navigation button
+         */
+        private void createButton(String text, ActionListener action) {
+            AnimatedButton button = new AnimatedButton(text);
+            button.addActionListener(action);
+            buttons.put(text, button);
+            add(button);
+        }
+    
+        /**
+         * Highlight the active button
+         */
+        public void setActiveButton(String buttonText) {
+            for (Map.Entry<String, AnimatedButton> entry : buttons.entrySet()) {
+                AnimatedButton button = entry.getValue();
+                if (entry.getKey().equals(buttonText)) {
+                    button.setForeground(ColorScheme.PRIMARY);
+                    button.setBorder(BorderFactory.createCompoundBorder(
+                        BorderFactory.createMatteBorder(0, 0, 2, 0, ColorScheme.PRIMARY),
+                        BorderFactory.createEmptyBorder(0, 0, 2, 0)
+                    ));
+                } else {
+                    button.setForeground(ColorScheme.BUTTON_TEXT);
+                    button.setBorder(BorderFactory.createEmptyBorder(0, 0, 4, 0));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Custom table with dark theme styling
+     */
+    static class CustomTable extends JTable {
+        public CustomTable(TableModel model) {
+            super(model);
+            
+            // Set table properties
+            setShowGrid(true);
+            setGridColor(ColorScheme.TABLE_GRID);
+            setRowHeight(30);
+            setIntercellSpacing(new Dimension(5, 5));
+            setFillsViewportHeight(true);
+            setSelectionBackground(ColorScheme.SELECTION_BACKGROUND);
+            setSelectionForeground(ColorScheme.SELECTION_FOREGROUND);
+            setBackground(ColorScheme.TABLE_BACKGROUND);
+            setForeground(ColorScheme.TEXT);
+            
+            // Set header properties
+            JTableHeader header = getTableHeader();
+            header.setBackground(ColorScheme.TABLE_HEADER_BACKGROUND);
+            header.setForeground(ColorScheme.TABLE_HEADER_TEXT);
+            header.setFont(header.getFont().deriveFont(Font.BOLD));
+            header.setReorderingAllowed(false);
+            header.setResizingAllowed(true);
+            
+            // Set default cell renderer
+            setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+                @Override
+                public Component getTableCellRendererComponent(JTable table, Object value, 
+                        boolean isSelected, boolean hasFocus, int row, int column) {
+                    Component c = super.getTableCellRendererComponent(
+                            table, value, isSelected, hasFocus, row, column);
+                    
+                    if (!isSelected) {
+                        c.setBackground(row % 2 == 0 ? 
+                                ColorScheme.TABLE_BACKGROUND : 
+                                new Color(ColorScheme.TABLE_BACKGROUND.getRed() + 10, 
+                                        ColorScheme.TABLE_BACKGROUND.getGreen() + 10, 
+                                        ColorScheme.TABLE_BACKGROUND.getBlue() + 10));
+                        c.setForeground(ColorScheme.TEXT);
+                    }
+                    
+                    ((JLabel) c).setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+                    
+                    return c;
+                }
+            });
+        }
+    }
+    
+    /**
+     * Table model for the patient list that only holds the rows near the
+     * viewport. Rows are fetched from the database in fixed-size blocks on a
+     * background thread; blocks far from the visible range are evicted.
+     * Can also show a fixed list of patients, e.g. search results.
+     */
+    static class PatientTableModel extends AbstractTableModel {
+        private static final Logger LOGGER = Logger.getLogger(PatientTableModel.class.getName());
+        private static final String[] COLUMNS = {"ID", "First Name", "Last Name", "Date of Birth", "Age", "Gender", "Contact", "Email"};
+        private static final int BLOCK_SIZE = 200;
+        private static final int PREFETCH_BLOCKS = 2;
+        private static final int MAX_CACHED_BLOCKS = 30;
+        
+        private final PatientService patientService;
+        private final Consumer<Exception> errorHandler;
+        private final ExecutorService loader;
+        
+        // Written on the loader thread so the next block can seek instead of using OFFSET
+        private final Map<Integer, String> cursorAfterBlock = new ConcurrentHashMap<>();
+        private volatile int generation = 0;
+        
+        // Only accessed on the EDT
+        private final LinkedHashMap<Integer, List<PatientSummary>> blocks = new LinkedHashMap<>(16, 0.75f, true);
+        private final Set<Integer> pendingBlocks = new HashSet<>();
+        private final Set<BackgroundTask<?>> inFlight = new HashSet<>();
+        private List<PatientSummary> fixedRows;
+        private int rowCount = 0;
+        private int firstVisibleBlock = 0;
+        private int lastVisibleBlock = 0;
+        
+        public PatientTableModel(PatientService patientService, Consumer<Exception> errorHandler) {
+            this.patientService = patientService;
+            this.errorHandler = errorHandler;
+            this.loader = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "patient-table-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        /**
+         * Show every patient, loading rows lazily as they scroll into view
+         */
+        public void showAll() {
+            resetRows(null);
+            load(patientService::countPatients, count -> {
+                rowCount = count;
+                fireTableDataChanged();
+                requestWindow();
+            });
+        }
+        
+        /**
+         * Show a fixed list of patients
+         */
+        public void showList(List<PatientSummary> patients) {
+            resetRows(new ArrayList<>(patients));
+        }
+        
+        /**
+         * Cancel row loads that are queued or running
+         */
+        public void cancelPendingLoads() {
+            for (BackgroundTask<?> task : inFlight) {
+                task.cancel();
+            }
+            inFlight.clear();
+            pendingBlocks.clear();
+        }
+        
+        /**
+         * Tell the model which rows are on screen so it can prefetch around them
+         * and evict blocks that scrolled out of range
+         */
+        public void setVisibleRows(int firstRow, int lastRow) {
+            if (fixedRows != null || rowCount == 0) {
+                return;
+            }
+            firstVisibleBlock = Math.max(0, firstRow) / BLOCK_SIZE;
+            lastVisibleBlock = Math.max(firstRow, lastRow) / BLOCK_SIZE;
+            requestWindow();
+            evictBlocks();
+        }
+        
+        /**
+         * Get the patient shown in a row, or null if the row is not loaded yet
+         */
+        public PatientSummary getPatientAt(int row) {
+            if (fixedRows != null) {
+                return row < fixedRows.size() ? fixedRows.get(row) : null;
+            }
+            
+            int block = row / BLOCK_SIZE;
+            List<PatientSummary> rows = blocks.get(block);
+            if (rows == null) {
+                requestBlock(block);
+                return null;
+            }
+            int index = row % BLOCK_SIZE;
+            return index < rows.size() ? rows.get(index) : null;
+        }
+        
+        /**
+         * Get the patient ID shown in a row, or null if the row is not loaded yet
+         */
+        public Integer getPatientIdAt(int row) {
+            PatientSummary patient = getPatientAt(row);
+            return patient == null ? null : patient.patientId();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return fixedRows != null ? fixedRows.size() : rowCount;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            if (columnIndex == 0 || columnIndex == 4) {
+                return Integer.class; // ID and Age columns are integers
+            }
+            return String.class;
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            PatientSummary patient = getPatientAt(row);
+            if (patient == null) {
+                return null;
+            }
+            
+            switch (column) {
+                case 0: return patient.patientId();
+                case 1: return patient.firstName();
+                case 2: return patient.lastName();
+                case 3: return patient.dateOfBirth() == null ? null : patient.dateOfBirth().toString();
+                case 4: return patient.age();
+                case 5: return patient.gender();
+                case 6: return patient.contactNumber();
+                case 7: return patient.email();
+                default: return null;
+            }
+        }
+        
+        private void resetRows(List<PatientSummary> rows) {
+            generation++;
+            cancelPendingLoads();
+            blocks.clear();
+            cursorAfterBlock.clear();
+            fixedRows = rows;
+            rowCount = 0;
+            fireTableDataChanged();
+        }
+        
+        private void requestWindow() {
+            int first = Math.max(0, firstVisibleBlock - PREFETCH_BLOCKS);
+            int last = Math.min((rowCount - 1) / BLOCK_SIZE, lastVisibleBlock + PREFETCH_BLOCKS);
+            for (int block = first; block <= last; block++) {
+                if (!blocks.containsKey(block)) {
+                    requestBlock(block);
+                }
+            }
+        }
+        
+        private void requestBlock(int block) {
+            if (!pendingBlocks.add(block)) {
+                return;
+            }
+            
+            int gen = generation;
+            load(() -> {
+                // Seek from the previous block's last row when we know it
+                String cursor = block == 0 ? null : cursorAfterBlock.get(block - 1);
+                Page<PatientSummary> page = block == 0 || cursor != null
+                        ? patientService.getPatientPage(cursor, BLOCK_SIZE)
+                        : patientService.getPatientPageAt(block * BLOCK_SIZE, BLOCK_SIZE);
+                if (page.getNextCursor() != null && gen == generation) {
+                    cursorAfterBlock.put(block, page.getNextCursor());
+                }
+                return page;
+            }, page -> {
+                pendingBlocks.remove(block);
+                blocks.put(block, page.getItems());
+                evictBlocks();
+                
+                int firstRow = block * BLOCK_SIZE;
+                int lastRow = Math.min(rowCount, firstRow + BLOCK_SIZE) - 1;
+                if (firstRow <= lastRow) {
+                    fireTableRowsUpdated(firstRow, lastRow);
+                }
+            });
+        }
+        
+        /**
+         * Run a load on the serial loader thread; loads are cancelled when the rows are reset
+         */
+        private <T> void load(Callable<T> work, Consumer<T> onLoaded) {
+            BackgroundTask<?>[] self = new BackgroundTask<?>[1];
+            self[0] = BackgroundTask.submit(loader, work, result -> {
+                inFlight.remove(self[0]);
+                onLoaded.accept(result);
+            }, error -> {
+                inFlight.remove(self[0]);
+                LOGGER.log(Level.WARNING, "Error loading patient rows", error);
+                pendingBlocks.clear();
+                errorHandler.accept(error);
+            });
+            inFlight.add(self[0]);
+        }
+        
+        private void evictBlocks() {
+            int first = firstVisibleBlock - PREFETCH_BLOCKS;
+            int last = lastVisibleBlock + PREFETCH_BLOCKS;
+            Iterator<Integer> iterator = blocks.keySet().iterator();
+            while (blocks.size() > MAX_CACHED_BLOCKS && iterator.hasNext()) {
+                int block = iterator.next();
+                if (block < first || block > last) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Indeterminate progress bar that is visible while any background task of
+     * its panel is running
+     */
+    static class BusyIndicator extends JProgressBar {
+        private int runningTasks = 0;
+        
+        public BusyIndicator() {
+            setIndeterminate(true);
+            setStringPainted(false);
+            setPreferredSize(new Dimension(120, 8));
+            setVisible(false);
+        }
+        
+        public void taskStarted() {
+            runningTasks++;
+            setVisible(true);
+        }
+        
+        public void taskFinished() {
+            runningTasks = Math.max(0, runningTasks - 1);
+            setVisible(runningTasks > 0);
+        }
+    }
+    
+    /**
+     * Panel with fade-in animation
+     */
+    static class AnimatedPanel extends JPanel {
+        private float alpha = 0.0f;
+        private javax.swing.Timer fadeInTimer;
+        private boolean isAnimating = false;
+        
+        public AnimatedPanel() {
+            setOpaque(true);
+            
+            // Create fade-in animation timer
+            fadeInTimer = new javax.swing.Timer(20, e -> {
+                alpha += 0.05f;
+                if (alpha >= 1.0f) {
+                    alpha = 1.0f;
+                    fadeInTimer.stop();
+                    isAnimating = false;
+                }
+                repaint();
+            });
+            
+            // Start animation when panel becomes visible
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentShown(ComponentEvent e) {
+                    startFadeInAnimation();
+                }
+            });
+        }
+        
+        /**
+         * Start the fade-in animation
+         */
+        public void startFadeInAnimation() {
+            alpha = 0.0f;
+            isAnimating = true;
+            fadeInTimer.start();
+        }
+        
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            
+            // If animating, set alpha composite
+            if (isAnimating) {
+                g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+            }
+            
+            super.paintComponent(g2d);
+            g2d.dispose();
+        }
+    }
+    
+    //==========================================================================
+    // UI SCREENS
+    //==========================================================================
+    
+    /**
+     * Main application frame
+     */
+    static class MainFrame extends JFrame {
+        private static final Logger LOGGER = Logger.getLogger(MainFrame.class.getName());
+        // How long shutdown waits for deferred writes - override with -Dhms.writeBehind.drainMillis
+        private static final long WRITE_BEHIND_DRAIN_MILLIS = Long.getLong("hms.writeBehind.drainMillis", 5_000L);
+        private final CardLayout cardLayout;
+        private final JPanel contentPanel;
+        private final LoginPanel loginPanel;
+        private final DashboardPanel dashboardPanel;
+        private final PatientPanel patientPanel;
+        private final AdminPanel adminPanel;
+        private final PatientDiseasePanel patientDiseasePanel;
+        private final MedicalRecordPanel medicalRecordPanel;
+        private final PatientHistoryPanel patientHistoryPanel;
+        private final AppointmentPanel appointmentPanel;
+        private final NavigationPanel navigationPanel;
+        
+        private final AuthenticationService authService;
+        
+        public MainFrame() {
+            // Set application title
+            super("Hospital Management System");
+            
+            // Apply dark theme
+            applyDarkTheme();
+            
+            // Get authentication service
+            authService = AuthenticationService.getInstance();
+
+            // Initialize navigation panel
+            navigationPanel = new NavigationPanel(this);
+            
+            // Set up the main frame
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            setSize(1200, 800);
+            setMinimumSize(new Dimension(800, 600));
+            setLocationRelativeTo(null);
+            
+            // Create card layout for switching between panels
+            cardLayout = new CardLayout();
+            contentPanel = new JPanel(cardLayout);
+            
+            // Create panels
+            loginPanel = new LoginPanel(this);
+            dashboardPanel = new DashboardPanel(this);
+            patientPanel = new PatientPanel(this);
+            adminPanel = new AdminPanel(this);
+            patientDiseasePanel = new PatientDiseasePanel(this);
+            medicalRecordPanel = new MedicalRecordPanel(this);
+            patientHistoryPanel = new PatientHistoryPanel(this);
+            appointmentPanel = new AppointmentPanel(this);
+            
+            // Add panels to content panel
+            contentPanel.add(loginPanel, "LOGIN");
+            contentPanel.add(dashboardPanel, "DASHBOARD");
+            contentPanel.add(patientPanel, "PATIENTS");
+            contentPanel.add(adminPanel, "ADMIN");
+            contentPanel.add(patientDiseasePanel, "PATIENT_DISEASES");
+            contentPanel.add(medicalRecordPanel, "MEDICAL_RECORDS");
+            contentPanel.add(patientHistoryPanel, "PATIENT_HISTORY");
+            contentPanel.add(appointmentPanel, "APPOINTMENTS");
+            
+            // Add content panel to frame
+            add(contentPanel);
+            
+            // Show login panel initially
+            cardLayout.show(contentPanel, "LOGIN");
+            
+            // Add window listener to handle application close
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    // Perform cleanup operations
+                    cleanup();
+                }
+            });
+        }
+        
+        /**
+         * Apply dark theme to the application
+         */
+        private void applyDarkTheme() {
+            try {
+                // Set look and feel to system look and feel
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+                
+                // Override colors with dark theme
+                UIManager.put("Panel.background", new ColorUIResource(ColorScheme.BACKGROUND));
+                UIManager.put("OptionPane.background", new ColorUIResource(ColorScheme.BACKGROUND));
+                UIManager.put("OptionPane.messageForeground", new ColorUIResource(ColorScheme.TEXT));
+                
+                UIManager.put("TextField.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
+                UIManager.put("TextField.foreground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("TextField.caretForeground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("TextField.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
+                UIManager.put("TextField.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
+                
+                UIManager.put("PasswordField.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
+                UIManager.put("PasswordField.foreground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("PasswordField.caretForeground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("PasswordField.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
+                UIManager.put("PasswordField.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
+                
+                UIManager.put("TextArea.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
+                UIManager.put("TextArea.foreground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("TextArea.caretForeground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("TextArea.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
+                UIManager.put("TextArea.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
+                
+                UIManager.put("ComboBox.background", new ColorUIResource(ColorScheme.INPUT_BACKGROUND));
+                UIManager.put("ComboBox.foreground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("ComboBox.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
+                UIManager.put("ComboBox.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
+                
+                UIManager.put("Button.background", new ColorUIResource(ColorScheme.BUTTON_BACKGROUND));
+                UIManager.put("Button.foreground", new ColorUIResource(ColorScheme.BUTTON_TEXT));
+                UIManager.put("Button.select", new ColorUIResource(ColorScheme.BUTTON_SELECTED));
+                UIManager.put("Button.focus", new ColorUIResource(ColorScheme.BUTTON_FOCUS));
+                
+                UIManager.put("Table.background", new ColorUIResource(ColorScheme.TABLE_BACKGROUND));
+                UIManager.put("Table.foreground", new ColorUIResource(ColorScheme.TEXT));
+                UIManager.put("Table.selectionBackground", new ColorUIResource(ColorScheme.SELECTION_BACKGROUND));
+                UIManager.put("Table.selectionForeground", new ColorUIResource(ColorScheme.SELECTION_FOREGROUND));
+                UIManager.put("Table.gridColor", new ColorUIResource(ColorScheme.TABLE_GRID));
+                
+                UIManager.put("TableHeader.background", new ColorUIResource(ColorScheme.TABLE_HEADER_BACKGROUND));
+                UIManager.put("TableHeader.foreground", new ColorUIResource(ColorScheme.TABLE_HEADER_TEXT));
+                
+                UIManager.put("ScrollPane.background", new ColorUIResource(ColorScheme.BACKGROUND));
+                UIManager.put("ScrollPane.border", BorderFactory.createEmptyBorder());
+                
+                UIManager.put("Label.foreground", new ColorUIResource(ColorScheme.TEXT));
+                
+                // Apply system-specific tweaks
+                String osName = System.getProperty("os.name").toLowerCase();
+                
+                if (osName.contains("mac")) {
+                    // Mac-specific tweaks
+                    System.setProperty("apple.laf.useScreenMenuBar", "true");
+                    System.setProperty("com.apple.mrj.application.apple.menu.about.name", "Hospital Management System");
+                } else if (osName.contains("windows")) {
+                    // Windows-specific tweaks
+                    JFrame.setDefaultLookAndFeelDecorated(true);
+                    JDialog.setDefaultLookAndFeelDecorated(true);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        
+        /**
+         * Start background warm-up work and show the dashboard after a successful login
+         */
+        public void onLoginSucceeded() {
+            PatientNameIndex.getInstance().start();
+            DoctorScheduleIndex.getInstance().start();
+            DiseaseCatalog.getInstance().start();
+            showDashboard();
+        }
+        
+        /**
+         * Show the dashboard panel after successful login
+         */
+        public void showDashboard() {
+            navigationPanel.setActiveButton("Dashboard");
+            cardLayout.show(contentPanel, "DASHBOARD");
+        }
+        
+        /**
+         * Show the patient management panel
+         */
+        public void showPatientPanel() {
+            navigationPanel.setActiveButton("Patients");
+            patientPanel.refreshData();
+            cardLayout.show(contentPanel, "PATIENTS");
+        }
+        
+        /**
+         * Show the appointment scheduling panel
+         */
+        public void showAppointmentPanel() {
+            navigationPanel.setActiveButton("Appointments");
+            appointmentPanel.refreshData();
+            cardLayout.show(contentPanel, "APPOINTMENTS");
+        }
+        
+        /**
+         * Show the admin panel if the user has admin privileges
+         */
+        public void showAdminPanel() {
+            if (authService.isAdmin()) {
+                navigationPanel.setActiveButton("Admin");
+                adminPanel.refreshData();
+                cardLayout.show(contentPanel, "ADMIN");
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                    "You do not have permission to access the admin panel.",
+                    "Access Denied", JOptionPane.WARNING_MESSAGE);
+            }
+        }
+
+        /**
+         * Show patient disease panel
+         */
+        public void showPatientDiseasePanel(Patient patient) {
+            navigationPanel.setActiveButton("Patients");
+            patientDiseasePanel.setPatient(patient);
+            patientDiseasePanel.startFadeInAnimation();
+            cardLayout.show(contentPanel, "PATIENT_DISEASES");
+        }
+        
+        /**
+         * Show the medical record timeline of a patient
+         */
+        public void showMedicalRecordPanel(Patient patient) {
+            navigationPanel.setActiveButton("Patients");
+            medicalRecordPanel.setPatient(patient);
+            medicalRecordPanel.startFadeInAnimation();
+            cardLayout.show(contentPanel, "MEDICAL_RECORDS");
+        }
+        
+        /**
+         * Show the unified history of a patient
+         */
+        public void showPatientHistoryPanel(Patient patient) {
+            navigationPanel.setActiveButton("Patients");
+            patientHistoryPanel.setPatient(patient);
+            patientHistoryPanel.startFadeInAnimation();
+            cardLayout.show(contentPanel, "PATIENT_HISTORY");
+        }
+        
+        /**
+         * Log out the current user and return to the login screen
+         */
+        public void logout() {
+            authService.logout();
+            cardLayout.show(contentPanel, "LOGIN");
+            loginPanel.reset();
+        }
+        
+        /**
+         * Perform cleanup operations before application close
+         */
+        private void cleanup() {
+            // Close database connections and perform other cleanup
+            try {
+                // Log out user if logged in
+                if (authService.isAuthenticated()) {
+                    authService.logout();
+                }
+                
+                LOGGER.log(Level.INFO, "Cache statistics: {0}", PatientService.getCacheStats());
+                LOGGER.log(Level.INFO, "Cache statistics: {0}", DiseaseService.getCacheStats());
+                LOGGER.log(Level.INFO, "Prefetch statistics: {0}", PatientPrefetcher.getStats());
+                
+                // Write deferred updates while the connection pool is still open
+                WriteBehindQueue.drainAll(WRITE_BEHIND_DRAIN_MILLIS);
+                
+                // Close database connection
+                DatabaseConfig.getInstance().closeConnection();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Login panel for user authentication
+     */
+    static class LoginPanel extends JPanel {
+        private final MainFrame mainFrame;
+        private final JTextField usernameField;
+        private final JPasswordField passwordField;
+        final JButton loginButton; // made final so it can be accessed if needed externally
+        private final JLabel statusLabel;
+
+        public LoginPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+
+            // Set layout
+            setLayout(new GridBagLayout());
+            setBackground(ColorScheme.BACKGROUND);
+
+            // Create components
+            JLabel titleLabel = new JLabel("Hospital Management System");
+            titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+            titleLabel.setForeground(ColorScheme.TEXT);
+
+            JLabel usernameLabel = new JLabel("Username:");
+            usernameLabel.setForeground(ColorScheme.TEXT);
+
+            JLabel passwordLabel = new JLabel("Password:");
+            passwordLabel.setForeground(ColorScheme.TEXT);
+
+            usernameField = new JTextField(20);
+            passwordField = new JPasswordField(20);
+
+            loginButton = new AnimatedButton("Login");
+            loginButton.addActionListener(e -> attemptLogin());
+
+            statusLabel = new JLabel(" ");
+            statusLabel.setForeground(Color.RED);
+
+            // Add components to panel
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(10, 10, 10, 10);
+            gbc.gridx = 0;
+            gbc.gridy = 0;
+            gbc.gridwidth = 2;
+            gbc.anchor = GridBagConstraints.CENTER;
+            add(titleLabel, gbc);
+
+            gbc.gridy = 1;
+            gbc.gridwidth = 2;
+            gbc.insets = new Insets(30, 10, 10, 10);
+            add(new JSeparator(), gbc);
+
+            gbc.gridy = 2;
+            gbc.gridwidth = 1;
+            gbc.anchor = GridBagConstraints.EAST;
+            add(usernameLabel, gbc);
+
+            gbc.gridx = 1;
+            gbc.anchor = GridBagConstraints.WEST;
+            add(usernameField, gbc);
+
+            gbc.gridx = 0;
+            gbc.gridy = 3;
+            gbc.anchor = GridBagConstraints.EAST;
+            add(passwordLabel, gbc);
+
+            gbc.gridx = 1;
+            gbc.anchor = GridBagConstraints.WEST;
+            add(passwordField, gbc);
+
+            gbc.gridx = 0;
+            gbc.gridy = 4;
+            gbc.gridwidth = 2;
+            gbc.anchor = GridBagConstraints.CENTER;
+            add(loginButton, gbc);
+
+            gbc.gridy = 5;
+            add(statusLabel, gbc);
+
+            // Set default button when component is shown
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentShown(ComponentEvent e) {
+                    if (getRootPane() != null) {
+                        getRootPane().setDefaultButton(loginButton);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Attempt to log in with the provided credentials
+         */
+        private void attemptLogin() {
+            String username = usernameField.getText();
+            String password = new String(passwordField.getPassword());
+
+            if (username.isEmpty() || password.isEmpty()) {
+                statusLabel.setText("Username and password are required");
+                return;
+            }
+
+            // Show loading cursor
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+            // Disable login button during authentication
+            loginButton.setEnabled(false);
+
+            // Perform login in background
+            BackgroundTask.submit(() -> AuthenticationService.getInstance().login(username, password),
+                success -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    loginButton.setEnabled(true);
+                    if (success) {
+                        statusLabel.setText("");
+                        mainFrame.onLoginSucceeded();
+                    } else {
+                        statusLabel.setText("Invalid username or password");
+                    }
+                },
+                e -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    loginButton.setEnabled(true);
+                    statusLabel.setText("Login error: " + e.getMessage());
+                });
+        }
+
+        /**
+         * Reset the login form
+         */
+        public void reset() {
+            usernameField.setText("");
+            passwordField.setText("");
+            statusLabel.setText("");
+        }
+    }
+    
+    /**
+     * Dashboard panel shown after login
+     */
+    static class DashboardPanel extends AnimatedPanel {
+        private final MainFrame mainFrame;
+        
+        public DashboardPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+            
+            // Set layout
+            setLayout(new BorderLayout());
+            setBackground(ColorScheme.BACKGROUND);
+            
+            // Create top panel with navigation
+            JPanel topPanel = new JPanel(new BorderLayout());
+            topPanel.setBackground(ColorScheme.BACKGROUND);
+            topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            // Navigation buttons
+            JPanel navPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            navPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton patientsButton = new AnimatedButton("Patients");
+            patientsButton.addActionListener(e -> mainFrame.showPatientPanel());
+            
+            AnimatedButton appointmentsButton = new AnimatedButton("Appointments");
+            appointmentsButton.addActionListener(e -> mainFrame.showAppointmentPanel());
+            
+            AnimatedButton adminButton = new AnimatedButton("Admin");
+            adminButton.addActionListener(e -> mainFrame.showAdminPanel());
+            
+            AnimatedButton logoutButton = new AnimatedButton("Logout");
+            logoutButton.addActionListener(e -> mainFrame.logout());
+            
+            navPanel.add(patientsButton);
+            navPanel.add(appointmentsButton);
+            navPanel.add(adminButton);
+            navPanel.add(logoutButton);
+            
+            topPanel.add(navPanel, BorderLayout.WEST);
+            
+            // Create content panel
+            JPanel contentPanel = new JPanel(new BorderLayout());
+            contentPanel.setBackground(ColorScheme.BACKGROUND);
+            contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+            
+            // Welcome message
+            JLabel welcomeLabel = new JLabel("Welcome to Hospital Management System");
+            welcomeLabel.setFont(new Font("Arial", Font.BOLD, 24));
+            welcomeLabel.setForeground(ColorScheme.TEXT);
+            welcomeLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            
+            // Dashboard content
+            JPanel dashboardPanel = new JPanel(new GridLayout(2, 2, 20, 20));
+            dashboardPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            // Patient management card
+            JPanel patientCard = createDashboardCard("Patient Management", 
+                "Manage patient records, add new patients, update information", 
+                e -> mainFrame.showPatientPanel());
+            
+            // Appointment scheduling card
+            JPanel appointmentCard = createDashboardCard("Appointments", 
+                "Book appointments, check doctor availability, view daily schedules", 
+                e -> mainFrame.showAppointmentPanel());
+            
+            // Admin panel card
+            JPanel adminCard = createDashboardCard("Administration", 
+                "System settings, user management, and configuration", 
+                e -> mainFrame.showAdminPanel());
+            
+            // Add cards to dashboard
+            dashboardPanel.add(patientCard);
+            dashboardPanel.add(appointmentCard);
+            dashboardPanel.add(adminCard);
+            
+            // Add components to content panel
+            contentPanel.add(welcomeLabel, BorderLayout.NORTH);
+            contentPanel.add(dashboardPanel, BorderLayout.CENTER);
+            
+            // Add panels to main panel
+            add(topPanel, BorderLayout.NORTH);
+            add(contentPanel, BorderLayout.CENTER);
+        }
+        
+        /**
+         * Create a dashboard card with title, description, and action
+         */
+        private JPanel createDashboardCard(String title, String description, ActionListener action) {
+            JPanel card = new JPanel(new BorderLayout());
+            card.setBackground(new Color(30, 30, 30));
+            card.setBorder(BorderFactory.createLineBorder(new Color(50, 50, 50), 1));
+            
+            JLabel titleLabel = new JLabel(title);
+            titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+            titleLabel.setForeground(ColorScheme.TEXT);
+            titleLabel.setBorder(BorderFactory.createEmptyBorder(15, 15, 5, 15));
+            
+            JLabel descLabel = new JLabel("<html><p>" + description + "</p></html>");
+            descLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+            descLabel.setForeground(new Color(200, 200, 200));
+            descLabel.setBorder(BorderFactory.createEmptyBorder(5, 15, 15, 15));
+            
+            AnimatedButton openButton = new AnimatedButton("Open");
+            openButton.addActionListener(action);
+            
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            buttonPanel.setBackground(new Color(30, 30, 30));
+            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 15, 15, 15));
+            buttonPanel.add(openButton);
+            
+            card.add(titleLabel, BorderLayout.NORTH);
+            card.add(descLabel, BorderLayout.CENTER);
+            card.add(buttonPanel, BorderLayout.SOUTH);
+            
+            return card;
+        }
+    }
+    
+    /**
+     * Patient management panel
+     */
+    static class PatientPanel extends AnimatedPanel {
+        private final MainFrame mainFrame;
+        private final PatientService patientService;
+        private final DiseaseService diseaseService;
+        
+        private static final int SEARCH_DEBOUNCE_MILLIS = 150;
+        // Shorter terms are only searched on Enter or the Search button: the name
+        // index has no postings for them and has to scan every name
+        private static final int MIN_TYPED_SEARCH_CHARS = 3;
+        
+        private JTextField searchField;
+        private JCheckBox fuzzyCheckBox;
+        private CustomTable patientTable;
+        private PatientTableModel tableModel;
+        private JLabel countLabel;
+        private javax.swing.Timer searchDebounceTimer;
+        
+        // Last completed search, narrowed locally while the term keeps growing
+        private String lastSearchTerm;
+        private List<PatientSummary> lastSearchResults;
+        
+        // Background work; stale tasks are cancelled when superseded or the panel is hidden
+        private final BusyIndicator busyIndicator = new BusyIndicator();
+        private final TaskSlot searchTask = new TaskSlot(busyIndicator);
+        private final TaskSlot loadTask = new TaskSlot(busyIndicator);
+        private final WriteTasks writeTasks = new WriteTasks(busyIndicator);
+        // Imports keep running when the panel is hidden
+        private final TaskSlot importTask = new TaskSlot(busyIndicator);
+        private AnimatedButton importButton;
+        private PatientImporter runningImport;
+        // Warms the caches for the patient the user lingers on
+        private final PatientPrefetcher prefetcher;
+        
+        public PatientPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+            this.patientService = new PatientService();
+            this.diseaseService = new DiseaseService();
+            this.prefetcher = new PatientPrefetcher(patientService, diseaseService);
+            
+            initializeUI();
+            
+            // Cancel in-flight queries when the user navigates away
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentHidden(ComponentEvent e) {
+                    searchDebounceTimer.stop();
+                    searchTask.cancel();
+                    loadTask.cancel();
+                    prefetcher.cancel();
+                    tableModel.cancelPendingLoads();
+                }
+            });
+        }
+        
+        /**
+         * Initialize the UI components
+         */
+        private void initializeUI() {
+            setLayout(new BorderLayout());
+            setBackground(ColorScheme.BACKGROUND);
+            
+            // Create top panel with navigation and search
+            JPanel topPanel = new JPanel(new BorderLayout());
+            topPanel.setBackground(ColorScheme.BACKGROUND);
+            topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            // Navigation buttons
+            JPanel navPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            navPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton dashboardButton = new AnimatedButton("Dashboard");
+            dashboardButton.addActionListener(e -> mainFrame.showDashboard());
+            
+            AnimatedButton adminButton = new AnimatedButton("Admin");
+            adminButton.addActionListener(e -> mainFrame.showAdminPanel());
+            
+            AnimatedButton logoutButton = new AnimatedButton("Logout");
+            logoutButton.addActionListener(e -> mainFrame.logout());
+            
+            navPanel.add(dashboardButton);
+            navPanel.add(adminButton);
+            navPanel.add(logoutButton);
+            
+            // Search panel
+            JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            searchPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            JLabel searchLabel = new JLabel("Search:");
+            searchLabel.setForeground(ColorScheme.TEXT);
+            
+            searchField = new JTextField(20);
+            searchField.setToolTipText("Results update after " + MIN_TYPED_SEARCH_CHARS
+                    + " letters; press Enter to search for fewer");
+            searchField.addActionListener(e -> searchNow());
+            
+            // Search as the user types, once typing pauses
+            searchDebounceTimer = new javax.swing.Timer(SEARCH_DEBOUNCE_MILLIS, e -> searchPatients());
+            searchDebounceTimer.setRepeats(false);
+            searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+                @Override
+                public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                    onSearchTextChanged();
+                }
+                
+                @Override
+                public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                    onSearchTextChanged();
+                }
+                
+                @Override
+                public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                    onSearchTextChanged();
+                }
+            });
+            
+            AnimatedButton searchButton = new AnimatedButton("Search");
+            searchButton.addActionListener(e -> searchNow());
+            
+            // Typo-tolerant matching for misspelled names
+            fuzzyCheckBox = new JCheckBox("Fuzzy");
+            fuzzyCheckBox.setBackground(ColorScheme.BACKGROUND);
+            fuzzyCheckBox.setForeground(ColorScheme.TEXT);
+            fuzzyCheckBox.addActionListener(e -> {
+                lastSearchResults = null;
+                if (!searchField.getText().trim().isEmpty()) {
+                    searchNow();
+                }
+            });
+            
+            searchPanel.add(searchLabel);
+            searchPanel.add(searchField);
+            searchPanel.add(fuzzyCheckBox);
+            searchPanel.add(searchButton);
+            
+            topPanel.add(navPanel, BorderLayout.WEST);
+            topPanel.add(searchPanel, BorderLayout.EAST);
+            
+            // Create title panel
+            JPanel titlePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            titlePanel.setBackground(ColorScheme.BACKGROUND);
+            titlePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            JLabel titleLabel = new JLabel("Patient Management");
+            titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+            titleLabel.setForeground(ColorScheme.TEXT);
+            
+            titlePanel.add(titleLabel);
+            
+            // Create button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            AnimatedButton addButton = new AnimatedButton("Add Patient");
+            addButton.addActionListener(e -> showAddPatientDialog());
+            
+            AnimatedButton editButton = new AnimatedButton("Edit Patient");
+            editButton.addActionListener(e -> {
+                Integer patientId = getSelectedPatientId();
+                if (patientId != null) {
+                    showEditPatientDialog(patientId);
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Please select a patient to edit", 
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                }
+            });
+            
+            AnimatedButton deleteButton = new AnimatedButton("Delete Patient");
+            deleteButton.addActionListener(e -> {
+                Integer patientId = getSelectedPatientId();
+                if (patientId != null) {
+                    deletePatient(patientId);
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Please select a patient to delete", 
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                }
+            });
+
+            AnimatedButton viewDiseasesButton = new AnimatedButton("View Diseases");
+            viewDiseasesButton.addActionListener(e -> showForSelectedPatient("view diseases", true,
+                    mainFrame::showPatientDiseasePanel));
+
+            buttonPanel.add(viewDiseasesButton);
+            
+            AnimatedButton viewRecordsButton = new AnimatedButton("Medical Records");
+            viewRecordsButton.addActionListener(e -> showForSelectedPatient("view medical records", false,
+                    mainFrame::showMedicalRecordPanel));
+            
+            buttonPanel.add(viewRecordsButton);
+            
+            AnimatedButton viewHistoryButton = new AnimatedButton("History");
+            viewHistoryButton.addActionListener(e -> showForSelectedPatient("view history", false,
+                    mainFrame::showPatientHistoryPanel));
+            
+            buttonPanel.add(viewHistoryButton);
+            
+            importButton = new AnimatedButton("Import CSV");
+            importButton.addActionListener(e -> {
+                // While an import runs the button stops it instead of starting another
+                if (runningImport != null) {
+                    runningImport.cancel();
+                    importButton.setEnabled(false);
+                } else {
+                    importPatients();
+                }
+            });
+            
+            buttonPanel.add(addButton);
+            buttonPanel.add(editButton);
+            buttonPanel.add(deleteButton);
+            buttonPanel.add(importButton);
+            buttonPanel.add(busyIndicator);
+            
+            // Create table panel
+            JPanel tablePanel = new JPanel(new BorderLayout());
+            tablePanel.setBackground(ColorScheme.BACKGROUND);
+            tablePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            // Create lazily loaded table model
+            tableModel = new PatientTableModel(patientService, e ->
+                JOptionPane.showMessageDialog(this, 
+                    "Error loading patients: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+            tableModel.addTableModelListener(e -> updateCountLabel());
+            
+            // Create table
+            patientTable = new CustomTable(tableModel);
+            patientTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            patientTable.getSelectionModel().addListSelectionListener(e -> {
+                if (!e.getValueIsAdjusting()) {
+                    prefetcher.selectionChanged(getSelectedPatientId());
+                }
+            });
+            
+            // Add table to scroll pane
+            JScrollPane scrollPane = new JScrollPane(patientTable);
+            scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
+            scrollPane.getViewport().addChangeListener(e -> updateVisibleRows());
+            
+            tablePanel.add(scrollPane, BorderLayout.CENTER);
+            
+            // Row count
+            JPanel countPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            countPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            countLabel = new JLabel(" ");
+            countLabel.setForeground(ColorScheme.TEXT);
+            countPanel.add(countLabel);
+            
+            tablePanel.add(countPanel, BorderLayout.SOUTH);
+            
+            // Stack navigation, title and buttons above the table
+            JPanel headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(ColorScheme.BACKGROUND);
+            headerPanel.add(topPanel, BorderLayout.NORTH);
+            headerPanel.add(titlePanel, BorderLayout.CENTER);
+            headerPanel.add(buttonPanel, BorderLayout.SOUTH);
+            
+            // Add components to main panel
+            add(headerPanel, BorderLayout.NORTH);
+            add(tablePanel, BorderLayout.CENTER);
+            
+            // Load initial data
+            refreshData();
+        }
+        
+        /**
+         * Refresh the patient data in the table
+         */
+        public void refreshData() {
+            searchDebounceTimer.stop();
+            searchTask.cancel();
+            lastSearchTerm = null;
+            lastSearchResults = null;
+            tableModel.showAll();
+        }
+        
+        /**
+         * React to a keystroke in the search field: narrow the previous result
+         * in place when possible, otherwise query once typing pauses
+         */
+        private void onSearchTextChanged() {
+            String searchTerm = searchField.getText().trim();
+            if (searchTerm.isEmpty()) {
+                refreshData();
+                return;
+            }
+            
+            // Whatever is in flight is for an older term
+            searchTask.cancel();
+            
+            if (canRefineLastSearch(searchTerm)) {
+                searchDebounceTimer.stop();
+                showSearchResults(searchTerm, patientService.refineSearchResults(lastSearchResults, searchTerm), true);
+            } else if (searchTerm.length() < MIN_TYPED_SEARCH_CHARS) {
+                // Too short to search as the user types; drop results for a longer term
+                searchDebounceTimer.stop();
+                if (lastSearchTerm != null) {
+                    refreshData();
+                }
+            } else {
+                searchDebounceTimer.restart();
+            }
+        }
+        
+        /**
+         * Whether every match for the term must be in the last search result
+         */
+        private boolean canRefineLastSearch(String searchTerm) {
+            return lastSearchResults != null
+                && lastSearchResults.size() < PatientService.MAX_SEARCH_RESULTS
+                && searchTerm.toLowerCase(Locale.ROOT).contains(lastSearchTerm.toLowerCase(Locale.ROOT));
+        }
+        
+        /**
+         * Search immediately, skipping the debounce delay
+         */
+        private void searchNow() {
+            searchDebounceTimer.stop();
+            searchPatients();
+        }
+        
+        /**
+         * Search for patients by name
+         */
+        private void searchPatients() {
+            String searchTerm = searchField.getText().trim();
+            if (searchTerm.isEmpty()) {
+                refreshData();
+                return;
+            }
+            
+            // Search patients; results replace the table in one batch
+            if (fuzzyCheckBox.isSelected()) {
+                searchTask.submit(() -> {
+                    List<PatientSummary> patients = new ArrayList<>();
+                    for (PatientMatch match : patientService.fuzzySearchPatients(searchTerm)) {
+                        patients.add(match.getPatient());
+                    }
+                    return patients;
+                },
+                    patients -> showSearchResults(searchTerm, patients, false),
+                    e -> JOptionPane.showMessageDialog(this, 
+                        "Error searching patients: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE));
+                return;
+            }
+            
+            searchTask.submit(() -> patientService.searchPatientsByName(searchTerm),
+                patients -> showSearchResults(searchTerm, patients, true),
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error searching patients: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        /**
+         * Show a search result and remember it for local refinement. Fuzzy
+         * results cannot be narrowed locally: a longer term may match names
+         * the shorter one did not.
+         */
+        private void showSearchResults(String searchTerm, List<PatientSummary> patients, boolean refinable) {
+            lastSearchTerm = searchTerm;
+            lastSearchResults = refinable ? patients : null;
+            tableModel.showList(patients);
+            if (refinable && patients.size() >= PatientService.MAX_SEARCH_RESULTS) {
+                countLabel.setText(String.format("First %,d matches shown; refine the search to see others",
+                        patients.size()));
+            }
+        }
+        
+        /**
+         * Import patients from a CSV file chosen by the user. Rejected rows are
+         * written next to it as <file>.errors.csv.
+         */
+        private void importPatients() {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Import Patients");
+            chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv"));
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            
+            Path csvFile = chooser.getSelectedFile().toPath();
+            Path errorFile = csvFile.resolveSibling(csvFile.getFileName() + ".errors.csv");
+            PatientImporter importer = new PatientImporter(patientService);
+            runningImport = importer;
+            importButton.setText("Cancel Import");
+            importTask.submit(() -> importer.importFile(csvFile, errorFile),
+                result -> {
+                    importFinished();
+                    refreshData();
+                    String message = "Import finished: " + result;
+                    if (result.getRejected() > 0) {
+                        message += "\nRejected rows were written to " + errorFile;
+                    }
+                    JOptionPane.showMessageDialog(this, message, "Import",
+                        result.getRejected() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+                },
+                e -> {
+                    importFinished();
+                    refreshData();
+                    JOptionPane.showMessageDialog(this, 
+                        "Error importing patients: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                });
+        }
+        
+        /**
+         * Make the Import button start a new import again
+         */
+        private void importFinished() {
+            runningImport = null;
+            importButton.setText("Import CSV");
+            importButton.setEnabled(true);
+        }
+        
+        /**
+         * Load the selected patient in full and open a view of them. With
+         * withDiagnoses, the patient's diagnoses are fetched alongside into
+         * the diagnosis cache, so a view that shows them renders at once.
+         */
+        private void showForSelectedPatient(String action, boolean withDiagnoses, Consumer<Patient> view) {
+            Integer patientId = getSelectedPatientId();
+            if (patientId == null) {
+                JOptionPane.showMessageDialog(this, 
+                    "Please select a patient to " + action, 
+                    "No Selection", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            // Open straight away when the patient is cached, e.g. by a prefetch
+            prefetcher.opened(patientId);
+            Patient cached = patientService.getCachedPatient(patientId);
+            if (cached != null) {
+                loadTask.cancel();
+                view.accept(cached);
+                return;
+            }
+            
+            loadTask.submit(() -> {
+                if (!withDiagnoses) {
+                    return patientService.getPatientById(patientId);
+                }
+                CompletableFuture<List<PatientDiagnosisRow>> diagnoses = diseaseService.getDiseasesForPatientAsync(patientId);
+                Patient patient = patientService.getPatientById(patientId);
+                AsyncQueries.await(diagnoses);
+                return patient;
+            },
+                patient -> {
+                    if (patient != null) {
+                        view.accept(patient);
+                    } else {
+                        JOptionPane.showMessageDialog(this, 
+                            "Patient not found", 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                ex -> JOptionPane.showMessageDialog(this, 
+                    "Error loading patient: " + ex.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        /**
+         * Get the ID of the selected patient, or null if nothing loaded is selected
+         */
+        private Integer getSelectedPatientId() {
+            int selectedRow = patientTable.getSelectedRow();
+            return selectedRow >= 0 ? tableModel.getPatientIdAt(selectedRow) : null;
+        }
+        
+        /**
+         * Report the rows currently in the viewport to the table model
+         */
+        private void updateVisibleRows() {
+            Rectangle view = patientTable.getVisibleRect();
+            int firstRow = patientTable.rowAtPoint(new Point(0, view.y));
+            int lastRow = patientTable.rowAtPoint(new Point(0, view.y + view.height - 1));
+            if (firstRow < 0) {
+                return;
+            }
+            if (lastRow < 0) {
+                lastRow = tableModel.getRowCount() - 1;
+            }
+            tableModel.setVisibleRows(firstRow, lastRow);
+        }
+        
+        /**
+         * Show the number of rows in the table
+         */
+        private void updateCountLabel() {
+            countLabel.setText(String.format("%,d patient(s)", tableModel.getRowCount()));
+        }
+        
+        /**
+         * Show dialog to add a new patient
+         */
+        private void showAddPatientDialog() {
+            // Create patient form dialog
+            JDialog dialog = new JDialog(mainFrame, "Add New Patient", true);
+            dialog.setSize(500, 400);
+            dialog.setLocationRelativeTo(mainFrame);
+            dialog.setLayout(new BorderLayout());
+            
+            // Create form panel
+            JPanel formPanel = new JPanel(new GridBagLayout());
+            formPanel.setBackground(ColorScheme.BACKGROUND);
+            formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(5, 5, 5, 5);
+            gbc.anchor = GridBagConstraints.WEST;
+            
+            // First Name
+            gbc.gridx = 0;
+            gbc.gridy = 0;
+            JLabel firstNameLabel = new JLabel("First Name:");
+            firstNameLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(firstNameLabel, gbc);
+            
+            gbc.gridx = 1;
+            JTextField firstNameField = new JTextField(20);
+            formPanel.add(firstNameField, gbc);
+            
+            // Last Name
+            gbc.gridx = 0;
+            gbc.gridy = 1;
+            JLabel lastNameLabel = new JLabel("Last Name:");
+            lastNameLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(lastNameLabel, gbc);
+            
+            gbc.gridx = 1;
+            JTextField lastNameField = new JTextField(20);
+            formPanel.add(lastNameField, gbc);
+            
+            // Date of Birth
+            gbc.gridx = 0;
+            gbc.gridy = 2;
+            JLabel dobLabel = new JLabel("Date of Birth (yyyy-MM-dd):");
+            dobLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(dobLabel, gbc);
+            
+            gbc.gridx = 1;
+            JTextField dobField = new JTextField(20);
+            formPanel.add(dobField, gbc);
+            
+            // Gender
+            gbc.gridx = 0;
+            gbc.gridy = 3;
+            JLabel genderLabel = new JLabel("Gender:");
+            genderLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(genderLabel, gbc);
+            
+            gbc.gridx = 1;
+            String[] genders = {"Male", "Female", "Other"};
+            JComboBox<String> genderComboBox = new JComboBox<>(genders);
+            formPanel.add(genderComboBox, gbc);
+            
+            // Contact Number
+            gbc.gridx = 0;
+            gbc.gridy = 4;
+            JLabel contactLabel = new JLabel("Contact Number:");
+            contactLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(contactLabel, gbc);
+            
+            gbc.gridx = 1;
+            JTextField contactField = new JTextField(20);
+            formPanel.add(contactField, gbc);
+            
+            // Email
+            gbc.gridx = 0;
+            gbc.gridy = 5;
+            JLabel emailLabel = new JLabel("Email:");
+            emailLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(emailLabel, gbc);
+            
+            gbc.gridx = 1;
+            JTextField emailField = new JTextField(20);
+            formPanel.add(emailField, gbc);
+            
+            // Address
+            gbc.gridx = 0;
+            gbc.gridy = 6;
+            JLabel addressLabel = new JLabel("Address:");
+            addressLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(addressLabel, gbc);
+            
+            gbc.gridx = 1;
+            JTextArea addressArea = new JTextArea(3, 20);
+            JScrollPane addressScrollPane = new JScrollPane(addressArea);
+            formPanel.add(addressScrollPane, gbc);
+            
+            // Button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton saveButton = new AnimatedButton("Save");
+            saveButton.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    try {
+                        // Validate and parse input
+                        String firstName = firstNameField.getText().trim();
+                        String lastName = lastNameField.getText().trim();
+                        String dobString = dobField.getText().trim();
+                        String gender = (String) genderComboBox.getSelectedItem();
+                        String contact = contactField.getText().trim();
+                        String email = emailField.getText().trim();
+                        String address = addressArea.getText().trim();
+                        
+                        // Validate required fields
+                        if (firstName.isEmpty() || lastName.isEmpty() || dobString.isEmpty()) {
+                            JOptionPane.showMessageDialog(dialog, 
+                                "First name, last name, and date of birth are required", 
+                                "Validation Error", JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+                        
+                        // Parse date of birth
+                        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+                        Date dob;
+                        try {
+                            dob = dateFormat.parse(dobString);
+                        } catch (Exception ex) {
+                            JOptionPane.showMessageDialog(dialog, 
+                                "Invalid date format. Please use yyyy-MM-dd", 
+                                "Validation Error", JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+                        
+                        // Create patient object
+                        Patient patient = new Patient(firstName, lastName, dob, gender, contact, email, address);
+                        
+                        // Save patient in the background
+                        saveButton.setEnabled(false);
+                        writeTasks.submit(() -> patientService.createPatient(patient),
+                            saved -> {
+                                // Close dialog
+                                dialog.dispose();
+                                
+                                // Refresh data
+                                refreshData();
+                                
+                                // Show success message
+                                JOptionPane.showMessageDialog(mainFrame, 
+                                    "Patient added successfully", 
+                                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                            },
+                            ex -> {
+                                saveButton.setEnabled(true);
+                                JOptionPane.showMessageDialog(dialog, 
+                                    "Error adding patient: " + ex.getMessage(), 
+                                    "Error", JOptionPane.ERROR_MESSAGE);
+                            });
+                    } catch (Exception ex) {
+                        JOptionPane.showMessageDialog(dialog, 
+                            "Error adding patient: " + ex.getMessage(), 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            });
+            
+            AnimatedButton cancelButton = new AnimatedButton("Cancel");
+            cancelButton.addActionListener(e -> dialog.dispose());
+            
+            buttonPanel.add(saveButton);
+            buttonPanel.add(cancelButton);
+            
+            // Add panels to dialog
+            dialog.add(formPanel, BorderLayout.CENTER);
+            dialog.add(buttonPanel, BorderLayout.SOUTH);
+            
+            // Show dialog
+            dialog.setVisible(true);
+        }
+        
+        /**
+         * Load a patient in the background and show the edit dialog for it
+         */
+        private void showEditPatientDialog(int patientId) {
+            // Open straight away when the patient is cached, e.g. by a prefetch
+            prefetcher.opened(patientId);
+            Patient cached = patientService.getCachedPatient(patientId);
+            if (cached != null) {
+                loadTask.cancel();
+                showEditPatientDialog(cached);
+                return;
+            }
+            
+            loadTask.submit(() -> patientService.getPatientById(patientId),
+                patient -> {
+                    if (patient == null) {
+                        JOptionPane.showMessageDialog(this, 
+                            "Patient not found", 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    showEditPatientDialog(patient);
+                },
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading patient: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        /**
+         * Show dialog to edit an existing patient
+         */
+        private void showEditPatientDialog(Patient patient) {
+            try {
+                // Create patient form dialog
+                JDialog dialog = new JDialog(mainFrame, "Edit Patient", true);
+                dialog.setSize(500, 400);
+                dialog.setLocationRelativeTo(mainFrame);
+                dialog.setLayout(new BorderLayout());
+                
+                // Create form panel
+                JPanel formPanel = new JPanel(new GridBagLayout());
+                formPanel.setBackground(ColorScheme.BACKGROUND);
+                formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+                
+                GridBagConstraints gbc = new GridBagConstraints();
+                gbc.insets = new Insets(5, 5, 5, 5);
+                gbc.anchor = GridBagConstraints.WEST;
+                
+                // First Name
+                gbc.gridx = 0;
+                gbc.gridy = 0;
+                JLabel firstNameLabel = new JLabel("First Name:");
+                firstNameLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(firstNameLabel, gbc);
+                
+                gbc.gridx = 1;
+                JTextField firstNameField = new JTextField(20);
+                firstNameField.setText(patient.getFirstName());
+                formPanel.add(firstNameField, gbc);
+                
                 // Last Name
                 gbc.gridx = 0;
                 gbc.gridy = 1;
@@ -2485,475 +9741,1725 @@ public class HospitalManagementSystem {
                 
                 // Contact Number
                 gbc.gridx = 0;
-                gbc.gridy = 4;
-                JLabel contactLabel = new JLabel("Contact Number:");
-                contactLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(contactLabel, gbc);
-                
+                gbc.gridy = 4;
+                JLabel contactLabel = new JLabel("Contact Number:");
+                contactLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(contactLabel, gbc);
+                
+                gbc.gridx = 1;
+                JTextField contactField = new JTextField(20);
+                contactField.setText(patient.getContactNumber());
+                formPanel.add(contactField, gbc);
+                
+                // Email
+                gbc.gridx = 0;
+                gbc.gridy = 5;
+                JLabel emailLabel = new JLabel("Email:");
+                emailLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(emailLabel, gbc);
+                
+                gbc.gridx = 1;
+                JTextField emailField = new JTextField(20);
+                emailField.setText(patient.getEmail());
+                formPanel.add(emailField, gbc);
+                
+                // Address
+                gbc.gridx = 0;
+                gbc.gridy = 6;
+                JLabel addressLabel = new JLabel("Address:");
+                addressLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(addressLabel, gbc);
+                
+                gbc.gridx = 1;
+                JTextArea addressArea = new JTextArea(3, 20);
+                addressArea.setText(patient.getAddress());
+                JScrollPane addressScrollPane = new JScrollPane(addressArea);
+                formPanel.add(addressScrollPane, gbc);
+                
+                // Button panel
+                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+                buttonPanel.setBackground(ColorScheme.BACKGROUND);
+                
+                AnimatedButton saveButton = new AnimatedButton("Save");
+                saveButton.addActionListener(new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        try {
+                            // Validate and parse input
+                            String firstName = firstNameField.getText().trim();
+                            String lastName = lastNameField.getText().trim();
+                            String dobString = dobField.getText().trim();
+                            String gender = (String) genderComboBox.getSelectedItem();
+                            String contact = contactField.getText().trim();
+                            String email = emailField.getText().trim();
+                            String address = addressArea.getText().trim();
+                            
+                            // Validate required fields
+                            if (firstName.isEmpty() || lastName.isEmpty() || dobString.isEmpty()) {
+                                JOptionPane.showMessageDialog(dialog, 
+                                    "First name, last name, and date of birth are required", 
+                                    "Validation Error", JOptionPane.ERROR_MESSAGE);
+                                return;
+                            }
+                            
+                            // Parse date of birth
+                            Date dob;
+                            try {
+                                dob = dateFormat.parse(dobString);
+                            } catch (Exception ex) {
+                                JOptionPane.showMessageDialog(dialog, 
+                                    "Invalid date format. Please use yyyy-MM-dd", 
+                                    "Validation Error", JOptionPane.ERROR_MESSAGE);
+                                return;
+                            }
+                            
+                            // Update patient object
+                            patient.setFirstName(firstName);
+                            patient.setLastName(lastName);
+                            patient.setDateOfBirth(dob);
+                            patient.setGender(gender);
+                            patient.setContactNumber(contact);
+                            patient.setEmail(email);
+                            patient.setAddress(address);
+                            
+                            // Save patient in the background
+                            saveButton.setEnabled(false);
+                            writeTasks.submit(() -> patientService.updatePatient(patient),
+                                updated -> {
+                                    // Close dialog
+                                    dialog.dispose();
+                                    
+                                    // Refresh data
+                                    refreshData();
+                                    
+                                    // Show success message
+                                    JOptionPane.showMessageDialog(mainFrame, 
+                                        "Patient updated successfully", 
+                                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                                },
+                                ex -> {
+                                    saveButton.setEnabled(true);
+                                    JOptionPane.showMessageDialog(dialog, 
+                                        "Error updating patient: " + ex.getMessage(), 
+                                        "Error", JOptionPane.ERROR_MESSAGE);
+                                });
+                        } catch (Exception ex) {
+                            JOptionPane.showMessageDialog(dialog, 
+                                "Error updating patient: " + ex.getMessage(), 
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }
+                });
+                
+                AnimatedButton cancelButton = new AnimatedButton("Cancel");
+                cancelButton.addActionListener(e -> dialog.dispose());
+                
+                buttonPanel.add(saveButton);
+                buttonPanel.add(cancelButton);
+                
+                // Add panels to dialog
+                dialog.add(formPanel, BorderLayout.CENTER);
+                dialog.add(buttonPanel, BorderLayout.SOUTH);
+                
+                // Show dialog
+                dialog.setVisible(true);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this, 
+                    "Error loading patient: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        
+        /**
+         * Delete a patient
+         */
+        private void deletePatient(int patientId) {
+            // Confirm deletion
+            int confirm = JOptionPane.showConfirmDialog(this, 
+                "Are you sure you want to delete this patient?", 
+                "Confirm Deletion", JOptionPane.YES_NO_OPTION);
+            
+            if (confirm == JOptionPane.YES_OPTION) {
+                // Delete patient in the background
+                writeTasks.submit(() -> patientService.deletePatient(patientId),
+                    success -> {
+                        if (success) {
+                            // Refresh data
+                            refreshData();
+                            
+                            // Show success message
+                            JOptionPane.showMessageDialog(this, 
+                                "Patient deleted successfully", 
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this, 
+                                "Failed to delete patient", 
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    e -> JOptionPane.showMessageDialog(this, 
+                        "Error deleting patient: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE));
+            }
+        }
+    }
+
+    /**
+     * Panel for managing patient diseases
+     */
+    static class PatientDiseasePanel extends AnimatedPanel {
+        private static final String[] TABLE_COLUMNS = {"ID", "Disease", "Diagnosis Date", "Status", "Notes"};
+        
+        private final MainFrame mainFrame;
+        private final DiseaseService diseaseService;
+        private final PatientService patientService;
+    
+        private Patient currentPatient;
+        private JLabel patientLabel;
+        private JTable diseaseTable;
+        private DefaultTableModel tableModel;
+        private List<PatientDiagnosisRow> diagnosisRows = new ArrayList<>();
+        
+        // Background work; stale tasks are cancelled when superseded or the panel is hidden
+        private final BusyIndicator busyIndicator = new BusyIndicator();
+        private final TaskSlot loadTask = new TaskSlot(busyIndicator);
+        private final TaskSlot dialogTask = new TaskSlot(busyIndicator);
+        private final WriteTasks writeTasks = new WriteTasks(busyIndicator);
+    
+        public PatientDiseasePanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+            this.diseaseService = new DiseaseService();
+            this.patientService = new PatientService();
+        
+            initializeUI();
+            
+            // Cancel in-flight queries when the user navigates away
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentHidden(ComponentEvent e) {
+                    loadTask.cancel();
+                    dialogTask.cancel();
+                }
+            });
+        }
+    
+        /**
+         * Initialize the UI components
+         */
+        private void initializeUI() {
+            setLayout(new BorderLayout());
+            setBackground(ColorScheme.BACKGROUND);
+        
+            // Create title panel
+            JPanel titlePanel = new JPanel(new BorderLayout());
+            titlePanel.setBackground(ColorScheme.BACKGROUND);
+            titlePanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+            JLabel titleLabel = new JLabel("Patient Diseases");
+            titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+            titleLabel.setForeground(ColorScheme.TEXT);
+        
+            patientLabel = new JLabel();
+            patientLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+            patientLabel.setForeground(ColorScheme.TEXT);
+        
+            titlePanel.add(titleLabel, BorderLayout.WEST);
+            titlePanel.add(patientLabel, BorderLayout.EAST);
+        
+            // Create button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        
+            AnimatedButton addButton = new AnimatedButton("Add Disease");
+            addButton.addActionListener(e -> showAddDiseaseDialog());
+        
+            AnimatedButton removeButton = new AnimatedButton("Remove Disease");
+            removeButton.addActionListener(e -> {
+                int selectedRow = diseaseTable.getSelectedRow();
+                if (selectedRow >= 0) {
+                    int patientDiseaseId = (int) tableModel.getValueAt(selectedRow, 0);
+                    removeDiseaseFromPatient(patientDiseaseId);
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Please select a disease to remove", 
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                }
+            });
+        
+            AnimatedButton detailsButton = new AnimatedButton("Disease Details");
+            detailsButton.addActionListener(e -> {
+                int selectedRow = diseaseTable.getSelectedRow();
+                if (selectedRow >= 0) {
+                    showDiseaseDetails(diagnosisRows.get(diseaseTable.convertRowIndexToModel(selectedRow)));
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Please select a disease to view", 
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                }
+            });
+        
+            AnimatedButton backButton = new AnimatedButton("Back to Patients");
+            backButton.addActionListener(e -> mainFrame.showPatientPanel());
+        
+            buttonPanel.add(addButton);
+            buttonPanel.add(removeButton);
+            buttonPanel.add(detailsButton);
+            buttonPanel.add(backButton);
+            buttonPanel.add(busyIndicator);
+        
+            // Create table panel
+            JPanel tablePanel = new JPanel(new BorderLayout());
+            tablePanel.setBackground(ColorScheme.BACKGROUND);
+            tablePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        
+            // Create table model with columns
+            tableModel = new DefaultTableModel(TABLE_COLUMNS, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false; // Make table non-editable
+                }
+            
+                @Override
+                public Class<?> getColumnClass(int columnIndex) {
+                    if (columnIndex == 0) {
+                        return Integer.class; // ID column is integer
+                    }
+                    return String.class;
+                }
+            };
+        
+            // Create table
+            diseaseTable = new CustomTable(tableModel);
+            diseaseTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        
+            // Add table to scroll pane
+            JScrollPane scrollPane = new JScrollPane(diseaseTable);
+            scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
+        
+            tablePanel.add(scrollPane, BorderLayout.CENTER);
+        
+            // Stack title and buttons above the table
+            JPanel headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(ColorScheme.BACKGROUND);
+            headerPanel.add(titlePanel, BorderLayout.NORTH);
+            headerPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+            // Add components to main panel
+            add(headerPanel, BorderLayout.NORTH);
+            add(tablePanel, BorderLayout.CENTER);
+        }
+    
+        /**
+         * Set the current patient and load their diseases
+         */
+        public void setPatient(Patient patient) {
+            this.currentPatient = patient;
+        
+            // Update patient label
+            patientLabel.setText("Patient: " + patient.getFirstName() + " " + patient.getLastName());
+        
+            // Load patient diseases
+            loadPatientDiseases();
+        }
+    
+        /**
+         * Load diseases for the current patient
+         */
+        private void loadPatientDiseases() {
+            // Clear existing data
+            tableModel.setRowCount(0);
+            diagnosisRows = new ArrayList<>();
+            
+            int patientId = currentPatient.getPatientId();
+            
+            // Render straight away when the diagnoses are cached, e.g. by a prefetch
+            List<PatientDiagnosisRow> cached = diseaseService.getCachedDiseasesForPatient(patientId);
+            if (cached != null) {
+                loadTask.cancel();
+                showDiagnoses(cached);
+                return;
+            }
+            
+            loadTask.submit(() -> diseaseService.getDiseasesForPatient(patientId),
+                this::showDiagnoses,
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading patient diseases: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        /**
+         * Fill the table with a patient's diagnoses
+         */
+        private void showDiagnoses(List<PatientDiagnosisRow> patientDiseases) {
+            // Build all rows first and hand them to the model in one batch
+            Vector<Vector<Object>> rows = new Vector<>(patientDiseases.size());
+            for (PatientDiagnosisRow diagnosis : patientDiseases) {
+                Vector<Object> row = new Vector<>(TABLE_COLUMNS.length);
+                row.add(diagnosis.patientDiseaseId());
+                row.add(diagnosis.diseaseName());
+                row.add(diagnosis.diagnosisDate() == null ? "" : diagnosis.diagnosisDate().toLocalDate().toString());
+                row.add(diagnosis.status());
+                row.add(diagnosis.notes());
+                rows.add(row);
+            }
+            diagnosisRows = patientDiseases;
+            tableModel.setDataVector(rows, new Vector<>(Arrays.asList(TABLE_COLUMNS)));
+        }
+    
+        /**
+         * Show the description, symptoms and treatment of a diagnosed disease,
+         * which the table rows do not carry
+         */
+        private void showDiseaseDetails(PatientDiagnosisRow diagnosis) {
+            dialogTask.submit(() -> diseaseService.getDiseaseById(diagnosis.diseaseId()),
+                disease -> {
+                    if (disease == null) {
+                        JOptionPane.showMessageDialog(this, 
+                            "Disease not found", 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    JTextArea detailsArea = new JTextArea(
+                        "Description:\n" + Objects.toString(disease.getDescription(), "") +
+                        "\n\nSymptoms:\n" + Objects.toString(disease.getSymptoms(), "") +
+                        "\n\nTreatment:\n" + Objects.toString(disease.getTreatment(), ""), 12, 40);
+                    detailsArea.setEditable(false);
+                    detailsArea.setLineWrap(true);
+                    detailsArea.setWrapStyleWord(true);
+                    JOptionPane.showMessageDialog(this, new JScrollPane(detailsArea), 
+                        disease.getName(), JOptionPane.INFORMATION_MESSAGE);
+                },
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading disease: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+    
+        /**
+         * Show dialog to add a disease to the patient
+         */
+        private void showAddDiseaseDialog() {
+            // Open straight away when the catalog is cached
+            List<Disease> cached = diseaseService.getCachedDiseases();
+            if (cached != null) {
+                showAddDiseaseDialog(cached);
+                return;
+            }
+            
+            dialogTask.submit(diseaseService::getAllDiseases,
+                this::showAddDiseaseDialog,
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading diseases: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        /**
+         * Show dialog to add one of the given diseases to the patient
+         */
+        private void showAddDiseaseDialog(List<Disease> diseases) {
+            try {
+                if (diseases.isEmpty()) {
+                    JOptionPane.showMessageDialog(this, 
+                        "No diseases available. Please add diseases first.", 
+                        "No Diseases", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+            
+                // Create dialog
+                JDialog dialog = new JDialog(mainFrame, "Add Disease to Patient", true);
+                dialog.setSize(500, 400);
+                dialog.setLocationRelativeTo(mainFrame);
+                dialog.setLayout(new BorderLayout());
+            
+                // Create form panel
+                JPanel formPanel = new JPanel(new GridBagLayout());
+                formPanel.setBackground(ColorScheme.BACKGROUND);
+                formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+                GridBagConstraints gbc = new GridBagConstraints();
+                gbc.insets = new Insets(5, 5, 5, 5);
+                gbc.anchor = GridBagConstraints.WEST;
+            
+                // Disease
+                gbc.gridx = 0;
+                gbc.gridy = 0;
+                JLabel diseaseLabel = new JLabel("Disease:");
+                diseaseLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(diseaseLabel, gbc);
+            
                 gbc.gridx = 1;
-                JTextField contactField = new JTextField(20);
-                contactField.setText(patient.getContactNumber());
-                formPanel.add(contactField, gbc);
-                
-                // Email
+                JComboBox<Disease> diseaseComboBox = new JComboBox<>(diseases.toArray(new Disease[0]));
+                formPanel.add(diseaseComboBox, gbc);
+            
+                // Status
                 gbc.gridx = 0;
-                gbc.gridy = 5;
-                JLabel emailLabel = new JLabel("Email:");
-                emailLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(emailLabel, gbc);
-                
+                gbc.gridy = 1;
+                JLabel statusLabel = new JLabel("Status:");
+                statusLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(statusLabel, gbc);
+            
                 gbc.gridx = 1;
-                JTextField emailField = new JTextField(20);
-                emailField.setText(patient.getEmail());
-                formPanel.add(emailField, gbc);
-                
-                // Address
+                String[] statuses = {"Active", "Recovered", "Chronic", "In Treatment"};
+                JComboBox<String> statusComboBox = new JComboBox<>(statuses);
+                formPanel.add(statusComboBox, gbc);
+            
+                // Notes
                 gbc.gridx = 0;
-                gbc.gridy = 6;
-                JLabel addressLabel = new JLabel("Address:");
-                addressLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(addressLabel, gbc);
-                
-                gbc.gridx = 1;
-                JTextArea addressArea = new JTextArea(3, 20);
-                addressArea.setText(patient.getAddress());
-                JScrollPane addressScrollPane = new JScrollPane(addressArea);
-                formPanel.add(addressScrollPane, gbc);
-                
-                // Button panel
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-                buttonPanel.setBackground(ColorScheme.BACKGROUND);
-                
-                AnimatedButton saveButton = new AnimatedButton("Save");
-                saveButton.addActionListener(new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        try {
-                            // Validate and parse input
-                            String firstName = firstNameField.getText().trim();
-                            String lastName = lastNameField.getText().trim();
-                            String dobString = dobField.getText().trim();
-                            String gender = (String) genderComboBox.getSelectedItem();
-                            String contact = contactField.getText().trim();
-                            String email = emailField.getText().trim();
-                            String address = addressArea.getText().trim();
-                            
-                            // Validate required fields
-                            if (firstName.isEmpty() || lastName.isEmpty() || dobString.isEmpty()) {
-                                JOptionPane.showMessageDialog(dialog, 
-                                    "First name, last name, and date of birth are required", 
-                                    "Validation Error", JOptionPane.ERROR_MESSAGE);
-                                return;
-                            }
-                            
-                            // Parse date of birth
-                            Date dob;
-                            try {
-                                dob = dateFormat.parse(dobString);
-                            } catch (Exception ex) {
-                                JOptionPane.showMessageDialog(dialog, 
-                                    "Invalid date format. Please use yyyy-MM-dd", 
-                                    "Validation Error", JOptionPane.ERROR_MESSAGE);
-                                return;
-                            }
-                            
-                            // Update patient object
-                            patient.setFirstName(firstName);
-                            patient.setLastName(lastName);
-                            patient.setDateOfBirth(dob);
-                            patient.setGender(gender);
-                            patient.setContactNumber(contact);
-                            patient.setEmail(email);
-                            patient.setAddress(address);
-                            
-                            // Save patient
-                            patientService.updatePatient(patient);
-                            
-                            // Close dialog
-                            dialog.dispose();
-                            
+                gbc.gridy = 2;
+                JLabel notesLabel = new JLabel("Notes:");
+                notesLabel.setForeground(ColorScheme.TEXT);
+                formPanel.add(notesLabel, gbc);
+            
+                gbc.gridx = 1;
+                JTextArea notesArea = new JTextArea(5, 20);
+                JScrollPane notesScrollPane = new JScrollPane(notesArea);
+                formPanel.add(notesScrollPane, gbc);
+            
+                // Button panel
+                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+                buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            
+                AnimatedButton saveButton = new AnimatedButton("Save");
+                saveButton.addActionListener(new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        try {
+                            // Get selected disease
+                            Disease selectedDisease = (Disease) diseaseComboBox.getSelectedItem();
+                            String status = (String) statusComboBox.getSelectedItem();
+                            String notes = notesArea.getText().trim();
+                        
+                            // Create patient disease
+                            PatientDisease patientDisease = new PatientDisease(
+                                currentPatient.getPatientId(),
+                                selectedDisease.getDiseaseId(),
+                                notes,
+                                status
+                            );
+                        
+                            // Save patient disease in the background
+                            saveButton.setEnabled(false);
+                            writeTasks.submit(() -> diseaseService.addDiseaseToPatient(patientDisease),
+                                saved -> {
+                                    // Close dialog
+                                    dialog.dispose();
+                                    
+                                    // Refresh data
+                                    loadPatientDiseases();
+                                    
+                                    // Show success message
+                                    JOptionPane.showMessageDialog(mainFrame, 
+                                        "Disease added to patient successfully", 
+                                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                                },
+                                ex -> {
+                                    saveButton.setEnabled(true);
+                                    JOptionPane.showMessageDialog(dialog, 
+                                        "Error adding disease to patient: " + ex.getMessage(), 
+                                        "Error", JOptionPane.ERROR_MESSAGE);
+                                });
+                        } catch (Exception ex) {
+                            JOptionPane.showMessageDialog(dialog, 
+                                "Error adding disease to patient: " + ex.getMessage(), 
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }
+                });
+            
+                AnimatedButton cancelButton = new AnimatedButton("Cancel");
+                cancelButton.addActionListener(e -> dialog.dispose());
+            
+                buttonPanel.add(saveButton);
+                buttonPanel.add(cancelButton);
+            
+                // Add panels to dialog
+                dialog.add(formPanel, BorderLayout.CENTER);
+                dialog.add(buttonPanel, BorderLayout.SOUTH);
+            
+                // Show dialog
+                dialog.setVisible(true);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this, 
+                    "Error loading diseases: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    
+        /**
+         * Remove a disease from the patient
+         */
+        private void removeDiseaseFromPatient(int patientDiseaseId) {
+            // Confirm deletion
+            int confirm = JOptionPane.showConfirmDialog(this, 
+                "Are you sure you want to remove this disease from the patient?", 
+                "Confirm Removal", JOptionPane.YES_NO_OPTION);
+            
+            if (confirm == JOptionPane.YES_OPTION) {
+                // Remove disease in the background
+                writeTasks.submit(() -> diseaseService.removeDiseaseFromPatient(patientDiseaseId),
+                    success -> {
+                        if (success) {
                             // Refresh data
-                            refreshData();
+                            loadPatientDiseases();
                             
                             // Show success message
-                            JOptionPane.showMessageDialog(mainFrame, 
-                                "Patient updated successfully", 
+                            JOptionPane.showMessageDialog(this, 
+                                "Disease removed from patient successfully", 
                                 "Success", JOptionPane.INFORMATION_MESSAGE);
-                        } catch (Exception ex) {
-                            JOptionPane.showMessageDialog(dialog, 
-                                "Error updating patient: " + ex.getMessage(), 
+                        } else {
+                            JOptionPane.showMessageDialog(this, 
+                                "Failed to remove disease from patient", 
                                 "Error", JOptionPane.ERROR_MESSAGE);
                         }
+                    },
+                    e -> JOptionPane.showMessageDialog(this, 
+                        "Error removing disease from patient: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE));
+            }
+        }
+    }
+    
+    /**
+     * Panel showing a patient's appointments, medical records and diagnoses
+     * as one history, newest first. Pages are fetched on demand as the table
+     * is scrolled towards its end.
+     */
+    static class PatientHistoryPanel extends AnimatedPanel {
+        private static final String[] TABLE_COLUMNS = {"When", "Type", "Event", "Details"};
+        private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        
+        private static final int PAGE_SIZE = Integer.getInteger("hms.history.pageSize", 50);
+        // Start fetching the next page when fewer than this many rows remain below the viewport
+        private static final int PREFETCH_ROWS = 20;
+        
+        private final MainFrame mainFrame;
+        private final PatientHistoryService historyService;
+        
+        private Patient currentPatient;
+        private JLabel patientLabel;
+        private JTable historyTable;
+        private JScrollPane scrollPane;
+        private DefaultTableModel tableModel;
+        private final List<PatientHistoryEntry> entries = new ArrayList<>();
+        // Cursor of the next page; null once the oldest event has been loaded
+        private String nextCursor;
+        private boolean pageLoading;
+        
+        // Background work; stale tasks are cancelled when superseded or the panel is hidden
+        private final BusyIndicator busyIndicator = new BusyIndicator();
+        private final TaskSlot pageTask = new TaskSlot(busyIndicator);
+        
+        public PatientHistoryPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+            this.historyService = new PatientHistoryService();
+            
+            initializeUI();
+            
+            // Cancel in-flight queries when the user navigates away
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentHidden(ComponentEvent e) {
+                    pageTask.cancel();
+                    pageLoading = false;
+                }
+            });
+        }
+        
+        /**
+         * Initialize the UI components
+         */
+        private void initializeUI() {
+            setLayout(new BorderLayout());
+            setBackground(ColorScheme.BACKGROUND);
+            
+            // Create title panel
+            JPanel titlePanel = new JPanel(new BorderLayout());
+            titlePanel.setBackground(ColorScheme.BACKGROUND);
+            titlePanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            JLabel titleLabel = new JLabel("Patient History");
+            titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+            titleLabel.setForeground(ColorScheme.TEXT);
+            
+            patientLabel = new JLabel();
+            patientLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+            patientLabel.setForeground(ColorScheme.TEXT);
+            
+            titlePanel.add(titleLabel, BorderLayout.WEST);
+            titlePanel.add(patientLabel, BorderLayout.EAST);
+            
+            // Create button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            AnimatedButton diseasesButton = new AnimatedButton("View Diseases");
+            diseasesButton.addActionListener(e -> mainFrame.showPatientDiseasePanel(currentPatient));
+            
+            AnimatedButton recordsButton = new AnimatedButton("Medical Records");
+            recordsButton.addActionListener(e -> mainFrame.showMedicalRecordPanel(currentPatient));
+            
+            AnimatedButton refreshButton = new AnimatedButton("Refresh");
+            refreshButton.addActionListener(e -> reloadHistory());
+            
+            AnimatedButton backButton = new AnimatedButton("Back to Patients");
+            backButton.addActionListener(e -> mainFrame.showPatientPanel());
+            
+            buttonPanel.add(diseasesButton);
+            buttonPanel.add(recordsButton);
+            buttonPanel.add(refreshButton);
+            buttonPanel.add(backButton);
+            buttonPanel.add(busyIndicator);
+            
+            // Create table panel
+            JPanel tablePanel = new JPanel(new BorderLayout());
+            tablePanel.setBackground(ColorScheme.BACKGROUND);
+            tablePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            // Create table model with columns
+            tableModel = new DefaultTableModel(TABLE_COLUMNS, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false; // Make table non-editable
+                }
+            };
+            
+            // Create table
+            historyTable = new CustomTable(tableModel);
+            historyTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            
+            // Add table to scroll pane, loading more events as the end comes into view
+            scrollPane = new JScrollPane(historyTable);
+            scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadMoreIfNeeded());
+            
+            tablePanel.add(scrollPane, BorderLayout.CENTER);
+            
+            // Stack title and buttons above the table
+            JPanel headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(ColorScheme.BACKGROUND);
+            headerPanel.add(titlePanel, BorderLayout.NORTH);
+            headerPanel.add(buttonPanel, BorderLayout.SOUTH);
+            
+            // Add components to main panel
+            add(headerPanel, BorderLayout.NORTH);
+            add(tablePanel, BorderLayout.CENTER);
+        }
+        
+        /**
+         * Set the current patient and load the newest page of their history
+         */
+        public void setPatient(Patient patient) {
+            this.currentPatient = patient;
+            
+            // Update patient label
+            patientLabel.setText("Patient: " + patient.getFirstName() + " " + patient.getLastName());
+            
+            reloadHistory();
+        }
+        
+        /**
+         * Drop the loaded events and start again from the newest one
+         */
+        private void reloadHistory() {
+            pageTask.cancel();
+            entries.clear();
+            tableModel.setRowCount(0);
+            nextCursor = null;
+            
+            loadPage(null);
+        }
+        
+        /**
+         * Fetch the next page when the viewport is close to the last loaded row
+         */
+        private void loadMoreIfNeeded() {
+            if (nextCursor == null || pageLoading) {
+                return;
+            }
+            
+            JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+            int remaining = scrollBar.getMaximum() - (scrollBar.getValue() + scrollBar.getVisibleAmount());
+            if (remaining <= PREFETCH_ROWS * historyTable.getRowHeight()) {
+                loadPage(nextCursor);
+            }
+        }
+        
+        /**
+         * Load one page of history and append it to the table
+         */
+        private void loadPage(String cursor) {
+            pageLoading = true;
+            int patientId = currentPatient.getPatientId();
+            pageTask.submit(() -> historyService.getHistoryPage(patientId, cursor, PAGE_SIZE),
+                page -> {
+                    pageLoading = false;
+                    appendEntries(page.getItems());
+                    nextCursor = page.getNextCursor();
+                    
+                    // A page that does not fill the viewport cannot be scrolled; keep going
+                    SwingUtilities.invokeLater(this::loadMoreIfNeeded);
+                },
+                e -> {
+                    pageLoading = false;
+                    JOptionPane.showMessageDialog(this, 
+                        "Error loading patient history: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                });
+        }
+        
+        /**
+         * Append events to the table in one batch
+         */
+        @SuppressWarnings("unchecked")
+        private void appendEntries(List<PatientHistoryEntry> page) {
+            if (page.isEmpty()) {
+                return;
+            }
+            
+            int firstRow = entries.size();
+            for (PatientHistoryEntry entry : page) {
+                LocalDateTime time = new Timestamp(entry.timeMillis()).toLocalDateTime();
+                Vector<Object> row = new Vector<>(TABLE_COLUMNS.length);
+                // Medical records are dated without a time of day
+                row.add(entry.source() == HistorySource.MEDICAL_RECORD
+                        ? time.toLocalDate().toString() : TIME_FORMAT.format(time));
+                row.add(entry.source().toString());
+                row.add(entry.title());
+                row.add(entry.detail());
+                ((Vector<Vector<Object>>) (Vector<?>) tableModel.getDataVector()).add(row);
+            }
+            entries.addAll(page);
+            tableModel.fireTableRowsInserted(firstRow, entries.size() - 1);
+        }
+    }
+    
+    /**
+     * Panel showing a patient's medical records as a timeline, newest first.
+     * Pages are fetched on demand as the table is scrolled towards its end.
+     */
+    static class MedicalRecordPanel extends AnimatedPanel {
+        private static final String[] TABLE_COLUMNS = {"ID", "Date", "Doctor", "Diagnosis", "Treatment"};
+        private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+        
+        private static final int PAGE_SIZE = Integer.getInteger("hms.records.pageSize", 50);
+        // Start fetching the next page when fewer than this many rows remain below the viewport
+        private static final int PREFETCH_ROWS = 20;
+        
+        private final MainFrame mainFrame;
+        private final MedicalRecordService medicalRecordService;
+        private final DoctorService doctorService;
+        
+        private Patient currentPatient;
+        private JLabel patientLabel;
+        private JLabel countLabel;
+        private JTable recordTable;
+        private JScrollPane scrollPane;
+        private DefaultTableModel tableModel;
+        private final List<MedicalRecord> records = new ArrayList<>();
+        // Cursor of the next page; null once the oldest record has been loaded
+        private String nextCursor;
+        private boolean pageLoading;
+        
+        // Background work; stale tasks are cancelled when superseded or the panel is hidden
+        private final BusyIndicator busyIndicator = new BusyIndicator();
+        private final TaskSlot pageTask = new TaskSlot(busyIndicator);
+        private final TaskSlot countTask = new TaskSlot(busyIndicator);
+        private final TaskSlot dialogTask = new TaskSlot(busyIndicator);
+        private final WriteTasks writeTasks = new WriteTasks(busyIndicator);
+        
+        public MedicalRecordPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+            this.medicalRecordService = new MedicalRecordService();
+            this.doctorService = new DoctorService();
+            
+            initializeUI();
+            
+            // Cancel in-flight queries when the user navigates away
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentHidden(ComponentEvent e) {
+                    pageTask.cancel();
+                    countTask.cancel();
+                    dialogTask.cancel();
+                    pageLoading = false;
+                }
+            });
+        }
+        
+        /**
+         * Initialize the UI components
+         */
+        private void initializeUI() {
+            setLayout(new BorderLayout());
+            setBackground(ColorScheme.BACKGROUND);
+            
+            // Create title panel
+            JPanel titlePanel = new JPanel(new BorderLayout());
+            titlePanel.setBackground(ColorScheme.BACKGROUND);
+            titlePanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            JLabel titleLabel = new JLabel("Medical Records");
+            titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+            titleLabel.setForeground(ColorScheme.TEXT);
+            
+            patientLabel = new JLabel();
+            patientLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+            patientLabel.setForeground(ColorScheme.TEXT);
+            
+            titlePanel.add(titleLabel, BorderLayout.WEST);
+            titlePanel.add(patientLabel, BorderLayout.EAST);
+            
+            // Create button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            AnimatedButton addButton = new AnimatedButton("Add Record");
+            addButton.addActionListener(e -> showAddRecordDialog());
+            
+            AnimatedButton viewButton = new AnimatedButton("View Record");
+            viewButton.addActionListener(e -> {
+                int selectedRow = recordTable.getSelectedRow();
+                if (selectedRow >= 0) {
+                    showRecordDetails(records.get(recordTable.convertRowIndexToModel(selectedRow)));
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Please select a record to view", 
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                }
+            });
+            
+            AnimatedButton backButton = new AnimatedButton("Back to Patients");
+            backButton.addActionListener(e -> mainFrame.showPatientPanel());
+            
+            countLabel = new JLabel();
+            countLabel.setForeground(ColorScheme.TEXT);
+            
+            buttonPanel.add(addButton);
+            buttonPanel.add(viewButton);
+            buttonPanel.add(backButton);
+            buttonPanel.add(countLabel);
+            buttonPanel.add(busyIndicator);
+            
+            // Create table panel
+            JPanel tablePanel = new JPanel(new BorderLayout());
+            tablePanel.setBackground(ColorScheme.BACKGROUND);
+            tablePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            // Create table model with columns
+            tableModel = new DefaultTableModel(TABLE_COLUMNS, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false; // Make table non-editable
+                }
+                
+                @Override
+                public Class<?> getColumnClass(int columnIndex) {
+                    if (columnIndex == 0) {
+                        return Integer.class; // ID column is integer
                     }
+                    return String.class;
+                }
+            };
+            
+            // Create table
+            recordTable = new CustomTable(tableModel);
+            recordTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            
+            // Add table to scroll pane, loading more records as the end comes into view
+            scrollPane = new JScrollPane(recordTable);
+            scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadMoreIfNeeded());
+            
+            tablePanel.add(scrollPane, BorderLayout.CENTER);
+            
+            // Stack title and buttons above the table
+            JPanel headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(ColorScheme.BACKGROUND);
+            headerPanel.add(titlePanel, BorderLayout.NORTH);
+            headerPanel.add(buttonPanel, BorderLayout.SOUTH);
+            
+            // Add components to main panel
+            add(headerPanel, BorderLayout.NORTH);
+            add(tablePanel, BorderLayout.CENTER);
+        }
+        
+        /**
+         * Set the current patient and load the newest page of their records
+         */
+        public void setPatient(Patient patient) {
+            this.currentPatient = patient;
+            
+            // Update patient label
+            patientLabel.setText("Patient: " + patient.getFirstName() + " " + patient.getLastName());
+            
+            reloadRecords();
+        }
+        
+        /**
+         * Drop the loaded records and start again from the newest one
+         */
+        private void reloadRecords() {
+            pageTask.cancel();
+            records.clear();
+            tableModel.setRowCount(0);
+            nextCursor = null;
+            pageLoading = false;
+            countLabel.setText("");
+            
+            loadPage(null);
+            
+            // The total is only informational, so it loads alongside the first page
+            int patientId = currentPatient.getPatientId();
+            countTask.submit(() -> medicalRecordService.countRecords(patientId),
+                count -> countLabel.setText(count + " records"),
+                e -> countLabel.setText(""));
+        }
+        
+        /**
+         * Fetch the next page when the viewport is close to the last loaded row
+         */
+        private void loadMoreIfNeeded() {
+            if (nextCursor == null || pageLoading) {
+                return;
+            }
+            
+            JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+            int remaining = scrollBar.getMaximum() - (scrollBar.getValue() + scrollBar.getVisibleAmount());
+            if (remaining <= PREFETCH_ROWS * recordTable.getRowHeight()) {
+                loadPage(nextCursor);
+            }
+        }
+        
+        /**
+         * Load one page of records and append it to the table
+         */
+        private void loadPage(String cursor) {
+            pageLoading = true;
+            int patientId = currentPatient.getPatientId();
+            pageTask.submit(() -> medicalRecordService.getTimelinePage(patientId, cursor, PAGE_SIZE),
+                page -> {
+                    pageLoading = false;
+                    appendRecords(page.getItems());
+                    nextCursor = page.getNextCursor();
+                    
+                    // A page that does not fill the viewport cannot be scrolled; keep going
+                    SwingUtilities.invokeLater(this::loadMoreIfNeeded);
+                },
+                e -> {
+                    pageLoading = false;
+                    JOptionPane.showMessageDialog(this, 
+                        "Error loading medical records: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
                 });
-                
-                AnimatedButton cancelButton = new AnimatedButton("Cancel");
-                cancelButton.addActionListener(e -> dialog.dispose());
-                
-                buttonPanel.add(saveButton);
-                buttonPanel.add(cancelButton);
-                
-                // Add panels to dialog
-                dialog.add(formPanel, BorderLayout.CENTER);
-                dialog.add(buttonPanel, BorderLayout.SOUTH);
-                
-                // Show dialog
-                dialog.setVisible(true);
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading patient: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        
+        /**
+         * Append records to the table in one batch
+         */
+        @SuppressWarnings("unchecked")
+        private void appendRecords(List<MedicalRecord> page) {
+            if (page.isEmpty()) {
+                return;
+            }
+            
+            int firstRow = records.size();
+            for (MedicalRecord record : page) {
+                Vector<Object> row = new Vector<>(TABLE_COLUMNS.length);
+                row.add(record.getRecordId());
+                row.add(formatDate(record.getRecordDate()));
+                row.add(record.getDoctorName() == null ? "Unknown" : "Dr. " + record.getDoctorName());
+                row.add(firstLine(record.getDiagnosis()));
+                row.add(firstLine(record.getTreatment()));
+                ((Vector<Vector<Object>>) (Vector<?>) tableModel.getDataVector()).add(row);
             }
+            records.addAll(page);
+            tableModel.fireTableRowsInserted(firstRow, records.size() - 1);
         }
         
         /**
-         * Delete a patient
+         * Show the full text of a record
          */
-        private void deletePatient(int patientId) {
-            try {
-                // Confirm deletion
-                int confirm = JOptionPane.showConfirmDialog(this, 
-                    "Are you sure you want to delete this patient?", 
-                    "Confirm Deletion", JOptionPane.YES_NO_OPTION);
+        private void showRecordDetails(MedicalRecord record) {
+            JTextArea detailsArea = new JTextArea(
+                "Date: " + formatDate(record.getRecordDate()) +
+                "\nDoctor: " + (record.getDoctorName() == null ? "Unknown" : "Dr. " + record.getDoctorName()) +
+                "\n\nDiagnosis:\n" + Objects.toString(record.getDiagnosis(), "") +
+                "\n\nTreatment:\n" + Objects.toString(record.getTreatment(), "") +
+                "\n\nNotes:\n" + Objects.toString(record.getNotes(), ""), 16, 40);
+            detailsArea.setEditable(false);
+            detailsArea.setLineWrap(true);
+            detailsArea.setWrapStyleWord(true);
+            JOptionPane.showMessageDialog(this, new JScrollPane(detailsArea), 
+                "Medical Record #" + record.getRecordId(), JOptionPane.INFORMATION_MESSAGE);
+        }
+        
+        /**
+         * Show dialog to add a medical record to the patient
+         */
+        private void showAddRecordDialog() {
+            dialogTask.submit(doctorService::getAllDoctors,
+                this::showAddRecordDialog,
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading doctors: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        /**
+         * Show dialog to add a record written by one of the given doctors
+         */
+        private void showAddRecordDialog(List<Doctor> doctors) {
+            if (doctors.isEmpty()) {
+                JOptionPane.showMessageDialog(this, 
+                    "No doctors available.", 
+                    "No Doctors", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            JDialog dialog = new JDialog(mainFrame, "Add Medical Record", true);
+            dialog.setSize(500, 480);
+            dialog.setLocationRelativeTo(mainFrame);
+            dialog.setLayout(new BorderLayout());
+            
+            // Create form panel
+            JPanel formPanel = new JPanel(new GridBagLayout());
+            formPanel.setBackground(ColorScheme.BACKGROUND);
+            formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(5, 5, 5, 5);
+            gbc.anchor = GridBagConstraints.WEST;
+            
+            JComboBox<Doctor> doctorComboBox = new JComboBox<>(doctors.toArray(new Doctor[0]));
+            JTextField dateField = new JTextField(DAY_FORMAT.format(LocalDate.now()), 10);
+            JTextArea diagnosisArea = new JTextArea(4, 20);
+            JTextArea treatmentArea = new JTextArea(4, 20);
+            JTextArea notesArea = new JTextArea(4, 20);
+            
+            String[] labels = {"Doctor:", "Date (YYYY-MM-DD):", "Diagnosis:", "Treatment:", "Notes:"};
+            JComponent[] fields = {doctorComboBox, dateField, new JScrollPane(diagnosisArea),
+                    new JScrollPane(treatmentArea), new JScrollPane(notesArea)};
+            for (int i = 0; i < labels.length; i++) {
+                gbc.gridx = 0;
+                gbc.gridy = i;
+                JLabel label = new JLabel(labels[i]);
+                label.setForeground(ColorScheme.TEXT);
+                formPanel.add(label, gbc);
                 
-                if (confirm == JOptionPane.YES_OPTION) {
-                    // Delete patient
-                    boolean success = patientService.deletePatient(patientId);
-                    
-                    if (success) {
-                        // Refresh data
-                        refreshData();
+                gbc.gridx = 1;
+                formPanel.add(fields[i], gbc);
+            }
+            
+            // Button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton saveButton = new AnimatedButton("Save");
+            saveButton.addActionListener(e -> {
+                LocalDate recordDate;
+                try {
+                    recordDate = LocalDate.parse(dateField.getText().trim(), DAY_FORMAT);
+                } catch (java.time.format.DateTimeParseException ex) {
+                    JOptionPane.showMessageDialog(dialog, 
+                        "Invalid date format. Please use YYYY-MM-DD", 
+                        "Invalid Record", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                
+                Doctor doctor = (Doctor) doctorComboBox.getSelectedItem();
+                MedicalRecord record = new MedicalRecord(
+                    currentPatient.getPatientId(),
+                    doctor.getDoctorId(),
+                    java.sql.Date.valueOf(recordDate),
+                    diagnosisArea.getText().trim(),
+                    treatmentArea.getText().trim(),
+                    notesArea.getText().trim()
+                );
+                
+                // Save record in the background
+                saveButton.setEnabled(false);
+                writeTasks.submit(() -> medicalRecordService.addRecord(record),
+                    saved -> {
+                        dialog.dispose();
                         
-                        // Show success message
-                        JOptionPane.showMessageDialog(this, 
-                            "Patient deleted successfully", 
+                        // The new record may belong anywhere in the timeline, so start over
+                        reloadRecords();
+                        
+                        JOptionPane.showMessageDialog(mainFrame, 
+                            "Medical record added successfully", 
                             "Success", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(this, 
-                            "Failed to delete patient", 
+                    },
+                    ex -> {
+                        saveButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(dialog, 
+                            "Error adding medical record: " + ex.getMessage(), 
                             "Error", JOptionPane.ERROR_MESSAGE);
-                    }
-                }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error deleting patient: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+                    });
+            });
+            
+            AnimatedButton cancelButton = new AnimatedButton("Cancel");
+            cancelButton.addActionListener(e -> dialog.dispose());
+            
+            buttonPanel.add(saveButton);
+            buttonPanel.add(cancelButton);
+            
+            // Add panels to dialog
+            dialog.add(formPanel, BorderLayout.CENTER);
+            dialog.add(buttonPanel, BorderLayout.SOUTH);
+            
+            // Show dialog
+            dialog.setVisible(true);
+        }
+        
+        private static String formatDate(Date date) {
+            return date == null ? "" : new java.sql.Date(date.getTime()).toLocalDate().toString();
+        }
+        
+        private static String firstLine(String text) {
+            if (text == null) {
+                return "";
             }
+            int newline = text.indexOf('\n');
+            return newline < 0 ? text : text.substring(0, newline) + " ...";
         }
     }
-
+    
     /**
-     * Panel for managing patient diseases
+     * Appointment scheduling panel showing one day's appointments
      */
-    static class PatientDiseasePanel extends AnimatedPanel {
+    static class AppointmentPanel extends AnimatedPanel {
+        private static final String[] TABLE_COLUMNS = {"ID", "Time", "Minutes", "Patient ID", "Doctor ID", "Status", "Purpose"};
+        private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+        private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+        
+        private static final int SLOT_SEARCH_DAYS = 7;
+        private static final int SLOT_SEARCH_RESULTS = 20;
+        
         private final MainFrame mainFrame;
-        private final DiseaseService diseaseService;
-        private final PatientService patientService;
-    
-        private Patient currentPatient;
-        private JTable diseaseTable;
+        private final AppointmentService appointmentService;
+        private final DoctorService doctorService;
+        
+        private LocalDate currentDay = LocalDate.now();
+        private JTextField dayField;
+        private JTable appointmentTable;
         private DefaultTableModel tableModel;
-    
-        public PatientDiseasePanel(MainFrame mainFrame) {
-            this.mainFrame = mainFrame;
-            this.diseaseService = new DiseaseService();
-            this.patientService = new PatientService();
         
+        // Background work; stale tasks are cancelled when superseded or the panel is hidden
+        private final BusyIndicator busyIndicator = new BusyIndicator();
+        private final TaskSlot loadTask = new TaskSlot(busyIndicator);
+        private final TaskSlot checkTask = new TaskSlot(busyIndicator);
+        private final WriteTasks writeTasks = new WriteTasks(busyIndicator);
+        
+        public AppointmentPanel(MainFrame mainFrame) {
+            this.mainFrame = mainFrame;
+            this.appointmentService = new AppointmentService();
+            this.doctorService = new DoctorService();
+            
             initializeUI();
+            
+            // Cancel in-flight queries when the user navigates away
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentHidden(ComponentEvent e) {
+                    loadTask.cancel();
+                    checkTask.cancel();
+                }
+            });
         }
-    
+        
         /**
          * Initialize the UI components
          */
         private void initializeUI() {
             setLayout(new BorderLayout());
             setBackground(ColorScheme.BACKGROUND);
-        
+            
+            // Create top panel with navigation and day selection
+            JPanel topPanel = new JPanel(new BorderLayout());
+            topPanel.setBackground(ColorScheme.BACKGROUND);
+            topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            
+            // Navigation buttons
+            JPanel navPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            navPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton dashboardButton = new AnimatedButton("Dashboard");
+            dashboardButton.addActionListener(e -> mainFrame.showDashboard());
+            
+            AnimatedButton patientsButton = new AnimatedButton("Patients");
+            patientsButton.addActionListener(e -> mainFrame.showPatientPanel());
+            
+            AnimatedButton logoutButton = new AnimatedButton("Logout");
+            logoutButton.addActionListener(e -> mainFrame.logout());
+            
+            navPanel.add(dashboardButton);
+            navPanel.add(patientsButton);
+            navPanel.add(logoutButton);
+            
+            // Day selection
+            JPanel dayPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            dayPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton previousButton = new AnimatedButton("<");
+            previousButton.addActionListener(e -> showDay(currentDay.minusDays(1)));
+            
+            dayField = new JTextField(10);
+            dayField.addActionListener(e -> showTypedDay());
+            
+            AnimatedButton nextButton = new AnimatedButton(">");
+            nextButton.addActionListener(e -> showDay(currentDay.plusDays(1)));
+            
+            AnimatedButton todayButton = new AnimatedButton("Today");
+            todayButton.addActionListener(e -> showDay(LocalDate.now()));
+            
+            dayPanel.add(previousButton);
+            dayPanel.add(dayField);
+            dayPanel.add(nextButton);
+            dayPanel.add(todayButton);
+            
+            topPanel.add(navPanel, BorderLayout.WEST);
+            topPanel.add(dayPanel, BorderLayout.EAST);
+            
             // Create title panel
-            JPanel titlePanel = new JPanel(new BorderLayout());
+            JPanel titlePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
             titlePanel.setBackground(ColorScheme.BACKGROUND);
-            titlePanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-            JLabel titleLabel = new JLabel("Patient Diseases");
+            titlePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+            
+            JLabel titleLabel = new JLabel("Appointments");
             titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
             titleLabel.setForeground(ColorScheme.TEXT);
-        
-            JLabel patientLabel = new JLabel();
-            patientLabel.setFont(new Font("Arial", Font.PLAIN, 16));
-            patientLabel.setForeground(ColorScheme.TEXT);
-        
-            titlePanel.add(titleLabel, BorderLayout.WEST);
-            titlePanel.add(patientLabel, BorderLayout.EAST);
-        
+            
+            titlePanel.add(titleLabel);
+            
             // Create button panel
             JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
             buttonPanel.setBackground(ColorScheme.BACKGROUND);
             buttonPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
-        
-            AnimatedButton addButton = new AnimatedButton("Add Disease");
-            addButton.addActionListener(e -> showAddDiseaseDialog());
-        
-            AnimatedButton removeButton = new AnimatedButton("Remove Disease");
-            removeButton.addActionListener(e -> {
-                int selectedRow = diseaseTable.getSelectedRow();
+            
+            AnimatedButton bookButton = new AnimatedButton("Book Appointment");
+            bookButton.addActionListener(e -> showBookAppointmentDialog(null, currentDay.atTime(9, 0),
+                    Appointment.DEFAULT_DURATION_MINUTES));
+            
+            AnimatedButton findSlotButton = new AnimatedButton("Find Free Slot");
+            findSlotButton.addActionListener(e -> showFindSlotDialog());
+            
+            AnimatedButton cancelButton = new AnimatedButton("Cancel Appointment");
+            cancelButton.addActionListener(e -> {
+                int selectedRow = appointmentTable.getSelectedRow();
                 if (selectedRow >= 0) {
-                    int patientDiseaseId = (int) tableModel.getValueAt(selectedRow, 0);
-                    removeDiseaseFromPatient(patientDiseaseId);
+                    int appointmentId = (int) tableModel.getValueAt(appointmentTable.convertRowIndexToModel(selectedRow), 0);
+                    cancelAppointment(appointmentId);
                 } else {
                     JOptionPane.showMessageDialog(this, 
-                        "Please select a disease to remove", 
+                        "Please select an appointment to cancel", 
                         "No Selection", JOptionPane.WARNING_MESSAGE);
                 }
             });
-        
-            AnimatedButton backButton = new AnimatedButton("Back to Patients");
-            backButton.addActionListener(e -> mainFrame.showPatientPanel());
-        
-            buttonPanel.add(addButton);
-            buttonPanel.add(removeButton);
-            buttonPanel.add(backButton);
-        
+            
+            AnimatedButton refreshButton = new AnimatedButton("Refresh");
+            refreshButton.addActionListener(e -> refreshData());
+            
+            buttonPanel.add(bookButton);
+            buttonPanel.add(findSlotButton);
+            buttonPanel.add(cancelButton);
+            buttonPanel.add(refreshButton);
+            buttonPanel.add(busyIndicator);
+            
             // Create table panel
             JPanel tablePanel = new JPanel(new BorderLayout());
             tablePanel.setBackground(ColorScheme.BACKGROUND);
             tablePanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
-        
+            
             // Create table model with columns
-            String[] columns = {"ID", "Disease", "Diagnosis Date", "Status", "Notes"};
-            tableModel = new DefaultTableModel(columns, 0) {
+            tableModel = new DefaultTableModel(TABLE_COLUMNS, 0) {
                 @Override
                 public boolean isCellEditable(int row, int column) {
                     return false; // Make table non-editable
                 }
-            
+                
                 @Override
                 public Class<?> getColumnClass(int columnIndex) {
-                    if (columnIndex == 0) {
-                        return Integer.class; // ID column is integer
+                    if (columnIndex == 0 || columnIndex == 2 || columnIndex == 3 || columnIndex == 4) {
+                        return Integer.class; // ID, duration and foreign key columns are integers
                     }
                     return String.class;
                 }
             };
-        
+            
             // Create table
-            diseaseTable = new CustomTable(tableModel);
-            diseaseTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        
+            appointmentTable = new CustomTable(tableModel);
+            appointmentTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            
             // Add table to scroll pane
-            JScrollPane scrollPane = new JScrollPane(diseaseTable);
+            JScrollPane scrollPane = new JScrollPane(appointmentTable);
             scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
-        
+            
             tablePanel.add(scrollPane, BorderLayout.CENTER);
-        
+            
+            // Stack navigation, title and buttons above the table
+            JPanel headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(ColorScheme.BACKGROUND);
+            headerPanel.add(topPanel, BorderLayout.NORTH);
+            headerPanel.add(titlePanel, BorderLayout.CENTER);
+            headerPanel.add(buttonPanel, BorderLayout.SOUTH);
+            
             // Add components to main panel
-            add(titlePanel, BorderLayout.NORTH);
-            add(buttonPanel, BorderLayout.NORTH);
+            add(headerPanel, BorderLayout.NORTH);
             add(tablePanel, BorderLayout.CENTER);
         }
-    
+        
         /**
-         * Set the current patient and load their diseases
+         * Reload the appointments of the day being shown
          */
-        public void setPatient(Patient patient) {
-            this.currentPatient = patient;
-        
-            // Update patient label
-            JLabel patientLabel = (JLabel) ((JPanel) getComponent(0)).getComponent(1);
-            patientLabel.setText("Patient: " + patient.getFirstName() + " " + patient.getLastName());
+        public void refreshData() {
+            showDay(currentDay);
+        }
         
-            // Load patient diseases
-            loadPatientDiseases();
+        /**
+         * Show the appointments of a day
+         */
+        private void showDay(LocalDate day) {
+            currentDay = day;
+            dayField.setText(DAY_FORMAT.format(day));
+            
+            // Clear existing data
+            tableModel.setRowCount(0);
+            
+            loadTask.submit(() -> appointmentService.getAppointmentsForDay(day),
+                appointments -> {
+                    // Build all rows first and hand them to the model in one batch
+                    Vector<Vector<Object>> rows = new Vector<>(appointments.size());
+                    for (Appointment appointment : appointments) {
+                        Vector<Object> row = new Vector<>(TABLE_COLUMNS.length);
+                        row.add(appointment.getAppointmentId());
+                        row.add(TIME_FORMAT.format(appointment.getAppointmentTime().toInstant().atZone(ZoneId.systemDefault())));
+                        row.add(appointment.getDurationMinutes());
+                        row.add(appointment.getPatientId());
+                        row.add(appointment.getDoctorId());
+                        row.add(appointment.getStatus());
+                        row.add(appointment.getPurpose());
+                        rows.add(row);
+                    }
+                    tableModel.setDataVector(rows, new Vector<>(Arrays.asList(TABLE_COLUMNS)));
+                },
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading appointments: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
         }
-    
+        
         /**
-         * Load diseases for the current patient
+         * Show the day typed into the day field
          */
-        private void loadPatientDiseases() {
+        private void showTypedDay() {
             try {
-                // Clear existing data
-                tableModel.setRowCount(0);
-            
-                // Get diseases for patient
-                List<Map<String, Object>> patientDiseases = diseaseService.getDiseasesForPatient(currentPatient.getPatientId());
-            
-                // Add diseases to table
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                for (Map<String, Object> record : patientDiseases) {
-                    Object[] row = {
-                        record.get("patientDiseaseId"),
-                        record.get("diseaseName"),
-                        dateFormat.format((Date) record.get("diagnosisDate")),
-                        record.get("status"),
-                        record.get("notes")
-                    };
-                    tableModel.addRow(row);
-                }
-            } catch (Exception e) {
+                showDay(LocalDate.parse(dayField.getText().trim(), DAY_FORMAT));
+            } catch (java.time.format.DateTimeParseException e) {
                 JOptionPane.showMessageDialog(this, 
-                    "Error loading patient diseases: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+                    "Invalid date format. Please use YYYY-MM-DD", 
+                    "Invalid Date", JOptionPane.ERROR_MESSAGE);
+                dayField.setText(DAY_FORMAT.format(currentDay));
             }
         }
-    
+        
         /**
-         * Show dialog to add a disease to the patient
+         * Show dialog to book an appointment, pre-filled with a doctor (may be
+         * null), start time and duration
          */
-        private void showAddDiseaseDialog() {
-            try {
-                // Get all diseases
-                List<Disease> diseases = diseaseService.getAllDiseases();
-            
-                if (diseases.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, 
-                        "No diseases available. Please add diseases first.", 
-                        "No Diseases", JOptionPane.WARNING_MESSAGE);
-                    return;
-                }
-            
-                // Create dialog
-                JDialog dialog = new JDialog(mainFrame, "Add Disease to Patient", true);
-                dialog.setSize(500, 400);
-                dialog.setLocationRelativeTo(mainFrame);
-                dialog.setLayout(new BorderLayout());
-            
-                // Create form panel
-                JPanel formPanel = new JPanel(new GridBagLayout());
-                formPanel.setBackground(ColorScheme.BACKGROUND);
-                formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-            
-                GridBagConstraints gbc = new GridBagConstraints();
-                gbc.insets = new Insets(5, 5, 5, 5);
-                gbc.anchor = GridBagConstraints.WEST;
+        private void showBookAppointmentDialog(Integer doctorId, LocalDateTime start, int durationMinutes) {
+            JDialog dialog = new JDialog(mainFrame, "Book Appointment", true);
+            dialog.setSize(450, 420);
+            dialog.setLocationRelativeTo(mainFrame);
+            dialog.setLayout(new BorderLayout());
             
-                // Disease
-                gbc.gridx = 0;
-                gbc.gridy = 0;
-                JLabel diseaseLabel = new JLabel("Disease:");
-                diseaseLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(diseaseLabel, gbc);
+            // Create form panel
+            JPanel formPanel = new JPanel(new GridBagLayout());
+            formPanel.setBackground(ColorScheme.BACKGROUND);
+            formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
             
-                gbc.gridx = 1;
-                JComboBox<Disease> diseaseComboBox = new JComboBox<>(diseases.toArray(new Disease[0]));
-                formPanel.add(diseaseComboBox, gbc);
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(5, 5, 5, 5);
+            gbc.anchor = GridBagConstraints.WEST;
             
-                // Status
+            JTextField patientIdField = new JTextField(10);
+            JTextField doctorIdField = new JTextField(doctorId == null ? "" : String.valueOf(doctorId), 10);
+            JTextField dateField = new JTextField(DAY_FORMAT.format(start), 10);
+            JTextField timeField = new JTextField(TIME_FORMAT.format(start), 10);
+            JTextField durationField = new JTextField(String.valueOf(durationMinutes), 10);
+            JTextField purposeField = new JTextField(20);
+            JTextArea notesArea = new JTextArea(4, 20);
+            
+            String[] labels = {"Patient ID:", "Doctor ID:", "Date (YYYY-MM-DD):", "Time (HH:MM):", "Minutes:", "Purpose:", "Notes:"};
+            JComponent[] fields = {patientIdField, doctorIdField, dateField, timeField, durationField,
+                    purposeField, new JScrollPane(notesArea)};
+            for (int i = 0; i < labels.length; i++) {
                 gbc.gridx = 0;
-                gbc.gridy = 1;
-                JLabel statusLabel = new JLabel("Status:");
-                statusLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(statusLabel, gbc);
-            
+                gbc.gridy = i;
+                JLabel label = new JLabel(labels[i]);
+                label.setForeground(ColorScheme.TEXT);
+                formPanel.add(label, gbc);
+                
                 gbc.gridx = 1;
-                String[] statuses = {"Active", "Recovered", "Chronic", "In Treatment"};
-                JComboBox<String> statusComboBox = new JComboBox<>(statuses);
-                formPanel.add(statusComboBox, gbc);
+                formPanel.add(fields[i], gbc);
+            }
             
-                // Notes
-                gbc.gridx = 0;
-                gbc.gridy = 2;
-                JLabel notesLabel = new JLabel("Notes:");
-                notesLabel.setForeground(ColorScheme.TEXT);
-                formPanel.add(notesLabel, gbc);
+            // Availability of the doctor for the entered slot
+            gbc.gridx = 1;
+            gbc.gridy = labels.length;
+            JLabel availabilityLabel = new JLabel(" ");
+            availabilityLabel.setForeground(ColorScheme.TEXT);
+            formPanel.add(availabilityLabel, gbc);
             
-                gbc.gridx = 1;
-                JTextArea notesArea = new JTextArea(5, 20);
-                JScrollPane notesScrollPane = new JScrollPane(notesArea);
-                formPanel.add(notesScrollPane, gbc);
+            // Button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
             
-                // Button panel
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-                buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            AnimatedButton checkButton = new AnimatedButton("Check Availability");
+            checkButton.addActionListener(e -> {
+                try {
+                    Appointment appointment = readAppointment(patientIdField, doctorIdField, dateField,
+                            timeField, durationField, purposeField, notesArea);
+                    availabilityLabel.setText("Checking...");
+                    checkTask.submit(() -> appointmentService.isDoctorAvailable(appointment.getDoctorId(),
+                            appointment.getAppointmentTime(), appointment.getDurationMinutes()),
+                        available -> availabilityLabel.setText(available
+                            ? "The doctor is free at that time"
+                            : "The doctor is already booked at that time"),
+                        ex -> availabilityLabel.setText("Error: " + ex.getMessage()));
+                } catch (Exception ex) {
+                    availabilityLabel.setText(ex.getMessage());
+                }
+            });
             
-                AnimatedButton saveButton = new AnimatedButton("Save");
-                saveButton.addActionListener(new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        try {
-                            // Get selected disease
-                            Disease selectedDisease = (Disease) diseaseComboBox.getSelectedItem();
-                            String status = (String) statusComboBox.getSelectedItem();
-                            String notes = notesArea.getText().trim();
-                        
-                            // Create patient disease
-                            PatientDisease patientDisease = new PatientDisease(
-                                currentPatient.getPatientId(),
-                                selectedDisease.getDiseaseId(),
-                                notes,
-                                status
-                            );
-                        
-                            // Save patient disease
-                            diseaseService.addDiseaseToPatient(patientDisease);
-                        
-                            // Close dialog
+            AnimatedButton saveButton = new AnimatedButton("Save");
+            saveButton.addActionListener(e -> {
+                try {
+                    Appointment appointment = readAppointment(patientIdField, doctorIdField, dateField,
+                            timeField, durationField, purposeField, notesArea);
+                    
+                    // Save appointment in the background
+                    saveButton.setEnabled(false);
+                    writeTasks.submit(() -> appointmentService.scheduleAppointment(appointment),
+                        saved -> {
                             dialog.dispose();
-                        
-                            // Refresh data
-                            loadPatientDiseases();
-                        
-                            // Show success message
+                            showDay(appointment.getAppointmentTime().toInstant()
+                                    .atZone(ZoneId.systemDefault()).toLocalDate());
                             JOptionPane.showMessageDialog(mainFrame, 
-                                "Disease added to patient successfully", 
+                                "Appointment booked successfully", 
                                 "Success", JOptionPane.INFORMATION_MESSAGE);
-                        } catch (Exception ex) {
+                        },
+                        ex -> {
+                            saveButton.setEnabled(true);
                             JOptionPane.showMessageDialog(dialog, 
-                                "Error adding disease to patient: " + ex.getMessage(), 
+                                "Error booking appointment: " + ex.getMessage(), 
                                 "Error", JOptionPane.ERROR_MESSAGE);
-                        }
-                    }
-                });
+                        });
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(dialog, 
+                        ex.getMessage(), 
+                        "Invalid Appointment", JOptionPane.ERROR_MESSAGE);
+                }
+            });
             
-                AnimatedButton cancelButton = new AnimatedButton("Cancel");
-                cancelButton.addActionListener(e -> dialog.dispose());
+            AnimatedButton cancelButton = new AnimatedButton("Cancel");
+            cancelButton.addActionListener(e -> dialog.dispose());
             
-                buttonPanel.add(saveButton);
-                buttonPanel.add(cancelButton);
+            buttonPanel.add(checkButton);
+            buttonPanel.add(saveButton);
+            buttonPanel.add(cancelButton);
             
-                // Add panels to dialog
-                dialog.add(formPanel, BorderLayout.CENTER);
-                dialog.add(buttonPanel, BorderLayout.SOUTH);
+            // Add panels to dialog
+            dialog.add(formPanel, BorderLayout.CENTER);
+            dialog.add(buttonPanel, BorderLayout.SOUTH);
             
-                // Show dialog
-                dialog.setVisible(true);
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading diseases: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // Show dialog
+            dialog.setVisible(true);
         }
-    
+        
         /**
-         * Remove a disease from the patient
+         * Show dialog to find the earliest free slots of a specialization over
+         * the next week, and book one of them
          */
-        private void removeDiseaseFromPatient(int patientDiseaseId) {
-            try {
-                // Confirm deletion
-                int confirm = JOptionPane.showConfirmDialog(this, 
-                    "Are you sure you want to remove this disease from the patient?", 
-                    "Confirm Removal", JOptionPane.YES_NO_OPTION);
-            
-                if (confirm == JOptionPane.YES_OPTION) {
-                    // Remove disease
-                    boolean success = diseaseService.removeDiseaseFromPatient(patientDiseaseId);
-                
-                    if (success) {
-                        // Refresh data
-                        loadPatientDiseases();
-                    
-                        // Show success message
-                        JOptionPane.showMessageDialog(this, 
-                            "Disease removed from patient successfully", 
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
+        private void showFindSlotDialog() {
+            checkTask.submit(doctorService::getSpecializations,
+                specializations -> {
+                    if (specializations.isEmpty()) {
                         JOptionPane.showMessageDialog(this, 
-                            "Failed to remove disease from patient", 
-                            "Error", JOptionPane.ERROR_MESSAGE);
+                            "No doctors available.", 
+                            "No Doctors", JOptionPane.WARNING_MESSAGE);
+                        return;
                     }
+                    showFindSlotDialog(specializations);
+                },
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error loading specializations: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
+        private void showFindSlotDialog(List<String> specializations) {
+            JDialog dialog = new JDialog(mainFrame, "Find Free Slot", true);
+            dialog.setSize(550, 450);
+            dialog.setLocationRelativeTo(mainFrame);
+            dialog.setLayout(new BorderLayout());
+            
+            // Search criteria
+            JPanel criteriaPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            criteriaPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            JComboBox<String> specializationComboBox = new JComboBox<>(specializations.toArray(new String[0]));
+            JTextField durationField = new JTextField(String.valueOf(Appointment.DEFAULT_DURATION_MINUTES), 4);
+            JLabel minutesLabel = new JLabel("Minutes:");
+            minutesLabel.setForeground(ColorScheme.TEXT);
+            AnimatedButton searchButton = new AnimatedButton("Search");
+            
+            criteriaPanel.add(specializationComboBox);
+            criteriaPanel.add(minutesLabel);
+            criteriaPanel.add(durationField);
+            criteriaPanel.add(searchButton);
+            
+            // Results
+            List<DoctorSlot> slots = new ArrayList<>();
+            DefaultTableModel slotModel = new DefaultTableModel(new String[] {"Date", "Time", "Doctor"}, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false; // Make table non-editable
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error removing disease from patient: " + e.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            };
+            JTable slotTable = new CustomTable(slotModel);
+            slotTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            JScrollPane scrollPane = new JScrollPane(slotTable);
+            scrollPane.getViewport().setBackground(ColorScheme.BACKGROUND);
+            
+            searchButton.addActionListener(e -> {
+                int duration;
+                try {
+                    duration = Integer.parseInt(durationField.getText().trim());
+                } catch (NumberFormatException ex) {
+                    JOptionPane.showMessageDialog(dialog, 
+                        "Minutes must be a number", 
+                        "Invalid Duration", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                String specialization = (String) specializationComboBox.getSelectedItem();
+                Date from = new Date();
+                Date to = Date.from(LocalDate.now().plusDays(SLOT_SEARCH_DAYS + 1L)
+                        .atStartOfDay(ZoneId.systemDefault()).toInstant());
+                
+                slotModel.setRowCount(0);
+                slots.clear();
+                checkTask.submit(() -> appointmentService.findEarliestSlots(specialization, from, to,
+                        duration, SLOT_SEARCH_RESULTS),
+                    found -> {
+                        slots.addAll(found);
+                        for (DoctorSlot slot : found) {
+                            java.time.ZonedDateTime start = slot.getStart().toInstant().atZone(ZoneId.systemDefault());
+                            slotModel.addRow(new Object[] {DAY_FORMAT.format(start), TIME_FORMAT.format(start),
+                                    slot.getDoctor().toString()});
+                        }
+                        if (found.isEmpty()) {
+                            JOptionPane.showMessageDialog(dialog, 
+                                "No free slots in the next " + SLOT_SEARCH_DAYS + " days", 
+                                "No Slots", JOptionPane.INFORMATION_MESSAGE);
+                        }
+                    },
+                    ex -> JOptionPane.showMessageDialog(dialog, 
+                        "Error finding free slots: " + ex.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE));
+            });
+            
+            // Button panel
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            buttonPanel.setBackground(ColorScheme.BACKGROUND);
+            
+            AnimatedButton bookButton = new AnimatedButton("Book Selected");
+            bookButton.addActionListener(e -> {
+                int selectedRow = slotTable.getSelectedRow();
+                if (selectedRow < 0) {
+                    JOptionPane.showMessageDialog(dialog, 
+                        "Please select a slot to book", 
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                DoctorSlot slot = slots.get(slotTable.convertRowIndexToModel(selectedRow));
+                dialog.dispose();
+                showBookAppointmentDialog(slot.getDoctor().getDoctorId(),
+                        LocalDateTime.ofInstant(slot.getStart().toInstant(), ZoneId.systemDefault()),
+                        slot.getDurationMinutes());
+            });
+            
+            AnimatedButton closeButton = new AnimatedButton("Close");
+            closeButton.addActionListener(e -> dialog.dispose());
+            
+            buttonPanel.add(bookButton);
+            buttonPanel.add(closeButton);
+            
+            // Add panels to dialog
+            dialog.add(criteriaPanel, BorderLayout.NORTH);
+            dialog.add(scrollPane, BorderLayout.CENTER);
+            dialog.add(buttonPanel, BorderLayout.SOUTH);
+            
+            // Show dialog
+            dialog.setVisible(true);
+        }
+        
+        /**
+         * Build an appointment from the booking form, or throw with a message
+         * naming the field that could not be read
+         */
+        private Appointment readAppointment(JTextField patientIdField, JTextField doctorIdField, JTextField dateField,
+                JTextField timeField, JTextField durationField, JTextField purposeField, JTextArea notesArea)
+                throws Exception {
+            int patientId = parseNumber(patientIdField, "Patient ID");
+            int doctorId = parseNumber(doctorIdField, "Doctor ID");
+            int duration = parseNumber(durationField, "Minutes");
+            
+            LocalDateTime start;
+            try {
+                start = LocalDate.parse(dateField.getText().trim(), DAY_FORMAT)
+                        .atTime(java.time.LocalTime.parse(timeField.getText().trim(), TIME_FORMAT));
+            } catch (java.time.format.DateTimeParseException e) {
+                throw new Exception("Invalid date or time. Please use YYYY-MM-DD and HH:MM");
+            }
+            
+            Appointment appointment = new Appointment(patientId, doctorId,
+                    Date.from(start.atZone(ZoneId.systemDefault()).toInstant()), duration,
+                    purposeField.getText().trim());
+            appointment.setNotes(notesArea.getText().trim());
+            appointmentService.validateAppointment(appointment);
+            return appointment;
+        }
+        
+        private int parseNumber(JTextField field, String name) throws Exception {
+            try {
+                return Integer.parseInt(field.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new Exception(name + " must be a number");
+            }
+        }
+        
+        /**
+         * Cancel an appointment, freeing the doctor's slot
+         */
+        private void cancelAppointment(int appointmentId) {
+            // Confirm cancellation
+            int confirm = JOptionPane.showConfirmDialog(this, 
+                "Are you sure you want to cancel this appointment?", 
+                "Confirm Cancellation", JOptionPane.YES_NO_OPTION);
+            
+            if (confirm == JOptionPane.YES_OPTION) {
+                writeTasks.submit(() -> appointmentService.cancelAppointment(appointmentId),
+                    success -> {
+                        if (success) {
+                            refreshData();
+                        } else {
+                            JOptionPane.showMessageDialog(this, 
+                                "Appointment not found", 
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    e -> JOptionPane.showMessageDialog(this, 
+                        "Error cancelling appointment: " + e.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE));
             }
         }
     }
@@ -2963,9 +11469,14 @@ public class HospitalManagementSystem {
      */
     static class AdminPanel extends AnimatedPanel {
         private final MainFrame mainFrame;
+        private final DataExporter dataExporter;
+        
+        private final BusyIndicator busyIndicator = new BusyIndicator();
+        private final TaskSlot exportTask = new TaskSlot(busyIndicator);
         
         public AdminPanel(MainFrame mainFrame) {
             this.mainFrame = mainFrame;
+            this.dataExporter = new DataExporter();
             
             // Set layout
             setLayout(new BorderLayout());
@@ -3017,20 +11528,79 @@ public class HospitalManagementSystem {
             adminLabel.setForeground(ColorScheme.TEXT);
             adminLabel.setHorizontalAlignment(SwingConstants.CENTER);
             
-            // Admin content - placeholder for now
-            JPanel adminContent = new JPanel(new GridLayout(2, 2, 20, 20));
+            // Admin content
+            JPanel adminContent = new JPanel(new FlowLayout(FlowLayout.LEFT));
             adminContent.setBackground(ColorScheme.BACKGROUND);
+            adminContent.add(createExportPanel());
             
             // Add components to content panel
             contentPanel.add(adminLabel, BorderLayout.NORTH);
             contentPanel.add(adminContent, BorderLayout.CENTER);
             
+            // Stack navigation and title above the content
+            JPanel headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(ColorScheme.BACKGROUND);
+            headerPanel.add(topPanel, BorderLayout.NORTH);
+            headerPanel.add(titlePanel, BorderLayout.SOUTH);
+            
             // Add panels to main panel
-            add(topPanel, BorderLayout.NORTH);
-            add(titlePanel, BorderLayout.NORTH);
+            add(headerPanel, BorderLayout.NORTH);
             add(contentPanel, BorderLayout.CENTER);
         }
         
+        /**
+         * Create the data export controls
+         */
+        private JPanel createExportPanel() {
+            JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            exportPanel.setBackground(ColorScheme.BACKGROUND);
+            exportPanel.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(50, 50, 50)), "Export Data",
+                TitledBorder.LEFT, TitledBorder.TOP, null, ColorScheme.TEXT));
+            
+            JComboBox<DataExporter.Dataset> datasetComboBox = new JComboBox<>(DataExporter.Dataset.values());
+            JComboBox<DataExporter.Format> formatComboBox = new JComboBox<>(DataExporter.Format.values());
+            
+            JCheckBox gzipCheckBox = new JCheckBox("Gzip");
+            gzipCheckBox.setBackground(ColorScheme.BACKGROUND);
+            gzipCheckBox.setForeground(ColorScheme.TEXT);
+            
+            AnimatedButton exportButton = new AnimatedButton("Export");
+            exportButton.addActionListener(e -> exportData(
+                (DataExporter.Dataset) datasetComboBox.getSelectedItem(),
+                (DataExporter.Format) formatComboBox.getSelectedItem(),
+                gzipCheckBox.isSelected()));
+            
+            exportPanel.add(datasetComboBox);
+            exportPanel.add(formatComboBox);
+            exportPanel.add(gzipCheckBox);
+            exportPanel.add(exportButton);
+            exportPanel.add(busyIndicator);
+            return exportPanel;
+        }
+        
+        /**
+         * Export a table to a file chosen by the user
+         */
+        private void exportData(DataExporter.Dataset dataset, DataExporter.Format format, boolean gzip) {
+            String fileName = dataset.name().toLowerCase(Locale.ROOT) + "." + format.getExtension() + (gzip ? ".gz" : "");
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Export " + dataset);
+            chooser.setSelectedFile(new java.io.File(fileName));
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            
+            Path file = chooser.getSelectedFile().toPath();
+            exportTask.submit(() -> dataExporter.export(dataset, format, gzip, file),
+                rows -> JOptionPane.showMessageDialog(this, 
+                    String.format("Exported %,d rows to %s", rows, file), 
+                    "Export", JOptionPane.INFORMATION_MESSAGE),
+                e -> JOptionPane.showMessageDialog(this, 
+                    "Error exporting data: " + e.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE));
+        }
+        
         /**
          * Refresh admin data
          */
@@ -1,3 +1,6 @@
+-- Databases created from an earlier version of this script are brought up
+-- to date by hospital_management_upgrade.sql
+
 -- Create database
 CREATE DATABASE IF NOT EXISTS hospital_management;
 USE hospital_management;
@@ -22,7 +25,9 @@ CREATE TABLE IF NOT EXISTS patients (
     contact_number VARCHAR(20),
     email VARCHAR(100),
     address TEXT,
-    registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Supports keyset pagination on (last_name, first_name, patient_id)
+    INDEX idx_patients_name (last_name, first_name, patient_id)
 );
 
 -- Create doctors table
@@ -34,7 +39,9 @@ CREATE TABLE IF NOT EXISTS doctors (
     contact_number VARCHAR(20),
     email VARCHAR(100),
     user_id INT,
-    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE SET NULL
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE SET NULL,
+    -- Supports slot searches across a specialization
+    INDEX idx_doctors_specialization (specialization)
 );
 
 -- Create medical_records table
@@ -47,7 +54,9 @@ CREATE TABLE IF NOT EXISTS medical_records (
     treatment TEXT,
     notes TEXT,
     FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE,
-    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE
+    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE,
+    -- Supports keyset pagination of a patient's timeline on (record_date, record_id)
+    INDEX idx_medical_records_patient_date (patient_id, record_date, record_id)
 );
 
 -- Create appointments table
@@ -56,11 +65,20 @@ CREATE TABLE IF NOT EXISTS appointments (
     patient_id INT NOT NULL,
     doctor_id INT NOT NULL,
     appointment_time DATETIME NOT NULL,
+    duration_minutes INT NOT NULL DEFAULT 30,
     status VARCHAR(20) NOT NULL,
     purpose VARCHAR(255),
     notes TEXT,
+    -- 1 while the appointment holds its slot; NULL once cancelled so the slot can be rebooked
+    booked TINYINT GENERATED ALWAYS AS (IF(status = 'Cancelled', NULL, 1)) VIRTUAL,
     FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE,
-    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE
+    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE,
+    -- Supports keyset pagination of a patient's history on (appointment_time, appointment_id)
+    INDEX idx_appointments_patient_time (patient_id, appointment_time, appointment_id),
+    -- One booked appointment per doctor and start time; also serves per-doctor schedule and overlap queries
+    UNIQUE KEY uq_appointments_doctor_slot (doctor_id, appointment_time, booked),
+    -- Supports day and range listings across all doctors
+    INDEX idx_appointments_time (appointment_time)
 );
 
 -- Insert default admin user (username: admin, password: admin)
@@ -121,5 +139,7 @@ CREATE TABLE IF NOT EXISTS patient_diseases (
     notes TEXT,
     status VARCHAR(50),
     FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE,
-    FOREIGN KEY (disease_id) REFERENCES diseases(disease_id) ON DELETE CASCADE
+    FOREIGN KEY (disease_id) REFERENCES diseases(disease_id) ON DELETE CASCADE,
+    -- Supports keyset pagination of a patient's history on (diagnosis_date, patient_disease_id)
+    INDEX idx_patient_diseases_patient_date (patient_id, diagnosis_date, patient_disease_id)
 );
@@ -0,0 +1,84 @@
+-- Upgrade a database created from an earlier hospital_management.sql.
+-- New installations get all of this from hospital_management.sql itself.
+-- Every step checks information_schema first, so the script can be run
+-- again after a partial upgrade.
+USE hospital_management;
+
+DROP PROCEDURE IF EXISTS hms_add_column;
+DROP PROCEDURE IF EXISTS hms_add_index;
+DROP PROCEDURE IF EXISTS hms_drop_index;
+
+DELIMITER //
+
+CREATE PROCEDURE hms_add_column(IN p_table VARCHAR(64), IN p_column VARCHAR(64), IN p_definition TEXT)
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = p_table AND COLUMN_NAME = p_column) THEN
+        SET @hms_ddl = CONCAT('ALTER TABLE ', p_table, ' ADD COLUMN ', p_column, ' ', p_definition);
+        PREPARE ddl FROM @hms_ddl;
+        EXECUTE ddl;
+        DEALLOCATE PREPARE ddl;
+    END IF;
+END //
+
+CREATE PROCEDURE hms_add_index(IN p_table VARCHAR(64), IN p_index VARCHAR(64), IN p_definition TEXT)
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = p_table AND INDEX_NAME = p_index) THEN
+        SET @hms_ddl = CONCAT('ALTER TABLE ', p_table, ' ADD ', p_definition);
+        PREPARE ddl FROM @hms_ddl;
+        EXECUTE ddl;
+        DEALLOCATE PREPARE ddl;
+    END IF;
+END //
+
+CREATE PROCEDURE hms_drop_index(IN p_table VARCHAR(64), IN p_index VARCHAR(64))
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = p_table AND INDEX_NAME = p_index) THEN
+        SET @hms_ddl = CONCAT('ALTER TABLE ', p_table, ' DROP INDEX ', p_index);
+        PREPARE ddl FROM @hms_ddl;
+        EXECUTE ddl;
+        DEALLOCATE PREPARE ddl;
+    END IF;
+END //
+
+DELIMITER ;
+
+-- Keyset pagination of the patient list
+CALL hms_add_index('patients', 'idx_patients_name',
+    'INDEX idx_patients_name (last_name, first_name, patient_id)');
+
+-- Appointment durations and day and range listings
+CALL hms_add_column('appointments', 'duration_minutes', 'INT NOT NULL DEFAULT 30 AFTER appointment_time');
+CALL hms_add_index('appointments', 'idx_appointments_time',
+    'INDEX idx_appointments_time (appointment_time)');
+
+-- Slot searches across a specialization
+CALL hms_add_index('doctors', 'idx_doctors_specialization',
+    'INDEX idx_doctors_specialization (specialization)');
+
+-- One booked appointment per doctor and start time. Fails if two
+-- non-cancelled appointments of a doctor already share a start time;
+-- cancel or move one of them and run the script again. The unique key
+-- also serves the doctor_id foreign key, so it is added before the old
+-- (doctor_id, appointment_time) index is dropped.
+CALL hms_add_column('appointments', 'booked',
+    'TINYINT GENERATED ALWAYS AS (IF(status = ''Cancelled'', NULL, 1)) VIRTUAL AFTER notes');
+CALL hms_add_index('appointments', 'uq_appointments_doctor_slot',
+    'UNIQUE KEY uq_appointments_doctor_slot (doctor_id, appointment_time, booked)');
+CALL hms_drop_index('appointments', 'idx_appointments_doctor_time');
+
+-- Keyset pagination of a patient's medical record timeline
+CALL hms_add_index('medical_records', 'idx_medical_records_patient_date',
+    'INDEX idx_medical_records_patient_date (patient_id, record_date, record_id)');
+
+-- Keyset pagination of a patient's history
+CALL hms_add_index('appointments', 'idx_appointments_patient_time',
+    'INDEX idx_appointments_patient_time (patient_id, appointment_time, appointment_id)');
+CALL hms_add_index('patient_diseases', 'idx_patient_diseases_patient_date',
+    'INDEX idx_patient_diseases_patient_date (patient_id, diagnosis_date, patient_disease_id)');
+
+DROP PROCEDURE hms_add_column;
+DROP PROCEDURE hms_add_index;
+DROP PROCEDURE hms_drop_index;